@@ -0,0 +1,111 @@
+package ru.andart.todoops.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourceRegion;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+import org.springframework.http.converter.ResourceRegionHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+/**
+ * Binds the attachment settings and makes Spring MVC stream {@link Resource} bodies through channels:
+ * <ul>
+ *     <li>a {@code Resource} request body is the request stream itself (the default converter reads it into a byte
+ *     array unless the parameter is declared as {@code InputStreamResource}, which the generated API does not);</li>
+ *     <li>file-backed response bodies, whole or a {@code Range} of them, are written with
+ *     {@link FileChannel#transferTo} instead of being copied through an input stream.</li>
+ * </ul>
+ * Range requests themselves (206, {@code Content-Range}, 416) are handled by Spring MVC for any {@code Resource}.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(AttachmentProperties.class)
+public class AttachmentConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.replaceAll(converter -> {
+            if (converter instanceof ResourceRegionHttpMessageConverter) {
+                return new ChannelResourceRegionHttpMessageConverter();
+            }
+            if (converter instanceof ResourceHttpMessageConverter) {
+                return new ChannelResourceHttpMessageConverter();
+            }
+            return converter;
+        });
+    }
+
+    private static void transfer(Resource resource, long position, long count, HttpOutputMessage outputMessage)
+            throws IOException {
+        try (FileChannel file = FileChannel.open(resource.getFile().toPath())) {
+            WritableByteChannel target = Channels.newChannel(outputMessage.getBody());
+            long sent = 0;
+            while (sent < count) {
+                long transferred = file.transferTo(position + sent, count - sent, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                sent += transferred;
+            }
+        }
+    }
+
+    /**
+     * Reads {@code Resource} bodies as streams and writes files with {@code transferTo}.
+     */
+    static class ChannelResourceHttpMessageConverter extends ResourceHttpMessageConverter {
+
+        ChannelResourceHttpMessageConverter() {
+            super(true);
+        }
+
+        @Override
+        protected Resource readInternal(Class<? extends Resource> clazz, HttpInputMessage inputMessage)
+                throws IOException {
+            return new InputStreamResource(inputMessage.getBody());
+        }
+
+        @Override
+        protected void writeContent(Resource resource, HttpOutputMessage outputMessage) throws IOException {
+            if (!resource.isFile()) {
+                super.writeContent(resource, outputMessage);
+                return;
+            }
+            transfer(resource, 0, resource.contentLength(), outputMessage);
+        }
+    }
+
+    /**
+     * Writes a single range of a file with {@code transferTo}; several ranges (multipart) are left to the default.
+     */
+    static class ChannelResourceRegionHttpMessageConverter extends ResourceRegionHttpMessageConverter {
+
+        @Override
+        protected void writeResourceRegion(ResourceRegion region, HttpOutputMessage outputMessage)
+                throws IOException {
+            Resource resource = region.getResource();
+            if (!resource.isFile()) {
+                super.writeResourceRegion(region, outputMessage);
+                return;
+            }
+            long length = resource.contentLength();
+            long start = region.getPosition();
+            long end = Math.min(start + region.getCount(), length) - 1;
+            HttpHeaders headers = outputMessage.getHeaders();
+            headers.add(HttpHeaders.CONTENT_RANGE, "bytes " + start + '-' + end + '/' + length);
+            headers.setContentLength(end - start + 1);
+            transfer(resource, start, end - start + 1, outputMessage);
+        }
+    }
+}
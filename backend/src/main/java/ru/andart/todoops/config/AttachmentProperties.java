@@ -0,0 +1,17 @@
+package ru.andart.todoops.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Attachment settings ({@code todoops.attachments.*}).
+ *
+ * @param dir     directory of {@code LocalBlobStore}
+ * @param maxSize largest file accepted
+ */
+@ConfigurationProperties(prefix = "todoops.attachments")
+public record AttachmentProperties(
+        String dir,
+        DataSize maxSize
+) {
+}
@@ -1,12 +1,16 @@
 package ru.andart.todoops.config;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import ru.andart.todoops.entity.TaskEntity;
 import ru.andart.todoops.generated.model.TaskStatus;
+import ru.andart.todoops.repository.TaskCalendarRepository;
+import ru.andart.todoops.repository.TaskCounterRepository;
+import ru.andart.todoops.repository.TaskReminderRepository;
 import ru.andart.todoops.repository.TaskRepository;
 
 import java.time.OffsetDateTime;
@@ -16,16 +20,30 @@ import java.util.List;
 /**
  * Creates default example tasks when the application runs with profile {@code functionTest}.
  * Runs after the application context is ready.
+ * Disabled with {@code todoops.data-initializer.enabled=false} (profile {@code fast-start}), which also skips
+ * the {@code count()} probe; a property is used instead of a profile so the switch survives AOT processing.
  */
 @Component
 @Profile("!functionTest")
 @RequiredArgsConstructor
 public class DataInitializer implements ApplicationRunner {
+    /**
+     * Tenant of requests without an {@code X-Tenant-Id} header.
+     */
+    private static final long DEFAULT_TENANT_ID = 0L;
+
     private final TaskRepository taskRepository;
+    private final TaskCalendarRepository taskCalendarRepository;
+    private final TaskCounterRepository taskCounterRepository;
+    private final TaskReminderRepository taskReminderRepository;
+    private final ReminderProperties reminderProperties;
+
+    @Value("${todoops.data-initializer.enabled:true}")
+    private boolean enabled;
 
     @Override
     public void run(ApplicationArguments args) {
-        if (taskRepository.count() > 0) {
+        if (!enabled || taskRepository.count() > 0) {
             return;
         }
         OffsetDateTime now = OffsetDateTime.now();
@@ -106,6 +124,7 @@ public class DataInitializer implements ApplicationRunner {
                 dueDate = days >= 0 ? now.plusDays(days) : now.minusDays(-days);
             }
             examples.add(TaskEntity.builder()
+                    .tenantId(DEFAULT_TENANT_ID)
                     .title(title)
                     .description(description)
                     .status(status)
@@ -115,5 +134,9 @@ public class DataInitializer implements ApplicationRunner {
         }
 
         taskRepository.saveAll(examples);
+        // saveAll bypasses TaskService and its mutation listeners
+        taskCalendarRepository.rebuildRollup(DEFAULT_TENANT_ID);
+        taskCounterRepository.reconcile();
+        taskReminderRepository.rebuild(DEFAULT_TENANT_ID, reminderProperties.lead());
     }
 }
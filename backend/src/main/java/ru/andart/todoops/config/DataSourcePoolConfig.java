@@ -0,0 +1,41 @@
+package ru.andart.todoops.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configures the Hikari connection pool size.
+ * Driver-level settings (statement caching, batched inserts, leak detection) live in application.properties.
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(DataSourcePoolProperties.class)
+public class DataSourcePoolConfig {
+
+    /**
+     * Applies the derived pool size to the Hikari datasource before the pool is started.
+     */
+    @Bean
+    public static BeanPostProcessor hikariPoolSizePostProcessor(ObjectProvider<DataSourcePoolProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    int cpus = Runtime.getRuntime().availableProcessors();
+                    int poolSize = properties.getObject().resolvePoolSize(cpus);
+                    dataSource.setMaximumPoolSize(poolSize);
+                    if (dataSource.getMinimumIdle() > poolSize) {
+                        dataSource.setMinimumIdle(poolSize);
+                    }
+                    log.info("Hikari pool {}: maximumPoolSize={} (cpus={})", dataSource.getPoolName(), poolSize, cpus);
+                }
+                return bean;
+            }
+        };
+    }
+}
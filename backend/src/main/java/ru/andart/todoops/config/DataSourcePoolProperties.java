@@ -0,0 +1,46 @@
+package ru.andart.todoops.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Connection pool sizing settings ({@code todoops.datasource.pool.*}).
+ *
+ * @param size                  explicit pool size; {@code 0} derives it from CPU and replica count
+ * @param maxServerConnections  Postgres connections the backend may use across all replicas
+ * @param replicas              maximum number of backend replicas sharing the Postgres instance
+ * @param connectionsPerCpu     pool connections per available CPU on the pod
+ * @param minSize               lower bound for the derived pool size
+ */
+@ConfigurationProperties(prefix = "todoops.datasource.pool")
+public record DataSourcePoolProperties(
+        int size,
+        int maxServerConnections,
+        int replicas,
+        int connectionsPerCpu,
+        int minSize
+) {
+
+    /**
+     * Returns the pool size for a pod with the given number of CPUs.
+     * The CPU-based size is capped by this replica's share of {@code maxServerConnections},
+     * so that all replicas together never exceed Postgres {@code max_connections}.
+     *
+     * @param availableProcessors CPUs visible to the JVM
+     * @return maximum pool size
+     * @throws IllegalStateException if {@code minSize} is above the replica share, so the replicas together could
+     *                               exceed {@code maxServerConnections}
+     */
+    public int resolvePoolSize(int availableProcessors) {
+        if (size > 0) {
+            return size;
+        }
+        int byCpu = availableProcessors * connectionsPerCpu + 1;
+        int byServerShare = maxServerConnections / Math.max(replicas, 1);
+        if (minSize > byServerShare) {
+            throw new IllegalStateException(("Pool min size %d for %d replicas exceeds %d server connections;"
+                    + " lower DB_POOL_MIN_SIZE or DB_POOL_REPLICAS, or raise DB_MAX_SERVER_CONNECTIONS")
+                    .formatted(minSize, replicas, maxServerConnections));
+        }
+        return Math.max(minSize, Math.min(byCpu, byServerShare));
+    }
+}
@@ -0,0 +1,12 @@
+package ru.andart.todoops.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Binds the on-demand JDK Flight Recorder settings (see {@code FlightRecorderEndpoint}).
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(FlightRecorderProperties.class)
+public class FlightRecorderConfig {
+}
@@ -0,0 +1,27 @@
+package ru.andart.todoops.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * On-demand JDK Flight Recorder settings ({@code todoops.jfr.*}, see {@code FlightRecorderEndpoint}).
+ *
+ * @param settings        JFR configuration: {@code default} (about 1% overhead) or {@code profile} (more events, a
+ *                        few percent)
+ * @param defaultDuration duration of a recording started without one
+ * @param maxDuration     longest duration a recording may be started with
+ * @param maxSize         recorded data kept at most; older chunks are dropped beyond it
+ * @param directory       where the {@code .jfr} file is written (the previous one is replaced)
+ */
+@ConfigurationProperties(prefix = "todoops.jfr")
+public record FlightRecorderProperties(
+        String settings,
+        Duration defaultDuration,
+        Duration maxDuration,
+        DataSize maxSize,
+        Path directory
+) {
+}
@@ -0,0 +1,143 @@
+package ru.andart.todoops.config;
+
+import graphql.GraphQLContext;
+import graphql.analysis.FieldComplexityEnvironment;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import graphql.execution.CoercedVariables;
+import graphql.language.IntValue;
+import graphql.language.StringValue;
+import graphql.language.Value;
+import graphql.schema.Coercing;
+import graphql.schema.CoercingParseLiteralException;
+import graphql.schema.CoercingParseValueException;
+import graphql.schema.CoercingSerializeException;
+import graphql.schema.GraphQLScalarType;
+import graphql.schema.GraphQLTypeUtil;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.graphql.execution.RuntimeWiringConfigurer;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * Scalars and query limits of the GraphQL endpoint ({@code graphql/schema.graphqls}).
+ * A query is rejected before execution if it nests deeper than {@code max-depth} or its estimated cost exceeds
+ * {@code max-complexity}. Every selected field costs 1 plus its selections; the selections of a page are
+ * multiplied by its {@code size} and those of a relation list by {@code list-fan-out}.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(GraphQlProperties.class)
+public class GraphQlConfig {
+
+    private static final String SIZE_ARGUMENT = "size";
+
+    @Bean
+    public RuntimeWiringConfigurer scalarsRuntimeWiringConfigurer() {
+        return builder -> builder
+                .scalar(GraphQLScalarType.newScalar().name("DateTime").coercing(new DateTimeCoercing()).build())
+                .scalar(GraphQLScalarType.newScalar().name("Long").coercing(new LongCoercing()).build());
+    }
+
+    @Bean
+    public MaxQueryDepthInstrumentation maxQueryDepthInstrumentation(GraphQlProperties properties) {
+        return new MaxQueryDepthInstrumentation(properties.maxDepth());
+    }
+
+    @Bean
+    public MaxQueryComplexityInstrumentation maxQueryComplexityInstrumentation(GraphQlProperties properties) {
+        return new MaxQueryComplexityInstrumentation(properties.maxComplexity(),
+                (env, childComplexity) -> fieldComplexity(env, childComplexity, properties.listFanOut()));
+    }
+
+    static int fieldComplexity(FieldComplexityEnvironment env, int childComplexity, int listFanOut) {
+        if (env.getArguments().get(SIZE_ARGUMENT) instanceof Integer size) {
+            return saturatedCost(Math.max(size, 0), childComplexity);
+        }
+        boolean list = GraphQLTypeUtil.isList(GraphQLTypeUtil.unwrapNonNull(env.getFieldDefinition().getType()));
+        // the content list of a page is already counted by the page's size
+        boolean pageContent = env.getParentEnvironment() != null
+                && env.getParentEnvironment().getArguments().containsKey(SIZE_ARGUMENT);
+        return saturatedCost(list && !pageContent ? listFanOut : 1, childComplexity);
+    }
+
+    private static int saturatedCost(int multiplier, int childComplexity) {
+        return (int) Math.min(Integer.MAX_VALUE, 1L + (long) multiplier * childComplexity);
+    }
+
+    /**
+     * ISO-8601 date-time with offset, the format of {@code date-time} in the REST API.
+     */
+    static class DateTimeCoercing implements Coercing<OffsetDateTime, String> {
+
+        @Override
+        public String serialize(Object value, GraphQLContext context, Locale locale) {
+            if (value instanceof OffsetDateTime dateTime) {
+                return DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(dateTime);
+            }
+            throw new CoercingSerializeException("Expected an OffsetDateTime but was " + value.getClass());
+        }
+
+        @Override
+        public OffsetDateTime parseValue(Object input, GraphQLContext context, Locale locale) {
+            try {
+                return OffsetDateTime.parse(input.toString());
+            } catch (DateTimeParseException e) {
+                throw new CoercingParseValueException("Invalid date-time: " + input, e);
+            }
+        }
+
+        @Override
+        public OffsetDateTime parseLiteral(Value<?> input, CoercedVariables variables, GraphQLContext context,
+                                           Locale locale) {
+            if (input instanceof StringValue string) {
+                try {
+                    return OffsetDateTime.parse(string.getValue());
+                } catch (DateTimeParseException e) {
+                    throw new CoercingParseLiteralException("Invalid date-time: " + string.getValue(), e);
+                }
+            }
+            throw new CoercingParseLiteralException("Expected a date-time string");
+        }
+    }
+
+    /**
+     * 64-bit integer (GraphQL's {@code Int} is 32-bit).
+     */
+    static class LongCoercing implements Coercing<Long, Long> {
+
+        @Override
+        public Long serialize(Object value, GraphQLContext context, Locale locale) {
+            if (value instanceof Long || value instanceof Integer) {
+                return ((Number) value).longValue();
+            }
+            throw new CoercingSerializeException("Expected a Long but was " + value.getClass());
+        }
+
+        @Override
+        public Long parseValue(Object input, GraphQLContext context, Locale locale) {
+            try {
+                return input instanceof Number number ? number.longValue() : Long.parseLong(input.toString());
+            } catch (NumberFormatException e) {
+                throw new CoercingParseValueException("Invalid Long: " + input, e);
+            }
+        }
+
+        @Override
+        public Long parseLiteral(Value<?> input, CoercedVariables variables, GraphQLContext context,
+                                 Locale locale) {
+            if (input instanceof IntValue integer) {
+                try {
+                    return integer.getValue().longValueExact();
+                } catch (ArithmeticException e) {
+                    throw new CoercingParseLiteralException("Long out of range: " + integer.getValue(), e);
+                }
+            }
+            throw new CoercingParseLiteralException("Expected an integer");
+        }
+    }
+}
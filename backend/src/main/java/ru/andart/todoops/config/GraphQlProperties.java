@@ -0,0 +1,18 @@
+package ru.andart.todoops.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Query limits of the GraphQL endpoint ({@code todoops.graphql.*}), checked before a query is executed.
+ *
+ * @param maxDepth      deepest allowed nesting of selections
+ * @param maxComplexity highest allowed estimated cost (see {@link GraphQlConfig})
+ * @param listFanOut    assumed number of elements of a relation list (subtasks, blockers, attachments)
+ */
+@ConfigurationProperties(prefix = "todoops.graphql")
+public record GraphQlProperties(
+        int maxDepth,
+        int maxComplexity,
+        int listFanOut
+) {
+}
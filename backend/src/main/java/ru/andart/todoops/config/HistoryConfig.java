@@ -0,0 +1,12 @@
+package ru.andart.todoops.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Binds the task history settings (see {@code TaskHistoryPartitionManager}).
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(HistoryProperties.class)
+public class HistoryConfig {
+}
@@ -0,0 +1,16 @@
+package ru.andart.todoops.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Task history settings ({@code todoops.history.*}).
+ *
+ * @param retentionMonths whole months of history kept before the current one; older monthly partitions are dropped
+ * @param premakeMonths   partitions created ahead of the current month, so inserts never miss one
+ */
+@ConfigurationProperties(prefix = "todoops.history")
+public record HistoryProperties(
+        int retentionMonths,
+        int premakeMonths
+) {
+}
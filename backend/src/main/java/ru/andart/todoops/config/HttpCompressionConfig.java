@@ -0,0 +1,59 @@
+package ru.andart.todoops.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+/**
+ * Makes {@code server.compression.min-response-size} effective for API responses.
+ * Jackson streams JSON without a {@code Content-Length}, and Tomcat compresses every response of unknown
+ * length; buffering the body lets Tomcat see the size and send small responses uncompressed.
+ * Attachment content is not buffered: it is streamed, has a known length and is not compressible JSON.
+ */
+@Configuration(proxyBeanMethods = false)
+public class HttpCompressionConfig {
+
+    @Bean
+    public FilterRegistrationBean<ContentLengthFilter> contentLengthFilter() {
+        var registration = new FilterRegistrationBean<>(new ContentLengthFilter());
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * Buffers the response body and sends it with an explicit {@code Content-Length}.
+     */
+    static class ContentLengthFilter extends OncePerRequestFilter {
+
+        private static final Pattern ATTACHMENT_CONTENT =
+                Pattern.compile("/api/v1/tasks/\\d+/attachments/\\d+/content");
+
+        @Override
+        protected boolean shouldNotFilter(HttpServletRequest request) {
+            String path = request.getRequestURI().substring(request.getContextPath().length());
+            return ATTACHMENT_CONTENT.matcher(path).matches();
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                throws ServletException, IOException {
+            ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+            try {
+                chain.doFilter(request, wrapper);
+            } finally {
+                wrapper.copyBodyToResponse();
+            }
+        }
+    }
+}
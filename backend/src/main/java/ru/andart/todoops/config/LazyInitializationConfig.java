@@ -0,0 +1,42 @@
+package ru.andart.todoops.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import liquibase.integration.spring.SpringLiquibase;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+import ru.andart.todoops.service.ReminderScheduler;
+import ru.andart.todoops.service.SlowRequestRecorder;
+import ru.andart.todoops.service.TaskCounterMetrics;
+import ru.andart.todoops.service.TaskCounterReconciler;
+import ru.andart.todoops.service.TaskHistoryPartitionManager;
+import ru.andart.todoops.service.TaskPurger;
+
+import javax.sql.DataSource;
+
+/**
+ * Keeps the persistence stack eager when {@code spring.main.lazy-initialization=true} (profile {@code fast-start}).
+ * Everything else is created on first use; the datasource, Hibernate and Liquibase are still built during
+ * startup so that a pod reporting ready does not pay for them on its first request.
+ * Beans with {@code @Scheduled} jobs are eager too, otherwise nothing would ever create them.
+ */
+@Configuration(proxyBeanMethods = false)
+public class LazyInitializationConfig {
+
+    @Bean
+    public static LazyInitializationExcludeFilter persistenceLazyInitializationExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                DataSource.class,
+                EntityManagerFactory.class,
+                AbstractEntityManagerFactoryBean.class,
+                SpringLiquibase.class,
+                TaskCounterReconciler.class,
+                TaskCounterMetrics.class,
+                ReminderScheduler.class,
+                TaskHistoryPartitionManager.class,
+                TaskPurger.class,
+                SlowRequestRecorder.class
+        );
+    }
+}
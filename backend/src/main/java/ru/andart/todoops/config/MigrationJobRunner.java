@@ -0,0 +1,36 @@
+package ru.andart.todoops.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stops the application right after startup when it runs as a migration job ({@code todoops.migrate-only=true},
+ * set by profile {@code migrate}). Liquibase has already applied the changelog during context refresh.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class MigrationJobRunner implements ApplicationRunner {
+    private final ConfigurableApplicationContext context;
+
+    @Value("${todoops.migrate-only:false}")
+    private boolean migrateOnly;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!migrateOnly) {
+            return;
+        }
+        log.info("Database migrations applied, exiting");
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+}
@@ -0,0 +1,48 @@
+package ru.andart.todoops.config;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.util.ClassUtils;
+import ru.andart.todoops.repository.TaskView;
+
+/**
+ * GraalVM native-image hints that Spring AOT cannot infer (Maven profile {@code native}).
+ * Hibernate entities, repositories and the Prometheus registry are covered by Spring Boot itself.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeHintsConfig.TodoOpsRuntimeHints.class)
+public class NativeHintsConfig {
+
+    private static final String MODEL_PACKAGE = "ru.andart.todoops.generated.model";
+
+    static class TodoOpsRuntimeHints implements RuntimeHintsRegistrar {
+
+        private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            // Liquibase changelogs are resolved by path at runtime
+            hints.resources().registerPattern("liquibase/**");
+
+            // JPQL constructor expressions instantiate projections reflectively
+            hints.reflection().registerType(TaskView.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+
+            // Jackson reads the filter annotation of the TaskResponse mix-in reflectively
+            hints.reflection().registerType(TaskFieldsConfig.TaskResponseFilter.class);
+
+            // Every OpenAPI-generated model is bound by Jackson and validated by Hibernate Validator
+            var scanner = new ClassPathScanningCandidateComponentProvider(false);
+            scanner.addIncludeFilter((reader, factory) -> true);
+            for (BeanDefinition candidate : scanner.findCandidateComponents(MODEL_PACKAGE)) {
+                Class<?> model = ClassUtils.resolveClassName(candidate.getBeanClassName(), classLoader);
+                bindingRegistrar.registerReflectionHints(hints.reflection(), model);
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package ru.andart.todoops.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Binds the purge settings of soft-deleted tasks (see {@code TaskPurger}).
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(PurgeProperties.class)
+public class PurgeConfig {
+}
@@ -0,0 +1,22 @@
+package ru.andart.todoops.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Purge settings of soft-deleted tasks ({@code todoops.purge.*}).
+ *
+ * @param retention  how long a deleted task is kept before its row is hard-deleted
+ * @param batchSize  rows hard-deleted per transaction
+ * @param pause      sleep between batches, so that vacuum and replicas keep up with the deletes
+ * @param maxBatches batches per run at most; the rest is left to the next run
+ */
+@ConfigurationProperties(prefix = "todoops.purge")
+public record PurgeProperties(
+        Duration retention,
+        int batchSize,
+        Duration pause,
+        int maxBatches
+) {
+}
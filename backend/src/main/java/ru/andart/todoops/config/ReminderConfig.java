@@ -0,0 +1,12 @@
+package ru.andart.todoops.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Binds the due-date reminder settings (see {@code ReminderScheduler}).
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ReminderProperties.class)
+public class ReminderConfig {
+}
@@ -0,0 +1,36 @@
+package ru.andart.todoops.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Due-date reminder settings ({@code todoops.reminders.*}).
+ *
+ * @param lead        how long before the due date a reminder fires
+ * @param window      near-term window: reminders due within it are claimed into the in-memory timing wheel
+ * @param lease       how long a claim is exclusive; must exceed {@code window}, so that a claimed reminder is
+ *                    not claimed again while it waits in the wheel
+ * @param tick        resolution of the timing wheel
+ * @param batchSize   reminders claimed per statement
+ * @param maxPending  claimed reminders one replica holds at most, leaving the rest to other replicas
+ */
+@ConfigurationProperties(prefix = "todoops.reminders")
+public record ReminderProperties(
+        Duration lead,
+        Duration window,
+        Duration lease,
+        Duration tick,
+        int batchSize,
+        int maxPending
+) {
+
+    /**
+     * Returns the number of timing wheel slots that covers the near-term window.
+     *
+     * @return wheel size
+     */
+    public int wheelSize() {
+        return Math.toIntExact(window.toMillis() / tick.toMillis()) + 1;
+    }
+}
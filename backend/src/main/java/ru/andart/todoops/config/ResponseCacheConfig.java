@@ -0,0 +1,185 @@
+package ru.andart.todoops.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import ru.andart.todoops.service.TaskResponseCache;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Serves {@code GET /api/v1/tasks} (without a due-date window) and {@code GET /api/v1/tasks/{id}} from
+ * {@link TaskResponseCache} when {@code todoops.response-cache.enabled}: a hit writes the cached bytes straight to
+ * the response, gzipped if the client accepts it, without reaching the controller; a miss runs the request and
+ * caches a successful response. Sparse fieldsets are part of the key, in a normalized order.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+public class ResponseCacheConfig {
+
+    @Bean
+    public FilterRegistrationBean<ResponseCacheFilter> responseCacheFilter(TaskResponseCache taskResponseCache,
+                                                                           ResponseCacheProperties properties) {
+        var registration = new FilterRegistrationBean<>(new ResponseCacheFilter(taskResponseCache));
+        registration.addUrlPatterns("/api/v1/tasks", "/api/v1/tasks/*");
+        // inside the slow request capture, outside the body buffering of HttpCompressionConfig
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        registration.setEnabled(properties.enabled());
+        return registration;
+    }
+
+    /**
+     * Looks up cacheable requests and caches their successful responses.
+     */
+    static class ResponseCacheFilter extends OncePerRequestFilter {
+
+        private static final Pattern TASK = Pattern.compile("/api/v1/tasks/(\\d{1,18})");
+        private static final Set<String> PAGE_PARAMETERS = Set.of("page", "size", "fields");
+        private static final Set<String> TASK_PARAMETERS = Set.of("fields");
+        private static final String TENANT_HEADER = "X-Tenant-Id";
+        private static final int DEFAULT_PAGE = 0;
+        private static final int DEFAULT_SIZE = 20;
+
+        private final TaskResponseCache cache;
+
+        ResponseCacheFilter(TaskResponseCache cache) {
+            this.cache = cache;
+        }
+
+        @Override
+        protected boolean shouldNotFilter(HttpServletRequest request) {
+            return !HttpMethod.GET.matches(request.getMethod());
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                throws ServletException, IOException {
+            TaskResponseCache.Key key = key(request);
+            if (key == null) {
+                chain.doFilter(request, response);
+                return;
+            }
+            long version = cache.version(key.tenantId());
+            Optional<TaskResponseCache.Entry> hit = cache.get(key, version);
+            if (hit.isPresent()) {
+                write(hit.get(), request, response);
+                return;
+            }
+            ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+            try {
+                chain.doFilter(request, wrapper);
+                if (wrapper.getStatus() == HttpServletResponse.SC_OK) {
+                    cache.put(key, version, wrapper.getContentType(), wrapper.getContentAsByteArray());
+                }
+            } finally {
+                wrapper.copyBodyToResponse();
+            }
+        }
+
+        /**
+         * Returns the cache key of a request, null if it is not cacheable (other parameters, unparsable values:
+         * those go to the controller as they are).
+         */
+        private static TaskResponseCache.Key key(HttpServletRequest request) {
+            Long tenantId = parseLong(Optional.ofNullable(request.getHeader(TENANT_HEADER)).orElse("0"));
+            if (tenantId == null) {
+                return null;
+            }
+            String path = request.getRequestURI().substring(request.getContextPath().length());
+            Map<String, String[]> parameters = request.getParameterMap();
+            if (path.equals("/api/v1/tasks")) {
+                if (!PAGE_PARAMETERS.containsAll(parameters.keySet())) {
+                    return null;
+                }
+                Long page = parameter(parameters, "page", DEFAULT_PAGE);
+                Long size = parameter(parameters, "size", DEFAULT_SIZE);
+                return page == null || size == null ? null : TaskResponseCache.Key.page(tenantId,
+                        Math.toIntExact(page), Math.toIntExact(size), fields(parameters));
+            }
+            Matcher task = TASK.matcher(path);
+            return task.matches() && TASK_PARAMETERS.containsAll(parameters.keySet())
+                    ? TaskResponseCache.Key.task(tenantId, Long.parseLong(task.group(1)), fields(parameters))
+                    : null;
+        }
+
+        // "status,title", "title&fields=status" and "title,status" return the same body
+        private static String fields(Map<String, String[]> parameters) {
+            String[] values = parameters.get("fields");
+            if (values == null) {
+                return "";
+            }
+            return Arrays.stream(values)
+                    .flatMap(value -> Arrays.stream(value.split(",")))
+                    .map(String::trim)
+                    .filter(field -> !field.isEmpty())
+                    .sorted()
+                    .distinct()
+                    .collect(Collectors.joining(","));
+        }
+
+        private static Long parameter(Map<String, String[]> parameters, String name, int defaultValue) {
+            String[] values = parameters.get(name);
+            if (values == null) {
+                return (long) defaultValue;
+            }
+            Long value = values.length == 1 ? parseLong(values[0]) : null;
+            return value != null && value >= 0 && value <= Integer.MAX_VALUE ? value : null;
+        }
+
+        private static Long parseLong(String value) {
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        private static void write(TaskResponseCache.Entry entry, HttpServletRequest request,
+                                  HttpServletResponse response) throws IOException {
+            byte[] body = entry.body();
+            if (entry.gzipBody() != null) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                if (acceptsGzip(request)) {
+                    // Tomcat leaves responses with a Content-Encoding alone
+                    response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                    body = entry.gzipBody();
+                }
+            }
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(entry.contentType());
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+
+        private static boolean acceptsGzip(HttpServletRequest request) {
+            for (String header : Collections.list(request.getHeaders(HttpHeaders.ACCEPT_ENCODING))) {
+                for (String coding : header.split(",")) {
+                    String[] parts = coding.trim().split(";");
+                    if (parts[0].trim().equalsIgnoreCase("gzip")
+                            && (parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?"))) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package ru.andart.todoops.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Cache of encoded task responses ({@code todoops.response-cache.*}, see {@code TaskResponseCache}).
+ *
+ * @param enabled whether task pages and tasks are served from the cache
+ * @param maxSize bytes of cached responses (identity and gzip) kept at most; least recently used go first
+ */
+@ConfigurationProperties(prefix = "todoops.response-cache")
+public record ResponseCacheProperties(
+        boolean enabled,
+        DataSize maxSize
+) {
+}
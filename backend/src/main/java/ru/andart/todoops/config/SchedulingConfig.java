@@ -0,0 +1,13 @@
+package ru.andart.todoops.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} background jobs (Spring Boot provides the task scheduler).
+ * Jobs that must run on one replica only take a transaction-scoped advisory lock.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,12 @@
+package ru.andart.todoops.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Binds the synthetic dataset settings (see {@code TaskSeeder}).
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(SeedProperties.class)
+public class SeedConfig {
+}
@@ -0,0 +1,37 @@
+package ru.andart.todoops.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import ru.andart.todoops.service.TaskSeeder;
+
+/**
+ * Loads a synthetic dataset and stops the application when it runs as a seeding job ({@code todoops.seed.enabled=true},
+ * set by profile {@code seed}). Liquibase has already applied the changelog during context refresh.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+public class SeedJobRunner implements ApplicationRunner {
+    private final ConfigurableApplicationContext context;
+    private final TaskSeeder taskSeeder;
+    private final SeedProperties properties;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.enabled()) {
+            return;
+        }
+        TaskSeeder.Report report = taskSeeder.seed(properties);
+        log.info("Seeded {} tasks: load {} ms, indexes {} ms, derived tables {} ms, exiting", report.tasks(),
+                report.load().toMillis(), report.indexes().toMillis(), report.derived().toMillis());
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+}
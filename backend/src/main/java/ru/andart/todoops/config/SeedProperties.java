@@ -0,0 +1,47 @@
+package ru.andart.todoops.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import ru.andart.todoops.generated.model.TaskStatus;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Synthetic dataset settings ({@code todoops.seed.*}, see {@code TaskSeeder}).
+ *
+ * @param enabled               seed on startup and exit (profile {@code seed})
+ * @param tasks                 number of tasks to insert
+ * @param firstTenant           lowest tenant id; tasks go to {@code tenants} consecutive ids from it
+ * @param tenants               number of tenants
+ * @param tenantSkew            1 spreads tasks evenly over tenants; above 1 low tenant ids get more of them
+ *                              (tenant index is {@code tenants * u^skew} for a uniform {@code u})
+ * @param statusWeights         relative share of each status
+ * @param createdWithin         creation times are spread uniformly over this period before now
+ * @param dueDateShare          share of tasks with a due date
+ * @param dueDatePast           earliest due date before now
+ * @param dueDateFuture         latest due date after now
+ * @param descriptionMeanLength mean description length (exponentially distributed)
+ * @param descriptionMaxLength  description length cap, at most the API limit of 4000
+ * @param threads               parallel COPY streams, one connection each
+ * @param deferIndexes          drop the secondary indexes of {@code task} during the load and build them afterwards
+ * @param randomSeed            seed of the generators, so that a dataset can be reproduced
+ */
+@ConfigurationProperties(prefix = "todoops.seed")
+public record SeedProperties(
+        boolean enabled,
+        long tasks,
+        long firstTenant,
+        int tenants,
+        double tenantSkew,
+        Map<TaskStatus, Integer> statusWeights,
+        Duration createdWithin,
+        double dueDateShare,
+        Duration dueDatePast,
+        Duration dueDateFuture,
+        int descriptionMeanLength,
+        int descriptionMaxLength,
+        int threads,
+        boolean deferIndexes,
+        long randomSeed
+) {
+}
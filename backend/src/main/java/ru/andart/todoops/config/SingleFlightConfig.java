@@ -0,0 +1,12 @@
+package ru.andart.todoops.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Binds the coalescing settings of task reads (see {@code TaskReadCoalescer}).
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(SingleFlightProperties.class)
+public class SingleFlightConfig {
+}
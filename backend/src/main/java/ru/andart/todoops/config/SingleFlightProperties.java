@@ -0,0 +1,18 @@
+package ru.andart.todoops.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Coalescing of identical concurrent task reads ({@code todoops.single-flight.*}, see {@code TaskReadCoalescer}).
+ *
+ * @param enabled whether concurrent identical reads share one database call
+ * @param maxWait how long a read waits for the call it joined before running its own
+ */
+@ConfigurationProperties(prefix = "todoops.single-flight")
+public record SingleFlightProperties(
+        boolean enabled,
+        Duration maxWait
+) {
+}
@@ -0,0 +1,156 @@
+package ru.andart.todoops.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.andart.todoops.service.RequestTrace;
+import ru.andart.todoops.service.SlowRequestRecorder;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * Wires the slow request capture (see {@link SlowRequestRecorder}) when {@code todoops.slow-requests.enabled}:
+ * a filter traces every {@code /api/*} request, and the datasource is wrapped so that statements executed on a
+ * traced thread are added to its trace. Connections taken outside requests (background jobs) are not wrapped.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(SlowRequestProperties.class)
+public class SlowRequestConfig {
+
+    private static final String ENABLED = "todoops.slow-requests.enabled";
+
+    @Bean
+    public FilterRegistrationBean<SlowRequestFilter> slowRequestFilter(SlowRequestRecorder slowRequestRecorder,
+                                                                       SlowRequestProperties properties) {
+        var registration = new FilterRegistrationBean<>(new SlowRequestFilter(slowRequestRecorder));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        registration.setEnabled(properties.enabled());
+        return registration;
+    }
+
+    @Bean
+    public static StatementTracingPostProcessor statementTracingPostProcessor(Environment environment) {
+        return new StatementTracingPostProcessor(environment.getProperty(ENABLED, Boolean.class, false));
+    }
+
+    /**
+     * Traces a request from its first filter to the committed response (the first dispatch of async requests).
+     */
+    static class SlowRequestFilter extends OncePerRequestFilter {
+
+        private final SlowRequestRecorder recorder;
+
+        SlowRequestFilter(SlowRequestRecorder recorder) {
+            this.recorder = recorder;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                throws ServletException, IOException {
+            RequestTrace trace = recorder.begin(request.getMethod(), request.getRequestURI());
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                recorder.end(trace, response.getStatus());
+            }
+        }
+    }
+
+    /**
+     * Wraps the datasource: statements created on a traced thread report their execution time to the trace.
+     */
+    static class StatementTracingPostProcessor implements BeanPostProcessor {
+
+        private static final Set<String> PREPARE_METHODS = Set.of("prepareStatement", "prepareCall");
+
+        private final boolean enabled;
+
+        StatementTracingPostProcessor(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!enabled || !(bean instanceof DataSource)) {
+                return bean;
+            }
+            ProxyFactory dataSource = new ProxyFactory(bean);
+            dataSource.addAdvice((MethodInterceptor) invocation -> {
+                Object result = invocation.proceed();
+                RequestTrace trace = RequestTrace.current();
+                return trace != null && result instanceof Connection connection
+                        ? tracingConnection(connection, trace)
+                        : result;
+            });
+            return dataSource.getProxy();
+        }
+
+        private static Connection tracingConnection(Connection connection, RequestTrace trace) {
+            return proxy(Connection.class, (proxy, method, arguments) -> {
+                Object result = invoke(connection, method, arguments);
+                if (result instanceof Statement statement) {
+                    String sql = PREPARE_METHODS.contains(method.getName()) ? (String) arguments[0] : null;
+                    return tracingStatement(method.getReturnType(), statement, sql, trace);
+                }
+                return result;
+            });
+        }
+
+        private static Statement tracingStatement(Class<?> type, Statement statement, String preparedSql,
+                                                  RequestTrace trace) {
+            return (Statement) proxy(type, (proxy, method, arguments) -> {
+                if (!method.getName().startsWith("execute")) {
+                    return invoke(statement, method, arguments);
+                }
+                String sql = preparedSql != null || arguments == null || !(arguments[0] instanceof String s)
+                        ? preparedSql
+                        : s;
+                long start = System.nanoTime();
+                try {
+                    return invoke(statement, method, arguments);
+                } finally {
+                    trace.statement(sql, System.nanoTime() - start);
+                }
+            });
+        }
+
+        // plain JDK proxies: one per connection and statement of a traced request, so kept cheaper than ProxyFactory;
+        // identity equality, as callers keep them in hash sets
+        private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+            InvocationHandler identity = (proxy, method, arguments) -> switch (method.getName()) {
+                case "equals" -> proxy == arguments[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                default -> handler.invoke(proxy, method, arguments);
+            };
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, identity));
+        }
+
+        private static Object invoke(Object target, Method method, Object[] arguments) throws Throwable {
+            try {
+                return method.invoke(target, arguments);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
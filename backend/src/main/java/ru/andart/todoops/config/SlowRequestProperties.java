@@ -0,0 +1,24 @@
+package ru.andart.todoops.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Slow request capture settings ({@code todoops.slow-requests.*}, see {@code SlowRequestRecorder}).
+ *
+ * @param enabled        trace API requests and their SQL statements
+ * @param threshold      requests taking at least this long are kept
+ * @param capacity       slow requests kept; the oldest is overwritten
+ * @param maxStatements  statements kept per request; further ones are only counted
+ * @param sampleInterval how often the threads of requests over the threshold are sampled
+ */
+@ConfigurationProperties(prefix = "todoops.slow-requests")
+public record SlowRequestProperties(
+        boolean enabled,
+        Duration threshold,
+        int capacity,
+        int maxStatements,
+        Duration sampleInterval
+) {
+}
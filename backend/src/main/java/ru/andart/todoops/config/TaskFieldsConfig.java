@@ -0,0 +1,32 @@
+package ru.andart.todoops.config;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.andart.todoops.controller.TaskFieldsResponseAdvice;
+import ru.andart.todoops.generated.model.TaskResponse;
+
+/**
+ * Puts the sparse fieldset filter on the generated {@link TaskResponse} through a mix-in. The default filter
+ * provider resolves the filter to none, so the response is written in full unless
+ * {@link TaskFieldsResponseAdvice} supplies the requested properties.
+ */
+@Configuration(proxyBeanMethods = false)
+public class TaskFieldsConfig {
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer taskFieldsFilterCustomizer() {
+        return builder -> builder
+                .mixIn(TaskResponse.class, TaskResponseFilter.class)
+                .filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+
+    /**
+     * Mix-in of {@link TaskResponse}.
+     */
+    @JsonFilter(TaskFieldsResponseAdvice.FILTER)
+    interface TaskResponseFilter {
+    }
+}
@@ -8,7 +8,7 @@ import org.springframework.transaction.support.TransactionTemplate;
 /**
  * Configures transactional templates for programmatic transaction boundaries.
  */
-@Configuration
+@Configuration(proxyBeanMethods = false)
 public class TransactionTemplateConfig {
 
     /**
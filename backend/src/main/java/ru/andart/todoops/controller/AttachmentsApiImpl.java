@@ -0,0 +1,85 @@
+package ru.andart.todoops.controller;
+
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.RestController;
+import ru.andart.todoops.converter.TaskConverter;
+import ru.andart.todoops.generated.api.AttachmentsApi;
+import ru.andart.todoops.generated.model.AttachmentCreateRequest;
+import ru.andart.todoops.generated.model.AttachmentListResponse;
+import ru.andart.todoops.generated.model.AttachmentResponse;
+import ru.andart.todoops.service.AttachmentContent;
+import ru.andart.todoops.service.TaskAttachmentService;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * REST controller for task attachments. Logs each request. Content is streamed both ways (see
+ * {@code AttachmentConfig}); {@code Range} requests of downloads are answered by Spring MVC from the resource.
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+public class AttachmentsApiImpl implements AttachmentsApi {
+
+    private final TaskAttachmentService taskAttachmentService;
+    private final TaskConverter taskConverter;
+    // proxy to the response of the current request
+    private final HttpServletResponse response;
+
+    @Override
+    public AttachmentResponse createAttachment(Long id, AttachmentCreateRequest attachmentCreateRequest,
+                                               Long xTenantId) {
+        log.info("POST /api/v1/tasks/{}/attachments createAttachment tenant={} fileName={} size={}",
+                id, xTenantId, attachmentCreateRequest.getFileName(), attachmentCreateRequest.getSize());
+        return taskConverter.toAttachmentResponse(taskAttachmentService.create(xTenantId, id, attachmentCreateRequest));
+    }
+
+    @Override
+    public AttachmentListResponse listAttachments(Long id, Long xTenantId) {
+        log.info("GET /api/v1/tasks/{}/attachments listAttachments tenant={}", id, xTenantId);
+        return taskConverter.toAttachmentListResponse(taskAttachmentService.list(xTenantId, id));
+    }
+
+    @Override
+    public AttachmentResponse getAttachment(Long id, Long attachmentId, Long xTenantId) {
+        log.info("GET /api/v1/tasks/{}/attachments/{} getAttachment tenant={}", id, attachmentId, xTenantId);
+        return taskConverter.toAttachmentResponse(taskAttachmentService.get(xTenantId, id, attachmentId));
+    }
+
+    @Override
+    public void deleteAttachment(Long id, Long attachmentId, Long xTenantId) {
+        log.info("DELETE /api/v1/tasks/{}/attachments/{} deleteAttachment tenant={}", id, attachmentId, xTenantId);
+        taskAttachmentService.delete(xTenantId, id, attachmentId);
+    }
+
+    @Override
+    @SneakyThrows
+    public AttachmentResponse uploadAttachmentContent(Long id, Long attachmentId, Resource body, Long xTenantId,
+                                                      String contentRange) {
+        log.info("PUT /api/v1/tasks/{}/attachments/{}/content uploadAttachmentContent tenant={} range={}",
+                id, attachmentId, xTenantId, contentRange);
+        return taskConverter.toAttachmentResponse(
+                taskAttachmentService.upload(xTenantId, id, attachmentId, contentRange, body.getInputStream()));
+    }
+
+    @Override
+    public Resource downloadAttachmentContent(Long id, Long attachmentId, Long xTenantId, String range) {
+        log.info("GET /api/v1/tasks/{}/attachments/{}/content downloadAttachmentContent tenant={} range={}",
+                id, attachmentId, xTenantId, range);
+        AttachmentContent content = taskAttachmentService.download(xTenantId, id, attachmentId);
+        response.setContentType(content.attachment().contentType());
+        String fileName = content.attachment().fileName();
+        // plain filename="..." when it is ASCII, otherwise the RFC 5987 filename* form as well
+        ContentDisposition disposition = StandardCharsets.US_ASCII.newEncoder().canEncode(fileName)
+                ? ContentDisposition.attachment().filename(fileName).build()
+                : ContentDisposition.attachment().filename(fileName, StandardCharsets.UTF_8).build();
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, disposition.toString());
+        return content.content();
+    }
+}
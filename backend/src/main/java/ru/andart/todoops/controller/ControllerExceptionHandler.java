@@ -3,11 +3,14 @@ package ru.andart.todoops.controller;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import org.springframework.web.servlet.resource.NoResourceFoundException;
 import ru.andart.todoops.exception.BaseException;
 import ru.andart.todoops.exception.Errors;
@@ -57,6 +60,26 @@ public class ControllerExceptionHandler {
         return createErrorObject(Errors.validationError(ex.getMessage()));
     }
 
+    /**
+     * Handles missing or unparsable query parameters (e.g. a date or enum value).
+     */
+    @ExceptionHandler({MissingServletRequestParameterException.class, MethodArgumentTypeMismatchException.class})
+    @ResponseStatus(BAD_REQUEST)
+    public ErrorObject handleBadRequestParameter(Exception ex) {
+        log.warn("Bad request parameter: {}", ex.getMessage());
+        return createErrorObject(Errors.validationError(ex.getMessage()));
+    }
+
+    /**
+     * Handles updates of a task version that another request has already changed.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(BAD_REQUEST)
+    public ErrorObject handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        log.warn("Concurrent modification: {}", ex.getMessage());
+        return createErrorObject(Errors.concurrentModificationError());
+    }
+
     /**
      * Handles NoResourceFoundException (e.g. static resource or path not found).
      */
@@ -0,0 +1,68 @@
+package ru.andart.todoops.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import ru.andart.todoops.service.FlightRecorderService;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Actuator endpoint {@code /actuator/jfr} for on-demand JDK Flight Recorder sessions:
+ * {@code POST} starts one (body {@code {"duration": "PT2M"}}, optional), {@code DELETE} stops it early and
+ * {@code GET} downloads the {@code .jfr} file (a snapshot while it is still recording).
+ */
+@Component
+@WebEndpoint(id = "jfr")
+@RequiredArgsConstructor
+public class FlightRecorderEndpoint {
+
+    private final FlightRecorderService flightRecorderService;
+
+    /**
+     * Starts a recording.
+     *
+     * @param duration how long to record (ISO-8601 or e.g. {@code 90s}), the configured default if absent
+     * @return status, 400 for an invalid duration, 409 if a recording is running
+     */
+    @WriteOperation
+    public WebEndpointResponse<Object> start(@Nullable Duration duration) {
+        try {
+            return new WebEndpointResponse<>(flightRecorderService.start(duration));
+        } catch (IllegalArgumentException e) {
+            return new WebEndpointResponse<>(Map.of("message", e.getMessage()), WebEndpointResponse.STATUS_BAD_REQUEST);
+        } catch (IllegalStateException e) {
+            return new WebEndpointResponse<>(Map.of("message", e.getMessage()), 409);
+        }
+    }
+
+    /**
+     * Stops the running recording.
+     *
+     * @return status
+     */
+    @DeleteOperation
+    public FlightRecorderService.Status stop() {
+        return flightRecorderService.stop();
+    }
+
+    /**
+     * Downloads the recording.
+     *
+     * @return {@code .jfr} file, 404 if there was no recording
+     */
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> recording() {
+        return flightRecorderService.file()
+                .<WebEndpointResponse<Resource>>map(file -> new WebEndpointResponse<>(new FileSystemResource(file)))
+                .orElseGet(() -> new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND));
+    }
+}
@@ -0,0 +1,45 @@
+package ru.andart.todoops.controller;
+
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.schema.DataFetchingEnvironment;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.graphql.execution.DataFetcherExceptionResolverAdapter;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.stereotype.Component;
+import ru.andart.todoops.exception.BaseException;
+
+import java.util.Map;
+
+/**
+ * Converts {@link BaseException}s of GraphQL queries to errors carrying the same code and messages as the
+ * REST {@code ErrorObject}. Other exceptions are left to Spring GraphQL (reported as {@code INTERNAL_ERROR}).
+ */
+@Slf4j
+@Component
+public class GraphQlExceptionResolver extends DataFetcherExceptionResolverAdapter {
+
+    @Override
+    protected GraphQLError resolveToSingleError(Throwable ex, DataFetchingEnvironment env) {
+        if (ex instanceof BaseException base) {
+            log.warn("BaseException: code={}, message={}", base.getCode(), base.getMessage());
+            return toError(base, GraphqlErrorBuilder.newError(env));
+        }
+        return null;
+    }
+
+    /**
+     * Builds the GraphQL error of a {@link BaseException}.
+     *
+     * @param ex exception
+     * @param builder error builder (with the location of the failed field, if any)
+     * @return error with the message key and code in its extensions
+     */
+    static GraphQLError toError(BaseException ex, GraphqlErrorBuilder<?> builder) {
+        return builder
+                .errorType(ErrorType.BAD_REQUEST)
+                .message(ex.getHumanMessage())
+                .extensions(Map.of("code", ex.getCode(), "message", ex.getMessage()))
+                .build();
+    }
+}
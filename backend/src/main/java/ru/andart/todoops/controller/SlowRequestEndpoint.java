@@ -0,0 +1,41 @@
+package ru.andart.todoops.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import ru.andart.todoops.service.SlowRequest;
+import ru.andart.todoops.service.SlowRequestRecorder;
+
+import java.util.List;
+
+/**
+ * Actuator endpoint {@code /actuator/slowrequests}: the last requests over {@code todoops.slow-requests.threshold}
+ * with their SQL statements, timings and thread samples ({@code GET}); {@code DELETE} empties the buffer.
+ */
+@Component
+@Endpoint(id = "slowrequests")
+@RequiredArgsConstructor
+public class SlowRequestEndpoint {
+
+    private final SlowRequestRecorder slowRequestRecorder;
+
+    /**
+     * Returns the kept slow requests.
+     *
+     * @return requests, newest first
+     */
+    @ReadOperation
+    public List<SlowRequest> slowRequests() {
+        return slowRequestRecorder.recent();
+    }
+
+    /**
+     * Empties the buffer.
+     */
+    @DeleteOperation
+    public void clear() {
+        slowRequestRecorder.clear();
+    }
+}
@@ -0,0 +1,58 @@
+package ru.andart.todoops.controller;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Writes only the properties of a sparse fieldset ({@code fields} parameter) of every {@code TaskResponse} in a
+ * task API response, the id always included. {@code TaskResponse} carries the {@link #FILTER} filter
+ * ({@code TaskFieldsConfig}); responses without {@code fields} are written in full. Field names were validated by
+ * the controller before the body got here.
+ */
+@ControllerAdvice(assignableTypes = TasksApiImpl.class)
+public class TaskFieldsResponseAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    /**
+     * Id of the Jackson property filter of {@code TaskResponse}.
+     */
+    public static final String FILTER = "taskFields";
+
+    private static final String FIELDS_PARAMETER = "fields";
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)) {
+            return;
+        }
+        String[] values = servletRequest.getServletRequest().getParameterValues(FIELDS_PARAMETER);
+        if (values == null) {
+            return;
+        }
+        Set<String> properties = Arrays.stream(values)
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .map(String::trim)
+                .filter(property -> !property.isEmpty())
+                .collect(Collectors.toSet());
+        if (properties.isEmpty()) {
+            return;
+        }
+        Set<String> written = Stream.concat(Stream.of("id"), properties.stream()).collect(Collectors.toSet());
+        bodyContainer.setFilters(new SimpleFilterProvider()
+                .addFilter(FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(written)));
+    }
+}
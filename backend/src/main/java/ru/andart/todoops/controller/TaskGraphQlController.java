@@ -0,0 +1,122 @@
+package ru.andart.todoops.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.ContextValue;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.stereotype.Controller;
+import ru.andart.todoops.exception.Errors;
+import ru.andart.todoops.repository.Attachment;
+import ru.andart.todoops.repository.TaskField;
+import ru.andart.todoops.repository.TaskView;
+import ru.andart.todoops.service.TaskAttachmentService;
+import ru.andart.todoops.service.TaskService;
+import ru.andart.todoops.service.TaskTreeService;
+
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * GraphQL controller for the task queries of {@code graphql/schema.graphqls}. Logs each query.
+ * Relations are {@link BatchMapping}s: the relation of all tasks of one nesting level is loaded with one statement,
+ * so the number of statements of a query depends on its shape, not on the number of tasks it returns.
+ */
+@Slf4j
+@Controller
+@RequiredArgsConstructor
+public class TaskGraphQlController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final TaskService taskService;
+    private final TaskTreeService taskTreeService;
+    private final TaskAttachmentService taskAttachmentService;
+
+    /**
+     * Returns a task by id.
+     */
+    @QueryMapping
+    public TaskView task(@Argument Long id, @ContextValue Long tenantId) {
+        log.info("GraphQL task tenant={} id={}", tenantId, id);
+        return taskService.getById(tenantId, id);
+    }
+
+    /**
+     * Returns a page of tasks, optionally of a due date window (same rules as {@code GET /api/v1/tasks}).
+     */
+    @QueryMapping
+    public Page<TaskView> tasks(@Argument int page, @Argument int size, @Argument OffsetDateTime dueFrom,
+                                @Argument OffsetDateTime dueTo, @ContextValue Long tenantId) {
+        log.info("GraphQL tasks tenant={} page={} size={} dueFrom={} dueTo={}", tenantId, page, size, dueFrom, dueTo);
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw Errors.validationError("'page' must be >= 0 and 'size' between 1 and " + MAX_PAGE_SIZE);
+        }
+        if ((dueFrom == null) != (dueTo == null)) {
+            throw Errors.validationError("'dueFrom' and 'dueTo' must be given together");
+        }
+        return dueFrom != null
+                ? taskService.listDue(tenantId, dueFrom, dueTo, page, size)
+                : taskService.list(tenantId, page, size);
+    }
+
+    /**
+     * Loads the parents of a level of tasks.
+     */
+    @BatchMapping(typeName = "Task")
+    public Map<TaskView, TaskView> parent(List<TaskView> tasks, @ContextValue Long tenantId) {
+        List<Long> parentIds = tasks.stream().map(TaskView::parentId).filter(Objects::nonNull).distinct().toList();
+        Map<Long, TaskView> parents = parentIds.isEmpty() ? Map.of()
+                : taskService.getMany(tenantId, parentIds, TaskField.ALL).stream()
+                        .collect(Collectors.toMap(TaskView::id, Function.identity()));
+        Map<TaskView, TaskView> result = new LinkedHashMap<>();
+        for (TaskView task : tasks) {
+            if (task.parentId() != null && parents.containsKey(task.parentId())) {
+                result.put(task, parents.get(task.parentId()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Loads the direct subtasks of a level of tasks.
+     */
+    @BatchMapping(typeName = "Task")
+    public Map<TaskView, List<TaskView>> subtasks(List<TaskView> tasks, @ContextValue Long tenantId) {
+        return byTask(tasks, ids -> taskTreeService.children(tenantId, ids));
+    }
+
+    /**
+     * Loads the blockers of a level of tasks.
+     */
+    @BatchMapping(typeName = "Task")
+    public Map<TaskView, List<TaskView>> blockedBy(List<TaskView> tasks, @ContextValue Long tenantId) {
+        return byTask(tasks, ids -> taskTreeService.blockers(tenantId, ids));
+    }
+
+    /**
+     * Loads the attachments of a level of tasks.
+     */
+    @BatchMapping(typeName = "Task")
+    public Map<TaskView, List<Attachment>> attachments(List<TaskView> tasks, @ContextValue Long tenantId) {
+        return byTask(tasks, ids -> taskAttachmentService.list(tenantId, ids));
+    }
+
+    // Virtual occurrences share the id of their recurring task, so they get its relations
+    private static <T> Map<TaskView, List<T>> byTask(List<TaskView> tasks,
+                                                    Function<List<Long>, Map<Long, List<T>>> loader) {
+        Map<Long, List<T>> loaded = loader.apply(tasks.stream().map(TaskView::id).distinct().toList());
+        Map<TaskView, List<T>> result = new LinkedHashMap<>();
+        for (TaskView task : tasks) {
+            result.put(task, loaded.getOrDefault(task.id(), List.of()));
+        }
+        return result;
+    }
+}
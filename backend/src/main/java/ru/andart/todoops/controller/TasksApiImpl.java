@@ -3,45 +3,86 @@ package ru.andart.todoops.controller;
 import org.springframework.data.domain.Page;
 import org.springframework.web.bind.annotation.RestController;
 import ru.andart.todoops.converter.TaskConverter;
-import ru.andart.todoops.entity.TaskEntity;
 import ru.andart.todoops.generated.api.TasksApi;
+import ru.andart.todoops.exception.Errors;
+import ru.andart.todoops.generated.model.CalendarGranularity;
+import ru.andart.todoops.generated.model.OccurrenceStatusRequest;
+import ru.andart.todoops.generated.model.TaskCalendarResponse;
 import ru.andart.todoops.generated.model.TaskCreateRequest;
+import ru.andart.todoops.generated.model.TaskHistoryResponse;
 import ru.andart.todoops.generated.model.TaskPageResponse;
+import ru.andart.todoops.generated.model.TaskRecurrence;
+import ru.andart.todoops.generated.model.TaskRevertRequest;
+import ru.andart.todoops.generated.model.TaskStatsResponse;
 import ru.andart.todoops.generated.model.TaskResponse;
 import ru.andart.todoops.generated.model.TaskStatusRequest;
 import ru.andart.todoops.generated.model.TaskUpdateRequest;
+import ru.andart.todoops.repository.TaskField;
+import ru.andart.todoops.repository.TaskView;
+import ru.andart.todoops.service.TaskCalendarService;
+import ru.andart.todoops.service.TaskHistoryService;
+import ru.andart.todoops.service.TaskRecurrenceService;
 import ru.andart.todoops.service.TaskService;
+import ru.andart.todoops.service.TaskStatsService;
+import ru.andart.todoops.service.TaskTreeService;
 
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * REST controller for task API. Logs each request.
+ * Sparse fieldsets ({@code fields}) narrow the query here and the JSON in {@link TaskFieldsResponseAdvice}.
  */
 @Slf4j
 @RestController
 public class TasksApiImpl implements TasksApi {
 
     private final TaskService taskService;
+    private final TaskCalendarService taskCalendarService;
+    private final TaskStatsService taskStatsService;
+    private final TaskTreeService taskTreeService;
+    private final TaskRecurrenceService taskRecurrenceService;
+    private final TaskHistoryService taskHistoryService;
     private final TaskConverter taskConverter;
 
-    public TasksApiImpl(TaskService taskService, TaskConverter taskConverter) {
+    public TasksApiImpl(TaskService taskService, TaskCalendarService taskCalendarService,
+                        TaskStatsService taskStatsService, TaskTreeService taskTreeService,
+                        TaskRecurrenceService taskRecurrenceService, TaskHistoryService taskHistoryService,
+                        TaskConverter taskConverter) {
         this.taskService = taskService;
+        this.taskCalendarService = taskCalendarService;
+        this.taskStatsService = taskStatsService;
+        this.taskTreeService = taskTreeService;
+        this.taskRecurrenceService = taskRecurrenceService;
+        this.taskHistoryService = taskHistoryService;
         this.taskConverter = taskConverter;
     }
 
     @Override
-    public TaskResponse createTask(TaskCreateRequest taskCreateRequest) {
-        log.info("POST /api/v1/tasks createTask title={}", taskCreateRequest.getTitle());
-        return taskConverter.toResponse(taskService.create(taskCreateRequest));
+    public TaskResponse createTask(TaskCreateRequest taskCreateRequest, Long xTenantId) {
+        log.info("POST /api/v1/tasks createTask tenant={} title={}", xTenantId, taskCreateRequest.getTitle());
+        return taskConverter.toResponse(taskService.create(xTenantId, taskCreateRequest));
     }
 
     @Override
-    public TaskPageResponse listTasks(Integer page, Integer size) {
-        log.info("GET /api/v1/tasks listTasks page={} size={}", page, size);
-        Page<TaskEntity> slice = taskService.list(page, size);
+    public TaskPageResponse listTasks(Long xTenantId, Integer page, Integer size,
+                                      OffsetDateTime dueFrom, OffsetDateTime dueTo, List<String> fields) {
+        log.info("GET /api/v1/tasks listTasks tenant={} page={} size={} dueFrom={} dueTo={} fields={}",
+                xTenantId, page, size, dueFrom, dueTo, fields);
+        if ((dueFrom == null) != (dueTo == null)) {
+            throw Errors.validationError("'due_from' and 'due_to' must be given together");
+        }
+        Set<TaskField> taskFields = toTaskFields(fields);
+        // due windows merge stored tasks with computed occurrences, so they are read in full
+        Page<TaskView> slice = dueFrom != null
+                ? taskService.listDue(xTenantId, dueFrom, dueTo, page, size)
+                : taskService.list(xTenantId, page, size, taskFields);
         List<TaskResponse> content = slice.getContent().stream()
                 .map(taskConverter::toResponse)
                 .collect(Collectors.toList());
@@ -54,26 +95,137 @@ public class TasksApiImpl implements TasksApi {
     }
 
     @Override
-    public TaskResponse getTask(Long id) {
-        log.info("GET /api/v1/tasks/{} getTask", id);
-        return taskConverter.toResponse(taskService.getById(id));
+    public TaskCalendarResponse getTaskCalendar(LocalDate from, LocalDate to, Long xTenantId,
+                                                CalendarGranularity granularity, Integer top) {
+        log.info("GET /api/v1/tasks/calendar getTaskCalendar tenant={} from={} to={} granularity={} top={}",
+                xTenantId, from, to, granularity, top);
+        var buckets = taskCalendarService.calendar(xTenantId, from, to, granularity, top);
+        return taskConverter.toCalendarResponse(granularity, buckets);
     }
 
     @Override
-    public TaskResponse updateTask(Long id, TaskUpdateRequest taskUpdateRequest) {
-        log.info("PUT /api/v1/tasks/{} updateTask", id);
-        return taskConverter.toResponse(taskService.update(id, taskUpdateRequest));
+    public TaskStatsResponse getTaskStats(Long xTenantId) {
+        log.info("GET /api/v1/tasks/stats getTaskStats tenant={}", xTenantId);
+        return taskConverter.toStatsResponse(taskStatsService.stats(xTenantId));
     }
 
     @Override
-    public void deleteTask(Long id) {
-        log.info("DELETE /api/v1/tasks/{} deleteTask", id);
-        taskService.delete(id);
+    public TaskResponse getTask(Long id, Long xTenantId, List<String> fields) {
+        log.info("GET /api/v1/tasks/{} getTask tenant={} fields={}", id, xTenantId, fields);
+        return taskConverter.toResponse(taskService.getById(xTenantId, id, toTaskFields(fields)));
     }
 
     @Override
-    public TaskResponse changeTaskStatus(Long id, TaskStatusRequest taskStatusRequest) {
-        log.info("PATCH /api/v1/tasks/{}/status changeTaskStatus status={}", id, taskStatusRequest.getStatus());
-        return taskConverter.toResponse(taskService.changeStatus(id, taskStatusRequest));
+    public List<TaskResponse> getTasks(List<Long> ids, Long xTenantId, List<String> fields) {
+        log.info("GET /api/v1/tasks/batch getTasks tenant={} ids={} fields={}", xTenantId, ids.size(), fields);
+        return toResponses(taskService.getMany(xTenantId, ids, toTaskFields(fields)));
+    }
+
+    @Override
+    public TaskResponse updateTask(Long id, TaskUpdateRequest taskUpdateRequest, Long xTenantId) {
+        log.info("PUT /api/v1/tasks/{} updateTask tenant={}", id, xTenantId);
+        return taskConverter.toResponse(taskService.update(xTenantId, id, taskUpdateRequest));
+    }
+
+    @Override
+    public void deleteTask(Long id, Long xTenantId) {
+        log.info("DELETE /api/v1/tasks/{} deleteTask tenant={}", id, xTenantId);
+        taskService.delete(xTenantId, id);
+    }
+
+    @Override
+    public TaskResponse changeTaskStatus(Long id, TaskStatusRequest taskStatusRequest, Long xTenantId) {
+        log.info("PATCH /api/v1/tasks/{}/status changeTaskStatus tenant={} status={}",
+                id, xTenantId, taskStatusRequest.getStatus());
+        return taskConverter.toResponse(taskService.changeStatus(xTenantId, id, taskStatusRequest));
+    }
+
+    @Override
+    public List<TaskResponse> getTaskSubtree(Long id, Long xTenantId) {
+        log.info("GET /api/v1/tasks/{}/subtree getTaskSubtree tenant={}", id, xTenantId);
+        return toResponses(taskTreeService.subtree(xTenantId, id));
+    }
+
+    @Override
+    public TaskStatsResponse getTaskSubtreeStats(Long id, Long xTenantId) {
+        log.info("GET /api/v1/tasks/{}/subtree/stats getTaskSubtreeStats tenant={}", id, xTenantId);
+        return taskConverter.toStatsResponse(taskTreeService.subtreeStats(xTenantId, id));
+    }
+
+    @Override
+    public List<TaskResponse> getTaskBlockers(Long id, Long xTenantId) {
+        log.info("GET /api/v1/tasks/{}/blocked-by getTaskBlockers tenant={}", id, xTenantId);
+        return toResponses(taskTreeService.blockers(xTenantId, id));
+    }
+
+    @Override
+    public void addTaskBlocker(Long id, Long blockerId, Long xTenantId) {
+        log.info("PUT /api/v1/tasks/{}/blocked-by/{} addTaskBlocker tenant={}", id, blockerId, xTenantId);
+        taskTreeService.addBlocker(xTenantId, id, blockerId);
+    }
+
+    @Override
+    public void removeTaskBlocker(Long id, Long blockerId, Long xTenantId) {
+        log.info("DELETE /api/v1/tasks/{}/blocked-by/{} removeTaskBlocker tenant={}", id, blockerId, xTenantId);
+        taskTreeService.removeBlocker(xTenantId, id, blockerId);
+    }
+
+    @Override
+    public TaskRecurrence getTaskRecurrence(Long id, Long xTenantId) {
+        log.info("GET /api/v1/tasks/{}/recurrence getTaskRecurrence tenant={}", id, xTenantId);
+        return taskConverter.toRecurrenceResponse(taskRecurrenceService.get(xTenantId, id));
+    }
+
+    @Override
+    public TaskRecurrence setTaskRecurrence(Long id, TaskRecurrence taskRecurrence, Long xTenantId) {
+        log.info("PUT /api/v1/tasks/{}/recurrence setTaskRecurrence tenant={} frequency={}",
+                id, xTenantId, taskRecurrence.getFrequency());
+        return taskConverter.toRecurrenceResponse(taskRecurrenceService.set(xTenantId, id, taskRecurrence));
+    }
+
+    @Override
+    public void removeTaskRecurrence(Long id, Long xTenantId) {
+        log.info("DELETE /api/v1/tasks/{}/recurrence removeTaskRecurrence tenant={}", id, xTenantId);
+        taskRecurrenceService.remove(xTenantId, id);
+    }
+
+    @Override
+    public TaskResponse changeOccurrenceStatus(Long id, OccurrenceStatusRequest occurrenceStatusRequest,
+                                               Long xTenantId) {
+        log.info("PATCH /api/v1/tasks/{}/occurrences/status changeOccurrenceStatus tenant={} at={} status={}",
+                id, xTenantId, occurrenceStatusRequest.getOccurrenceAt(), occurrenceStatusRequest.getStatus());
+        var occurrence = taskRecurrenceService.changeOccurrenceStatus(xTenantId, id, occurrenceStatusRequest);
+        return taskConverter.toResponse(occurrence);
+    }
+
+    @Override
+    public TaskHistoryResponse getTaskHistory(Long id, Long xTenantId, Integer page, Integer size) {
+        log.info("GET /api/v1/tasks/{}/history getTaskHistory tenant={} page={} size={}", id, xTenantId, page, size);
+        return taskConverter.toHistoryResponse(taskHistoryService.getHistory(xTenantId, id, page, size));
+    }
+
+    @Override
+    public TaskResponse revertTask(Long id, TaskRevertRequest taskRevertRequest, Long xTenantId) {
+        log.info("POST /api/v1/tasks/{}/revert revertTask tenant={} version={}",
+                id, xTenantId, taskRevertRequest.getVersion());
+        return taskConverter.toResponse(taskHistoryService.revert(xTenantId, id, taskRevertRequest.getVersion()));
+    }
+
+    private static Set<TaskField> toTaskFields(List<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return TaskField.ALL;
+        }
+        Set<TaskField> taskFields = EnumSet.noneOf(TaskField.class);
+        for (String property : fields) {
+            taskFields.add(TaskField.byProperty(property.trim())
+                    .orElseThrow(() -> Errors.validationError("Unknown task field '" + property + "'")));
+        }
+        return taskFields;
+    }
+
+    private List<TaskResponse> toResponses(List<TaskView> views) {
+        return views.stream()
+                .map(taskConverter::toResponse)
+                .collect(Collectors.toList());
     }
 }
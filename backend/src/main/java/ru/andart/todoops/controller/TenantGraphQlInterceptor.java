@@ -0,0 +1,59 @@
+package ru.andart.todoops.controller;
+
+import graphql.ExecutionResult;
+import graphql.GraphqlErrorBuilder;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.graphql.support.DefaultExecutionGraphQlResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import ru.andart.todoops.exception.Errors;
+
+import java.util.Map;
+
+/**
+ * Puts the tenant of a GraphQL request into the GraphQL context ({@code @ContextValue Long tenantId}).
+ * Like the REST API, the tenant is the {@code X-Tenant-Id} header, 0 if absent; other values than a
+ * non-negative number fail the request without executing it.
+ */
+@Component
+public class TenantGraphQlInterceptor implements WebGraphQlInterceptor {
+
+    /**
+     * GraphQL context key of the tenant id.
+     */
+    public static final String TENANT_ID = "tenantId";
+
+    private static final String TENANT_HEADER = "X-Tenant-Id";
+
+    @Override
+    public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+        String header = request.getHeaders().getFirst(TENANT_HEADER);
+        Long tenantId = parseTenantId(header);
+        if (tenantId == null) {
+            ExecutionResult result = ExecutionResult.newExecutionResult()
+                    .addError(GraphQlExceptionResolver.toError(
+                            Errors.validationError("Invalid " + TENANT_HEADER + ": " + header),
+                            GraphqlErrorBuilder.newError()))
+                    .build();
+            return Mono.just(new WebGraphQlResponse(
+                    new DefaultExecutionGraphQlResponse(request.toExecutionInput(), result)));
+        }
+        request.configureExecutionInput((input, builder) ->
+                builder.graphQLContext(Map.of(TENANT_ID, tenantId)).build());
+        return chain.next(request);
+    }
+
+    private static Long parseTenantId(String header) {
+        if (header == null) {
+            return 0L;
+        }
+        try {
+            long tenantId = Long.parseLong(header.trim());
+            return tenantId >= 0 ? tenantId : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -2,10 +2,30 @@ package ru.andart.todoops.converter;
 
 import org.springframework.stereotype.Component;
 import ru.andart.todoops.entity.TaskEntity;
+import ru.andart.todoops.generated.model.AttachmentListResponse;
+import ru.andart.todoops.generated.model.AttachmentResponse;
+import ru.andart.todoops.generated.model.CalendarGranularity;
+import ru.andart.todoops.generated.model.TaskCalendarBucket;
+import ru.andart.todoops.generated.model.TaskCalendarResponse;
+import ru.andart.todoops.generated.model.TaskFieldChange;
+import ru.andart.todoops.generated.model.TaskHistoryEntry;
+import ru.andart.todoops.generated.model.TaskHistoryResponse;
+import ru.andart.todoops.generated.model.TaskRecurrence;
 import ru.andart.todoops.generated.model.TaskResponse;
+import ru.andart.todoops.generated.model.TaskStatsResponse;
+import ru.andart.todoops.generated.model.TaskStatusCount;
+import ru.andart.todoops.repository.Attachment;
+import ru.andart.todoops.repository.HistoryEntry;
+import ru.andart.todoops.repository.RecurrenceRule;
+import ru.andart.todoops.repository.TaskView;
+import ru.andart.todoops.service.CalendarBucket;
+import ru.andart.todoops.service.TaskStats;
+
+import java.util.List;
 
 /**
- * Converts {@link TaskEntity} to API response DTOs.
+ * Converts {@link TaskEntity}, {@link TaskView}, {@link RecurrenceRule}, {@link HistoryEntry}, {@link CalendarBucket}
+ * and {@link TaskStats} to API response DTOs.
  */
 @Component
 public class TaskConverter {
@@ -24,6 +44,143 @@ public class TaskConverter {
                 .description(description)
                 .status(entity.getStatus())
                 .createdAt(entity.getCreatedAt())
-                .dueDate(entity.getDueDate());
+                .dueDate(entity.getDueDate())
+                .parentId(entity.getParentId())
+                .seriesId(entity.getSeriesId())
+                .occurrenceAt(entity.getOccurrenceAt())
+                .version(entity.getVersion());
+    }
+
+    /**
+     * Converts task projection to TaskResponse.
+     *
+     * @param view task projection
+     * @return task response for API
+     */
+    public TaskResponse toResponse(TaskView view) {
+        String description = view.description() != null ? view.description() : "";
+        return new TaskResponse()
+                .id(view.id())
+                .title(view.title())
+                .description(description)
+                .status(view.status())
+                .createdAt(view.createdAt())
+                .dueDate(view.dueDate())
+                .parentId(view.parentId())
+                .seriesId(view.seriesId())
+                .occurrenceAt(view.occurrenceAt())
+                .version(view.version())
+                .virtual(view.isVirtual() ? Boolean.TRUE : null);
+    }
+
+    /**
+     * Converts recurrence rule to TaskRecurrence.
+     *
+     * @param rule recurrence rule
+     * @return recurrence for API
+     */
+    public TaskRecurrence toRecurrenceResponse(RecurrenceRule rule) {
+        return new TaskRecurrence()
+                .frequency(rule.frequency())
+                .interval(rule.interval())
+                .until(rule.until())
+                .zone(rule.zone().getId());
+    }
+
+    /**
+     * Converts history entries to TaskHistoryResponse.
+     *
+     * @param entries history entries, newest first
+     * @return history response for API
+     */
+    public TaskHistoryResponse toHistoryResponse(List<HistoryEntry> entries) {
+        List<TaskHistoryEntry> content = entries.stream()
+                .map(entry -> new TaskHistoryEntry()
+                        .version(entry.version())
+                        .changedAt(entry.changedAt())
+                        .operation(entry.operation())
+                        .changes(entry.changes().stream()
+                                .map(change -> new TaskFieldChange()
+                                        .field(change.field())
+                                        .from(change.from())
+                                        .to(change.to()))
+                                .toList()))
+                .toList();
+        return new TaskHistoryResponse().entries(content);
+    }
+
+    /**
+     * Converts calendar buckets to TaskCalendarResponse.
+     *
+     * @param granularity bucket size
+     * @param buckets calendar buckets
+     * @return calendar response for API
+     */
+    public TaskCalendarResponse toCalendarResponse(CalendarGranularity granularity, List<CalendarBucket> buckets) {
+        List<TaskCalendarBucket> content = buckets.stream()
+                .map(this::toCalendarBucket)
+                .toList();
+        return new TaskCalendarResponse()
+                .granularity(granularity)
+                .buckets(content);
+    }
+
+    /**
+     * Converts tenant statistics to TaskStatsResponse.
+     *
+     * @param stats tenant statistics
+     * @return statistics response for API
+     */
+    public TaskStatsResponse toStatsResponse(TaskStats stats) {
+        List<TaskStatusCount> counts = stats.counts().entrySet().stream()
+                .map(entry -> new TaskStatusCount().status(entry.getKey()).count(entry.getValue()))
+                .toList();
+        return new TaskStatsResponse()
+                .total(counts.stream().mapToLong(TaskStatusCount::getCount).sum())
+                .overdue(stats.overdue())
+                .counts(counts);
+    }
+
+    /**
+     * Converts an attachment to AttachmentResponse.
+     *
+     * @param attachment attachment
+     * @return attachment response for API
+     */
+    public AttachmentResponse toAttachmentResponse(Attachment attachment) {
+        return new AttachmentResponse()
+                .id(attachment.id())
+                .taskId(attachment.taskId())
+                .fileName(attachment.fileName())
+                .contentType(attachment.contentType())
+                .size(attachment.size())
+                .received(attachment.received())
+                .status(attachment.status())
+                .createdAt(attachment.createdAt());
+    }
+
+    /**
+     * Converts the attachments of a task to AttachmentListResponse.
+     *
+     * @param attachments attachments, oldest first
+     * @return attachment list response for API
+     */
+    public AttachmentListResponse toAttachmentListResponse(List<Attachment> attachments) {
+        return new AttachmentListResponse()
+                .attachments(attachments.stream().map(this::toAttachmentResponse).toList());
+    }
+
+    private TaskCalendarBucket toCalendarBucket(CalendarBucket bucket) {
+        List<TaskStatusCount> counts = bucket.counts().entrySet().stream()
+                .map(entry -> new TaskStatusCount().status(entry.getKey()).count(entry.getValue()))
+                .toList();
+        List<TaskResponse> tasks = bucket.tasks().stream()
+                .map(this::toResponse)
+                .toList();
+        return new TaskCalendarBucket()
+                .start(bucket.start())
+                .total(counts.stream().mapToLong(TaskStatusCount::getCount).sum())
+                .counts(counts)
+                .tasks(tasks);
     }
 }
@@ -8,6 +8,9 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.PartitionKey;
+import org.hibernate.annotations.SQLRestriction;
 import ru.andart.todoops.generated.model.TaskStatus;
 
 import java.time.OffsetDateTime;
@@ -19,11 +22,16 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+/**
+ * Task row. Soft-deleted rows ({@code deleted_at} set by {@code TaskTreeRepository.deleteSubtree}) are invisible
+ * to every entity load and JPQL query, which also lets the planner use the partial {@code deleted_at is null} indexes.
+ */
 @Entity
 @Table(name = "task")
+@SQLRestriction("deleted_at is null")
 @Getter
 @Setter
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @EqualsAndHashCode
@@ -33,6 +41,14 @@ public class TaskEntity {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /**
+     * Owner of the task. Also part of update/delete predicates, so that statements are pruned
+     * to one partition when the table is hash-partitioned by tenant.
+     */
+    @PartitionKey
+    @Column(name = "tenant_id", nullable = false, updatable = false)
+    private Long tenantId;
+
     private String title;
 
     private String description;
@@ -46,4 +62,32 @@ public class TaskEntity {
     @Column(name = "due_date")
     private OffsetDateTime dueDate;
 
+    @Column(name = "parent_id", updatable = false)
+    private Long parentId;
+
+    /**
+     * Materialized path: ids of all ancestors, root first, each followed by {@code /} ({@code /} for top level).
+     */
+    @Builder.Default
+    @Column(name = "path", nullable = false, updatable = false)
+    private String path = "/";
+
+    /**
+     * Recurring task this task is a materialized occurrence of.
+     */
+    @Column(name = "series_id", updatable = false)
+    private Long seriesId;
+
+    /**
+     * Slot of the series this occurrence was materialized from (its due date may be changed later).
+     */
+    @Column(name = "occurrence_at", updatable = false)
+    private OffsetDateTime occurrenceAt;
+
+    /**
+     * Number of changes made through the API; an update of a stale copy fails instead of overwriting.
+     */
+    @Version
+    private Integer version;
+
 }
@@ -1,5 +1,7 @@
 package ru.andart.todoops.exception;
 
+import java.time.OffsetDateTime;
+
 /**
  * Class describing all errors that occur in the application.
  */
@@ -31,6 +33,107 @@ public final class Errors {
                 .build();
     }
 
+    /**
+     * Blocked-by edge would close a cycle.
+     */
+    public static BaseException dependencyCycleError(Long taskId, Long blockerId) {
+        String humanMessage = String.format("Task %d cannot be blocked by task %d: it would wait for itself",
+                taskId, blockerId);
+        return BaseException.builder()
+                .code(400)
+                .message("task.dependency_cycle")
+                .humanMessage(humanMessage)
+                .build();
+    }
+
+    /**
+     * Task has no recurrence rule.
+     */
+    public static BaseException recurrenceNotFoundError(Long id) {
+        return BaseException.builder()
+                .code(400)
+                .message("task.recurrence_not_found")
+                .humanMessage("Task does not recur: " + id)
+                .build();
+    }
+
+    /**
+     * Time is not an occurrence of the recurring task.
+     */
+    public static BaseException invalidOccurrenceError(Long id, OffsetDateTime occurrenceAt) {
+        return BaseException.builder()
+                .code(400)
+                .message("task.invalid_occurrence")
+                .humanMessage(String.format("Task %d has no occurrence at %s", id, occurrenceAt))
+                .build();
+    }
+
+    /**
+     * History needed to revert a task has expired.
+     */
+    public static BaseException historyExpiredError(Long id, int version) {
+        return BaseException.builder()
+                .code(400)
+                .message("task.history_expired")
+                .humanMessage(String.format("History of task %d back to version %d is no longer retained", id, version))
+                .build();
+    }
+
+    /**
+     * Task was changed by another request since it was read.
+     */
+    public static BaseException concurrentModificationError() {
+        return BaseException.builder()
+                .code(400)
+                .message("task.concurrent_modification")
+                .humanMessage("Task was modified concurrently, retry the request")
+                .build();
+    }
+
+    /**
+     * Attachment not found (or its task is deleted).
+     */
+    public static BaseException attachmentNotFoundError(Long id) {
+        return BaseException.builder()
+                .code(400)
+                .message("attachment.not_found")
+                .humanMessage("Attachment not found: " + id)
+                .build();
+    }
+
+    /**
+     * Chunk does not start where the upload continues.
+     */
+    public static BaseException attachmentOffsetError(Long id, long received) {
+        return BaseException.builder()
+                .code(400)
+                .message("attachment.invalid_offset")
+                .humanMessage(String.format("Upload of attachment %d continues at offset %d", id, received))
+                .build();
+    }
+
+    /**
+     * Attachment content requested before the upload is complete.
+     */
+    public static BaseException attachmentIncompleteError(Long id) {
+        return BaseException.builder()
+                .code(400)
+                .message("attachment.incomplete")
+                .humanMessage("Upload of attachment " + id + " is not complete")
+                .build();
+    }
+
+    /**
+     * Calendar range is empty or too long.
+     */
+    public static BaseException invalidCalendarRangeError(String humanMessage) {
+        return BaseException.builder()
+                .code(400)
+                .message("calendar.invalid_range")
+                .humanMessage(humanMessage)
+                .build();
+    }
+
     /**
      * Validation error.
      */
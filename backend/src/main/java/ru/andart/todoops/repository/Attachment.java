@@ -0,0 +1,40 @@
+package ru.andart.todoops.repository;
+
+import ru.andart.todoops.generated.model.AttachmentStatus;
+
+import java.time.OffsetDateTime;
+
+/**
+ * File attached to a task.
+ *
+ * @param id          attachment id
+ * @param tenantId    owner of the task
+ * @param taskId      task the file is attached to
+ * @param fileName    file name shown to users
+ * @param contentType media type the content is served with
+ * @param size        declared size in bytes
+ * @param received    bytes stored so far (the offset of the next chunk)
+ * @param status      {@code COMPLETE} once all bytes are stored
+ * @param createdAt   when the upload was started
+ */
+public record Attachment(
+        Long id,
+        Long tenantId,
+        Long taskId,
+        String fileName,
+        String contentType,
+        long size,
+        long received,
+        AttachmentStatus status,
+        OffsetDateTime createdAt
+) {
+
+    /**
+     * Returns the key of the attachment's content in the blob store.
+     *
+     * @return blob key
+     */
+    public String blobKey() {
+        return tenantId + "/" + id;
+    }
+}
@@ -0,0 +1,15 @@
+package ru.andart.todoops.repository;
+
+import ru.andart.todoops.generated.model.TaskStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Number of tasks of one status due within one calendar bucket.
+ */
+public record CalendarCount(
+        LocalDate bucket,
+        TaskStatus status,
+        long count
+) {
+}
@@ -0,0 +1,12 @@
+package ru.andart.todoops.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Task row of the top-N part of the calendar, with the bucket it falls into.
+ */
+public record CalendarTask(
+        LocalDate bucket,
+        TaskView task
+) {
+}
@@ -0,0 +1,22 @@
+package ru.andart.todoops.repository;
+
+import java.util.List;
+
+/**
+ * One field of a task changed by one history entry. Values are kept as text (dates in ISO-8601, statuses by name).
+ *
+ * @param field one of {@link #FIELDS}
+ * @param from  value before the change (null if absent)
+ * @param to    value after the change (null if absent or deleted)
+ */
+public record FieldChange(
+        String field,
+        String from,
+        String to
+) {
+
+    /**
+     * Tracked fields in the order changes are listed.
+     */
+    public static final List<String> FIELDS = List.of("title", "description", "status", "due_date");
+}
@@ -0,0 +1,22 @@
+package ru.andart.todoops.repository;
+
+import ru.andart.todoops.generated.model.TaskHistoryOperation;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * One change of a task as stored in {@code task_history}.
+ *
+ * @param version   task version the change produced
+ * @param changedAt when the change was made
+ * @param operation kind of change
+ * @param changes   changed fields in {@link FieldChange#FIELDS} order
+ */
+public record HistoryEntry(
+        int version,
+        OffsetDateTime changedAt,
+        TaskHistoryOperation operation,
+        List<FieldChange> changes
+) {
+}
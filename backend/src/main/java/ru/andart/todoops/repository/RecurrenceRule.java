@@ -0,0 +1,28 @@
+package ru.andart.todoops.repository;
+
+import ru.andart.todoops.generated.model.RecurrenceFrequency;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+
+/**
+ * Recurrence rule of a task: occurrences at {@code startsAt + k * interval} units, {@code k >= 1},
+ * not later than {@code until}, computed in the wall-clock time of {@code zone}. The task itself is the occurrence
+ * {@code k = 0}.
+ *
+ * @param taskId    recurring task
+ * @param frequency unit of the interval
+ * @param interval  number of units between occurrences
+ * @param startsAt  due date of the recurring task when the rule was set
+ * @param until     last possible occurrence, or null for an endless series
+ * @param zone      time zone of the slots
+ */
+public record RecurrenceRule(
+        Long taskId,
+        RecurrenceFrequency frequency,
+        int interval,
+        OffsetDateTime startsAt,
+        OffsetDateTime until,
+        ZoneId zone
+) {
+}
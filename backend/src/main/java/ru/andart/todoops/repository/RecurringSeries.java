@@ -0,0 +1,10 @@
+package ru.andart.todoops.repository;
+
+/**
+ * Recurrence rule together with the recurring task its occurrences are copied from.
+ */
+public record RecurringSeries(
+        RecurrenceRule rule,
+        TaskView task
+) {
+}
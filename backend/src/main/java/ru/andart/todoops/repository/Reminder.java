@@ -0,0 +1,24 @@
+package ru.andart.todoops.repository;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+
+/**
+ * Reminder claimed by this replica.
+ *
+ * @param tenantId   owner of the task
+ * @param taskId     task id
+ * @param title      task title at claim time
+ * @param dueDate    task due date at claim time
+ * @param fireAt     when the reminder is due
+ * @param leaseUntil {@code next_fire_at} written by the claim; the row is only completed if it is still the same
+ */
+public record Reminder(
+        Long tenantId,
+        Long taskId,
+        String title,
+        OffsetDateTime dueDate,
+        OffsetDateTime fireAt,
+        LocalDateTime leaseUntil
+) {
+}
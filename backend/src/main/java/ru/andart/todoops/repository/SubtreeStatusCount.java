@@ -0,0 +1,13 @@
+package ru.andart.todoops.repository;
+
+import ru.andart.todoops.generated.model.TaskStatus;
+
+/**
+ * Number of tasks of one status in a subtree, and how many of them are overdue.
+ */
+public record SubtreeStatusCount(
+        TaskStatus status,
+        long count,
+        long overdue
+) {
+}
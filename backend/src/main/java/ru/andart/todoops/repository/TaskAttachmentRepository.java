@@ -0,0 +1,187 @@
+package ru.andart.todoops.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.andart.todoops.entity.TaskEntity;
+import ru.andart.todoops.generated.model.AttachmentStatus;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Attachment rows in {@code task_attachment}. Attachments of soft-deleted tasks are not found,
+ * as if they were gone with the task; their rows and blobs are removed when the task is purged.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TaskAttachmentRepository {
+
+    private static final String COLUMNS =
+            "a.id, a.tenant_id, a.task_id, a.file_name, a.content_type, a.size, a.received, a.status, a.created_at";
+
+    private static final String INSERT = """
+            insert into task_attachment as a (tenant_id, task_id, file_name, content_type, size, received, status,
+                                              created_at, completed_at)
+            values (:tenantId, :taskId, :fileName, :contentType, :size, 0, :status, localtimestamp,
+                    case when :status = 'COMPLETE' then localtimestamp end)
+            returning\s""" + COLUMNS;
+
+    private static final String FIND = "select " + COLUMNS + """
+             from task_attachment a
+            join task t on t.tenant_id = a.tenant_id and t.id = a.task_id and t.deleted_at is null
+            where a.tenant_id = :tenantId and a.task_id = :taskId and a.id = :id
+            """;
+
+    private static final String FIND_BY_TASK = "select " + COLUMNS + """
+             from task_attachment a
+            where a.tenant_id = :tenantId and a.task_id = :taskId
+            order by a.id
+            """;
+
+    private static final String FIND_BY_TASKS = "select " + COLUMNS + """
+             from task_attachment a
+            where a.tenant_id = :tenantId and a.task_id in (:taskIds)
+            order by a.id
+            """;
+
+    // Conditional on the offset: of two uploads of the same chunk only one advances the attachment
+    private static final String ADVANCE = """
+            update task_attachment a
+            set received = :received,
+                status = case when :received = a.size then 'COMPLETE' else 'UPLOADING' end,
+                completed_at = case when :received = a.size then localtimestamp end
+            where a.tenant_id = :tenantId and a.id = :id and a.received = :offset and a.status = 'UPLOADING'
+            returning\s""" + COLUMNS;
+
+    private static final String DELETE = """
+            delete from task_attachment where tenant_id = :tenantId and task_id = :taskId and id = :id
+            """;
+
+    private static final String DELETE_BY_TASKS = """
+            delete from task_attachment a where (a.tenant_id, a.task_id) in (:tasks)
+            returning\s""" + COLUMNS;
+
+    private static final RowMapper<Attachment> MAPPER = (rs, rowNum) -> new Attachment(
+            rs.getLong("id"),
+            rs.getLong("tenant_id"),
+            rs.getLong("task_id"),
+            rs.getString("file_name"),
+            rs.getString("content_type"),
+            rs.getLong("size"),
+            rs.getLong("received"),
+            AttachmentStatus.valueOf(rs.getString("status")),
+            TaskViewRowMapper.toOffsetDateTime(rs, "created_at"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Registers an attachment with nothing received yet (complete right away if it is empty).
+     *
+     * @param tenantId    tenant id
+     * @param taskId      task id
+     * @param fileName    file name
+     * @param contentType media type
+     * @param size        declared size in bytes
+     * @return created attachment
+     */
+    public Attachment create(Long tenantId, Long taskId, String fileName, String contentType, long size) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("taskId", taskId)
+                .addValue("fileName", fileName)
+                .addValue("contentType", contentType)
+                .addValue("size", size)
+                .addValue("status", (size == 0 ? AttachmentStatus.COMPLETE : AttachmentStatus.UPLOADING).name());
+        return jdbcTemplate.queryForObject(INSERT, params, MAPPER);
+    }
+
+    /**
+     * Returns an attachment of a live task.
+     *
+     * @param tenantId tenant id
+     * @param taskId   task id
+     * @param id       attachment id
+     * @return attachment, empty if it or its task does not exist
+     */
+    public Optional<Attachment> find(Long tenantId, Long taskId, Long id) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("taskId", taskId)
+                .addValue("id", id);
+        return jdbcTemplate.query(FIND, params, MAPPER).stream().findFirst();
+    }
+
+    /**
+     * Returns the attachments of a task, oldest first.
+     *
+     * @param tenantId tenant id
+     * @param taskId   task id
+     * @return attachments
+     */
+    public List<Attachment> findByTask(Long tenantId, Long taskId) {
+        return jdbcTemplate.query(FIND_BY_TASK, new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("taskId", taskId), MAPPER);
+    }
+
+    /**
+     * Returns the attachments of several tasks in one statement, oldest first.
+     *
+     * @param tenantId tenant id
+     * @param taskIds  task ids
+     * @return attachments (grouped by {@link Attachment#taskId()} by the caller)
+     */
+    public List<Attachment> findByTasks(Long tenantId, Collection<Long> taskIds) {
+        return jdbcTemplate.query(FIND_BY_TASKS, new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("taskIds", taskIds), MAPPER);
+    }
+
+    /**
+     * Moves the received offset of an upload from {@code offset} to {@code received}, completing it at its size.
+     *
+     * @param attachment attachment as read before the chunk was stored
+     * @param received   new received offset
+     * @return updated attachment, empty if another chunk was recorded in the meantime
+     */
+    public Optional<Attachment> advance(Attachment attachment, long received) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("tenantId", attachment.tenantId())
+                .addValue("id", attachment.id())
+                .addValue("offset", attachment.received())
+                .addValue("received", received);
+        return jdbcTemplate.query(ADVANCE, params, MAPPER).stream().findFirst();
+    }
+
+    /**
+     * Deletes an attachment row.
+     *
+     * @param attachment attachment
+     */
+    public void delete(Attachment attachment) {
+        jdbcTemplate.update(DELETE, new MapSqlParameterSource()
+                .addValue("tenantId", attachment.tenantId())
+                .addValue("taskId", attachment.taskId())
+                .addValue("id", attachment.id()));
+    }
+
+    /**
+     * Deletes the attachment rows of tasks.
+     *
+     * @param tasks tasks (tenant and id only)
+     * @return deleted attachments
+     */
+    public List<Attachment> deleteByTasks(List<TaskEntity> tasks) {
+        if (tasks.isEmpty()) {
+            return List.of();
+        }
+        List<Object[]> keys = tasks.stream()
+                .map(task -> new Object[] {task.getTenantId(), task.getId()})
+                .toList();
+        return jdbcTemplate.query(DELETE_BY_TASKS, new MapSqlParameterSource("tasks", keys), MAPPER);
+    }
+}
@@ -0,0 +1,191 @@
+package ru.andart.todoops.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.andart.todoops.generated.model.TaskStatus;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SQL aggregation of tasks by due date ({@code date_trunc} buckets of {@code day}, {@code week} or {@code month}).
+ * Direct counts are an index-only scan of {@code (tenant_id, due_date, status)}; the
+ * {@code task_calendar_rollup} table keeps per-day counts, so reading it costs O(days) instead of O(tasks).
+ */
+@Repository
+@RequiredArgsConstructor
+public class TaskCalendarRepository {
+
+    private static final String COUNT_TASKS = """
+            select date_trunc(:unit, due_date)::date as bucket, status, count(*) as task_count
+            from task
+            where tenant_id = :tenantId and due_date >= :from and due_date < :to and deleted_at is null
+            group by bucket, status
+            order by bucket, status
+            """;
+
+    private static final String COUNT_ROLLUP = """
+            select date_trunc(:unit, day::timestamp)::date as bucket, status, sum(task_count) as task_count
+            from task_calendar_rollup
+            where tenant_id = :tenantId and day >= :from and day < :to
+            group by bucket, status
+            having sum(task_count) > 0
+            order by bucket, status
+            """;
+
+    private static final String TOP_TASKS = """
+            select bucket, %1$s
+            from (
+                select date_trunc(:unit, due_date)::date as bucket, %1$s,
+                       row_number() over (partition by date_trunc(:unit, due_date) order by due_date, id) as position
+                from task
+                where tenant_id = :tenantId and due_date >= :from and due_date < :to and deleted_at is null
+            ) ranked
+            where position <= :top
+            order by bucket, position
+            """.formatted(TaskViewRowMapper.COLUMNS);
+
+    // The day is derived by Postgres from the bound timestamp, exactly as due_date::date is for stored rows
+    private static final String ADJUST_ROLLUP = """
+            insert into task_calendar_rollup (tenant_id, day, status, task_count)
+            values (:tenantId, cast(:dueDate as date), :status, :delta)
+            on conflict (tenant_id, day, status)
+            do update set task_count = task_calendar_rollup.task_count + excluded.task_count
+            """;
+
+    // Past days from the rollup, today's tasks from the due-date index
+    private static final String COUNT_OVERDUE = """
+            select (select coalesce(sum(task_count), 0) from task_calendar_rollup
+                    where tenant_id = :tenantId and day < current_date and status <> 'COMPLETED')
+                 + (select count(*) from task
+                    where tenant_id = :tenantId and due_date >= current_date and due_date < localtimestamp
+                      and status <> 'COMPLETED' and deleted_at is null)
+            """;
+
+    private static final String DELETE_ROLLUP = "delete from task_calendar_rollup where tenant_id in (:tenantIds)";
+
+    private static final String REBUILD_ROLLUP = """
+            insert into task_calendar_rollup (tenant_id, day, status, task_count)
+            select tenant_id, due_date::date, status, count(*)
+            from task
+            where tenant_id in (:tenantIds) and due_date is not null and deleted_at is null
+            group by tenant_id, due_date::date, status
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Counts tasks per bucket and status directly from the {@code task} table.
+     *
+     * @param tenantId tenant id
+     * @param from first day of the range (inclusive)
+     * @param to day after the range (exclusive)
+     * @param unit {@code date_trunc} unit
+     * @return non-zero counts ordered by bucket and status
+     */
+    public List<CalendarCount> countTasks(Long tenantId, LocalDate from, LocalDate to, String unit) {
+        var params = rangeParams(tenantId, from, to, unit);
+        return jdbcTemplate.query(COUNT_TASKS, params, TaskCalendarRepository::mapCount);
+    }
+
+    /**
+     * Counts tasks per bucket and status from the daily rollup.
+     *
+     * @param tenantId tenant id
+     * @param from first day of the range (inclusive)
+     * @param to day after the range (exclusive)
+     * @param unit {@code date_trunc} unit
+     * @return non-zero counts ordered by bucket and status
+     */
+    public List<CalendarCount> countRollup(Long tenantId, LocalDate from, LocalDate to, String unit) {
+        var params = rangeParams(tenantId, from, to, unit);
+        return jdbcTemplate.query(COUNT_ROLLUP, params, TaskCalendarRepository::mapCount);
+    }
+
+    /**
+     * Returns the earliest-due tasks of every bucket.
+     *
+     * @param tenantId tenant id
+     * @param from first day of the range (inclusive)
+     * @param to day after the range (exclusive)
+     * @param unit {@code date_trunc} unit
+     * @param top maximum number of tasks per bucket
+     * @return tasks ordered by bucket, due date and id
+     */
+    public List<CalendarTask> findTopTasks(Long tenantId, LocalDate from, LocalDate to, String unit, int top) {
+        MapSqlParameterSource params = rangeParams(tenantId, from, to, unit).addValue("top", top);
+        return jdbcTemplate.query(TOP_TASKS, params, (rs, rowNum) -> new CalendarTask(
+                rs.getObject("bucket", LocalDate.class),
+                TaskViewRowMapper.INSTANCE.mapRow(rs, rowNum)));
+    }
+
+    /**
+     * Counts tasks that are past their due date and not completed.
+     *
+     * @param tenantId tenant id
+     * @return number of overdue tasks
+     */
+    public long countOverdue(Long tenantId) {
+        Long count = jdbcTemplate.queryForObject(COUNT_OVERDUE, Map.of("tenantId", tenantId), Long.class);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Adds {@code delta} to the rollup count of the day of {@code dueDate}.
+     *
+     * @param tenantId tenant id
+     * @param dueDate due date of the task
+     * @param status status of the task
+     * @param delta change of the count (+1 or -1)
+     */
+    public void adjustRollup(Long tenantId, OffsetDateTime dueDate, TaskStatus status, int delta) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("dueDate", dueDate)
+                .addValue("status", status.name())
+                .addValue("delta", delta);
+        jdbcTemplate.update(ADJUST_ROLLUP, params);
+    }
+
+    /**
+     * Recomputes the rollup of a tenant from the {@code task} table (after bulk inserts that bypass the service).
+     *
+     * @param tenantId tenant id
+     */
+    public void rebuildRollup(Long tenantId) {
+        rebuildRollup(List.of(tenantId));
+    }
+
+    /**
+     * Recomputes the rollup of several tenants from the {@code task} table (after a bulk load).
+     *
+     * @param tenantIds tenant ids
+     */
+    public void rebuildRollup(Collection<Long> tenantIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource("tenantIds", tenantIds);
+        jdbcTemplate.update(DELETE_ROLLUP, params);
+        jdbcTemplate.update(REBUILD_ROLLUP, params);
+    }
+
+    private static MapSqlParameterSource rangeParams(Long tenantId, LocalDate from, LocalDate to, String unit) {
+        return new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("from", from)
+                .addValue("to", to)
+                .addValue("unit", unit);
+    }
+
+    private static CalendarCount mapCount(ResultSet rs, int rowNum) throws SQLException {
+        return new CalendarCount(
+                rs.getObject("bucket", LocalDate.class),
+                TaskStatus.valueOf(rs.getString("status")),
+                rs.getLong("task_count"));
+    }
+}
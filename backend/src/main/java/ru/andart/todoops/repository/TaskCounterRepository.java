@@ -0,0 +1,130 @@
+package ru.andart.todoops.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.andart.todoops.generated.model.TaskStatus;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Striped per-tenant status counters in {@code task_status_counter}.
+ * A count is the sum of its stripe rows; writers add to one random stripe, so concurrent transactions of a tenant
+ * rarely wait for each other's row lock. Reads touch at most {@code stripes x statuses} rows.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TaskCounterRepository {
+
+    private static final String ADD = """
+            insert into task_status_counter (tenant_id, status, stripe, task_count)
+            values (:tenantId, :status, :stripe, :delta)
+            on conflict (tenant_id, status, stripe)
+            do update set task_count = task_status_counter.task_count + excluded.task_count
+            """;
+
+    private static final String COUNT_TENANT = """
+            select status, sum(task_count) as task_count
+            from task_status_counter
+            where tenant_id = :tenantId
+            group by status
+            """;
+
+    private static final String COUNT_ALL = """
+            select status, sum(task_count) as task_count
+            from task_status_counter
+            group by status
+            """;
+
+    // One statement, so both sides come from the same snapshot. Transactions still in flight are invisible on
+    // both sides; their own increments land on top of the correction when they commit.
+    private static final String RECONCILE = """
+            with actual as (
+                select tenant_id, status, count(*) as task_count from task where deleted_at is null
+                group by tenant_id, status
+            ), counted as (
+                select tenant_id, status, sum(task_count) as task_count from task_status_counter
+                group by tenant_id, status
+            ), drift as (
+                select tenant_id, status, coalesce(a.task_count, 0) - coalesce(c.task_count, 0) as delta
+                from actual a
+                full join counted c using (tenant_id, status)
+            )
+            insert into task_status_counter (tenant_id, status, stripe, task_count)
+            select tenant_id, status, 0, delta from drift where delta <> 0
+            on conflict (tenant_id, status, stripe)
+            do update set task_count = task_status_counter.task_count + excluded.task_count
+            """;
+
+    private static final String TRY_LOCK = "select pg_try_advisory_xact_lock(hashtext(:name))";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Adds {@code delta} to one stripe of a tenant's status count.
+     *
+     * @param tenantId tenant id
+     * @param status task status
+     * @param stripe stripe to update
+     * @param delta change of the count
+     */
+    public void add(Long tenantId, TaskStatus status, int stripe, int delta) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("status", status.name())
+                .addValue("stripe", stripe)
+                .addValue("delta", delta);
+        jdbcTemplate.update(ADD, params);
+    }
+
+    /**
+     * Returns a tenant's task count per status.
+     *
+     * @param tenantId tenant id
+     * @return counts of every status (zero if absent)
+     */
+    public Map<TaskStatus, Long> countByStatus(Long tenantId) {
+        return query(COUNT_TENANT, new MapSqlParameterSource("tenantId", tenantId));
+    }
+
+    /**
+     * Returns the task count per status over all tenants.
+     *
+     * @return counts of every status (zero if absent)
+     */
+    public Map<TaskStatus, Long> countAllByStatus() {
+        return query(COUNT_ALL, new MapSqlParameterSource());
+    }
+
+    /**
+     * Corrects every (tenant, status) count that differs from the {@code task} table. Full scan of {@code task}.
+     *
+     * @return number of corrected counts
+     */
+    public int reconcile() {
+        return jdbcTemplate.update(RECONCILE, new MapSqlParameterSource());
+    }
+
+    /**
+     * Takes a transaction-scoped advisory lock without waiting (released on commit; safe behind a pooler).
+     *
+     * @param name lock name
+     * @return whether the lock was acquired
+     */
+    public boolean tryLock(String name) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(TRY_LOCK, Map.of("name", name), Boolean.class));
+    }
+
+    private Map<TaskStatus, Long> query(String sql, MapSqlParameterSource params) {
+        Map<TaskStatus, Long> counts = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus status : TaskStatus.values()) {
+            counts.put(status, 0L);
+        }
+        jdbcTemplate.query(sql, params, rs -> {
+            counts.put(TaskStatus.valueOf(rs.getString("status")), rs.getLong("task_count"));
+        });
+        return counts;
+    }
+}
@@ -0,0 +1,146 @@
+package ru.andart.todoops.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Blocked-by edges in {@code task_dependency}. The graph of a tenant is kept acyclic: before an edge is added,
+ * a recursive query walks the blocker's own blockers (primary key lookups) looking for the blocked task.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TaskDependencyRepository {
+
+    private static final String LOCK_TENANT =
+            "select pg_advisory_xact_lock(hashtext('todoops.task-dependency'), hashtext(cast(:tenantId as text)))";
+
+    private static final String REACHES = """
+            with recursive upstream(id) as (
+                select cast(:from as bigint)
+                union
+                select d.blocked_by_id
+                from task_dependency d
+                join upstream u on d.tenant_id = :tenantId and d.task_id = u.id
+            )
+            select exists (select 1 from upstream where id = :target)
+            """;
+
+    private static final String ADD = """
+            insert into task_dependency (tenant_id, task_id, blocked_by_id)
+            values (:tenantId, :taskId, :blockerId)
+            on conflict do nothing
+            """;
+
+    private static final String REMOVE = """
+            delete from task_dependency
+            where tenant_id = :tenantId and task_id = :taskId and blocked_by_id = :blockerId
+            """;
+
+    private static final String FIND_BLOCKERS = """
+            select %s from task t
+            where t.tenant_id = :tenantId and t.deleted_at is null
+              and t.id in (select blocked_by_id from task_dependency where tenant_id = :tenantId and task_id = :taskId)
+            order by t.id
+            """.formatted(TaskViewRowMapper.COLUMNS);
+
+    private static final String FIND_BLOCKERS_OF = """
+            select d.task_id as blocked_id, %s from task_dependency d
+            join task t on t.tenant_id = d.tenant_id and t.id = d.blocked_by_id and t.deleted_at is null
+            where d.tenant_id = :tenantId and d.task_id in (:taskIds)
+            order by t.id
+            """.formatted(TaskViewRowMapper.COLUMNS);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Serializes edge changes of one tenant until the end of the transaction, so that two concurrent edges
+     * cannot close a cycle together. Transaction-scoped, so safe behind a transaction pooler.
+     *
+     * @param tenantId tenant id
+     */
+    public void lockTenant(Long tenantId) {
+        jdbcTemplate.query(LOCK_TENANT, new MapSqlParameterSource("tenantId", tenantId), rs -> null);
+    }
+
+    /**
+     * Checks whether {@code target} is reachable from {@code from} by following blocked-by edges.
+     *
+     * @param tenantId tenant id
+     * @param from start task
+     * @param target task to look for
+     * @return whether {@code from} (transitively) waits for {@code target}, or is it
+     */
+    public boolean reaches(Long tenantId, Long from, Long target) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("from", from)
+                .addValue("target", target);
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(REACHES, params, Boolean.class));
+    }
+
+    /**
+     * Adds an edge (no-op if present).
+     *
+     * @param tenantId tenant id
+     * @param taskId blocked task
+     * @param blockerId blocking task
+     */
+    public void add(Long tenantId, Long taskId, Long blockerId) {
+        jdbcTemplate.update(ADD, edgeParams(tenantId, taskId, blockerId));
+    }
+
+    /**
+     * Removes an edge (no-op if absent).
+     *
+     * @param tenantId tenant id
+     * @param taskId blocked task
+     * @param blockerId blocking task
+     */
+    public void remove(Long tenantId, Long taskId, Long blockerId) {
+        jdbcTemplate.update(REMOVE, edgeParams(tenantId, taskId, blockerId));
+    }
+
+    /**
+     * Returns the direct blockers of a task.
+     *
+     * @param tenantId tenant id
+     * @param taskId blocked task
+     * @return blocking tasks ordered by id
+     */
+    public List<TaskView> findBlockers(Long tenantId, Long taskId) {
+        return jdbcTemplate.query(FIND_BLOCKERS, edgeParams(tenantId, taskId, null), TaskViewRowMapper.INSTANCE);
+    }
+
+    /**
+     * Returns the direct blockers of several tasks in one statement.
+     *
+     * @param tenantId tenant id
+     * @param taskIds blocked tasks
+     * @return blocking tasks ordered by id, per blocked task that has any
+     */
+    public Map<Long, List<TaskView>> findBlockersOf(Long tenantId, Collection<Long> taskIds) {
+        Map<Long, List<TaskView>> blockers = new HashMap<>();
+        jdbcTemplate.query(FIND_BLOCKERS_OF, new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("taskIds", taskIds), rs -> {
+                    blockers.computeIfAbsent(rs.getLong("blocked_id"), id -> new ArrayList<>())
+                            .add(TaskViewRowMapper.INSTANCE.mapRow(rs, rs.getRow()));
+                });
+        return blockers;
+    }
+
+    private static MapSqlParameterSource edgeParams(Long tenantId, Long taskId, Long blockerId) {
+        return new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("taskId", taskId)
+                .addValue("blockerId", blockerId);
+    }
+}
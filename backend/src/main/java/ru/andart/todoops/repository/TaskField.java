@@ -0,0 +1,71 @@
+package ru.andart.todoops.repository;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Property of a task response that can be requested in a sparse fieldset, with the {@code task} column it is
+ * read from. The id is always read; {@code virtual} is derived from {@code series_id}.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum TaskField {
+    ID("id", "id"),
+    TITLE("title", "title"),
+    DESCRIPTION("description", "description"),
+    STATUS("status", "status"),
+    CREATED_AT("created_at", "created_at"),
+    DUE_DATE("due_date", "due_date"),
+    PARENT_ID("parent_id", "parent_id"),
+    SERIES_ID("series_id", "series_id"),
+    OCCURRENCE_AT("occurrence_at", "occurrence_at"),
+    VIRTUAL("virtual", "series_id"),
+    VERSION("version", "version");
+
+    /**
+     * Every field: the full task.
+     */
+    public static final Set<TaskField> ALL = Collections.unmodifiableSet(EnumSet.allOf(TaskField.class));
+
+    /**
+     * JSON property name in {@code TaskResponse}.
+     */
+    private final String property;
+
+    /**
+     * Column of {@code task} the field is read from.
+     */
+    private final String column;
+
+    /**
+     * Returns the field of a JSON property name.
+     *
+     * @param property property name
+     * @return field or empty for an unknown name
+     */
+    public static Optional<TaskField> byProperty(String property) {
+        return Arrays.stream(values()).filter(field -> field.property.equals(property)).findFirst();
+    }
+
+    /**
+     * Returns the columns to select for a fieldset: the id and the columns of the fields, each once, in
+     * {@link TaskViewRowMapper#COLUMNS} order.
+     *
+     * @param fields requested fields
+     * @return column names
+     */
+    public static List<String> columns(Set<TaskField> fields) {
+        return Arrays.stream(values())
+                .filter(field -> field == ID || fields.contains(field))
+                .map(TaskField::getColumn)
+                .distinct()
+                .toList();
+    }
+}
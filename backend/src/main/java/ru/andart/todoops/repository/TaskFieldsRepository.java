@@ -0,0 +1,82 @@
+package ru.andart.todoops.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Task reads narrowed to a sparse fieldset: only the columns of the requested {@link TaskField}s are selected
+ * (the column list is built from the enum, never from request text), so unread columns such as long descriptions
+ * are neither fetched nor transferred. Several ids are looked up with one {@code id = any(:ids)} array parameter,
+ * a single statement shape whatever the number of ids. Soft-deleted tasks are excluded like in the JPA queries.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TaskFieldsRepository {
+
+    private static final String FIND_BY_IDS = """
+            select %s from task
+            where tenant_id = :tenantId and id = any(:ids) and deleted_at is null
+            """;
+
+    private static final String FIND_PAGE = """
+            select %s from task
+            where tenant_id = :tenantId and deleted_at is null
+            order by id
+            limit :limit offset :offset
+            """;
+
+    private static final String COUNT = """
+            select count(*) from task where tenant_id = :tenantId and deleted_at is null
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns the tasks of several ids within a tenant in one statement.
+     *
+     * @param tenantId tenant id
+     * @param ids      task ids
+     * @param fields   fields to read
+     * @return task views found in this tenant, in no particular order, unread fields null
+     */
+    public List<TaskView> findByIds(Long tenantId, Collection<Long> ids, Set<TaskField> fields) {
+        var params = new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("ids", ids.toArray(Long[]::new));
+        return jdbcTemplate.query(FIND_BY_IDS.formatted(select(fields)), params, TaskViewRowMapper.of(fields));
+    }
+
+    /**
+     * Returns a page of a tenant's tasks in id order. The count is queried only when the page does not tell the
+     * total by itself (a full page, or an empty page past the first one).
+     *
+     * @param tenantId tenant id
+     * @param fields   fields to read
+     * @param pageable page request (its sort is ignored)
+     * @return page of task views, unread fields null
+     */
+    public Page<TaskView> findPage(Long tenantId, Set<TaskField> fields, Pageable pageable) {
+        var params = new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("limit", pageable.getPageSize())
+                .addValue("offset", pageable.getOffset());
+        List<TaskView> content = jdbcTemplate.query(FIND_PAGE.formatted(select(fields)), params,
+                TaskViewRowMapper.of(fields));
+        return PageableExecutionUtils.getPage(content, pageable, () -> Objects.requireNonNull(
+                jdbcTemplate.queryForObject(COUNT, params, Long.class)));
+    }
+
+    private static String select(Set<TaskField> fields) {
+        return String.join(", ", TaskField.columns(fields));
+    }
+}
@@ -0,0 +1,214 @@
+package ru.andart.todoops.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.andart.todoops.generated.model.TaskHistoryOperation;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only change log in {@code task_history}: one row per task version with the changed fields only
+ * ({@code {"field": [old, new]}} in jsonb). The table is range-partitioned by month of {@code changed_at};
+ * partitions are named {@code task_history_yyyyMM} and managed here as well.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TaskHistoryRepository {
+
+    private static final String PARTITION_PREFIX = "task_history_";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final String INSERT = """
+            insert into task_history (tenant_id, task_id, version, changed_at, operation, delta)
+            values (:tenantId, :taskId, :version, localtimestamp, :operation, cast(:delta as jsonb))
+            """;
+
+    private static final String FIND = """
+            select version, changed_at, operation, delta
+            from task_history
+            where tenant_id = :tenantId and task_id = :taskId
+            order by version desc
+            limit :limit offset :offset
+            """;
+
+    private static final String FIND_AFTER = """
+            select version, changed_at, operation, delta
+            from task_history
+            where tenant_id = :tenantId and task_id = :taskId and version > :version
+            order by version desc
+            """;
+
+    private static final String FIND_PARTITIONS = """
+            select c.relname
+            from pg_inherits i
+            join pg_class c on c.oid = i.inhrelid
+            where i.inhparent = 'task_history'::regclass
+            """;
+
+    private static final String CREATE_PARTITION =
+            "create table if not exists %s partition of task_history for values from ('%s') to ('%s')";
+
+    private static final String DROP_PARTITION = "drop table if exists %s";
+
+    private static final String TRY_LOCK = "select pg_try_advisory_xact_lock(hashtext(:name))";
+
+    private static final TypeReference<Map<String, List<String>>> DELTA_TYPE = new TypeReference<>() {
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Appends changes of tasks, one row each, in one batch.
+     *
+     * @param tenantId  tenant id
+     * @param operation kind of change
+     * @param changes   changed tasks with their new versions
+     */
+    public void append(Long tenantId, TaskHistoryOperation operation, List<TaskChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource[] batch = changes.stream()
+                .map(change -> new MapSqlParameterSource()
+                        .addValue("tenantId", tenantId)
+                        .addValue("taskId", change.taskId())
+                        .addValue("version", change.version())
+                        .addValue("operation", operation.name())
+                        .addValue("delta", toJson(change.fields())))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(INSERT, batch);
+    }
+
+    /**
+     * Returns a page of a task's changes, newest first.
+     *
+     * @param tenantId tenant id
+     * @param taskId   task id
+     * @param offset   entries to skip
+     * @param limit    maximum number of entries
+     * @return history entries
+     */
+    public List<HistoryEntry> find(Long tenantId, Long taskId, long offset, int limit) {
+        var params = new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("taskId", taskId)
+                .addValue("offset", offset)
+                .addValue("limit", limit);
+        return jdbcTemplate.query(FIND, params, entryMapper());
+    }
+
+    /**
+     * Returns the changes of a task made after a version, newest first (the ones to undo to get back to it).
+     *
+     * @param tenantId tenant id
+     * @param taskId   task id
+     * @param version  version to go back to
+     * @return retained history entries with a greater version
+     */
+    public List<HistoryEntry> findAfter(Long tenantId, Long taskId, int version) {
+        var params = new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("taskId", taskId)
+                .addValue("version", version);
+        return jdbcTemplate.query(FIND_AFTER, params, entryMapper());
+    }
+
+    /**
+     * Returns the months that have a partition.
+     *
+     * @return partition months in ascending order
+     */
+    public List<YearMonth> findPartitions() {
+        return jdbcTemplate.queryForList(FIND_PARTITIONS, Map.of(), String.class).stream()
+                .filter(name -> name.startsWith(PARTITION_PREFIX))
+                .map(name -> YearMonth.parse(name.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX))
+                .sorted()
+                .toList();
+    }
+
+    /**
+     * Creates the partition of a month unless it exists.
+     *
+     * @param month month of {@code changed_at}
+     */
+    public void createPartition(YearMonth month) {
+        String sql = CREATE_PARTITION.formatted(partitionName(month), month.atDay(1), month.plusMonths(1).atDay(1));
+        jdbcTemplate.getJdbcTemplate().execute(sql);
+    }
+
+    /**
+     * Drops the partition of a month with all its rows.
+     *
+     * @param month month of {@code changed_at}
+     */
+    public void dropPartition(YearMonth month) {
+        jdbcTemplate.getJdbcTemplate().execute(DROP_PARTITION.formatted(partitionName(month)));
+    }
+
+    /**
+     * Takes a transaction-scoped advisory lock without waiting (released on commit; safe behind a pooler).
+     *
+     * @param name lock name
+     * @return whether the lock was acquired
+     */
+    public boolean tryLock(String name) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(TRY_LOCK, Map.of("name", name), Boolean.class));
+    }
+
+    private static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+
+    private RowMapper<HistoryEntry> entryMapper() {
+        return (rs, rowNum) -> new HistoryEntry(
+                rs.getInt("version"),
+                TaskViewRowMapper.toOffsetDateTime(rs, "changed_at"),
+                TaskHistoryOperation.valueOf(rs.getString("operation")),
+                fromJson(rs.getString("delta")));
+    }
+
+    private String toJson(List<FieldChange> changes) {
+        Map<String, List<String>> delta = new LinkedHashMap<>();
+        changes.forEach(change -> delta.put(change.field(), Arrays.asList(change.from(), change.to())));
+        try {
+            return objectMapper.writeValueAsString(delta);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize task delta", e);
+        }
+    }
+
+    private List<FieldChange> fromJson(String json) {
+        try {
+            // jsonb does not keep key order
+            return objectMapper.readValue(json, DELTA_TYPE).entrySet().stream()
+                    .map(entry -> new FieldChange(entry.getKey(), entry.getValue().get(0), entry.getValue().get(1)))
+                    .sorted(Comparator.comparingInt(change -> FieldChange.FIELDS.indexOf(change.field())))
+                    .toList();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot parse task delta", e);
+        }
+    }
+
+    /**
+     * Change of one task to be appended.
+     *
+     * @param taskId  task id
+     * @param version task version the change produced
+     * @param fields  changed fields
+     */
+    public record TaskChange(Long taskId, int version, List<FieldChange> fields) {
+    }
+}
@@ -0,0 +1,51 @@
+package ru.andart.todoops.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.andart.todoops.entity.TaskEntity;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Hard deletes of soft-deleted tasks, oldest first, served by the partial {@code (deleted_at)} index.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TaskPurgeRepository {
+
+    // SKIP LOCKED: replicas purging at the same time take disjoint batches instead of waiting for each other
+    private static final String PURGE = """
+            delete from task
+            where (tenant_id, id) in (
+                select tenant_id, id
+                from task
+                where deleted_at < localtimestamp - :retentionMillis * interval '1 millisecond'
+                order by deleted_at
+                limit :batchSize
+                for update skip locked
+            )
+            returning tenant_id, id
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Hard-deletes up to {@code batchSize} tasks deleted more than {@code retention} ago.
+     *
+     * @param retention how long deleted tasks are kept
+     * @param batchSize rows deleted at most
+     * @return deleted tasks (tenant and id only)
+     */
+    public List<TaskEntity> purge(Duration retention, int batchSize) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("retentionMillis", retention.toMillis())
+                .addValue("batchSize", batchSize);
+        return jdbcTemplate.query(PURGE, params, (rs, rowNum) -> TaskEntity.builder()
+                .tenantId(rs.getLong("tenant_id"))
+                .id(rs.getLong("id"))
+                .build());
+    }
+}
@@ -0,0 +1,200 @@
+package ru.andart.todoops.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.andart.todoops.generated.model.RecurrenceFrequency;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Recurrence rules in {@code task_recurrence} and the materialized occurrences they map to.
+ * Occurrences are never stored ahead: a window query reads the rules active in it over
+ * {@code (tenant_id, ends_at, starts_at)} and the already materialized slots over the occurrence index.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TaskRecurrenceRepository {
+
+    private static final String RULE_COLUMNS =
+            "task_id, frequency, interval_count, starts_at, nullif(ends_at, 'infinity') as until, zone";
+
+    private static final String UPSERT = """
+            insert into task_recurrence (tenant_id, task_id, frequency, interval_count, starts_at, ends_at, zone)
+            values (:tenantId, :taskId, :frequency, :interval, :startsAt,
+                    coalesce(cast(:until as timestamp), 'infinity'), :zone)
+            on conflict (tenant_id, task_id)
+            do update set frequency = excluded.frequency, interval_count = excluded.interval_count,
+                          starts_at = excluded.starts_at, ends_at = excluded.ends_at, zone = excluded.zone
+            """;
+
+    private static final String FIND = "select " + RULE_COLUMNS
+            + " from task_recurrence where tenant_id = :tenantId and task_id = :taskId";
+
+    private static final String DELETE = """
+            delete from task_recurrence where tenant_id = :tenantId and task_id in (:taskIds)
+            """;
+
+    private static final String FIND_ACTIVE = "select " + RULE_COLUMNS + """
+             from task_recurrence
+            where tenant_id = :tenantId
+              and ends_at >= cast(:from as timestamp) and starts_at < cast(:to as timestamp)
+            """;
+
+    // looked up by key rather than joined: the planner overestimates the active rules (ends_at and starts_at
+    // are correlated) and would hash-join them against all tasks of the tenant
+    private static final String FIND_TASKS = "select " + TaskViewRowMapper.COLUMNS
+            + " from task where tenant_id = :tenantId and id in (:taskIds) and deleted_at is null";
+
+    private static final String FIND_MATERIALIZED = """
+            select series_id, occurrence_at
+            from task
+            where tenant_id = :tenantId and series_id in (:seriesIds)
+              and occurrence_at >= cast(:from as timestamp) and occurrence_at < cast(:to as timestamp)
+              and deleted_at is null
+            """;
+
+    private static final RowMapper<RecurrenceRule> RULE_MAPPER = (rs, rowNum) -> new RecurrenceRule(
+            rs.getLong("task_id"),
+            RecurrenceFrequency.valueOf(rs.getString("frequency")),
+            rs.getInt("interval_count"),
+            TaskViewRowMapper.toOffsetDateTime(rs, "starts_at"),
+            TaskViewRowMapper.toOffsetDateTime(rs, "until"),
+            ZoneId.of(rs.getString("zone")));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Creates or replaces the rule of a task.
+     *
+     * @param tenantId tenant id
+     * @param rule recurrence rule
+     */
+    public void save(Long tenantId, RecurrenceRule rule) {
+        var params = new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("taskId", rule.taskId())
+                .addValue("frequency", rule.frequency().name())
+                .addValue("interval", rule.interval())
+                .addValue("startsAt", rule.startsAt())
+                .addValue("until", rule.until())
+                .addValue("zone", rule.zone().getId());
+        jdbcTemplate.update(UPSERT, params);
+    }
+
+    /**
+     * Returns the rule of a task.
+     *
+     * @param tenantId tenant id
+     * @param taskId task id
+     * @return rule or empty if the task does not recur
+     */
+    public Optional<RecurrenceRule> find(Long tenantId, Long taskId) {
+        return jdbcTemplate.query(FIND, ruleParams(tenantId, taskId), RULE_MAPPER).stream().findFirst();
+    }
+
+    /**
+     * Returns the rule of a task and locks it until the end of the transaction,
+     * so that concurrent materializations of one series are serialized.
+     *
+     * @param tenantId tenant id
+     * @param taskId task id
+     * @return rule or empty if the task does not recur
+     */
+    public Optional<RecurrenceRule> findForUpdate(Long tenantId, Long taskId) {
+        return jdbcTemplate.query(FIND + " for update", ruleParams(tenantId, taskId), RULE_MAPPER)
+                .stream().findFirst();
+    }
+
+    /**
+     * Removes the rules of tasks.
+     *
+     * @param tenantId tenant id
+     * @param taskIds task ids
+     */
+    public void delete(Long tenantId, Collection<Long> taskIds) {
+        if (taskIds.isEmpty()) {
+            return;
+        }
+        var params = new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("taskIds", taskIds);
+        jdbcTemplate.update(DELETE, params);
+    }
+
+    /**
+     * Returns the series of a tenant that may have occurrences in {@code [from, to)}.
+     *
+     * @param tenantId tenant id
+     * @param from start of the window (inclusive)
+     * @param to end of the window (exclusive)
+     * @return rules with their recurring tasks
+     */
+    public List<RecurringSeries> findActive(Long tenantId, OffsetDateTime from, OffsetDateTime to) {
+        var params = new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("from", from)
+                .addValue("to", to);
+        List<RecurrenceRule> rules = jdbcTemplate.query(FIND_ACTIVE, params, RULE_MAPPER);
+        if (rules.isEmpty()) {
+            return List.of();
+        }
+        params.addValue("taskIds", rules.stream().map(RecurrenceRule::taskId).toList());
+        Map<Long, TaskView> tasks = jdbcTemplate.query(FIND_TASKS, params, TaskViewRowMapper.INSTANCE).stream()
+                .collect(Collectors.toMap(TaskView::id, Function.identity()));
+        return rules.stream()
+                .filter(rule -> tasks.containsKey(rule.taskId()))
+                .map(rule -> new RecurringSeries(rule, tasks.get(rule.taskId())))
+                .toList();
+    }
+
+    /**
+     * Returns the slots in {@code [from, to)} of the given series that were materialized as tasks.
+     *
+     * @param tenantId tenant id
+     * @param seriesIds recurring task ids
+     * @param from start of the window (inclusive)
+     * @param to end of the window (exclusive)
+     * @return (series id, slot) pairs
+     */
+    public Set<Occurrence> findMaterialized(Long tenantId, Collection<Long> seriesIds,
+                                            OffsetDateTime from, OffsetDateTime to) {
+        if (seriesIds.isEmpty()) {
+            return Set.of();
+        }
+        var params = new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("seriesIds", seriesIds)
+                .addValue("from", from)
+                .addValue("to", to);
+        return new HashSet<>(jdbcTemplate.query(FIND_MATERIALIZED, params, (rs, rowNum) -> new Occurrence(
+                rs.getLong("series_id"), TaskViewRowMapper.toOffsetDateTime(rs, "occurrence_at").toInstant())));
+    }
+
+    private static MapSqlParameterSource ruleParams(Long tenantId, Long taskId) {
+        return new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("taskId", taskId);
+    }
+
+    /**
+     * Slot of a series.
+     *
+     * @param seriesId recurring task id
+     * @param at slot time
+     */
+    public record Occurrence(Long seriesId, Instant at) {
+    }
+}
@@ -0,0 +1,190 @@
+package ru.andart.todoops.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Pending reminders in {@code task_reminder}.
+ * Replicas claim due rows with {@code FOR UPDATE SKIP LOCKED} and move {@code next_fire_at} to a lease expiry,
+ * so concurrent claims get disjoint batches and a reminder of a crashed replica is claimed again after its lease.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TaskReminderRepository {
+
+    private static final String UPSERT = """
+            insert into task_reminder (tenant_id, task_id, fire_at, next_fire_at)
+            values (:tenantId, :taskId, :fireAt, :fireAt)
+            on conflict (tenant_id, task_id)
+            do update set fire_at = excluded.fire_at, next_fire_at = excluded.next_fire_at
+            """;
+
+    private static final String DELETE = """
+            delete from task_reminder where tenant_id = :tenantId and task_id in (:taskIds)
+            """;
+
+    // Row locks are taken on task_reminder only; the join just reads the task for the notification
+    private static final String CLAIM = """
+            with due as (
+                select tenant_id, task_id
+                from task_reminder
+                where next_fire_at <= localtimestamp + :windowMillis * interval '1 millisecond'
+                order by next_fire_at
+                limit :batchSize
+                for update skip locked
+            )
+            update task_reminder r
+            set next_fire_at = localtimestamp + :leaseMillis * interval '1 millisecond'
+            from due
+            join task t on t.tenant_id = due.tenant_id and t.id = due.task_id
+            where r.tenant_id = due.tenant_id and r.task_id = due.task_id
+            returning r.tenant_id, r.task_id, t.title, t.due_date, r.fire_at, r.next_fire_at
+            """;
+
+    private static final String FIND_CLAIMED = """
+            select tenant_id, task_id from task_reminder where (tenant_id, task_id, next_fire_at) in (:claims)
+            """;
+
+    private static final String COMPLETE = """
+            delete from task_reminder where (tenant_id, task_id, next_fire_at) in (:claims)
+            """;
+
+    private static final String REBUILD = """
+            insert into task_reminder (tenant_id, task_id, fire_at, next_fire_at)
+            select tenant_id, id, due_date - :leadMillis * interval '1 millisecond',
+                   due_date - :leadMillis * interval '1 millisecond'
+            from task
+            where tenant_id in (:tenantIds) and due_date > localtimestamp and status <> 'COMPLETED'
+              and deleted_at is null
+            on conflict (tenant_id, task_id)
+            do update set fire_at = excluded.fire_at, next_fire_at = excluded.next_fire_at
+            """;
+
+    private static final RowMapper<Reminder> REMINDER_MAPPER = (rs, rowNum) -> new Reminder(
+            rs.getLong("tenant_id"),
+            rs.getLong("task_id"),
+            rs.getString("title"),
+            TaskViewRowMapper.toOffsetDateTime(rs, "due_date"),
+            TaskViewRowMapper.toOffsetDateTime(rs, "fire_at"),
+            rs.getObject("next_fire_at", LocalDateTime.class));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Schedules (or reschedules) the reminder of a task; a lease of an earlier claim is dropped.
+     *
+     * @param tenantId tenant id
+     * @param taskId task id
+     * @param fireAt when the reminder is due
+     */
+    public void schedule(Long tenantId, Long taskId, OffsetDateTime fireAt) {
+        var params = new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("taskId", taskId)
+                .addValue("fireAt", fireAt);
+        jdbcTemplate.update(UPSERT, params);
+    }
+
+    /**
+     * Removes pending reminders of tasks.
+     *
+     * @param tenantId tenant id
+     * @param taskIds task ids
+     */
+    public void delete(Long tenantId, Collection<Long> taskIds) {
+        if (taskIds.isEmpty()) {
+            return;
+        }
+        var params = new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("taskIds", taskIds);
+        jdbcTemplate.update(DELETE, params);
+    }
+
+    /**
+     * Claims reminders due within {@code window}, oldest first, skipping rows locked by other replicas.
+     *
+     * @param window how far ahead of now to claim
+     * @param lease how long the claim is exclusive; must be longer than {@code window}
+     * @param batchSize maximum number of reminders
+     * @return claimed reminders
+     */
+    public List<Reminder> claim(Duration window, Duration lease, int batchSize) {
+        var params = new MapSqlParameterSource()
+                .addValue("windowMillis", window.toMillis())
+                .addValue("leaseMillis", lease.toMillis())
+                .addValue("batchSize", batchSize);
+        return jdbcTemplate.query(CLAIM, params, REMINDER_MAPPER);
+    }
+
+    /**
+     * Returns the reminders whose claim is still current, i.e. that were not rescheduled, completed or deleted
+     * since they were claimed.
+     *
+     * @param reminders claimed reminders
+     * @return subset of {@code reminders}
+     */
+    public List<Reminder> findClaimed(List<Reminder> reminders) {
+        if (reminders.isEmpty()) {
+            return List.of();
+        }
+        Set<List<Long>> claimed = new HashSet<>(jdbcTemplate.query(FIND_CLAIMED, claims(reminders),
+                (rs, rowNum) -> List.of(rs.getLong("tenant_id"), rs.getLong("task_id"))));
+        return reminders.stream()
+                .filter(reminder -> claimed.contains(List.of(reminder.tenantId(), reminder.taskId())))
+                .toList();
+    }
+
+    /**
+     * Removes delivered reminders, except those rescheduled since they were claimed.
+     *
+     * @param reminders delivered reminders
+     */
+    public void complete(List<Reminder> reminders) {
+        if (!reminders.isEmpty()) {
+            jdbcTemplate.update(COMPLETE, claims(reminders));
+        }
+    }
+
+    /**
+     * Schedules reminders of all open tasks of a tenant due in the future (after writes that bypass
+     * {@code TaskService}).
+     *
+     * @param tenantId tenant id
+     * @param lead how long before the due date a reminder fires
+     */
+    public void rebuild(Long tenantId, Duration lead) {
+        rebuild(List.of(tenantId), lead);
+    }
+
+    /**
+     * Schedules reminders of all open tasks of several tenants due in the future (after a bulk load).
+     *
+     * @param tenantIds tenant ids
+     * @param lead      how long before the due date a reminder fires
+     */
+    public void rebuild(Collection<Long> tenantIds, Duration lead) {
+        var params = new MapSqlParameterSource()
+                .addValue("tenantIds", tenantIds)
+                .addValue("leadMillis", lead.toMillis());
+        jdbcTemplate.update(REBUILD, params);
+    }
+
+    private static MapSqlParameterSource claims(List<Reminder> reminders) {
+        List<Object[]> claims = reminders.stream()
+                .map(reminder -> new Object[] {reminder.tenantId(), reminder.taskId(), reminder.leaseUntil()})
+                .toList();
+        return new MapSqlParameterSource("claims", claims);
+    }
+}
@@ -1,12 +1,80 @@
 package ru.andart.todoops.repository;
 
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.andart.todoops.entity.TaskEntity;
 
 /**
  * Spring Data JPA repository for {@link TaskEntity}.
+ * Reads go through {@link TaskView} projections; entities are loaded only to be modified.
+ * Every query is scoped to one tenant and served by the {@code (tenant_id, id)} index.
  */
 @Repository
 public interface TaskRepository extends JpaRepository<TaskEntity, Long> {
+
+    String TASK_VIEW = "select new ru.andart.todoops.repository.TaskView("
+            + "t.id, t.title, t.description, t.status, t.createdAt, t.dueDate, t.parentId, t.seriesId, t.occurrenceAt,"
+            + " t.version)"
+            + " from TaskEntity t";
+
+    /**
+     * Returns a page of task projections of a tenant.
+     *
+     * @param tenantId tenant id
+     * @param pageable page request (sort by entity attributes)
+     * @return page of task views
+     */
+    @Query(value = TASK_VIEW + " where t.tenantId = :tenantId",
+            countQuery = "select count(t) from TaskEntity t where t.tenantId = :tenantId")
+    Page<TaskView> findAllViews(Long tenantId, Pageable pageable);
+
+    /**
+     * Returns task projections of a tenant due in {@code [from, to)} (served by the due-date index).
+     *
+     * @param tenantId tenant id
+     * @param from start of the window (inclusive)
+     * @param to end of the window (exclusive)
+     * @param pageable page request (sort by entity attributes)
+     * @return page of task views
+     */
+    @Query(value = TASK_VIEW + " where t.tenantId = :tenantId and t.dueDate >= :from and t.dueDate < :to",
+            countQuery = "select count(t) from TaskEntity t"
+                    + " where t.tenantId = :tenantId and t.dueDate >= :from and t.dueDate < :to")
+    Page<TaskView> findViewsDueBetween(Long tenantId, OffsetDateTime from, OffsetDateTime to, Pageable pageable);
+
+    /**
+     * Returns a task projection by id within a tenant.
+     *
+     * @param tenantId tenant id
+     * @param id task id
+     * @return task view or empty if not found in this tenant
+     */
+    @Query(TASK_VIEW + " where t.tenantId = :tenantId and t.id = :id")
+    Optional<TaskView> findViewById(Long tenantId, Long id);
+
+    /**
+     * Loads a task for modification within a tenant.
+     *
+     * @param tenantId tenant id
+     * @param id task id
+     * @return task entity or empty if not found in this tenant
+     */
+    Optional<TaskEntity> findByTenantIdAndId(Long tenantId, Long id);
+
+    /**
+     * Loads the materialized occurrence of a recurring task for modification.
+     *
+     * @param tenantId tenant id
+     * @param seriesId recurring task id
+     * @param occurrenceAt slot of the occurrence
+     * @return task entity or empty if the occurrence is still virtual
+     */
+    Optional<TaskEntity> findByTenantIdAndSeriesIdAndOccurrenceAt(Long tenantId, Long seriesId,
+                                                                 OffsetDateTime occurrenceAt);
 }
@@ -0,0 +1,130 @@
+package ru.andart.todoops.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Bulk load of synthetic tasks with {@code COPY ... FROM STDIN} (pgjdbc {@code CopyManager}).
+ * A stream is one statement and one transaction on a connection of its own; rows go over the wire in the text
+ * format as they are generated, without materializing the dataset.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TaskSeedRepository {
+
+    private static final String COPY = """
+            copy task (tenant_id, title, description, status, created_at, due_date) from stdin
+            """;
+    private static final String SECONDARY_INDEXES = """
+            select indexname, indexdef
+            from pg_indexes
+            where schemaname = current_schema() and tablename = 'task' and indexname <> 'task_pkey'
+            order by indexname
+            """;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final DataSource dataSource;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Writer of rows in the {@code COPY} text format: {@code tenant_id, title, description, status, created_at,
+     * due_date}, tab-separated, {@code \N} for null, each row ending with a newline.
+     */
+    public interface RowWriter {
+
+        /**
+         * Writes the next row.
+         *
+         * @param buffer buffer with at least {@link #maxRowLength()} bytes left after {@code offset}
+         * @param offset position of the row
+         * @return position after the row
+         */
+        int write(byte[] buffer, int offset);
+
+        /**
+         * Returns the length of the longest row this writer produces.
+         *
+         * @return bytes
+         */
+        int maxRowLength();
+    }
+
+    /**
+     * Streams {@code rows} rows into {@code task} and commits them.
+     *
+     * @param rows   number of rows
+     * @param writer row source
+     * @throws SQLException if the copy fails (nothing of this stream is committed then)
+     */
+    public void copy(long rows, RowWriter writer) throws SQLException {
+        byte[] buffer = new byte[Math.max(BUFFER_SIZE, 2 * writer.maxRowLength())];
+        int limit = buffer.length - writer.maxRowLength();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY);
+            try {
+                int position = 0;
+                for (long row = 0; row < rows; row++) {
+                    if (position > limit) {
+                        copy.writeToCopy(buffer, 0, position);
+                        position = 0;
+                    }
+                    position = writer.write(buffer, position);
+                }
+                copy.writeToCopy(buffer, 0, position);
+                copy.endCopy();
+            } finally {
+                if (copy.isActive()) {
+                    copy.cancelCopy();
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the secondary indexes of {@code task} (all but the primary key).
+     *
+     * @return definitions of the dropped indexes, for {@link #createIndex(String)}
+     */
+    public List<String> dropSecondaryIndexes() {
+        List<IndexDefinition> indexes = jdbcTemplate.query(SECONDARY_INDEXES, new MapSqlParameterSource(),
+                (rs, rowNum) -> new IndexDefinition(rs.getString("indexname"), rs.getString("indexdef")));
+        for (IndexDefinition index : indexes) {
+            jdbcTemplate.getJdbcTemplate().execute("drop index " + quote(index.name()));
+        }
+        return indexes.stream().map(IndexDefinition::definition).toList();
+    }
+
+    /**
+     * Builds an index.
+     *
+     * @param definition {@code create index} statement
+     */
+    public void createIndex(String definition) {
+        jdbcTemplate.getJdbcTemplate().execute(definition);
+    }
+
+    /**
+     * Freezes the loaded rows and updates the planner statistics of {@code task}. One pass sets the hint bits and
+     * the visibility map, which every later reader would otherwise write on its first visit of a page.
+     */
+    public void vacuum() {
+        jdbcTemplate.getJdbcTemplate().execute("vacuum (freeze, analyze) task");
+    }
+
+    private static String quote(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+
+    private record IndexDefinition(String name, String definition) {
+    }
+}
@@ -0,0 +1,154 @@
+package ru.andart.todoops.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.andart.todoops.entity.TaskEntity;
+import ru.andart.todoops.generated.model.TaskStatus;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Subtree queries over the materialized {@code task.path}. A subtree is the task itself plus the
+ * {@code (tenant_id, path text_pattern_ops)} index range of its descendants, so every statement here is a single
+ * indexed query regardless of depth. The range is passed as explicit bounds ({@code ~>=~ / ~<~}) instead of
+ * {@code like 'prefix%'}, so it stays indexable in generic plans of server-side prepared statements.
+ * Soft-deleted tasks are excluded, which also matches the predicate of the partial path index.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TaskTreeRepository {
+
+    private static final String SUBTREE = """
+            tenant_id = :tenantId and deleted_at is null and (id = :id or (path ~>=~ :lower and path ~<~ :upper))
+            """;
+
+    private static final String FIND_SUBTREE = "select " + TaskViewRowMapper.COLUMNS
+            + " from task where " + SUBTREE + " order by path || id || '/'";
+
+    private static final String COUNT_SUBTREE = """
+            select status, count(*) as task_count,
+                   count(*) filter (where due_date < localtimestamp and status <> 'COMPLETED') as overdue
+            from task
+            where %s
+            group by status
+            """.formatted(SUBTREE);
+
+    // Children of a parent are the rows whose path equals the parent's child path (an equality on the path index)
+    private static final String FIND_CHILDREN = """
+            select %s from task c
+            where c.tenant_id = :tenantId and c.deleted_at is null
+              and c.path in (select p.path || p.id || '/' from task p
+                             where p.tenant_id = :tenantId and p.id in (:ids) and p.deleted_at is null)
+            order by c.id
+            """.formatted(TaskViewRowMapper.COLUMNS);
+
+    // One statement: the root's path is looked up in the same query instead of a separate round trip
+    private static final String DELETE_SUBTREE = """
+            with root as (
+                select id, path || id || '/' as lower from task
+                where tenant_id = :tenantId and id = :id and deleted_at is null
+            )
+            update task t
+            set deleted_at = localtimestamp, version = t.version + 1
+            from root
+            where t.tenant_id = :tenantId and t.deleted_at is null
+              and (t.id = root.id or (t.path ~>=~ root.lower and t.path ~<~ (left(root.lower, -1) || '0')))
+            returning t.id, t.tenant_id, t.title, t.description, t.status, t.due_date, t.version
+            """;
+
+    private static final String DELETE_DEPENDENCIES = """
+            delete from task_dependency
+            where tenant_id = :tenantId and (task_id in (:ids) or blocked_by_id in (:ids))
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns a task and all its descendants, depth first.
+     *
+     * @param root root of the subtree
+     * @return task views, root first
+     */
+    public List<TaskView> findSubtree(TaskEntity root) {
+        return jdbcTemplate.query(FIND_SUBTREE, subtreeParams(root), TaskViewRowMapper.INSTANCE);
+    }
+
+    /**
+     * Returns the direct children of several tasks in one statement.
+     *
+     * @param tenantId tenant id
+     * @param ids parent task ids
+     * @return children ordered by id (grouped by {@link TaskView#parentId()} by the caller)
+     */
+    public List<TaskView> findChildren(Long tenantId, Collection<Long> ids) {
+        return jdbcTemplate.query(FIND_CHILDREN, new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("ids", ids), TaskViewRowMapper.INSTANCE);
+    }
+
+    /**
+     * Counts the tasks of a subtree per status.
+     *
+     * @param root root of the subtree
+     * @return non-zero counts per status
+     */
+    public List<SubtreeStatusCount> countSubtree(TaskEntity root) {
+        return jdbcTemplate.query(COUNT_SUBTREE, subtreeParams(root), (rs, rowNum) -> new SubtreeStatusCount(
+                TaskStatus.valueOf(rs.getString("status")),
+                rs.getLong("task_count"),
+                rs.getLong("overdue")));
+    }
+
+    /**
+     * Soft-deletes a task and all its descendants (their rows are purged later by {@code TaskPurger})
+     * and hard-deletes their blocked-by edges.
+     *
+     * @param tenantId tenant id
+     * @param id root task id
+     * @return deleted tasks (id, tenant, title, description, status, due date and the version of the delete only),
+     *     empty if the task does not exist
+     */
+    public List<TaskEntity> deleteSubtree(Long tenantId, Long id) {
+        List<TaskEntity> deleted = jdbcTemplate.query(DELETE_SUBTREE,
+                new MapSqlParameterSource().addValue("tenantId", tenantId).addValue("id", id),
+                (rs, rowNum) -> TaskEntity.builder()
+                        .id(rs.getLong("id"))
+                        .tenantId(rs.getLong("tenant_id"))
+                        .title(rs.getString("title"))
+                        .description(rs.getString("description"))
+                        .status(TaskStatus.valueOf(rs.getString("status")))
+                        .dueDate(TaskViewRowMapper.toOffsetDateTime(rs, "due_date"))
+                        .version(rs.getInt("version"))
+                        .build());
+        if (!deleted.isEmpty()) {
+            jdbcTemplate.update(DELETE_DEPENDENCIES, new MapSqlParameterSource()
+                    .addValue("tenantId", tenantId)
+                    .addValue("ids", deleted.stream().map(TaskEntity::getId).toList()));
+        }
+        return deleted;
+    }
+
+    /**
+     * Path of the children of a task.
+     *
+     * @param task parent task
+     * @return materialized path of its children
+     */
+    public static String childPath(TaskEntity task) {
+        return task.getPath() + task.getId() + "/";
+    }
+
+    private static MapSqlParameterSource subtreeParams(TaskEntity root) {
+        String lower = childPath(root);
+        // paths hold only digits and '/', and '0' follows '/': every path starting with lower sorts below upper
+        String upper = lower.substring(0, lower.length() - 1) + "0";
+        return new MapSqlParameterSource()
+                .addValue("tenantId", root.getTenantId())
+                .addValue("id", root.getId())
+                .addValue("lower", lower)
+                .addValue("upper", upper);
+    }
+}
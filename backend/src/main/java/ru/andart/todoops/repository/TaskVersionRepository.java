@@ -0,0 +1,70 @@
+package ru.andart.todoops.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Striped per-tenant change counters in {@code task_version}. The version of a tenant is the sum of its stripe
+ * rows; it grows with every committed mutation, so an unchanged version means unchanged tasks.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TaskVersionRepository {
+
+    private static final String BUMP = """
+            insert into task_version (tenant_id, stripe, version)
+            values (:tenantId, :stripe, 1)
+            on conflict (tenant_id, stripe)
+            do update set version = task_version.version + 1
+            """;
+
+    // the tenants' rows come in sorted, so concurrent bulk bumps lock them in the same order
+    private static final String BUMP_ALL = """
+            insert into task_version (tenant_id, stripe, version)
+            select tenant_id, 0, 1 from unnest(cast(:tenantIds as bigint[])) as t(tenant_id) order by tenant_id
+            on conflict (tenant_id, stripe)
+            do update set version = task_version.version + 1
+            """;
+
+    private static final String CURRENT = """
+            select coalesce(sum(version), 0) from task_version where tenant_id = :tenantId
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Counts a mutation of a tenant's tasks on one stripe.
+     *
+     * @param tenantId tenant id
+     * @param stripe   stripe to update
+     */
+    public void bump(Long tenantId, int stripe) {
+        jdbcTemplate.update(BUMP, new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("stripe", stripe));
+    }
+
+    /**
+     * Counts a change of several tenants' tasks made outside {@code TaskService} (bulk loads), on stripe 0.
+     *
+     * @param tenantIds tenant ids, each once
+     */
+    public void bumpAll(Collection<Long> tenantIds) {
+        jdbcTemplate.update(BUMP_ALL, Map.of("tenantIds", tenantIds.toArray(Long[]::new)));
+    }
+
+    /**
+     * Returns the current version of a tenant's tasks.
+     *
+     * @param tenantId tenant id
+     * @return version, 0 for a tenant never changed
+     */
+    public long current(Long tenantId) {
+        return jdbcTemplate.queryForObject(CURRENT, Map.of("tenantId", tenantId), Long.class);
+    }
+}
@@ -0,0 +1,42 @@
+package ru.andart.todoops.repository;
+
+import ru.andart.todoops.generated.model.TaskStatus;
+
+import java.time.OffsetDateTime;
+import java.util.Comparator;
+
+/**
+ * Read-only task row for the query path (get, list).
+ * Built by a JPQL constructor expression, so no managed entity, dirty-checking snapshot or
+ * persistence-context entry is created per row.
+ * Virtual occurrences of recurring tasks are views too: their id is the id of the recurring task ({@link #seriesId}).
+ */
+public record TaskView(
+        Long id,
+        String title,
+        String description,
+        TaskStatus status,
+        OffsetDateTime createdAt,
+        OffsetDateTime dueDate,
+        Long parentId,
+        Long seriesId,
+        OffsetDateTime occurrenceAt,
+        Integer version
+) {
+
+    /**
+     * Order of due-date windows: due date, then id.
+     */
+    public static final Comparator<TaskView> DUE_DATE_ORDER = Comparator
+            .comparing(TaskView::dueDate, OffsetDateTime.timeLineOrder())
+            .thenComparing(TaskView::id);
+
+    /**
+     * Returns true for an occurrence computed from a recurrence rule rather than read from a task row.
+     *
+     * @return whether this occurrence is not a task yet
+     */
+    public boolean isVirtual() {
+        return seriesId != null && seriesId.equals(id);
+    }
+}
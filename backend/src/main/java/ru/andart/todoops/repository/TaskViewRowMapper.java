@@ -0,0 +1,79 @@
+package ru.andart.todoops.repository;
+
+import org.springframework.jdbc.core.RowMapper;
+import ru.andart.todoops.generated.model.TaskStatus;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.Set;
+
+/**
+ * Maps {@code task} columns of plain SQL queries to {@link TaskView}
+ * ({@code id, title, description, status, created_at, due_date, parent_id, series_id, occurrence_at,
+ * version}). A mapper of a sparse fieldset ({@link #of(Set)}) reads only the columns of its fields and leaves
+ * the other components null.
+ */
+public final class TaskViewRowMapper implements RowMapper<TaskView> {
+
+    /**
+     * Shared stateless instance.
+     */
+    public static final TaskViewRowMapper INSTANCE = new TaskViewRowMapper(TaskField.ALL);
+
+    /**
+     * Column list in the order this mapper reads.
+     */
+    public static final String COLUMNS =
+            "id, title, description, status, created_at, due_date, parent_id, series_id, occurrence_at, version";
+
+    private final Set<String> columns;
+
+    private TaskViewRowMapper(Set<TaskField> fields) {
+        this.columns = Set.copyOf(TaskField.columns(fields));
+    }
+
+    /**
+     * Returns a mapper of the columns selected for a fieldset ({@link TaskField#columns(Set)}).
+     *
+     * @param fields requested fields
+     * @return row mapper
+     */
+    public static TaskViewRowMapper of(Set<TaskField> fields) {
+        return fields.containsAll(TaskField.ALL) ? INSTANCE : new TaskViewRowMapper(fields);
+    }
+
+    @Override
+    public TaskView mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new TaskView(
+                rs.getLong("id"),
+                reads("title") ? rs.getString("title") : null,
+                reads("description") ? rs.getString("description") : null,
+                reads("status") ? TaskStatus.valueOf(rs.getString("status")) : null,
+                reads("created_at") ? toOffsetDateTime(rs, "created_at") : null,
+                reads("due_date") ? toOffsetDateTime(rs, "due_date") : null,
+                reads("parent_id") ? rs.getObject("parent_id", Long.class) : null,
+                reads("series_id") ? rs.getObject("series_id", Long.class) : null,
+                reads("occurrence_at") ? toOffsetDateTime(rs, "occurrence_at") : null,
+                reads("version") ? rs.getObject("version", Integer.class) : null);
+    }
+
+    private boolean reads(String column) {
+        return columns.contains(column);
+    }
+
+    /**
+     * Reads a {@code timestamp} column the way Hibernate does: local time of the JVM zone.
+     *
+     * @param rs result set
+     * @param column column name
+     * @return value or null
+     * @throws SQLException on read errors
+     */
+    public static OffsetDateTime toOffsetDateTime(ResultSet rs, String column) throws SQLException {
+        LocalDateTime value = rs.getObject(column, LocalDateTime.class);
+        return value != null ? value.atZone(ZoneId.systemDefault()).toOffsetDateTime() : null;
+    }
+}
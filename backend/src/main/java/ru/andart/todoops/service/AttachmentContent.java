@@ -0,0 +1,16 @@
+package ru.andart.todoops.service;
+
+import org.springframework.core.io.Resource;
+import ru.andart.todoops.repository.Attachment;
+
+/**
+ * Completely uploaded attachment with its content.
+ *
+ * @param attachment attachment
+ * @param content    content from the blob store, streamed on write
+ */
+public record AttachmentContent(
+        Attachment attachment,
+        Resource content
+) {
+}
@@ -0,0 +1,47 @@
+package ru.andart.todoops.service;
+
+import org.springframework.core.io.Resource;
+
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Storage of attachment content, addressed by key. Content is always moved through channels, never held in
+ * memory as a whole. To replace {@link LocalBlobStore}, declare another implementation as {@code @Primary}.
+ */
+public interface BlobStore {
+
+    /**
+     * Creates an empty blob, or leaves an existing one as is.
+     *
+     * @param key blob key
+     */
+    void create(String key);
+
+    /**
+     * Writes up to {@code count} bytes of a channel at a position of a blob, overwriting what is there.
+     * The position must not be beyond the current end of the blob.
+     *
+     * @param key      blob key
+     * @param position where the bytes go
+     * @param source   bytes to write; read until {@code count} bytes or its end
+     * @param count    bytes to write at most
+     * @return number of bytes written (less than {@code count} if the source ended early)
+     */
+    long write(String key, long position, ReadableByteChannel source, long count);
+
+    /**
+     * Returns the content of a blob for streaming. File-backed resources ({@link Resource#isFile()}) are sent
+     * with {@code FileChannel.transferTo}.
+     *
+     * @param key blob key
+     * @return blob content
+     */
+    Resource open(String key);
+
+    /**
+     * Deletes a blob if it exists.
+     *
+     * @param key blob key
+     */
+    void delete(String key);
+}
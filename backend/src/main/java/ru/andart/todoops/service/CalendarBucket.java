@@ -0,0 +1,22 @@
+package ru.andart.todoops.service;
+
+import ru.andart.todoops.generated.model.TaskStatus;
+import ru.andart.todoops.repository.TaskView;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tasks due within one day, week or month.
+ *
+ * @param start first day of the bucket
+ * @param counts non-zero task counts per status
+ * @param tasks earliest-due tasks of the bucket
+ */
+public record CalendarBucket(
+        LocalDate start,
+        Map<TaskStatus, Long> counts,
+        List<TaskView> tasks
+) {
+}
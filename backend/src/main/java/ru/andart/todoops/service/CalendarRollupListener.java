@@ -0,0 +1,79 @@
+package ru.andart.todoops.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.andart.todoops.entity.TaskEntity;
+import ru.andart.todoops.generated.model.TaskStatus;
+import ru.andart.todoops.repository.TaskCalendarRepository;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps {@code task_calendar_rollup} in step with task mutations: one upsert per affected (day, status).
+ * Maintained regardless of {@code todoops.calendar.use-rollup}, so the read path can be switched at any time.
+ */
+@Component
+@RequiredArgsConstructor
+public class CalendarRollupListener implements TaskMutationListener {
+
+    private final TaskCalendarRepository taskCalendarRepository;
+
+    @Override
+    public void onCreate(TaskEntity task) {
+        adjust(task, 1);
+    }
+
+    @Override
+    public void onUpdate(TaskEntity before, TaskEntity after) {
+        if (before.getStatus() == after.getStatus() && sameInstant(before, after)) {
+            return;
+        }
+        adjust(before, -1);
+        adjust(after, 1);
+    }
+
+    @Override
+    public void onDelete(TaskEntity task) {
+        adjust(task, -1);
+    }
+
+    @Override
+    public void onDeleteAll(List<TaskEntity> tasks) {
+        // one upsert per (day, status); days in the JVM zone, like the stored timestamps
+        Map<DayStatus, Integer> deltas = new HashMap<>();
+        Map<DayStatus, OffsetDateTime> dueDates = new HashMap<>();
+        for (TaskEntity task : tasks) {
+            if (task.getDueDate() == null) {
+                continue;
+            }
+            var key = new DayStatus(task.getDueDate().atZoneSameInstant(ZoneId.systemDefault()).toLocalDate(),
+                    task.getStatus());
+            deltas.merge(key, -1, Integer::sum);
+            dueDates.putIfAbsent(key, task.getDueDate());
+        }
+        deltas.forEach((key, delta) -> taskCalendarRepository.adjustRollup(
+                tasks.get(0).getTenantId(), dueDates.get(key), key.status(), delta));
+    }
+
+    private void adjust(TaskEntity task, int delta) {
+        if (task.getDueDate() != null) {
+            taskCalendarRepository.adjustRollup(task.getTenantId(), task.getDueDate(), task.getStatus(), delta);
+        }
+    }
+
+    private static boolean sameInstant(TaskEntity before, TaskEntity after) {
+        if (before.getDueDate() == null || after.getDueDate() == null) {
+            return Objects.equals(before.getDueDate(), after.getDueDate());
+        }
+        return before.getDueDate().isEqual(after.getDueDate());
+    }
+
+    private record DayStatus(LocalDate day, TaskStatus status) {
+    }
+}
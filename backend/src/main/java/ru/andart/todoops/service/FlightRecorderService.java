@@ -0,0 +1,138 @@
+package ru.andart.todoops.service;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.andart.todoops.config.FlightRecorderProperties;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * One JDK Flight Recorder session at a time, bounded by a duration: JFR stops it by itself and writes the
+ * {@code .jfr} file to {@code todoops.jfr.directory}. The file of the last session stays until the next one starts.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FlightRecorderService {
+
+    private static final String FILE_NAME = "todoops.jfr";
+    private static final String SNAPSHOT_FILE_NAME = "todoops-snapshot.jfr";
+
+    private final FlightRecorderProperties properties;
+
+    private Recording recording;
+
+    /**
+     * State of the current or last recording.
+     *
+     * @param state     {@code NONE}, {@code RUNNING} or {@code STOPPED} (file written)
+     * @param startedAt start time, null if there was no recording
+     * @param duration  duration the recording was started with (ISO-8601), null if there was no recording
+     */
+    public record Status(String state, String startedAt, String duration) {
+    }
+
+    /**
+     * Starts a recording.
+     *
+     * @param duration how long to record, {@code todoops.jfr.default-duration} if null
+     * @return status of the started recording
+     * @throws IllegalArgumentException if the duration is not positive or above {@code todoops.jfr.max-duration}
+     * @throws IllegalStateException    if a recording is running
+     */
+    public synchronized Status start(Duration duration) {
+        Duration length = duration != null ? duration : properties.defaultDuration();
+        if (length.isNegative() || length.isZero() || length.compareTo(properties.maxDuration()) > 0) {
+            throw new IllegalArgumentException("Duration must be positive and at most " + properties.maxDuration());
+        }
+        if (isRunning()) {
+            throw new IllegalStateException("A recording is running, stop it first");
+        }
+        if (recording != null) {
+            recording.close();
+        }
+        try {
+            Files.createDirectories(properties.directory());
+            Path file = properties.directory().resolve(FILE_NAME);
+            Files.deleteIfExists(file);
+            recording = new Recording(Configuration.getConfiguration(properties.settings()));
+            recording.setName("todoops");
+            recording.setDuration(length);
+            recording.setMaxSize(properties.maxSize().toBytes());
+            recording.setToDisk(true);
+            recording.setDestination(file);
+            recording.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Invalid JFR configuration " + properties.settings(), e);
+        }
+        log.info("Flight recording started for {} with settings {}", length, properties.settings());
+        return status();
+    }
+
+    /**
+     * Stops the running recording early and writes its file.
+     *
+     * @return status of the recording
+     */
+    public synchronized Status stop() {
+        if (isRunning()) {
+            recording.stop();
+            log.info("Flight recording stopped");
+        }
+        return status();
+    }
+
+    /**
+     * Returns the status of the current or last recording.
+     *
+     * @return status
+     */
+    public synchronized Status status() {
+        if (recording == null) {
+            return new Status("NONE", null, null);
+        }
+        Instant startTime = recording.getStartTime();
+        return new Status(isRunning() ? "RUNNING" : "STOPPED", startTime == null ? null : startTime.toString(),
+                String.valueOf(recording.getDuration()));
+    }
+
+    /**
+     * Returns the recorded file: the complete one of a stopped recording, a snapshot of what is recorded so far
+     * of a running one.
+     *
+     * @return file, empty if nothing was recorded since the start of the application
+     */
+    public synchronized Optional<Path> file() {
+        if (recording == null) {
+            return Optional.empty();
+        }
+        if (isRunning()) {
+            Path snapshot = properties.directory().resolve(SNAPSHOT_FILE_NAME);
+            try {
+                recording.dump(snapshot);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return Optional.of(snapshot);
+        }
+        // JFR writes the destination and closes the recording when it stops
+        return Optional.of(properties.directory().resolve(FILE_NAME)).filter(Files::exists);
+    }
+
+    private boolean isRunning() {
+        return recording != null && recording.getState() == RecordingState.RUNNING;
+    }
+}
@@ -0,0 +1,77 @@
+package ru.andart.todoops.service;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import ru.andart.todoops.config.AttachmentProperties;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@link BlobStore} on the local file system (or a mounted volume): one file per blob under
+ * {@code todoops.attachments.dir}. Writes go from the source channel to the file with
+ * {@link FileChannel#transferFrom}, so no more than the JDK's transfer buffer is in the heap.
+ */
+@Component
+public class LocalBlobStore implements BlobStore {
+
+    private final Path root;
+
+    public LocalBlobStore(AttachmentProperties properties) {
+        this.root = Path.of(properties.dir()).toAbsolutePath();
+    }
+
+    @Override
+    public void create(String key) {
+        Path path = path(key);
+        try {
+            Files.createDirectories(path.getParent());
+            if (Files.notExists(path)) {
+                Files.createFile(path);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public long write(String key, long position, ReadableByteChannel source, long count) {
+        try (FileChannel file = FileChannel.open(path(key), StandardOpenOption.WRITE)) {
+            long written = 0;
+            while (written < count) {
+                long transferred = file.transferFrom(source, position + written, count - written);
+                if (transferred == 0) {
+                    break;
+                }
+                written += transferred;
+            }
+            return written;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Resource open(String key) {
+        return new FileSystemResource(path(key));
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            Files.deleteIfExists(path(key));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path path(String key) {
+        return root.resolve(key);
+    }
+}
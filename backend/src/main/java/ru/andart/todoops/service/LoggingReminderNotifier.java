@@ -0,0 +1,19 @@
+package ru.andart.todoops.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.andart.todoops.repository.Reminder;
+
+/**
+ * Local stub of {@link ReminderNotifier}: writes reminders to the application log.
+ */
+@Slf4j
+@Component
+public class LoggingReminderNotifier implements ReminderNotifier {
+
+    @Override
+    public void notify(Reminder reminder) {
+        log.info("Reminder: task {} of tenant {} \"{}\" is due at {}",
+                reminder.taskId(), reminder.tenantId(), reminder.title(), reminder.dueDate());
+    }
+}
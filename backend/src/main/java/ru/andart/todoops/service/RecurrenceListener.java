@@ -0,0 +1,42 @@
+package ru.andart.todoops.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.andart.todoops.entity.TaskEntity;
+import ru.andart.todoops.repository.TaskRecurrenceRepository;
+
+import java.util.List;
+
+/**
+ * Removes the recurrence rules of deleted tasks. Their materialized occurrences stay as regular tasks.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecurrenceListener implements TaskMutationListener {
+
+    private final TaskRecurrenceRepository taskRecurrenceRepository;
+
+    @Override
+    public void onCreate(TaskEntity task) {
+        // a new task has no rule yet
+    }
+
+    @Override
+    public void onUpdate(TaskEntity before, TaskEntity after) {
+        // the rule keeps its own start: moving the due date of the recurring task does not move the series
+    }
+
+    @Override
+    public void onDelete(TaskEntity task) {
+        taskRecurrenceRepository.delete(task.getTenantId(), List.of(task.getId()));
+    }
+
+    @Override
+    public void onDeleteAll(List<TaskEntity> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        // a subtree belongs to one tenant: one statement
+        taskRecurrenceRepository.delete(tasks.get(0).getTenantId(), tasks.stream().map(TaskEntity::getId).toList());
+    }
+}
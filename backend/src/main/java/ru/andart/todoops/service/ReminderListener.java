@@ -0,0 +1,71 @@
+package ru.andart.todoops.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.andart.todoops.config.ReminderProperties;
+import ru.andart.todoops.entity.TaskEntity;
+import ru.andart.todoops.generated.model.TaskStatus;
+import ru.andart.todoops.repository.TaskReminderRepository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Keeps {@code task_reminder} in step with task mutations: an open task with a future due date has a reminder
+ * at {@code due date - todoops.reminders.lead}; completing or deleting the task drops it.
+ * Other updates leave the row alone, so a delivered reminder is not scheduled again.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReminderListener implements TaskMutationListener {
+
+    private final TaskReminderRepository taskReminderRepository;
+    private final ReminderProperties reminderProperties;
+
+    @Override
+    public void onCreate(TaskEntity task) {
+        if (isRemindable(task)) {
+            schedule(task);
+        }
+    }
+
+    @Override
+    public void onUpdate(TaskEntity before, TaskEntity after) {
+        boolean completed = before.getStatus() != after.getStatus() && after.getStatus() == TaskStatus.COMPLETED;
+        boolean rescheduled = !Objects.equals(before.getDueDate(), after.getDueDate());
+        if (!completed && !rescheduled) {
+            return;
+        }
+        if (isRemindable(after)) {
+            schedule(after);
+        } else {
+            taskReminderRepository.delete(after.getTenantId(), List.of(after.getId()));
+        }
+    }
+
+    @Override
+    public void onDelete(TaskEntity task) {
+        taskReminderRepository.delete(task.getTenantId(), List.of(task.getId()));
+    }
+
+    @Override
+    public void onDeleteAll(List<TaskEntity> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        // a subtree belongs to one tenant: one statement
+        taskReminderRepository.delete(tasks.get(0).getTenantId(), tasks.stream().map(TaskEntity::getId).toList());
+    }
+
+    private void schedule(TaskEntity task) {
+        OffsetDateTime fireAt = task.getDueDate().minus(reminderProperties.lead());
+        taskReminderRepository.schedule(task.getTenantId(), task.getId(), fireAt);
+    }
+
+    private static boolean isRemindable(TaskEntity task) {
+        return task.getStatus() != TaskStatus.COMPLETED
+                && task.getDueDate() != null
+                && task.getDueDate().isAfter(OffsetDateTime.now());
+    }
+}
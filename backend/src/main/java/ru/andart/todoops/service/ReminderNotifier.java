@@ -0,0 +1,19 @@
+package ru.andart.todoops.service;
+
+import ru.andart.todoops.repository.Reminder;
+
+/**
+ * Delivers due-date reminders (e-mail, push, chat...).
+ * Called before the reminder is removed: if it throws, or the replica stops in between, the reminder is delivered
+ * again once its lease expires, so implementations should tolerate duplicates.
+ * To replace {@link LoggingReminderNotifier}, declare another implementation as {@code @Primary}.
+ */
+public interface ReminderNotifier {
+
+    /**
+     * Delivers a reminder.
+     *
+     * @param reminder due reminder
+     */
+    void notify(Reminder reminder);
+}
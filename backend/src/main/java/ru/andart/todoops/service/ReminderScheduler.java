@@ -0,0 +1,159 @@
+package ru.andart.todoops.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.andart.todoops.config.ReminderProperties;
+import ru.andart.todoops.repository.Reminder;
+import ru.andart.todoops.repository.TaskReminderRepository;
+import ru.andart.todoops.util.TimingWheel;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Delivers due-date reminders. Every replica runs it; there is no coordinator.
+ * <ul>
+ *     <li>{@link #poll()} claims reminders due within the near-term window in batches
+ *     ({@code FOR UPDATE SKIP LOCKED}, so replicas get disjoint batches) and puts them into a timing wheel;</li>
+ *     <li>{@link #fire()} takes the due ones from the wheel and hands them to the {@link ReminderNotifier}.</li>
+ * </ul>
+ * A claim is a lease: reminders held by a replica that stops are claimed by another one after the lease expires.
+ * Delivery is at least once: a reminder is removed after its notification.
+ * Metrics: {@code todoops.reminders.claimed}, {@code todoops.reminders.deliveries{outcome}},
+ * {@code todoops.reminders.lag} (due time to delivery) and {@code todoops.reminders.pending}.
+ */
+@Slf4j
+@Component
+public class ReminderScheduler {
+
+    private final TaskReminderRepository taskReminderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ReminderNotifier reminderNotifier;
+    private final ReminderProperties properties;
+    private final TimingWheel<Reminder> wheel;
+    private final Counter claimed;
+    private final Counter delivered;
+    private final Counter stale;
+    private final Counter failed;
+    private final Timer lag;
+
+    public ReminderScheduler(TaskReminderRepository taskReminderRepository,
+                             TransactionTemplate transactionTemplate,
+                             ReminderNotifier reminderNotifier,
+                             ReminderProperties properties,
+                             MeterRegistry meterRegistry) {
+        if (properties.lease().compareTo(properties.window()) <= 0) {
+            throw new IllegalStateException("todoops.reminders.lease must be longer than todoops.reminders.window");
+        }
+        this.taskReminderRepository = taskReminderRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.reminderNotifier = reminderNotifier;
+        this.properties = properties;
+        this.wheel = new TimingWheel<>(properties.tick(), properties.wheelSize(), Instant.now());
+        this.claimed = Counter.builder("todoops.reminders.claimed")
+                .description("Reminders claimed by this replica")
+                .register(meterRegistry);
+        this.delivered = deliveries(meterRegistry, "delivered");
+        this.stale = deliveries(meterRegistry, "stale");
+        this.failed = deliveries(meterRegistry, "failed");
+        this.lag = Timer.builder("todoops.reminders.lag")
+                .description("Delay between the due time of a reminder and its delivery")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(Duration.ofHours(1))
+                .register(meterRegistry);
+        Gauge.builder("todoops.reminders.pending", wheel, TimingWheel::size)
+                .description("Claimed reminders waiting in the timing wheel")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Claims reminders due within the near-term window until a batch comes back short
+     * or this replica holds {@code max-pending} reminders.
+     *
+     * @return number of claimed reminders
+     */
+    @Scheduled(fixedDelayString = "${todoops.reminders.poll-interval:PT10S}")
+    public int poll() {
+        int total = 0;
+        while (true) {
+            int batchSize = Math.min(properties.batchSize(), properties.maxPending() - wheel.size());
+            if (batchSize <= 0) {
+                break;
+            }
+            List<Reminder> batch = transactionTemplate.execute(status ->
+                    taskReminderRepository.claim(properties.window(), properties.lease(), batchSize));
+            if (batch == null || batch.isEmpty()) {
+                break;
+            }
+            batch.forEach(reminder -> wheel.schedule(reminder.fireAt().toInstant(), reminder));
+            claimed.increment(batch.size());
+            total += batch.size();
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Delivers the reminders that are due by now: drops the ones changed since the claim, notifies the rest
+     * and removes them, one statement per batch for both steps.
+     *
+     * @return number of delivered reminders
+     */
+    @Scheduled(fixedRateString = "${todoops.reminders.fire-interval:${todoops.reminders.tick:PT1S}}")
+    public int fire() {
+        List<Reminder> due = wheel.advance(Instant.now());
+        int count = 0;
+        for (int from = 0; from < due.size(); from += properties.batchSize()) {
+            count += deliver(due.subList(from, Math.min(from + properties.batchSize(), due.size())));
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of claimed reminders not delivered yet.
+     *
+     * @return pending reminders
+     */
+    public int pending() {
+        return wheel.size();
+    }
+
+    private int deliver(List<Reminder> batch) {
+        List<Reminder> current = taskReminderRepository.findClaimed(batch);
+        // completed, rescheduled or deleted after the claim
+        stale.increment(batch.size() - current.size());
+        List<Reminder> notified = new ArrayList<>(current.size());
+        for (Reminder reminder : current) {
+            try {
+                reminderNotifier.notify(reminder);
+                notified.add(reminder);
+            } catch (RuntimeException e) {
+                log.warn("Reminder of task {} (tenant {}) not delivered, retrying after the lease: {}",
+                        reminder.taskId(), reminder.tenantId(), e.getMessage());
+                failed.increment();
+            }
+        }
+        taskReminderRepository.complete(notified);
+        Instant now = Instant.now();
+        notified.forEach(reminder -> lag.record(Duration.between(reminder.fireAt().toInstant(), now)));
+        delivered.increment(notified.size());
+        return notified.size();
+    }
+
+    private static Counter deliveries(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("todoops.reminders.deliveries")
+                .description("Reminders taken from the timing wheel, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
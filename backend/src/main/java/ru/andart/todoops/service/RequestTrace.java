@@ -0,0 +1,91 @@
+package ru.andart.todoops.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What {@link SlowRequestRecorder} collects about one request while it runs: its statements (added by the request
+ * thread) and samples of its thread (added by the sampler). Bound to the request thread, see {@link #current()}.
+ */
+public final class RequestTrace {
+
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+    private static final int MAX_THREAD_SAMPLES = 10;
+    private static final int STACK_DEPTH = 30;
+
+    private final String method;
+    private final String uri;
+    private final Thread thread = Thread.currentThread();
+    private final Instant startedAt = Instant.now();
+    private final long startNanos = System.nanoTime();
+    private final int maxStatements;
+    private final List<SlowRequest.Statement> statements = new ArrayList<>();
+    private final List<SlowRequest.ThreadSample> threadSamples = new CopyOnWriteArrayList<>();
+    private int omittedStatements;
+    private long databaseNanos;
+
+    RequestTrace(String method, String uri, int maxStatements) {
+        this.method = method;
+        this.uri = uri;
+        this.maxStatements = maxStatements;
+    }
+
+    /**
+     * Returns the trace of the request the current thread is serving.
+     *
+     * @return trace, null outside traced requests
+     */
+    public static RequestTrace current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Adds an executed statement.
+     *
+     * @param sql   statement text
+     * @param nanos execution time
+     */
+    public void statement(String sql, long nanos) {
+        databaseNanos += nanos;
+        if (statements.size() < maxStatements) {
+            statements.add(new SlowRequest.Statement(sql, TimeUnit.NANOSECONDS.toMicros(nanos)));
+        } else {
+            omittedStatements++;
+        }
+    }
+
+    void bind() {
+        CURRENT.set(this);
+    }
+
+    void unbind() {
+        CURRENT.remove();
+    }
+
+    long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Samples the state and stack of the request thread (from another thread), up to a fixed number of samples.
+     */
+    void sample() {
+        if (threadSamples.size() >= MAX_THREAD_SAMPLES) {
+            return;
+        }
+        StackTraceElement[] stack = thread.getStackTrace();
+        List<String> frames = Arrays.stream(stack).limit(STACK_DEPTH).map(StackTraceElement::toString).toList();
+        threadSamples.add(new SlowRequest.ThreadSample(TimeUnit.NANOSECONDS.toMillis(elapsedNanos()),
+                thread.getState().name(), frames));
+    }
+
+    SlowRequest finish(int status, long durationNanos) {
+        return new SlowRequest(startedAt.toString(), method, uri, status, TimeUnit.NANOSECONDS.toMillis(durationNanos),
+                TimeUnit.NANOSECONDS.toMillis(databaseNanos), List.copyOf(statements), omittedStatements,
+                List.copyOf(threadSamples));
+    }
+}
@@ -0,0 +1,176 @@
+package ru.andart.todoops.service;
+
+import ru.andart.todoops.config.SeedProperties;
+import ru.andart.todoops.generated.model.TaskStatus;
+import ru.andart.todoops.repository.TaskSeedRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates synthetic task rows in the {@code COPY} text format, straight into the copy buffer.
+ * Titles and descriptions are word-aligned slices of a fixed text of common task words (ASCII without tabs,
+ * newlines or backslashes, so nothing needs escaping); timestamps are local times, like the ones the service writes.
+ * Not thread-safe: one writer per stream.
+ */
+class SeedRowWriter implements TaskSeedRepository.RowWriter {
+
+    private static final String[] WORDS = {
+            "review", "update", "fix", "deploy", "write", "check", "prepare", "plan", "release", "migrate",
+            "the", "a", "for", "with", "and", "of", "to", "in", "after", "before",
+            "api", "database", "schema", "docs", "report", "invoice", "meeting", "backlog", "tests", "build",
+            "customer", "team", "budget", "design", "server", "cache", "index", "query", "dashboard", "alert",
+            "quarterly", "weekly", "urgent", "new", "old", "broken", "slow", "missing", "shared", "main",
+            "contract", "roadmap", "feedback", "onboarding", "metrics", "logs", "pipeline", "service", "client", "notes"
+    };
+    private static final int TEXT_LENGTH = 1 << 16;
+    private static final int MIN_TITLE_LENGTH = 10;
+    private static final int MAX_TITLE_LENGTH = 60;
+    private static final int MAX_DESCRIPTION_LENGTH = 4000;
+    private static final byte[] TEXT;
+    private static final int[] WORD_STARTS;
+    private static final byte[] NULL = {'\\', 'N'};
+    private static final int TIMESTAMP_LENGTH = "yyyy-MM-dd HH:mm:ss".length();
+
+    static {
+        SplittableRandom random = new SplittableRandom(0);
+        StringBuilder text = new StringBuilder(TEXT_LENGTH + 16);
+        List<Integer> starts = new ArrayList<>();
+        while (text.length() < TEXT_LENGTH) {
+            starts.add(text.length());
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        TEXT = text.toString().getBytes(StandardCharsets.US_ASCII);
+        WORD_STARTS = starts.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private final SeedProperties properties;
+    private final SplittableRandom random;
+    private final byte[][] statuses;
+    private final int[] cumulativeWeights;
+    private final long nowSeconds;
+    private final int descriptionMaxLength;
+
+    SeedRowWriter(SeedProperties properties, SplittableRandom random, LocalDateTime now) {
+        this.properties = properties;
+        this.random = random;
+        this.nowSeconds = now.toEpochSecond(ZoneOffset.UTC);
+        this.descriptionMaxLength = Math.min(properties.descriptionMaxLength(), MAX_DESCRIPTION_LENGTH);
+        List<TaskStatus> weighted = new ArrayList<>();
+        List<Integer> cumulative = new ArrayList<>();
+        int total = 0;
+        for (TaskStatus status : TaskStatus.values()) {
+            int weight = properties.statusWeights().getOrDefault(status, 0);
+            if (weight > 0) {
+                total += weight;
+                weighted.add(status);
+                cumulative.add(total);
+            }
+        }
+        if (weighted.isEmpty()) {
+            throw new IllegalArgumentException("todoops.seed.status-weights: no status has a positive weight");
+        }
+        this.statuses = weighted.stream().map(s -> s.name().getBytes(StandardCharsets.US_ASCII))
+                .toArray(byte[][]::new);
+        this.cumulativeWeights = cumulative.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Override
+    public int maxRowLength() {
+        // tenant id, title, description, status, two timestamps, separators
+        return 20 + MAX_TITLE_LENGTH + descriptionMaxLength + 16 + 2 * TIMESTAMP_LENGTH + 6;
+    }
+
+    @Override
+    public int write(byte[] buffer, int offset) {
+        int position = writeLong(buffer, offset, tenantId());
+        buffer[position++] = '\t';
+        position = writeText(buffer, position, MIN_TITLE_LENGTH + random.nextInt(MAX_TITLE_LENGTH - MIN_TITLE_LENGTH));
+        buffer[position++] = '\t';
+        position = writeText(buffer, position, descriptionLength());
+        buffer[position++] = '\t';
+        byte[] status = status();
+        System.arraycopy(status, 0, buffer, position, status.length);
+        position += status.length;
+        buffer[position++] = '\t';
+        long createdAt = nowSeconds - random.nextLong(Math.max(1, properties.createdWithin().toSeconds()));
+        position = writeTimestamp(buffer, position, createdAt);
+        buffer[position++] = '\t';
+        if (random.nextDouble() < properties.dueDateShare()) {
+            long from = nowSeconds - properties.dueDatePast().toSeconds();
+            long to = nowSeconds + properties.dueDateFuture().toSeconds();
+            position = writeTimestamp(buffer, position, random.nextLong(from, Math.max(from + 1, to)));
+        } else {
+            System.arraycopy(NULL, 0, buffer, position, NULL.length);
+            position += NULL.length;
+        }
+        buffer[position++] = '\n';
+        return position;
+    }
+
+    private long tenantId() {
+        long index = (long) (properties.tenants() * Math.pow(random.nextDouble(), properties.tenantSkew()));
+        return properties.firstTenant() + Math.min(index, properties.tenants() - 1L);
+    }
+
+    private int descriptionLength() {
+        double length = -properties.descriptionMeanLength() * Math.log(1 - random.nextDouble());
+        return (int) Math.min(length, descriptionMaxLength);
+    }
+
+    private byte[] status() {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int i = 0;
+        while (pick >= cumulativeWeights[i]) {
+            i++;
+        }
+        return statuses[i];
+    }
+
+    /**
+     * Copies {@code length} bytes of the text, starting at a random word.
+     */
+    private int writeText(byte[] buffer, int offset, int length) {
+        int start = WORD_STARTS[random.nextInt(WORD_STARTS.length)];
+        if (start + length > TEXT.length) {
+            start = 0;
+        }
+        System.arraycopy(TEXT, start, buffer, offset, length);
+        return offset + length;
+    }
+
+    private static int writeTimestamp(byte[] buffer, int offset, long epochSeconds) {
+        LocalDateTime time = LocalDateTime.ofEpochSecond(epochSeconds, 0, ZoneOffset.UTC);
+        int position = writeDigits(buffer, offset, time.getYear(), 4);
+        buffer[position++] = '-';
+        position = writeDigits(buffer, position, time.getMonthValue(), 2);
+        buffer[position++] = '-';
+        position = writeDigits(buffer, position, time.getDayOfMonth(), 2);
+        buffer[position++] = ' ';
+        position = writeDigits(buffer, position, time.getHour(), 2);
+        buffer[position++] = ':';
+        position = writeDigits(buffer, position, time.getMinute(), 2);
+        buffer[position++] = ':';
+        return writeDigits(buffer, position, time.getSecond(), 2);
+    }
+
+    private static int writeDigits(byte[] buffer, int offset, int value, int digits) {
+        for (int i = digits - 1; i >= 0; i--) {
+            buffer[offset + i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return offset + digits;
+    }
+
+    private static int writeLong(byte[] buffer, int offset, long value) {
+        String digits = Long.toString(value);
+        for (int i = 0; i < digits.length(); i++) {
+            buffer[offset + i] = (byte) digits.charAt(i);
+        }
+        return offset + digits.length();
+    }
+}
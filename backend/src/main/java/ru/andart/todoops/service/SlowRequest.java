@@ -0,0 +1,48 @@
+package ru.andart.todoops.service;
+
+import java.util.List;
+
+/**
+ * A request that took longer than {@code todoops.slow-requests.threshold}, as kept by {@link SlowRequestRecorder}.
+ *
+ * @param startedAt         start time (ISO-8601)
+ * @param method            HTTP method
+ * @param uri               request path, without the query string
+ * @param status            HTTP status
+ * @param durationMillis    time until the response was complete (the first dispatch of async requests)
+ * @param databaseMillis    time spent executing the statements below
+ * @param statements        SQL statements in execution order, up to {@code max-statements}
+ * @param omittedStatements statements beyond {@code max-statements}
+ * @param threadSamples     state of the request thread, sampled while it was over the threshold
+ */
+public record SlowRequest(
+        String startedAt,
+        String method,
+        String uri,
+        int status,
+        long durationMillis,
+        long databaseMillis,
+        List<Statement> statements,
+        int omittedStatements,
+        List<ThreadSample> threadSamples
+) {
+
+    /**
+     * An executed SQL statement.
+     *
+     * @param sql    statement text
+     * @param micros execution time (for queries, until the first rows were received)
+     */
+    public record Statement(String sql, long micros) {
+    }
+
+    /**
+     * State of the request thread at one point in time.
+     *
+     * @param atMillis time since the start of the request
+     * @param state    thread state ({@code RUNNABLE}, {@code WAITING} for a pool connection or a lock, ...)
+     * @param stack    innermost stack frames
+     */
+    public record ThreadSample(long atMillis, String state, List<String> stack) {
+    }
+}
@@ -0,0 +1,107 @@
+package ru.andart.todoops.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.andart.todoops.config.SlowRequestProperties;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the last {@code todoops.slow-requests.capacity} requests slower than {@code threshold} in a ring buffer,
+ * with their SQL statements, timings and samples of their thread. Every API request is traced (a thread-local
+ * and a statement list), but only slow ones are kept; the sampler looks at the requests in flight every
+ * {@code sample-interval} and takes stack traces only of those already over the threshold.
+ * Metric: {@code todoops.requests.slow}.
+ */
+@Component
+public class SlowRequestRecorder {
+
+    private final SlowRequestProperties properties;
+    private final Set<RequestTrace> inFlight = ConcurrentHashMap.newKeySet();
+    private final SlowRequest[] ring;
+    private final Counter slow;
+    private long recorded;
+
+    public SlowRequestRecorder(SlowRequestProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.ring = new SlowRequest[properties.capacity()];
+        this.slow = Counter.builder("todoops.requests.slow")
+                .description("API requests slower than todoops.slow-requests.threshold")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts tracing a request on the current thread.
+     *
+     * @param method HTTP method
+     * @param uri    request path
+     * @return trace, to be passed to {@link #end(RequestTrace, int)}
+     */
+    public RequestTrace begin(String method, String uri) {
+        RequestTrace trace = new RequestTrace(method, uri, properties.maxStatements());
+        trace.bind();
+        inFlight.add(trace);
+        return trace;
+    }
+
+    /**
+     * Ends tracing a request and keeps it if it was slow.
+     *
+     * @param trace  trace of {@link #begin(String, String)}
+     * @param status HTTP status
+     */
+    public void end(RequestTrace trace, int status) {
+        long duration = trace.elapsedNanos();
+        trace.unbind();
+        inFlight.remove(trace);
+        if (duration >= properties.threshold().toNanos()) {
+            slow.increment();
+            add(trace.finish(status, duration));
+        }
+    }
+
+    /**
+     * Samples the threads of requests in flight for longer than the threshold.
+     */
+    @Scheduled(fixedDelayString = "${todoops.slow-requests.sample-interval:PT0.1S}")
+    public void sampleThreads() {
+        long threshold = properties.threshold().toNanos();
+        for (RequestTrace trace : inFlight) {
+            if (trace.elapsedNanos() >= threshold) {
+                trace.sample();
+            }
+        }
+    }
+
+    /**
+     * Returns the kept slow requests.
+     *
+     * @return requests, newest first
+     */
+    public synchronized List<SlowRequest> recent() {
+        int size = (int) Math.min(recorded, ring.length);
+        List<SlowRequest> requests = new ArrayList<>(size);
+        for (long i = recorded - 1; i >= recorded - size; i--) {
+            requests.add(ring[(int) (i % ring.length)]);
+        }
+        return requests;
+    }
+
+    /**
+     * Forgets the kept slow requests.
+     */
+    public synchronized void clear() {
+        recorded = 0;
+        Arrays.fill(ring, null);
+    }
+
+    private synchronized void add(SlowRequest request) {
+        ring[(int) (recorded++ % ring.length)] = request;
+    }
+}
@@ -0,0 +1,216 @@
+package ru.andart.todoops.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.andart.todoops.config.AttachmentProperties;
+import ru.andart.todoops.entity.TaskEntity;
+import ru.andart.todoops.exception.BaseException;
+import ru.andart.todoops.exception.Errors;
+import ru.andart.todoops.generated.model.AttachmentCreateRequest;
+import ru.andart.todoops.generated.model.AttachmentStatus;
+import ru.andart.todoops.repository.Attachment;
+import ru.andart.todoops.repository.TaskAttachmentRepository;
+import ru.andart.todoops.repository.TaskRepository;
+
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Attachments of tasks. Content is uploaded in chunks, each appended at the offset received so far, so an upload
+ * broken off by the network resumes from the last stored chunk. Chunks are streamed from the request to the
+ * {@link BlobStore} outside of any transaction; only the received offset is recorded in the database.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TaskAttachmentService {
+
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes (\\d{1,18})-(\\d{1,18})/(\\d{1,18})");
+
+    private final TaskRepository taskRepository;
+    private final TaskAttachmentRepository taskAttachmentRepository;
+    private final BlobStore blobStore;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final AttachmentProperties properties;
+
+    /**
+     * Starts the upload of an attachment.
+     *
+     * @param tenantId tenant id
+     * @param taskId   task id
+     * @param request  file name, media type and size
+     * @return created attachment, complete if the file is empty
+     * @throws BaseException if the task is not found, the media type is invalid or the file is too large
+     */
+    public Attachment create(Long tenantId, Long taskId, AttachmentCreateRequest request) {
+        if (request.getSize() > properties.maxSize().toBytes()) {
+            throw Errors.validationError("Attachments are limited to " + properties.maxSize().toBytes() + " bytes");
+        }
+        String contentType = request.getContentType() != null
+                ? parseContentType(request.getContentType())
+                : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        Attachment attachment = transactionTemplate.execute(status -> {
+            taskRepository.findByTenantIdAndId(tenantId, taskId).orElseThrow(() -> Errors.taskNotFoundError(taskId));
+            return taskAttachmentRepository.create(tenantId, taskId, request.getFileName(), contentType,
+                    request.getSize());
+        });
+        blobStore.create(attachment.blobKey());
+        return attachment;
+    }
+
+    /**
+     * Returns the attachments of a task, oldest first, including unfinished uploads.
+     *
+     * @param tenantId tenant id
+     * @param taskId   task id
+     * @return attachments
+     * @throws BaseException if the task is not found
+     */
+    public List<Attachment> list(Long tenantId, Long taskId) {
+        return readOnlyTransactionTemplate.execute(status -> {
+            taskRepository.findByTenantIdAndId(tenantId, taskId).orElseThrow(() -> Errors.taskNotFoundError(taskId));
+            return taskAttachmentRepository.findByTask(tenantId, taskId);
+        });
+    }
+
+    /**
+     * Returns the attachments of several tasks in one statement, oldest first.
+     *
+     * @param tenantId tenant id
+     * @param taskIds  task ids (not checked)
+     * @return attachments per task that has any
+     */
+    public Map<Long, List<Attachment>> list(Long tenantId, Collection<Long> taskIds) {
+        return readOnlyTransactionTemplate.execute(status ->
+                taskAttachmentRepository.findByTasks(tenantId, taskIds).stream()
+                        .collect(Collectors.groupingBy(Attachment::taskId)));
+    }
+
+    /**
+     * Returns an attachment.
+     *
+     * @param tenantId tenant id
+     * @param taskId   task id
+     * @param id       attachment id
+     * @return attachment
+     * @throws BaseException if the attachment or its task is not found
+     */
+    public Attachment get(Long tenantId, Long taskId, Long id) {
+        return taskAttachmentRepository.find(tenantId, taskId, id)
+                .orElseThrow(() -> Errors.attachmentNotFoundError(id));
+    }
+
+    /**
+     * Stores a chunk of an upload. Without {@code Content-Range} the body is the whole file.
+     * If the body ends before the range does, what arrived is kept and the upload continues after it.
+     *
+     * @param tenantId     tenant id
+     * @param taskId       task id
+     * @param id           attachment id
+     * @param contentRange {@code bytes first-last/size}, or null
+     * @param content      request body, read as it arrives
+     * @return attachment with the new received offset
+     * @throws BaseException if not found, the range is malformed or does not start at the received offset,
+     *                       or another request stored the same chunk concurrently
+     */
+    public Attachment upload(Long tenantId, Long taskId, Long id, String contentRange, InputStream content) {
+        Attachment attachment = get(tenantId, taskId, id);
+        long[] range = parseContentRange(contentRange, attachment.size());
+        if (attachment.status() == AttachmentStatus.COMPLETE || range[0] != attachment.received()) {
+            throw Errors.attachmentOffsetError(id, attachment.received());
+        }
+        long written = blobStore.write(attachment.blobKey(), range[0], Channels.newChannel(content),
+                range[1] - range[0] + 1);
+        return transactionTemplate.execute(status -> taskAttachmentRepository.advance(attachment, range[0] + written)
+                .orElseThrow(Errors::concurrentModificationError));
+    }
+
+    /**
+     * Returns the content of a completely uploaded attachment.
+     *
+     * @param tenantId tenant id
+     * @param taskId   task id
+     * @param id       attachment id
+     * @return attachment and its content
+     * @throws BaseException if not found or the upload is not complete
+     */
+    public AttachmentContent download(Long tenantId, Long taskId, Long id) {
+        Attachment attachment = get(tenantId, taskId, id);
+        if (attachment.status() != AttachmentStatus.COMPLETE) {
+            throw Errors.attachmentIncompleteError(id);
+        }
+        return new AttachmentContent(attachment, blobStore.open(attachment.blobKey()));
+    }
+
+    /**
+     * Deletes an attachment and its content.
+     *
+     * @param tenantId tenant id
+     * @param taskId   task id
+     * @param id       attachment id
+     * @throws BaseException if not found
+     */
+    public void delete(Long tenantId, Long taskId, Long id) {
+        Attachment attachment = transactionTemplate.execute(status -> {
+            Attachment found = get(tenantId, taskId, id);
+            taskAttachmentRepository.delete(found);
+            return found;
+        });
+        blobStore.delete(attachment.blobKey());
+    }
+
+    /**
+     * Deletes the attachment rows of hard-deleted tasks. Must run in their delete's transaction;
+     * the returned attachments' content is deleted with {@link #deleteContent} after the commit.
+     *
+     * @param tasks purged tasks (tenant and id only)
+     * @return deleted attachments
+     */
+    public List<Attachment> deleteOfTasks(List<TaskEntity> tasks) {
+        return taskAttachmentRepository.deleteByTasks(tasks);
+    }
+
+    /**
+     * Deletes the content of deleted attachments.
+     *
+     * @param attachments deleted attachments
+     */
+    public void deleteContent(List<Attachment> attachments) {
+        attachments.forEach(attachment -> blobStore.delete(attachment.blobKey()));
+    }
+
+    private static long[] parseContentRange(String contentRange, long size) {
+        if (contentRange == null) {
+            return new long[] {0, size - 1};
+        }
+        Matcher matcher = CONTENT_RANGE.matcher(contentRange.trim());
+        if (!matcher.matches()) {
+            throw Errors.validationError("Content-Range must be 'bytes first-last/size': " + contentRange);
+        }
+        long first = Long.parseLong(matcher.group(1));
+        long last = Long.parseLong(matcher.group(2));
+        if (Long.parseLong(matcher.group(3)) != size || last < first || last >= size) {
+            throw Errors.validationError("Content-Range " + contentRange + " is not within " + size + " bytes");
+        }
+        return new long[] {first, last};
+    }
+
+    private static String parseContentType(String contentType) {
+        try {
+            return MediaType.parseMediaType(contentType).toString();
+        } catch (InvalidMediaTypeException e) {
+            throw Errors.validationError("Invalid content type: " + contentType);
+        }
+    }
+}
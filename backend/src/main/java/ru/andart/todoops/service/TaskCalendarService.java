@@ -0,0 +1,137 @@
+package ru.andart.todoops.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.andart.todoops.exception.BaseException;
+import ru.andart.todoops.exception.Errors;
+import ru.andart.todoops.generated.model.CalendarGranularity;
+import ru.andart.todoops.generated.model.TaskStatus;
+import ru.andart.todoops.repository.CalendarCount;
+import ru.andart.todoops.repository.CalendarTask;
+import ru.andart.todoops.repository.TaskCalendarRepository;
+import ru.andart.todoops.repository.TaskView;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Due-date calendar of a tenant's tasks: counts per status and bucket, plus the earliest-due tasks of every bucket.
+ * Counts come from the daily rollup ({@code todoops.calendar.use-rollup=true}) or from the {@code task} table.
+ * Virtual occurrences of recurring tasks in the range are added as {@code NEW} tasks.
+ */
+@Service
+@RequiredArgsConstructor
+public class TaskCalendarService {
+
+    /**
+     * Upper bound of buckets in one response.
+     */
+    static final long MAX_BUCKETS = 400;
+
+    private final TaskCalendarRepository taskCalendarRepository;
+    private final TaskOccurrenceService taskOccurrenceService;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    @Value("${todoops.calendar.use-rollup:true}")
+    private boolean useRollup;
+
+    /**
+     * Returns non-empty buckets of tasks due in {@code [from, to)}.
+     *
+     * @param tenantId tenant id
+     * @param from first day of the range (inclusive)
+     * @param to day after the range (exclusive)
+     * @param granularity bucket size (weeks start on Monday)
+     * @param top number of earliest-due tasks per bucket (0 for counts only)
+     * @return buckets ordered by start
+     * @throws BaseException if the range is empty or spans too many buckets
+     */
+    public List<CalendarBucket> calendar(Long tenantId, LocalDate from, LocalDate to,
+                                         CalendarGranularity granularity, int top) {
+        if (!from.isBefore(to)) {
+            throw Errors.invalidCalendarRangeError("'from' must be before 'to'");
+        }
+        if (bucketCount(from, to, granularity) > MAX_BUCKETS) {
+            throw Errors.invalidCalendarRangeError("Range exceeds " + MAX_BUCKETS + " buckets");
+        }
+        String unit = granularity.name().toLowerCase(Locale.ROOT);
+
+        return readOnlyTransactionTemplate.execute(status -> {
+            List<CalendarCount> counts = useRollup
+                    ? taskCalendarRepository.countRollup(tenantId, from, to, unit)
+                    : taskCalendarRepository.countTasks(tenantId, from, to, unit);
+            List<CalendarTask> tasks = top > 0
+                    ? taskCalendarRepository.findTopTasks(tenantId, from, to, unit, top)
+                    : List.of();
+            List<TaskView> occurrences = taskOccurrenceService.virtualOccurrences(tenantId, startOf(from), startOf(to));
+            return toBuckets(counts, tasks, occurrences, granularity, top);
+        });
+    }
+
+    private static long bucketCount(LocalDate from, LocalDate to, CalendarGranularity granularity) {
+        return switch (granularity) {
+            case DAY -> ChronoUnit.DAYS.between(from, to);
+            case WEEK -> ChronoUnit.WEEKS.between(from, to) + 1;
+            case MONTH -> ChronoUnit.MONTHS.between(from, to) + 1;
+        };
+    }
+
+    private static OffsetDateTime startOf(LocalDate day) {
+        return day.atStartOfDay(ZoneId.systemDefault()).toOffsetDateTime();
+    }
+
+    // Same buckets as date_trunc of the stored (JVM-local) due dates
+    private static LocalDate bucketOf(OffsetDateTime dueDate, CalendarGranularity granularity) {
+        LocalDate day = dueDate.atZoneSameInstant(ZoneId.systemDefault()).toLocalDate();
+        return switch (granularity) {
+            case DAY -> day;
+            case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> day.withDayOfMonth(1);
+        };
+    }
+
+    private static List<CalendarBucket> toBuckets(List<CalendarCount> counts, List<CalendarTask> tasks,
+                                                  List<TaskView> occurrences, CalendarGranularity granularity,
+                                                  int top) {
+        Map<LocalDate, Map<TaskStatus, Long>> countsByBucket = new TreeMap<>();
+        for (CalendarCount count : counts) {
+            countsByBucket.computeIfAbsent(count.bucket(), bucket -> new EnumMap<>(TaskStatus.class))
+                    .put(count.status(), count.count());
+        }
+        Map<LocalDate, List<TaskView>> tasksByBucket = new TreeMap<>();
+        for (CalendarTask task : tasks) {
+            tasksByBucket.computeIfAbsent(task.bucket(), bucket -> new ArrayList<>()).add(task.task());
+        }
+        for (TaskView occurrence : occurrences) {
+            LocalDate start = bucketOf(occurrence.dueDate(), granularity);
+            countsByBucket.computeIfAbsent(start, bucket -> new EnumMap<>(TaskStatus.class))
+                    .merge(TaskStatus.NEW, 1L, Long::sum);
+            if (top > 0) {
+                tasksByBucket.computeIfAbsent(start, bucket -> new ArrayList<>()).add(occurrence);
+            }
+        }
+        if (top > 0 && !occurrences.isEmpty()) {
+            tasksByBucket.replaceAll((start, bucketTasks) -> bucketTasks.stream()
+                    .sorted(TaskView.DUE_DATE_ORDER)
+                    .limit(top)
+                    .toList());
+        }
+
+        List<CalendarBucket> buckets = new ArrayList<>(countsByBucket.size());
+        countsByBucket.forEach((start, statusCounts) ->
+                buckets.add(new CalendarBucket(start, statusCounts, tasksByBucket.getOrDefault(start, List.of()))));
+        return buckets;
+    }
+}
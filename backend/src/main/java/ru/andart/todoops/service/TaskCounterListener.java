@@ -0,0 +1,63 @@
+package ru.andart.todoops.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.andart.todoops.entity.TaskEntity;
+import ru.andart.todoops.generated.model.TaskStatus;
+import ru.andart.todoops.repository.TaskCounterRepository;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the striped status counters in step with task mutations (create, delete, status change).
+ */
+@Component
+@RequiredArgsConstructor
+public class TaskCounterListener implements TaskMutationListener {
+
+    /**
+     * Number of stripe rows per (tenant, status).
+     */
+    static final int STRIPES = 16;
+
+    private final TaskCounterRepository taskCounterRepository;
+
+    @Override
+    public void onCreate(TaskEntity task) {
+        add(task.getTenantId(), task.getStatus(), 1);
+    }
+
+    @Override
+    public void onUpdate(TaskEntity before, TaskEntity after) {
+        if (before.getStatus() != after.getStatus()) {
+            add(before.getTenantId(), before.getStatus(), -1);
+            add(after.getTenantId(), after.getStatus(), 1);
+        }
+    }
+
+    @Override
+    public void onDelete(TaskEntity task) {
+        add(task.getTenantId(), task.getStatus(), -1);
+    }
+
+    @Override
+    public void onDeleteAll(List<TaskEntity> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        // a subtree belongs to one tenant: one update per status
+        Long tenantId = tasks.get(0).getTenantId();
+        tasks.stream()
+                .collect(Collectors.groupingBy(TaskEntity::getStatus, () -> new EnumMap<>(TaskStatus.class),
+                        Collectors.counting()))
+                .forEach((status, count) -> add(tenantId, status, -Math.toIntExact(count)));
+    }
+
+    private void add(Long tenantId, TaskStatus status, int delta) {
+        int stripe = ThreadLocalRandom.current().nextInt(STRIPES);
+        taskCounterRepository.add(tenantId, status, stripe, delta);
+    }
+}
@@ -0,0 +1,52 @@
+package ru.andart.todoops.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.andart.todoops.generated.model.TaskStatus;
+import ru.andart.todoops.repository.TaskCounterRepository;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gauge {@code todoops.tasks{status}}: tasks per status over all tenants.
+ * Values are cached and refreshed on a schedule, so a scrape never queries the database.
+ */
+@Component
+@RequiredArgsConstructor
+public class TaskCounterMetrics implements MeterBinder {
+
+    private final TaskCounterRepository taskCounterRepository;
+    private final Map<TaskStatus, AtomicLong> counts = newCounts();
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (TaskStatus status : TaskStatus.values()) {
+            Gauge.builder("todoops.tasks", counts.get(status), AtomicLong::get)
+                    .description("Tasks per status (all tenants, from the status counters)")
+                    .tag("status", status.name())
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Reloads the cached counts from the status counters.
+     */
+    @Scheduled(fixedDelayString = "${todoops.counters.gauge-refresh-interval:PT30S}")
+    public void refresh() {
+        taskCounterRepository.countAllByStatus().forEach((status, count) -> counts.get(status).set(count));
+    }
+
+    private static Map<TaskStatus, AtomicLong> newCounts() {
+        Map<TaskStatus, AtomicLong> counts = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus status : TaskStatus.values()) {
+            counts.put(status, new AtomicLong());
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,59 @@
+package ru.andart.todoops.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.andart.todoops.repository.TaskCounterRepository;
+
+/**
+ * Periodically corrects drift of the striped status counters (bulk SQL, manual fixes, bugs) against the
+ * {@code task} table. One replica at a time: others skip the run when the advisory lock is taken.
+ */
+@Slf4j
+@Component
+public class TaskCounterReconciler {
+
+    private static final String LOCK_NAME = "todoops.task-counter-reconciler";
+
+    private final TaskCounterRepository taskCounterRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter corrections;
+
+    public TaskCounterReconciler(TaskCounterRepository taskCounterRepository,
+                                 TransactionTemplate transactionTemplate,
+                                 MeterRegistry meterRegistry) {
+        this.taskCounterRepository = taskCounterRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.corrections = Counter.builder("todoops.task.counters.corrections")
+                .description("Status counts corrected by the reconciler")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reconciles all counters unless another replica is doing it.
+     *
+     * @return number of corrected (tenant, status) counts, or -1 if skipped
+     */
+    @Scheduled(initialDelayString = "${todoops.counters.reconcile-interval:PT15M}",
+            fixedDelayString = "${todoops.counters.reconcile-interval:PT15M}")
+    public int reconcile() {
+        Integer corrected = transactionTemplate.execute(status -> {
+            if (!taskCounterRepository.tryLock(LOCK_NAME)) {
+                return -1;
+            }
+            return taskCounterRepository.reconcile();
+        });
+        if (corrected == null || corrected < 0) {
+            log.debug("Counter reconciliation skipped: running on another replica");
+            return -1;
+        }
+        if (corrected > 0) {
+            log.warn("Counter reconciliation corrected {} status counts", corrected);
+            corrections.increment(corrected);
+        }
+        return corrected;
+    }
+}
@@ -0,0 +1,69 @@
+package ru.andart.todoops.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.andart.todoops.config.HistoryProperties;
+import ru.andart.todoops.repository.TaskHistoryRepository;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Keeps the monthly partitions of {@code task_history} in place: creates the current and the next
+ * {@code todoops.history.premake-months} months and drops months older than {@code todoops.history.retention-months}.
+ * Dropping a partition removes a month of history without deleting (and vacuuming) its rows one by one.
+ * Runs at startup and then periodically; one replica at a time, others skip the run when the advisory lock is taken.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TaskHistoryPartitionManager {
+
+    private static final String LOCK_NAME = "todoops.task-history-partitions";
+
+    private final TaskHistoryRepository taskHistoryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final HistoryProperties historyProperties;
+
+    /**
+     * Brings the partitions in line with the current month unless another replica is doing it.
+     */
+    @Scheduled(fixedDelayString = "${todoops.history.maintenance-interval:PT1H}")
+    public void maintain() {
+        maintain(YearMonth.now());
+    }
+
+    /**
+     * Brings the partitions in line with a given current month.
+     *
+     * @param current current month
+     * @return number of dropped partitions, or -1 if skipped
+     */
+    int maintain(YearMonth current) {
+        Integer dropped = transactionTemplate.execute(status -> {
+            if (!taskHistoryRepository.tryLock(LOCK_NAME)) {
+                return -1;
+            }
+            for (int i = 0; i <= historyProperties.premakeMonths(); i++) {
+                taskHistoryRepository.createPartition(current.plusMonths(i));
+            }
+            YearMonth oldest = current.minusMonths(historyProperties.retentionMonths());
+            List<YearMonth> expired = taskHistoryRepository.findPartitions().stream()
+                    .filter(month -> month.isBefore(oldest))
+                    .toList();
+            expired.forEach(taskHistoryRepository::dropPartition);
+            return expired.size();
+        });
+        if (dropped == null || dropped < 0) {
+            log.debug("History partition maintenance skipped: running on another replica");
+            return -1;
+        }
+        if (dropped > 0) {
+            log.info("Dropped {} expired task history partitions", dropped);
+        }
+        return dropped;
+    }
+}
@@ -0,0 +1,159 @@
+package ru.andart.todoops.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.andart.todoops.entity.TaskEntity;
+import ru.andart.todoops.exception.BaseException;
+import ru.andart.todoops.exception.Errors;
+import ru.andart.todoops.generated.model.TaskHistoryOperation;
+import ru.andart.todoops.generated.model.TaskStatus;
+import ru.andart.todoops.repository.FieldChange;
+import ru.andart.todoops.repository.HistoryEntry;
+import ru.andart.todoops.repository.TaskHistoryRepository;
+import ru.andart.todoops.repository.TaskHistoryRepository.TaskChange;
+import ru.andart.todoops.repository.TaskRepository;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Change history of tasks and reverting to an earlier version.
+ * {@link TaskService} records every update, status change and delete here inside its transaction; only the fields
+ * a change touched are stored. A revert undoes the later changes field by field and is recorded as a change itself.
+ */
+@Service
+@RequiredArgsConstructor
+public class TaskHistoryService {
+
+    private final TaskRepository taskRepository;
+    private final TaskHistoryRepository taskHistoryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final List<TaskMutationListener> mutationListeners;
+
+    /**
+     * Records a change of a task; does nothing if no tracked field changed. Must run in the change's transaction
+     * after the new version has been flushed.
+     *
+     * @param before    copy of the task before the change
+     * @param after     task after the change
+     * @param operation kind of change
+     */
+    public void recordChange(TaskEntity before, TaskEntity after, TaskHistoryOperation operation) {
+        List<FieldChange> fields = diff(before, after);
+        if (!fields.isEmpty()) {
+            taskHistoryRepository.append(after.getTenantId(), operation,
+                    List.of(new TaskChange(after.getId(), after.getVersion(), fields)));
+        }
+    }
+
+    /**
+     * Records deleted tasks with their last values, so that their history shows what was deleted.
+     * Must run in the delete's transaction.
+     *
+     * @param tasks deleted tasks of one tenant, with the version of the delete
+     */
+    public void recordDeletes(List<TaskEntity> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        List<TaskChange> changes = tasks.stream()
+                .map(task -> new TaskChange(task.getId(), task.getVersion(), diff(task, new TaskEntity())))
+                .toList();
+        taskHistoryRepository.append(tasks.get(0).getTenantId(), TaskHistoryOperation.DELETE, changes);
+    }
+
+    /**
+     * Returns a page of a task's changes, newest first. Works for deleted tasks as long as their history is retained.
+     *
+     * @param tenantId tenant id
+     * @param id task id
+     * @param page zero-based page index
+     * @param size page size
+     * @return history entries
+     * @throws BaseException if the task neither exists nor has history
+     */
+    public List<HistoryEntry> getHistory(Long tenantId, Long id, int page, int size) {
+        return readOnlyTransactionTemplate.execute(status -> {
+            List<HistoryEntry> entries = taskHistoryRepository.find(tenantId, id, (long) page * size, size);
+            if (entries.isEmpty() && taskRepository.findViewById(tenantId, id).isEmpty()) {
+                throw Errors.taskNotFoundError(id);
+            }
+            return entries;
+        });
+    }
+
+    /**
+     * Restores title, description, status and due date of a task as of an earlier version by undoing the changes
+     * made after it, newest first. Status transition rules do not apply: the task goes back to whatever it was.
+     *
+     * @param tenantId tenant id
+     * @param id task id
+     * @param version version to restore
+     * @return task after the revert (a new version, unless it already matched)
+     * @throws BaseException if task not found, the version does not exist yet or its history has expired
+     */
+    public TaskEntity revert(Long tenantId, Long id, int version) {
+        return transactionTemplate.execute(status -> {
+            TaskEntity entity = taskRepository.findByTenantIdAndId(tenantId, id)
+                    .orElseThrow(() -> Errors.taskNotFoundError(id));
+            int current = entity.getVersion();
+            if (version > current) {
+                throw Errors.validationError(
+                        String.format("Task %d is at version %d, cannot revert to %d", id, current, version));
+            }
+            if (version == current) {
+                return entity;
+            }
+            List<HistoryEntry> undone = taskHistoryRepository.findAfter(tenantId, id, version);
+            if (undone.size() != current - version) {
+                throw Errors.historyExpiredError(id, version);
+            }
+
+            TaskEntity before = entity.toBuilder().build();
+            for (HistoryEntry entry : undone) {
+                entry.changes().forEach(change -> restore(entity, change));
+            }
+            TaskEntity reverted = taskRepository.saveAndFlush(entity);
+            if (reverted.getVersion() == current) {
+                return reverted;
+            }
+            recordChange(before, reverted, TaskHistoryOperation.REVERT);
+            mutationListeners.forEach(listener -> listener.onUpdate(before, reverted));
+            return reverted;
+        });
+    }
+
+    private static List<FieldChange> diff(TaskEntity before, TaskEntity after) {
+        List<FieldChange> changes = new ArrayList<>();
+        addIfChanged(changes, "title", before, after, TaskEntity::getTitle);
+        addIfChanged(changes, "description", before, after, TaskEntity::getDescription);
+        addIfChanged(changes, "status", before, after, task -> Objects.toString(task.getStatus(), null));
+        addIfChanged(changes, "due_date", before, after, task -> Objects.toString(task.getDueDate(), null));
+        return changes;
+    }
+
+    private static void addIfChanged(List<FieldChange> changes, String field, TaskEntity before, TaskEntity after,
+                                     Function<TaskEntity, String> getter) {
+        String from = getter.apply(before);
+        String to = getter.apply(after);
+        if (!Objects.equals(from, to)) {
+            changes.add(new FieldChange(field, from, to));
+        }
+    }
+
+    private static void restore(TaskEntity entity, FieldChange change) {
+        String value = change.from();
+        switch (change.field()) {
+            case "title" -> entity.setTitle(value);
+            case "description" -> entity.setDescription(value);
+            case "status" -> entity.setStatus(TaskStatus.valueOf(value));
+            case "due_date" -> entity.setDueDate(value != null ? OffsetDateTime.parse(value) : null);
+            default -> throw new IllegalStateException("Unknown task history field: " + change.field());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package ru.andart.todoops.service;
+
+import ru.andart.todoops.entity.TaskEntity;
+
+import java.util.List;
+
+/**
+ * Callback for derived state that has to follow task changes made through {@link TaskService}.
+ * Invoked inside the mutation's transaction, so a failing listener rolls the change back.
+ */
+public interface TaskMutationListener {
+
+    /**
+     * Called after a task is inserted.
+     *
+     * @param task created task (with id)
+     */
+    void onCreate(TaskEntity task);
+
+    /**
+     * Called after a task is modified.
+     *
+     * @param before copy of the task before the change
+     * @param after task after the change
+     */
+    void onUpdate(TaskEntity before, TaskEntity after);
+
+    /**
+     * Called after a task is deleted.
+     *
+     * @param task deleted task
+     */
+    void onDelete(TaskEntity task);
+
+    /**
+     * Called after several tasks are deleted by one statement (a subtree).
+     * Listeners whose work can be aggregated should override it.
+     *
+     * @param tasks deleted tasks (id, tenant, title, description, status, due date and version)
+     */
+    default void onDeleteAll(List<TaskEntity> tasks) {
+        tasks.forEach(this::onDelete);
+    }
+}
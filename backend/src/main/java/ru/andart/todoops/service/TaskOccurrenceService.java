@@ -0,0 +1,77 @@
+package ru.andart.todoops.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.andart.todoops.exception.BaseException;
+import ru.andart.todoops.exception.Errors;
+import ru.andart.todoops.generated.model.TaskStatus;
+import ru.andart.todoops.repository.RecurringSeries;
+import ru.andart.todoops.repository.TaskRecurrenceRepository;
+import ru.andart.todoops.repository.TaskRecurrenceRepository.Occurrence;
+import ru.andart.todoops.repository.TaskView;
+import ru.andart.todoops.util.RecurrenceUtil;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Virtual occurrences of recurring tasks in a due-date window: computed from the rules active in the window,
+ * minus the slots already materialized as tasks (those are read as regular tasks).
+ * Nothing is stored; the work is bounded by the window, not by how long the series have been running.
+ */
+@Service
+@RequiredArgsConstructor
+public class TaskOccurrenceService {
+
+    /**
+     * Upper bound of virtual occurrences in one window.
+     */
+    static final int MAX_OCCURRENCES = 50_000;
+
+    private final TaskRecurrenceRepository taskRecurrenceRepository;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    /**
+     * Returns the virtual occurrences of a tenant's recurring tasks due in {@code [from, to)}.
+     *
+     * @param tenantId tenant id
+     * @param from start of the window (inclusive)
+     * @param to end of the window (exclusive)
+     * @return occurrences in {@link TaskView#DUE_DATE_ORDER}, status NEW, id and series id of the recurring task
+     * @throws BaseException if the window holds more than {@link #MAX_OCCURRENCES} occurrences
+     */
+    public List<TaskView> virtualOccurrences(Long tenantId, OffsetDateTime from, OffsetDateTime to) {
+        return readOnlyTransactionTemplate.execute(status -> {
+            List<RecurringSeries> series = taskRecurrenceRepository.findActive(tenantId, from, to);
+            if (series.isEmpty()) {
+                return List.of();
+            }
+            List<Long> seriesIds = series.stream().map(s -> s.rule().taskId()).toList();
+            Set<Occurrence> materialized = taskRecurrenceRepository.findMaterialized(tenantId, seriesIds, from, to);
+
+            List<TaskView> occurrences = new ArrayList<>();
+            for (RecurringSeries s : series) {
+                int limit = MAX_OCCURRENCES - occurrences.size() + 1;
+                for (OffsetDateTime at : RecurrenceUtil.occurrences(s.rule(), from, to, limit)) {
+                    if (!materialized.contains(new Occurrence(s.rule().taskId(), at.toInstant()))) {
+                        occurrences.add(virtual(s.task(), at));
+                    }
+                }
+                if (occurrences.size() > MAX_OCCURRENCES) {
+                    throw Errors.validationError(
+                            "Window holds more than " + MAX_OCCURRENCES + " occurrences of recurring tasks");
+                }
+            }
+            occurrences.sort(TaskView.DUE_DATE_ORDER);
+            return occurrences;
+        });
+    }
+
+    private static TaskView virtual(TaskView task, OffsetDateTime at) {
+        return new TaskView(task.id(), task.title(), task.description(), TaskStatus.NEW, task.createdAt(), at,
+                task.parentId(), task.id(), at, null);
+    }
+}
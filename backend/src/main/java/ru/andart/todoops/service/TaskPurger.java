@@ -0,0 +1,90 @@
+package ru.andart.todoops.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.andart.todoops.config.PurgeProperties;
+import ru.andart.todoops.entity.TaskEntity;
+import ru.andart.todoops.repository.Attachment;
+import ru.andart.todoops.repository.TaskPurgeRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hard-deletes soft-deleted tasks after {@code todoops.purge.retention}. Rows go in bounded batches, one transaction
+ * each, with a pause in between, so that a mass delete does not turn into one long transaction holding back vacuum
+ * and a burst of WAL for the replicas. A run stops after {@code max-batches}; the backlog is taken by the next runs.
+ * Attachments of purged tasks go with them, their content after the batch commits.
+ * Every replica may run it (batches are claimed with {@code SKIP LOCKED}). Metric: {@code todoops.tasks.purged}.
+ */
+@Slf4j
+@Component
+public class TaskPurger {
+
+    private final TaskPurgeRepository taskPurgeRepository;
+    private final TaskAttachmentService taskAttachmentService;
+    private final TransactionTemplate transactionTemplate;
+    private final PurgeProperties properties;
+    private final Counter purged;
+
+    public TaskPurger(TaskPurgeRepository taskPurgeRepository,
+                      TaskAttachmentService taskAttachmentService,
+                      TransactionTemplate transactionTemplate,
+                      PurgeProperties properties,
+                      MeterRegistry meterRegistry) {
+        this.taskPurgeRepository = taskPurgeRepository;
+        this.taskAttachmentService = taskAttachmentService;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.purged = Counter.builder("todoops.tasks.purged")
+                .description("Soft-deleted tasks hard-deleted after the retention period")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Purges expired tasks until a batch comes back short or {@code max-batches} batches are done.
+     *
+     * @return number of hard-deleted tasks
+     */
+    @Scheduled(fixedDelayString = "${todoops.purge.interval:PT5M}")
+    public int purge() {
+        int total = 0;
+        for (int batch = 0; batch < properties.maxBatches(); batch++) {
+            if (batch > 0 && !pause()) {
+                break;
+            }
+            List<Attachment> attachments = new ArrayList<>();
+            Integer deleted = transactionTemplate.execute(status -> {
+                List<TaskEntity> tasks = taskPurgeRepository.purge(properties.retention(), properties.batchSize());
+                attachments.addAll(taskAttachmentService.deleteOfTasks(tasks));
+                return tasks.size();
+            });
+            // blobs go after the commit: a rolled back batch must not lose content
+            taskAttachmentService.deleteContent(attachments);
+            int count = deleted == null ? 0 : deleted;
+            purged.increment(count);
+            total += count;
+            if (count < properties.batchSize()) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Purged {} soft-deleted tasks", total);
+        }
+        return total;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(properties.pause().toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
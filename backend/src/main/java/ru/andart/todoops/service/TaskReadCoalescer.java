@@ -0,0 +1,102 @@
+package ru.andart.todoops.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.andart.todoops.config.SingleFlightProperties;
+import ru.andart.todoops.entity.TaskEntity;
+import ru.andart.todoops.util.SingleFlight;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Lets identical concurrent reads of {@link TaskService} share one database call and its result (or exception):
+ * a hot page or task requested by many clients at once costs one transaction. Keyed by operation, tenant and
+ * parameters.
+ * A read must not return what was read before a change its caller already saw committed, so after every task
+ * mutation commits the tenant's reads in flight are forgotten and later reads go to the database.
+ * Metrics: {@code todoops.reads.coalesced}, {@code todoops.reads.coalesce.timeouts}.
+ */
+@Component
+public class TaskReadCoalescer implements TaskMutationListener {
+
+    private final boolean enabled;
+    private final SingleFlight<Key, Object> flights;
+
+    public TaskReadCoalescer(SingleFlightProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.enabled();
+        this.flights = new SingleFlight<>(properties.maxWait());
+        FunctionCounter.builder("todoops.reads.coalesced", flights, SingleFlight::joined)
+                .description("Task reads served by a concurrent identical read")
+                .register(meterRegistry);
+        FunctionCounter.builder("todoops.reads.coalesce.timeouts", flights, SingleFlight::timedOut)
+                .description("Task reads that stopped waiting for a concurrent identical read")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs a read, or joins the identical read in flight.
+     *
+     * @param operation  name of the read
+     * @param tenantId   tenant id
+     * @param parameters remaining parameters of the read
+     * @param read       the read
+     * @param <T>        result type
+     * @return result of the read
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T read(String operation, Long tenantId, List<Object> parameters, Supplier<T> read) {
+        if (!enabled) {
+            return read.get();
+        }
+        return (T) flights.execute(new Key(operation, tenantId, parameters), (Supplier<Object>) read);
+    }
+
+    @Override
+    public void onCreate(TaskEntity task) {
+        forgetAfterCommit(task.getTenantId());
+    }
+
+    @Override
+    public void onUpdate(TaskEntity before, TaskEntity after) {
+        forgetAfterCommit(after.getTenantId());
+    }
+
+    @Override
+    public void onDelete(TaskEntity task) {
+        forgetAfterCommit(task.getTenantId());
+    }
+
+    @Override
+    public void onDeleteAll(List<TaskEntity> tasks) {
+        if (!tasks.isEmpty()) {
+            forgetAfterCommit(tasks.get(0).getTenantId());
+        }
+    }
+
+    private void forgetAfterCommit(Long tenantId) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            forget(tenantId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                forget(tenantId);
+            }
+        });
+    }
+
+    private void forget(Long tenantId) {
+        flights.forget(key -> key.tenantId().equals(tenantId));
+    }
+
+    private record Key(String operation, Long tenantId, List<Object> parameters) {
+    }
+}
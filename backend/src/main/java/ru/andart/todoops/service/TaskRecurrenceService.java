@@ -0,0 +1,167 @@
+package ru.andart.todoops.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.andart.todoops.entity.TaskEntity;
+import ru.andart.todoops.exception.BaseException;
+import ru.andart.todoops.exception.Errors;
+import ru.andart.todoops.generated.model.OccurrenceStatusRequest;
+import ru.andart.todoops.generated.model.TaskRecurrence;
+import ru.andart.todoops.generated.model.TaskStatus;
+import ru.andart.todoops.generated.model.TaskStatusRequest;
+import ru.andart.todoops.repository.RecurrenceRule;
+import ru.andart.todoops.repository.TaskRecurrenceRepository;
+import ru.andart.todoops.repository.TaskRepository;
+import ru.andart.todoops.util.RecurrenceUtil;
+import ru.andart.todoops.util.TaskStatusTransitionUtil;
+
+import java.time.DateTimeException;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Recurrence rules of tasks and materialization of their occurrences.
+ * An occurrence becomes a task of its own (a copy of the recurring task due at its slot) only when its status
+ * first changes; until then it is computed on read by {@link TaskOccurrenceService}.
+ */
+@Service
+@RequiredArgsConstructor
+public class TaskRecurrenceService {
+
+    private static final ZoneId UTC = ZoneId.of("UTC");
+
+    private final TaskRepository taskRepository;
+    private final TaskRecurrenceRepository taskRecurrenceRepository;
+    private final TaskService taskService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final List<TaskMutationListener> mutationListeners;
+
+    /**
+     * Returns the recurrence rule of a task.
+     *
+     * @param tenantId tenant id
+     * @param id task id
+     * @return recurrence rule
+     * @throws BaseException if task not found or it does not recur
+     */
+    public RecurrenceRule get(Long tenantId, Long id) {
+        return readOnlyTransactionTemplate.execute(status ->
+                taskRecurrenceRepository.find(tenantId, id).orElseThrow(() -> notRecurringError(tenantId, id)));
+    }
+
+    /**
+     * Makes a task recur, starting from its current due date. Replaces an existing rule.
+     *
+     * @param tenantId tenant id
+     * @param id task id
+     * @param request frequency, interval, optional end and zone
+     * @return the rule that was set
+     * @throws BaseException if task not found, has no due date, is itself an occurrence, ends before it starts or
+     *                       the zone is unknown
+     */
+    public RecurrenceRule set(Long tenantId, Long id, TaskRecurrence request) {
+        return transactionTemplate.execute(status -> {
+            TaskEntity task = taskRepository.findByTenantIdAndId(tenantId, id)
+                    .orElseThrow(() -> Errors.taskNotFoundError(id));
+            if (task.getSeriesId() != null) {
+                throw Errors.validationError("An occurrence of a recurring task cannot recur itself");
+            }
+            if (task.getDueDate() == null) {
+                throw Errors.validationError("A recurring task needs a due date");
+            }
+            if (request.getUntil() != null && request.getUntil().isBefore(task.getDueDate())) {
+                throw Errors.validationError("'until' must not be before the due date of the task");
+            }
+            int interval = request.getInterval() != null ? request.getInterval() : 1;
+            var rule = new RecurrenceRule(id, request.getFrequency(), interval, task.getDueDate(), request.getUntil(),
+                    zone(request.getZone()));
+            taskRecurrenceRepository.save(tenantId, rule);
+            return rule;
+        });
+    }
+
+    /**
+     * Stops a task from recurring. Materialized occurrences stay as regular tasks.
+     *
+     * @param tenantId tenant id
+     * @param id task id
+     * @throws BaseException if task not found
+     */
+    public void remove(Long tenantId, Long id) {
+        transactionTemplate.executeWithoutResult(status -> {
+            taskRepository.findByTenantIdAndId(tenantId, id).orElseThrow(() -> Errors.taskNotFoundError(id));
+            taskRecurrenceRepository.delete(tenantId, List.of(id));
+        });
+    }
+
+    /**
+     * Changes the status of an occurrence, materializing it on its first change
+     * (as if it was created NEW and then moved to the requested status).
+     *
+     * @param tenantId tenant id
+     * @param id recurring task id
+     * @param request occurrence slot and target status
+     * @return the materialized occurrence
+     * @throws BaseException if the task does not recur, has no occurrence at the slot or the transition is not allowed
+     */
+    public TaskEntity changeOccurrenceStatus(Long tenantId, Long id, OccurrenceStatusRequest request) {
+        return transactionTemplate.execute(status -> {
+            // the rule's row lock serializes materializations of one series
+            RecurrenceRule rule = taskRecurrenceRepository.findForUpdate(tenantId, id)
+                    .orElseThrow(() -> notRecurringError(tenantId, id));
+            OffsetDateTime occurrenceAt = request.getOccurrenceAt();
+            if (!RecurrenceUtil.isOccurrence(rule, occurrenceAt)) {
+                throw Errors.invalidOccurrenceError(id, occurrenceAt);
+            }
+            Optional<TaskEntity> materialized =
+                    taskRepository.findByTenantIdAndSeriesIdAndOccurrenceAt(tenantId, id, occurrenceAt);
+            if (materialized.isPresent()) {
+                return taskService.changeStatus(tenantId, materialized.get().getId(),
+                        new TaskStatusRequest(request.getStatus()));
+            }
+            return materialize(tenantId, id, occurrenceAt, request.getStatus());
+        });
+    }
+
+    private TaskEntity materialize(Long tenantId, Long id, OffsetDateTime occurrenceAt, TaskStatus target) {
+        if (!TaskStatusTransitionUtil.isTransitionAllowed(TaskStatus.NEW, target)) {
+            throw Errors.invalidStatusTransitionError(TaskStatus.NEW.name(), target.name());
+        }
+        TaskEntity series = taskRepository.findByTenantIdAndId(tenantId, id)
+                .orElseThrow(() -> Errors.taskNotFoundError(id));
+        TaskEntity occurrence = TaskEntity.builder()
+                .tenantId(tenantId)
+                .title(series.getTitle())
+                .description(series.getDescription())
+                .status(target)
+                .createdAt(OffsetDateTime.now())
+                .dueDate(occurrenceAt)
+                .seriesId(id)
+                .occurrenceAt(occurrenceAt)
+                .build();
+        TaskEntity created = taskRepository.save(occurrence);
+        mutationListeners.forEach(listener -> listener.onCreate(created));
+        return created;
+    }
+
+    private BaseException notRecurringError(Long tenantId, Long id) {
+        return taskRepository.findViewById(tenantId, id).isPresent()
+                ? Errors.recurrenceNotFoundError(id)
+                : Errors.taskNotFoundError(id);
+    }
+
+    private static ZoneId zone(String zone) {
+        if (zone == null) {
+            return UTC;
+        }
+        try {
+            return ZoneId.of(zone);
+        } catch (DateTimeException e) {
+            throw Errors.validationError("Unknown time zone '" + zone + "'");
+        }
+    }
+}
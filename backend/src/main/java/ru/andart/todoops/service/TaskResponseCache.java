@@ -0,0 +1,213 @@
+package ru.andart.todoops.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import ru.andart.todoops.config.ResponseCacheProperties;
+import ru.andart.todoops.repository.TaskVersionRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoded responses of hot task pages and tasks, kept as bytes (and gzipped once, if Tomcat would compress them),
+ * so a hit costs neither the query, the conversion nor the JSON encoding, only the version check: an entry is
+ * served while the tenant's version ({@link TaskVersionRepository}) is the one read before it was produced.
+ * Bounded by {@code todoops.response-cache.max-size}, least recently used entries are evicted first.
+ * Metrics: {@code todoops.response-cache.requests} (tag {@code result}), {@code todoops.response-cache.size}.
+ */
+@Component
+public class TaskResponseCache {
+
+    private final TaskVersionRepository taskVersionRepository;
+    private final long maxSize;
+    private final Compression compression;
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Counter hits;
+    private final Counter misses;
+    private long size;
+
+    public TaskResponseCache(TaskVersionRepository taskVersionRepository, ResponseCacheProperties properties,
+                             ServerProperties serverProperties, MeterRegistry meterRegistry) {
+        this.taskVersionRepository = taskVersionRepository;
+        this.maxSize = properties.maxSize().toBytes();
+        this.compression = serverProperties.getCompression();
+        this.hits = requests(meterRegistry, "hit");
+        this.misses = requests(meterRegistry, "miss");
+        Gauge.builder("todoops.response-cache.size", this, TaskResponseCache::size)
+                .description("Bytes of cached task responses")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Cached response: what Tomcat would have sent, and its gzip encoding if Tomcat would have compressed it.
+     *
+     * @param version     tenant version the response was produced at
+     * @param contentType content type
+     * @param body        identity body
+     * @param gzipBody    gzip body, null for responses below the compression threshold
+     */
+    public record Entry(long version, String contentType, byte[] body, byte[] gzipBody) {
+
+        private long size() {
+            return body.length + (gzipBody != null ? gzipBody.length : 0);
+        }
+    }
+
+    /**
+     * Key of a cached response: tenant and normalized request ({@code page:0:20}, {@code task:42},
+     * {@code task:42:status,title} with a sparse fieldset).
+     *
+     * @param tenantId tenant id
+     * @param resource normalized request
+     */
+    public record Key(long tenantId, String resource) {
+
+        /**
+         * Key of a page of {@code GET /api/v1/tasks}.
+         *
+         * @param tenantId tenant id
+         * @param page     page index
+         * @param size     page size
+         * @param fields   sorted comma-separated sparse fieldset, empty for full tasks
+         * @return key
+         */
+        public static Key page(long tenantId, int page, int size, String fields) {
+            return new Key(tenantId, withFields("page:" + page + ":" + size, fields));
+        }
+
+        /**
+         * Key of {@code GET /api/v1/tasks/{id}}.
+         *
+         * @param tenantId tenant id
+         * @param id       task id
+         * @param fields   sorted comma-separated sparse fieldset, empty for the full task
+         * @return key
+         */
+        public static Key task(long tenantId, long id, String fields) {
+            return new Key(tenantId, withFields("task:" + id, fields));
+        }
+
+        private static String withFields(String resource, String fields) {
+            return fields.isEmpty() ? resource : resource + ":" + fields;
+        }
+    }
+
+    /**
+     * Returns the current version of a tenant's tasks, to be read before a lookup and before producing a response.
+     *
+     * @param tenantId tenant id
+     * @return version
+     */
+    public long version(long tenantId) {
+        return taskVersionRepository.current(tenantId);
+    }
+
+    /**
+     * Returns the cached response if it was produced at {@code version}; an outdated one is dropped.
+     *
+     * @param key     key
+     * @param version current tenant version
+     * @return cached response, empty on a miss
+     */
+    public synchronized Optional<Entry> get(Key key, long version) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.version() == version) {
+            hits.increment();
+            return Optional.of(entry);
+        }
+        if (entry != null) {
+            remove(key);
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Caches a response produced at {@code version}, gzipping it as Tomcat would.
+     *
+     * @param key         key
+     * @param version     tenant version read before the response was produced
+     * @param contentType content type
+     * @param body        identity body
+     */
+    public void put(Key key, long version, String contentType, byte[] body) {
+        Entry entry = new Entry(version, contentType, body, compressible(contentType, body) ? gzip(body) : null);
+        if (entry.size() > maxSize) {
+            return;
+        }
+        synchronized (this) {
+            remove(key);
+            entries.put(key, entry);
+            size += entry.size();
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (size > maxSize) {
+                size -= eldest.next().size();
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Forgets all cached responses.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        size = 0;
+    }
+
+    /**
+     * Returns the bytes of cached responses.
+     *
+     * @return size
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    private void remove(Key key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            size -= removed.size();
+        }
+    }
+
+    private boolean compressible(String contentType, byte[] body) {
+        if (!compression.getEnabled() || body.length < compression.getMinResponseSize().toBytes()
+                || contentType == null) {
+            return false;
+        }
+        MimeType type = MimeType.valueOf(contentType);
+        return Arrays.stream(compression.getMimeTypes()).map(MimeType::valueOf)
+                .anyMatch(candidate -> candidate.isCompatibleWith(type));
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("todoops.response-cache.requests")
+                .description("Cacheable task requests by cache result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
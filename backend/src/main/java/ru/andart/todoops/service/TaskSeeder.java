@@ -0,0 +1,145 @@
+package ru.andart.todoops.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.andart.todoops.config.ReminderProperties;
+import ru.andart.todoops.config.SeedProperties;
+import ru.andart.todoops.repository.TaskCalendarRepository;
+import ru.andart.todoops.repository.TaskCounterRepository;
+import ru.andart.todoops.repository.TaskReminderRepository;
+import ru.andart.todoops.repository.TaskSeedRepository;
+import ru.andart.todoops.repository.TaskVersionRepository;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.LongStream;
+
+/**
+ * Loads a synthetic dataset of {@code todoops.seed.tasks} tasks (see {@link SeedProperties} for the distributions).
+ * Rows are generated on the fly and streamed by {@code threads} parallel {@code COPY} statements, one connection
+ * each. With {@code defer-indexes} the secondary indexes of {@code task} are dropped first and built afterwards
+ * (in parallel too, also after a failed load), which is much cheaper than maintaining them row by row; the
+ * dropped definitions are logged in case the process dies in between. The load bypasses {@link TaskService},
+ * so the derived tables (status counters, calendar rollup, reminders) are rebuilt for the seeded tenants at the
+ * end, like {@code DataInitializer} does, and the tenants' task versions are bumped so that cached responses of
+ * the seeded tenants ({@link TaskResponseCache}) stop matching on every replica.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TaskSeeder {
+
+    private static final int TENANTS_PER_REBUILD = 100;
+
+    private final TaskSeedRepository taskSeedRepository;
+    private final TaskCounterRepository taskCounterRepository;
+    private final TaskCalendarRepository taskCalendarRepository;
+    private final TaskReminderRepository taskReminderRepository;
+    private final TaskVersionRepository taskVersionRepository;
+    private final ReminderProperties reminderProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Duration of the seeding phases.
+     *
+     * @param tasks   inserted tasks
+     * @param load    parallel {@code COPY} of the rows
+     * @param indexes building the deferred indexes (zero without {@code defer-indexes}) and {@code vacuum}
+     * @param derived rebuilding counters, calendar rollup and reminders, bumping task versions
+     */
+    public record Report(long tasks, Duration load, Duration indexes, Duration derived) {
+    }
+
+    /**
+     * Inserts the dataset and rebuilds what depends on it.
+     *
+     * @param settings dataset settings
+     * @return phase durations
+     */
+    public Report seed(SeedProperties settings) {
+        int threads = Math.max(1, settings.threads());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<String> indexes = settings.deferIndexes() ? taskSeedRepository.dropSecondaryIndexes() : List.of();
+            if (!indexes.isEmpty()) {
+                log.info("Dropped indexes of task until the load is done: {}", indexes);
+            }
+
+            long start = System.nanoTime();
+            long loaded;
+            try {
+                LocalDateTime now = LocalDateTime.now();
+                SplittableRandom random = new SplittableRandom(settings.randomSeed());
+                List<Runnable> streams = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    long rows = settings.tasks() / threads + (i < settings.tasks() % threads ? 1 : 0);
+                    SeedRowWriter writer = new SeedRowWriter(settings, random.split(), now);
+                    streams.add(() -> copy(rows, writer));
+                }
+                runAll(executor, streams);
+            } finally {
+                loaded = System.nanoTime();
+                // also after a failed load: the streams that did commit stay, and the table needs its indexes
+                runAll(executor, indexes.stream().<Runnable>map(index -> () -> taskSeedRepository.createIndex(index))
+                        .toList());
+            }
+            taskSeedRepository.vacuum();
+            long indexed = System.nanoTime();
+
+            rebuildDerivedTables(executor, settings);
+            long rebuilt = System.nanoTime();
+            return new Report(settings.tasks(), Duration.ofNanos(loaded - start), Duration.ofNanos(indexed - loaded),
+                    Duration.ofNanos(rebuilt - indexed));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void copy(long rows, SeedRowWriter writer) {
+        try {
+            taskSeedRepository.copy(rows, writer);
+        } catch (SQLException e) {
+            throw new IllegalStateException("COPY of seed rows failed", e);
+        }
+    }
+
+    private void rebuildDerivedTables(ExecutorService executor, SeedProperties settings) {
+        taskCounterRepository.reconcile();
+        List<Runnable> chunks = new ArrayList<>();
+        long end = settings.firstTenant() + settings.tenants();
+        for (long from = settings.firstTenant(); from < end; from += TENANTS_PER_REBUILD) {
+            List<Long> tenantIds = LongStream.range(from, Math.min(from + TENANTS_PER_REBUILD, end)).boxed().toList();
+            chunks.add(() -> transactionTemplate.executeWithoutResult(status -> {
+                taskCalendarRepository.rebuildRollup(tenantIds);
+                taskReminderRepository.rebuild(tenantIds, reminderProperties.lead());
+                taskVersionRepository.bumpAll(tenantIds);
+            }));
+        }
+        runAll(executor, chunks);
+    }
+
+    private static void runAll(ExecutorService executor, List<Runnable> tasks) {
+        List<Future<?>> futures = tasks.stream().<Future<?>>map(executor::submit).toList();
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Seeding interrupted", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Seeding failed", e.getCause());
+        }
+    }
+}
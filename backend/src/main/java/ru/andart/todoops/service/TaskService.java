@@ -1,9 +1,18 @@
 package ru.andart.todoops.service;
 
 import java.time.OffsetDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
@@ -12,79 +21,204 @@ import ru.andart.todoops.entity.TaskEntity;
 import ru.andart.todoops.exception.BaseException;
 import ru.andart.todoops.exception.Errors;
 import ru.andart.todoops.generated.model.TaskCreateRequest;
+import ru.andart.todoops.generated.model.TaskHistoryOperation;
 import ru.andart.todoops.generated.model.TaskStatus;
 import ru.andart.todoops.generated.model.TaskStatusRequest;
 import ru.andart.todoops.generated.model.TaskUpdateRequest;
+import ru.andart.todoops.repository.TaskField;
+import ru.andart.todoops.repository.TaskFieldsRepository;
 import ru.andart.todoops.repository.TaskRepository;
+import ru.andart.todoops.repository.TaskTreeRepository;
+import ru.andart.todoops.repository.TaskView;
 import ru.andart.todoops.util.TaskStatusTransitionUtil;
 
 /**
  * Business logic for task CRUD operations.
  * Uses {@link TransactionTemplate} for manual transaction boundaries.
+ * Every operation is scoped to a tenant; tasks of other tenants behave as if they did not exist.
+ * Mutations notify {@link TaskMutationListener}s and record their changes in {@link TaskHistoryService}
+ * inside their transaction. Concurrent identical reads of a page or a task share one database call
+ * ({@link TaskReadCoalescer}). Reads of a sparse fieldset select only the columns of the requested fields
+ * ({@link TaskFieldsRepository}).
  */
 @Service
 @RequiredArgsConstructor
 public class TaskService {
 
+    /**
+     * Maximum nesting of subtasks (keeps materialized paths well below the btree entry limit).
+     */
+    static final int MAX_DEPTH = 50;
+
     private final TaskRepository taskRepository;
+    private final TaskTreeRepository taskTreeRepository;
+    private final TaskFieldsRepository taskFieldsRepository;
     private final TransactionTemplate transactionTemplate;
     private final TransactionTemplate readOnlyTransactionTemplate;
+    private final List<TaskMutationListener> mutationListeners;
+    private final TaskOccurrenceService taskOccurrenceService;
+    private final TaskHistoryService taskHistoryService;
+    private final TaskReadCoalescer taskReadCoalescer;
 
     /**
-     * Creates a new task in NEW status
+     * Creates a new task in NEW status, optionally as a subtask of {@code request.parentId}.
      *
+     * @param tenantId owner of the task
      * @param request create request (title and description required; status is not accepted, always NEW)
      * @return created task entity
+     * @throws BaseException if the parent is not found or the hierarchy would get too deep
      */
-    public TaskEntity create(TaskCreateRequest request) {
+    public TaskEntity create(Long tenantId, TaskCreateRequest request) {
         return transactionTemplate.execute(status -> {
+            String path = "/";
+            if (request.getParentId() != null) {
+                TaskEntity parent = taskRepository.findByTenantIdAndId(tenantId, request.getParentId())
+                        .orElseThrow(() -> Errors.taskNotFoundError(request.getParentId()));
+                path = TaskTreeRepository.childPath(parent);
+                if (path.chars().filter(c -> c == '/').count() > MAX_DEPTH) {
+                    throw Errors.validationError("Subtasks cannot be nested deeper than " + MAX_DEPTH + " levels");
+                }
+            }
             TaskEntity entity = TaskEntity.builder()
+                    .tenantId(tenantId)
                     .title(request.getTitle())
                     .description(request.getDescription())
                     .status(TaskStatus.NEW)
                     .createdAt(OffsetDateTime.now())
                     .dueDate(request.getDueDate())
+                    .parentId(request.getParentId())
+                    .path(path)
                     .build();
-            return taskRepository.save(entity);
+            TaskEntity created = taskRepository.save(entity);
+            mutationListeners.forEach(listener -> listener.onCreate(created));
+            return created;
         });
     }
 
     /**
-     * Returns a page of tasks.
+     * Returns a page of tasks of a tenant.
+     *
+     * @param tenantId tenant id
+     * @param page zero-based page index
+     * @param size page size
+     * @return page of task projections
+     */
+    public Page<TaskView> list(Long tenantId, int page, int size) {
+        return list(tenantId, page, size, TaskField.ALL);
+    }
+
+    /**
+     * Returns a page of tasks of a tenant with only the given fields read.
+     *
+     * @param tenantId tenant id
+     * @param page zero-based page index
+     * @param size page size
+     * @param fields fields to read ({@link TaskField#ALL} for full tasks)
+     * @return page of task projections, unread fields null
+     */
+    public Page<TaskView> list(Long tenantId, int page, int size, Set<TaskField> fields) {
+        PageRequest pageRequest = PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "id"));
+        return taskReadCoalescer.read("list", tenantId, List.of(page, size, fields), () ->
+                readOnlyTransactionTemplate.execute(status -> fields.containsAll(TaskField.ALL)
+                        ? taskRepository.findAllViews(tenantId, pageRequest)
+                        : taskFieldsRepository.findPage(tenantId, fields, pageRequest)));
+    }
+
+    /**
+     * Returns a page of a tenant's tasks due in {@code [from, to)} together with the virtual occurrences of
+     * recurring tasks in the window, in {@link TaskView#DUE_DATE_ORDER}.
+     * Stored tasks are read up to the end of the requested page and merged with the occurrences.
      *
+     * @param tenantId tenant id
+     * @param from start of the window (inclusive)
+     * @param to end of the window (exclusive)
      * @param page zero-based page index
      * @param size page size
-     * @return page of task entities
+     * @return page of task projections
+     * @throws BaseException if the window is empty or holds too many occurrences
      */
-    public Page<TaskEntity> list(int page, int size) {
-        return readOnlyTransactionTemplate.execute(status ->
-                taskRepository.findAll(PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "id"))));
+    public Page<TaskView> listDue(Long tenantId, OffsetDateTime from, OffsetDateTime to, int page, int size) {
+        if (!from.isBefore(to)) {
+            throw Errors.validationError("'due_from' must be before 'due_to'");
+        }
+        return readOnlyTransactionTemplate.execute(status -> {
+            List<TaskView> occurrences = taskOccurrenceService.virtualOccurrences(tenantId, from, to);
+            int end = Math.toIntExact(Math.min((long) (page + 1) * size, Integer.MAX_VALUE));
+            Page<TaskView> stored = taskRepository.findViewsDueBetween(tenantId, from, to,
+                    PageRequest.of(0, end, Sort.by("dueDate", "id")));
+            List<TaskView> content = Stream.concat(stored.getContent().stream(), occurrences.stream())
+                    .sorted(TaskView.DUE_DATE_ORDER)
+                    .skip((long) page * size)
+                    .limit(size)
+                    .toList();
+            return new PageImpl<>(content, PageRequest.of(page, size),
+                    stored.getTotalElements() + occurrences.size());
+        });
     }
 
     /**
      * Returns a task by id.
      *
+     * @param tenantId tenant id
+     * @param id task id
+     * @return task projection
+     * @throws BaseException if task not found
+     */
+    public TaskView getById(Long tenantId, Long id) {
+        return getById(tenantId, id, TaskField.ALL);
+    }
+
+    /**
+     * Returns a task by id with only the given fields read.
+     *
+     * @param tenantId tenant id
      * @param id task id
-     * @return task entity
+     * @param fields fields to read ({@link TaskField#ALL} for the full task)
+     * @return task projection, unread fields null
      * @throws BaseException if task not found
      */
-    public TaskEntity getById(Long id) {
-        return readOnlyTransactionTemplate.execute(status ->
-                taskRepository.findById(id).orElseThrow(() -> Errors.taskNotFoundError(id)));
+    public TaskView getById(Long tenantId, Long id, Set<TaskField> fields) {
+        return taskReadCoalescer.read("get", tenantId, List.of(id, fields), () ->
+                readOnlyTransactionTemplate.execute(status -> (fields.containsAll(TaskField.ALL)
+                        ? taskRepository.findViewById(tenantId, id)
+                        : taskFieldsRepository.findByIds(tenantId, List.of(id), fields).stream().findFirst())
+                        .orElseThrow(() -> Errors.taskNotFoundError(id))));
+    }
+
+    /**
+     * Returns several tasks by id in one statement, in the order of {@code ids}.
+     * Ids not found in the tenant are left out, repeated ids are returned once.
+     *
+     * @param tenantId tenant id
+     * @param ids task ids
+     * @param fields fields to read ({@link TaskField#ALL} for full tasks)
+     * @return task projections, unread fields null
+     */
+    public List<TaskView> getMany(Long tenantId, List<Long> ids, Set<TaskField> fields) {
+        Set<Long> distinct = new LinkedHashSet<>(ids);
+        return taskReadCoalescer.read("batch", tenantId, List.of(List.copyOf(distinct), fields), () -> {
+            Map<Long, TaskView> found = readOnlyTransactionTemplate.execute(status ->
+                    taskFieldsRepository.findByIds(tenantId, distinct, fields).stream()
+                            .collect(Collectors.toMap(TaskView::id, Function.identity())));
+            return distinct.stream().map(found::get).filter(Objects::nonNull).toList();
+        });
     }
 
     /**
      * Updates task fields (only non-null fields from request).
      *
+     * @param tenantId tenant id
      * @param id task id
      * @param request update request
      * @return updated task entity
      * @throws BaseException if task not found
+     * @throws org.springframework.dao.OptimisticLockingFailureException if the task was changed concurrently
      */
-    public TaskEntity update(Long id, TaskUpdateRequest request) {
+    public TaskEntity update(Long tenantId, Long id, TaskUpdateRequest request) {
         return transactionTemplate.execute(status -> {
-            TaskEntity entity = taskRepository.findById(id)
+            TaskEntity entity = taskRepository.findByTenantIdAndId(tenantId, id)
                     .orElseThrow(() -> Errors.taskNotFoundError(id));
+            TaskEntity before = entity.toBuilder().build();
             if (request.getTitle() != null) {
                 entity.setTitle(request.getTitle());
             }
@@ -94,22 +228,30 @@ public class TaskService {
             if (request.getDueDate() != null) {
                 entity.setDueDate(request.getDueDate());
             }
-            return taskRepository.save(entity);
+            // flushed now, so that the history row gets the incremented version
+            TaskEntity updated = taskRepository.saveAndFlush(entity);
+            taskHistoryService.recordChange(before, updated, TaskHistoryOperation.UPDATE);
+            mutationListeners.forEach(listener -> listener.onUpdate(before, updated));
+            return updated;
         });
     }
 
     /**
-     * Deletes a task by id.
+     * Soft-deletes a task with all its subtasks and removes their blocked-by edges.
+     * The rows are hard-deleted later by {@link TaskPurger}.
      *
+     * @param tenantId tenant id
      * @param id task id
      * @throws BaseException if task not found
      */
-    public void delete(Long id) {
+    public void delete(Long tenantId, Long id) {
         transactionTemplate.executeWithoutResult(status -> {
-            if (!taskRepository.existsById(id)) {
+            List<TaskEntity> deleted = taskTreeRepository.deleteSubtree(tenantId, id);
+            if (deleted.isEmpty()) {
                 throw Errors.taskNotFoundError(id);
             }
-            taskRepository.deleteById(id);
+            taskHistoryService.recordDeletes(deleted);
+            mutationListeners.forEach(listener -> listener.onDeleteAll(deleted));
         });
     }
 
@@ -117,14 +259,15 @@ public class TaskService {
      * Changes task status. Only allowed transitions: NEW -> IN_PROGRESS -> COMPLETED.
      * If already in target status, returns current task (OK).
      *
+     * @param tenantId tenant id
      * @param id task id
      * @param request target status
      * @return task entity (possibly unchanged if already in target status)
      * @throws BaseException if task not found or transition not allowed
      */
-    public TaskEntity changeStatus(Long id, TaskStatusRequest request) {
+    public TaskEntity changeStatus(Long tenantId, Long id, TaskStatusRequest request) {
         return transactionTemplate.execute(status -> {
-            TaskEntity entity = taskRepository.findById(id)
+            TaskEntity entity = taskRepository.findByTenantIdAndId(tenantId, id)
                     .orElseThrow(() -> Errors.taskNotFoundError(id));
             TaskStatus current = entity.getStatus();
             TaskStatus target = request.getStatus();
@@ -137,8 +280,12 @@ public class TaskService {
                 throw Errors.invalidStatusTransitionError(current.name(), target.name());
             }
 
+            TaskEntity before = entity.toBuilder().build();
             entity.setStatus(target);
-            return taskRepository.save(entity);
+            TaskEntity updated = taskRepository.saveAndFlush(entity);
+            taskHistoryService.recordChange(before, updated, TaskHistoryOperation.STATUS);
+            mutationListeners.forEach(listener -> listener.onUpdate(before, updated));
+            return updated;
         });
     }
 }
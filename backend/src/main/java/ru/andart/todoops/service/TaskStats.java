@@ -0,0 +1,17 @@
+package ru.andart.todoops.service;
+
+import ru.andart.todoops.generated.model.TaskStatus;
+
+import java.util.Map;
+
+/**
+ * Task figures of one tenant.
+ *
+ * @param counts task count of every status
+ * @param overdue tasks past their due date and not completed
+ */
+public record TaskStats(
+        Map<TaskStatus, Long> counts,
+        long overdue
+) {
+}
@@ -0,0 +1,32 @@
+package ru.andart.todoops.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.andart.todoops.repository.TaskCalendarRepository;
+import ru.andart.todoops.repository.TaskCounterRepository;
+
+/**
+ * Dashboard figures of a tenant, read from incrementally maintained tables instead of counting {@code task}:
+ * status counts from the striped counters, overdue tasks from the calendar rollup.
+ */
+@Service
+@RequiredArgsConstructor
+public class TaskStatsService {
+
+    private final TaskCounterRepository taskCounterRepository;
+    private final TaskCalendarRepository taskCalendarRepository;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    /**
+     * Returns task counts per status and the number of overdue tasks.
+     *
+     * @param tenantId tenant id
+     * @return tenant statistics
+     */
+    public TaskStats stats(Long tenantId) {
+        return readOnlyTransactionTemplate.execute(status -> new TaskStats(
+                taskCounterRepository.countByStatus(tenantId),
+                taskCalendarRepository.countOverdue(tenantId)));
+    }
+}
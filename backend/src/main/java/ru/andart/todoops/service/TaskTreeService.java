@@ -0,0 +1,148 @@
+package ru.andart.todoops.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.andart.todoops.entity.TaskEntity;
+import ru.andart.todoops.exception.BaseException;
+import ru.andart.todoops.exception.Errors;
+import ru.andart.todoops.generated.model.TaskStatus;
+import ru.andart.todoops.repository.SubtreeStatusCount;
+import ru.andart.todoops.repository.TaskDependencyRepository;
+import ru.andart.todoops.repository.TaskRepository;
+import ru.andart.todoops.repository.TaskTreeRepository;
+import ru.andart.todoops.repository.TaskView;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Subtask hierarchy (materialized path) and blocked-by dependencies of tasks.
+ * Subtrees are created by {@link TaskService#create} and removed by {@link TaskService#delete}.
+ */
+@Service
+@RequiredArgsConstructor
+public class TaskTreeService {
+
+    private final TaskRepository taskRepository;
+    private final TaskTreeRepository taskTreeRepository;
+    private final TaskDependencyRepository taskDependencyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    /**
+     * Returns a task and all its descendants.
+     *
+     * @param tenantId tenant id
+     * @param id root task id
+     * @return task views, root first, then depth first
+     * @throws BaseException if task not found
+     */
+    public List<TaskView> subtree(Long tenantId, Long id) {
+        return readOnlyTransactionTemplate.execute(status -> taskTreeRepository.findSubtree(find(tenantId, id)));
+    }
+
+    /**
+     * Rolls up the statuses of a task and all its descendants.
+     *
+     * @param tenantId tenant id
+     * @param id root task id
+     * @return counts of every status and overdue tasks of the subtree
+     * @throws BaseException if task not found
+     */
+    public TaskStats subtreeStats(Long tenantId, Long id) {
+        return readOnlyTransactionTemplate.execute(status -> {
+            Map<TaskStatus, Long> counts = new EnumMap<>(TaskStatus.class);
+            for (TaskStatus taskStatus : TaskStatus.values()) {
+                counts.put(taskStatus, 0L);
+            }
+            long overdue = 0;
+            for (SubtreeStatusCount count : taskTreeRepository.countSubtree(find(tenantId, id))) {
+                counts.put(count.status(), count.count());
+                overdue += count.overdue();
+            }
+            return new TaskStats(counts, overdue);
+        });
+    }
+
+    /**
+     * Returns the tasks that block a task.
+     *
+     * @param tenantId tenant id
+     * @param id blocked task id
+     * @return blocking tasks
+     * @throws BaseException if task not found
+     */
+    public List<TaskView> blockers(Long tenantId, Long id) {
+        return readOnlyTransactionTemplate.execute(status -> {
+            find(tenantId, id);
+            return taskDependencyRepository.findBlockers(tenantId, id);
+        });
+    }
+
+    /**
+     * Returns the direct children of several tasks in one statement.
+     *
+     * @param tenantId tenant id
+     * @param ids parent task ids
+     * @return children ordered by id, per parent that has any
+     */
+    public Map<Long, List<TaskView>> children(Long tenantId, Collection<Long> ids) {
+        return readOnlyTransactionTemplate.execute(status -> taskTreeRepository.findChildren(tenantId, ids).stream()
+                .collect(Collectors.groupingBy(TaskView::parentId)));
+    }
+
+    /**
+     * Returns the blockers of several tasks in one statement. Unknown ids have no blockers.
+     *
+     * @param tenantId tenant id
+     * @param ids blocked task ids
+     * @return blocking tasks ordered by id, per blocked task that has any
+     */
+    public Map<Long, List<TaskView>> blockers(Long tenantId, Collection<Long> ids) {
+        return readOnlyTransactionTemplate.execute(status -> taskDependencyRepository.findBlockersOf(tenantId, ids));
+    }
+
+    /**
+     * Marks a task as blocked by another one.
+     *
+     * @param tenantId tenant id
+     * @param id blocked task id
+     * @param blockerId blocking task id
+     * @throws BaseException if a task is not found or the edge would close a cycle
+     */
+    public void addBlocker(Long tenantId, Long id, Long blockerId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            find(tenantId, id);
+            find(tenantId, blockerId);
+            taskDependencyRepository.lockTenant(tenantId);
+            if (taskDependencyRepository.reaches(tenantId, blockerId, id)) {
+                throw Errors.dependencyCycleError(id, blockerId);
+            }
+            taskDependencyRepository.add(tenantId, id, blockerId);
+        });
+    }
+
+    /**
+     * Removes a blocked-by edge.
+     *
+     * @param tenantId tenant id
+     * @param id blocked task id
+     * @param blockerId blocking task id
+     * @throws BaseException if the blocked task is not found
+     */
+    public void removeBlocker(Long tenantId, Long id, Long blockerId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            find(tenantId, id);
+            taskDependencyRepository.lockTenant(tenantId);
+            taskDependencyRepository.remove(tenantId, id, blockerId);
+        });
+    }
+
+    private TaskEntity find(Long tenantId, Long id) {
+        return taskRepository.findByTenantIdAndId(tenantId, id).orElseThrow(() -> Errors.taskNotFoundError(id));
+    }
+}
@@ -0,0 +1,53 @@
+package ru.andart.todoops.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.andart.todoops.entity.TaskEntity;
+import ru.andart.todoops.repository.TaskVersionRepository;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Bumps the tenant's task version (see {@link TaskVersionRepository}) with every task mutation, inside its
+ * transaction: cached responses of the tenant ({@link TaskResponseCache}) stop matching once it commits, on every
+ * replica.
+ */
+@Component
+@RequiredArgsConstructor
+public class TaskVersionListener implements TaskMutationListener {
+
+    /**
+     * Number of stripe rows per tenant.
+     */
+    static final int STRIPES = 16;
+
+    private final TaskVersionRepository taskVersionRepository;
+
+    @Override
+    public void onCreate(TaskEntity task) {
+        bump(task.getTenantId());
+    }
+
+    @Override
+    public void onUpdate(TaskEntity before, TaskEntity after) {
+        bump(after.getTenantId());
+    }
+
+    @Override
+    public void onDelete(TaskEntity task) {
+        bump(task.getTenantId());
+    }
+
+    @Override
+    public void onDeleteAll(List<TaskEntity> tasks) {
+        // a subtree belongs to one tenant: one bump
+        if (!tasks.isEmpty()) {
+            bump(tasks.get(0).getTenantId());
+        }
+    }
+
+    private void bump(Long tenantId) {
+        taskVersionRepository.bump(tenantId, ThreadLocalRandom.current().nextInt(STRIPES));
+    }
+}
@@ -0,0 +1,90 @@
+package ru.andart.todoops.util;
+
+import ru.andart.todoops.generated.model.RecurrenceFrequency;
+import ru.andart.todoops.repository.RecurrenceRule;
+
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utility computing occurrences of recurrence rules.
+ * Occurrences keep the wall-clock time of the first one in the rule's zone, so a daily 09:00 task stays at 09:00
+ * across DST changes of that zone; monthly ones on the 31st fall on the last day of shorter months.
+ */
+public final class RecurrenceUtil {
+
+    private RecurrenceUtil() {
+    }
+
+    /**
+     * Returns the occurrences of a rule in {@code [from, to)}, excluding the recurring task itself.
+     * Skips straight to the window instead of walking from the first occurrence.
+     *
+     * @param rule recurrence rule
+     * @param from start of the window (inclusive)
+     * @param to end of the window (exclusive)
+     * @param limit maximum number of occurrences to return
+     * @return occurrences in ascending order (at most {@code limit})
+     */
+    public static List<OffsetDateTime> occurrences(RecurrenceRule rule, OffsetDateTime from, OffsetDateTime to,
+                                                   int limit) {
+        ZonedDateTime start = start(rule);
+        ChronoUnit unit = unit(rule.frequency());
+        long k = 1;
+        if (from.isAfter(rule.startsAt())) {
+            // start + n units <= from, so occurrence k never lies past the window start
+            long elapsed = unit.between(start, from.atZoneSameInstant(start.getZone()));
+            k = Math.max(1, elapsed / rule.interval());
+        }
+        List<OffsetDateTime> occurrences = new ArrayList<>();
+        while (occurrences.size() < limit) {
+            OffsetDateTime occurrence = start.plus(k * rule.interval(), unit).toOffsetDateTime();
+            if (!occurrence.isBefore(to) || (rule.until() != null && occurrence.isAfter(rule.until()))) {
+                break;
+            }
+            if (!occurrence.isBefore(from)) {
+                occurrences.add(occurrence);
+            }
+            k++;
+        }
+        return occurrences;
+    }
+
+    /**
+     * Checks whether {@code at} is an occurrence of the rule (other than the recurring task itself).
+     *
+     * @param rule recurrence rule
+     * @param at time to check
+     * @return true if the rule has an occurrence exactly at {@code at}
+     */
+    public static boolean isOccurrence(RecurrenceRule rule, OffsetDateTime at) {
+        if (!at.isAfter(rule.startsAt()) || (rule.until() != null && at.isAfter(rule.until()))) {
+            return false;
+        }
+        ZonedDateTime start = start(rule);
+        ChronoUnit unit = unit(rule.frequency());
+        // between() counts whole units, so a slot clamped to a month end (Jan 31 + 1 month = Feb 29) is one short
+        long k = unit.between(start, at.atZoneSameInstant(start.getZone())) / rule.interval();
+        for (long n = Math.max(1, k); n <= k + 1; n++) {
+            if (start.plus(n * rule.interval(), unit).toInstant().equals(at.toInstant())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ZonedDateTime start(RecurrenceRule rule) {
+        return rule.startsAt().atZoneSameInstant(rule.zone());
+    }
+
+    private static ChronoUnit unit(RecurrenceFrequency frequency) {
+        return switch (frequency) {
+            case DAILY -> ChronoUnit.DAYS;
+            case WEEKLY -> ChronoUnit.WEEKS;
+            case MONTHLY -> ChronoUnit.MONTHS;
+        };
+    }
+}
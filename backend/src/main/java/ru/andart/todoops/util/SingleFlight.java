@@ -0,0 +1,121 @@
+package ru.andart.todoops.util;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical calls: the first caller of a key runs the call on its own thread, callers of the
+ * same key arriving while it runs wait for it and get its result or its exception. A flight is forgotten as soon
+ * as it ends, so nothing is cached: a caller arriving afterwards starts a new one.
+ * Followers wait at most {@code maxWait}, then run the call themselves.
+ *
+ * @param <K> key type (operation and parameters; needs equals and hashCode)
+ * @param <V> result type
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+    private final long maxWaitNanos;
+    private final LongAdder joined = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    /**
+     * Creates a group without flights.
+     *
+     * @param maxWait how long a follower waits for the flight it joined
+     */
+    public SingleFlight(Duration maxWait) {
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    /**
+     * Runs {@code call}, or waits for the flight of {@code key} already in progress and returns its outcome.
+     *
+     * @param key  key of the call
+     * @param call the call; its unchecked exceptions reach every caller of the flight
+     * @return result of the call
+     */
+    public V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = flights.putIfAbsent(key, flight);
+        if (existing != null) {
+            return join(existing, call);
+        }
+        V value;
+        try {
+            value = call.get();
+        } catch (Throwable e) {
+            flights.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        // removed before completion: a caller arriving after the result exists does not get it
+        flights.remove(key, flight);
+        flight.complete(value);
+        return value;
+    }
+
+    /**
+     * Forgets the flights in progress whose key matches, so that later callers start new ones. Callers already
+     * waiting still get the outcome of the forgotten flight.
+     *
+     * @param keys keys to forget
+     */
+    public void forget(Predicate<K> keys) {
+        flights.keySet().removeIf(keys);
+    }
+
+    /**
+     * Returns how many calls were served by a flight of another caller.
+     *
+     * @return joined calls since creation
+     */
+    public long joined() {
+        return joined.sum();
+    }
+
+    /**
+     * Returns how many followers gave up waiting and ran the call themselves.
+     *
+     * @return timed out calls since creation
+     */
+    public long timedOut() {
+        return timedOut.sum();
+    }
+
+    private V join(CompletableFuture<V> flight, Supplier<V> call) {
+        try {
+            V value = flight.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+            joined.increment();
+            return value;
+        } catch (ExecutionException e) {
+            joined.increment();
+            throw rethrow(e.getCause());
+        } catch (TimeoutException e) {
+            timedOut.increment();
+            return call.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a coalesced call", e);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        // call is a Supplier: only unchecked exceptions get here
+        throw new IllegalStateException(cause);
+    }
+}
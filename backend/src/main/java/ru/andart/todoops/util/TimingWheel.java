@@ -0,0 +1,91 @@
+package ru.andart.todoops.util;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hashed timing wheel: a ring of slots, one per tick, each holding the items due in that tick
+ * (or a multiple of the ring length later). Scheduling is O(1); advancing touches only the slots
+ * of the ticks that passed, regardless of how many items are pending.
+ * Thread-safe; items already due fire on the next {@link #advance}.
+ *
+ * @param <T> item type
+ */
+public final class TimingWheel<T> {
+
+    private final long tickMillis;
+    private final List<List<Entry<T>>> slots;
+    private long currentTick;
+    private int size;
+
+    /**
+     * Creates an empty wheel.
+     *
+     * @param tick slot duration
+     * @param wheelSize number of slots
+     * @param start time of tick zero
+     */
+    public TimingWheel(Duration tick, int wheelSize, Instant start) {
+        this.tickMillis = tick.toMillis();
+        this.slots = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            slots.add(new ArrayList<>());
+        }
+        this.currentTick = start.toEpochMilli() / tickMillis;
+    }
+
+    /**
+     * Adds an item that fires once the wheel advances past {@code deadline}.
+     *
+     * @param deadline when the item is due
+     * @param item item
+     */
+    public synchronized void schedule(Instant deadline, T item) {
+        long deadlineTick = Math.max(-Math.floorDiv(-deadline.toEpochMilli(), tickMillis), currentTick);
+        slots.get(slotOf(deadlineTick)).add(new Entry<>(deadlineTick, item));
+        size++;
+    }
+
+    /**
+     * Advances the wheel to {@code now} and removes the items that are due.
+     *
+     * @param now current time
+     * @return due items, in no particular order
+     */
+    public synchronized List<T> advance(Instant now) {
+        long targetTick = now.toEpochMilli() / tickMillis;
+        List<T> expired = new ArrayList<>();
+        // the current slot too: it holds the items scheduled after it was last advanced, but already due
+        long steps = Math.min(targetTick - currentTick + 1, slots.size());
+        for (long step = 0; step < steps; step++) {
+            slots.get(slotOf(currentTick + step)).removeIf(entry -> {
+                if (entry.deadlineTick() > targetTick) {
+                    return false;
+                }
+                expired.add(entry.item());
+                return true;
+            });
+        }
+        currentTick = Math.max(currentTick, targetTick);
+        size -= expired.size();
+        return expired;
+    }
+
+    /**
+     * Returns the number of pending items.
+     *
+     * @return pending items
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private int slotOf(long tick) {
+        return (int) Math.floorMod(tick, (long) slots.size());
+    }
+
+    private record Entry<T>(long deadlineTick, T item) {
+    }
+}
@@ -17,3 +17,115 @@ comment on column task.description is 'Task description';
 comment on column task.status is 'Task status';
 comment on column task.created_at is 'Creation timestamp';
 comment on column task.due_date is 'Due date';
+
+--changeset todoops:add-task-tenant
+alter table task add column tenant_id bigint not null default 0;
+alter table task alter column tenant_id drop default;
+create index task_tenant_id_id_idx on task (tenant_id, id);
+
+comment on column task.tenant_id is 'Owner (tenant or user); every query filters by it';
+
+--changeset todoops:save-task-indexes-before-partitioning context:tenant-partitioning splitStatements:false
+-- partition-task-by-tenant recreates only the primary key. When it runs on a table that already has the secondary
+-- indexes of later changesets (partitioning enabled late), their definitions are kept here and restored after it.
+create table task_index_before_partitioning (definition text not null);
+
+insert into task_index_before_partitioning (definition)
+select i.indexdef
+from pg_indexes i
+join pg_class c on c.relname = i.tablename and c.relnamespace = i.schemaname::regnamespace
+where i.schemaname = current_schema() and i.tablename = 'task' and c.relkind = 'r'
+  and i.indexname not in ('task_pkey', 'task_tenant_id_id_idx');
+
+--changeset todoops:partition-task-by-tenant context:tenant-partitioning splitStatements:false
+-- Optional (spring.liquibase.contexts=tenant-partitioning): hash partitions by tenant, so a tenant's
+-- queries are pruned to one partition. The primary key has to contain the partition key.
+alter table task rename to task_unpartitioned;
+alter index task_tenant_id_id_idx rename to task_unpartitioned_tenant_id_id_idx;
+
+create table task (like task_unpartitioned including defaults including comments) partition by hash (tenant_id);
+alter table task add constraint task_pkey_tenant primary key (tenant_id, id);
+
+do $$
+begin
+    for remainder in 0..15 loop
+        execute format('create table task_p%s partition of task for values with (modulus 16, remainder %s)',
+                       remainder, remainder);
+    end loop;
+end
+$$;
+
+insert into task select * from task_unpartitioned;
+alter sequence task_id_seq owned by task.id;
+drop table task_unpartitioned;
+alter table task rename constraint task_pkey_tenant to task_pkey;
+
+--changeset todoops:restore-task-indexes-after-partitioning context:tenant-partitioning splitStatements:false
+do $$
+declare
+    index_definition text;
+begin
+    for index_definition in select definition from task_index_before_partitioning loop
+        execute index_definition;
+    end loop;
+end
+$$;
+
+drop table task_index_before_partitioning;
+
+--changeset todoops:add-task-due-date-index
+-- Covering index of the calendar: counts per (due date, status) are an index-only scan of one tenant's range
+create index task_tenant_id_due_date_status_idx on task (tenant_id, due_date, status) where due_date is not null;
+
+--changeset todoops:add-task-hierarchy
+-- Materialized path: ids of all ancestors, e.g. '/1/5/' for a child of task 5 under task 1 ('/' for top level).
+-- Descendants of task X are the range [X.path || X.id || '/', X.path || X.id || '0') of the text_pattern_ops index.
+alter table task add column parent_id bigint;
+alter table task add column path text not null default '/';
+create index task_tenant_id_path_idx on task (tenant_id, path text_pattern_ops);
+
+comment on column task.parent_id is 'Parent task (null for top-level tasks)';
+comment on column task.path is 'Ids of all ancestors, root first, each followed by a slash';
+
+--changeset todoops:add-task-occurrence
+-- Occurrence of a recurring task, materialized when its status first changes; until then it is computed on read.
+-- The unique index maps a slot of a series to its row and serves "materialized slots of these series in a range".
+alter table task add column series_id bigint;
+alter table task add column occurrence_at timestamp;
+create unique index task_tenant_id_series_id_occurrence_at_idx on task (tenant_id, series_id, occurrence_at)
+    where series_id is not null;
+
+comment on column task.series_id is 'Recurring task this task is an occurrence of (null for other tasks)';
+comment on column task.occurrence_at is 'Slot of the series this occurrence was materialized from';
+
+--changeset todoops:add-task-version
+-- Optimistic lock of API changes and the key of their task_history rows
+alter table task add column version integer not null default 0;
+
+comment on column task.version is 'Number of changes made through the API (incremented by each update)';
+
+--changeset todoops:add-task-soft-delete
+-- Deleted tasks keep their row until TaskPurger removes it after the retention period. Live queries all filter
+-- deleted_at is null, so the indexes they use are partial: deleted rows add neither index size nor scan cost.
+-- The (tenant_id, id) index is created in partitioned mode too, where the primary key still holds deleted rows.
+alter table task add column deleted_at timestamp;
+
+drop index if exists task_tenant_id_id_idx;
+create index task_tenant_id_id_idx on task (tenant_id, id) where deleted_at is null;
+drop index task_tenant_id_due_date_status_idx;
+create index task_tenant_id_due_date_status_idx on task (tenant_id, due_date, status)
+    where due_date is not null and deleted_at is null;
+drop index task_tenant_id_path_idx;
+create index task_tenant_id_path_idx on task (tenant_id, path text_pattern_ops) where deleted_at is null;
+drop index task_tenant_id_series_id_occurrence_at_idx;
+create unique index task_tenant_id_series_id_occurrence_at_idx on task (tenant_id, series_id, occurrence_at)
+    where series_id is not null and deleted_at is null;
+-- Purge candidates only, oldest first
+create index task_deleted_at_idx on task (deleted_at) where deleted_at is not null;
+
+comment on column task.deleted_at is 'Soft delete timestamp (null for live tasks); purged after the retention period';
+
+--changeset todoops:add-partitioned-task-live-id-index context:tenant-partitioning
+-- When partitioning is enabled after add-task-soft-delete, the partial (tenant_id, id) index went with the plain table
+-- (the indexes kept for it leave out task_tenant_id_id_idx, which the primary key used to replace)
+create index if not exists task_tenant_id_id_idx on task (tenant_id, id) where deleted_at is null;
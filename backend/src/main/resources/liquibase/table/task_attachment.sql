@@ -0,0 +1,32 @@
+--liquibase formatted sql
+
+--changeset todoops:create-task-attachment-table
+-- Files attached to tasks. Content lives in the blob store under tenant_id/id; the row tracks the upload.
+-- No foreign key to task (it may be partitioned); rows are removed with their tasks by TaskPurger.
+create table task_attachment (
+    tenant_id bigint not null,
+    id bigserial not null,
+    task_id bigint not null,
+    file_name text not null,
+    content_type text not null,
+    size bigint not null,
+    received bigint not null default 0,
+    status text not null,
+    created_at timestamp not null,
+    completed_at timestamp,
+    primary key (tenant_id, id)
+);
+
+create index task_attachment_tenant_id_task_id_idx on task_attachment (tenant_id, task_id);
+
+comment on table task_attachment is 'Task attachments and the state of their chunked uploads';
+comment on column task_attachment.tenant_id is 'Owner of the task';
+comment on column task_attachment.id is 'Attachment identifier (also its blob key with tenant_id)';
+comment on column task_attachment.task_id is 'Task the file is attached to';
+comment on column task_attachment.file_name is 'File name shown to users';
+comment on column task_attachment.content_type is 'Media type the content is served with';
+comment on column task_attachment.size is 'Declared size of the file in bytes';
+comment on column task_attachment.received is 'Bytes stored so far; the next chunk must start here';
+comment on column task_attachment.status is 'UPLOADING or COMPLETE (received = size)';
+comment on column task_attachment.created_at is 'When the upload was started';
+comment on column task_attachment.completed_at is 'When the last chunk was stored';
@@ -0,0 +1,23 @@
+--liquibase formatted sql
+
+--changeset todoops:create-task-calendar-rollup-table
+-- No foreign key to task: rows are keyed by (tenant, day, status), not by task, and task may be partitioned
+create table task_calendar_rollup (
+    tenant_id bigint not null,
+    day date not null,
+    status text not null,
+    task_count bigint not null,
+    primary key (tenant_id, day, status)
+);
+
+comment on table task_calendar_rollup is 'Number of tasks per tenant, due day and status (maintained by TaskService)';
+comment on column task_calendar_rollup.tenant_id is 'Owner of the tasks';
+comment on column task_calendar_rollup.day is 'Due day (due_date::date)';
+comment on column task_calendar_rollup.status is 'Task status';
+comment on column task_calendar_rollup.task_count is 'Number of tasks (zero rows are kept)';
+
+insert into task_calendar_rollup (tenant_id, day, status, task_count)
+select tenant_id, due_date::date, status, count(*)
+from task
+where due_date is not null
+group by tenant_id, due_date::date, status;
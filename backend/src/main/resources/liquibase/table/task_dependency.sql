@@ -0,0 +1,17 @@
+--liquibase formatted sql
+
+--changeset todoops:create-task-dependency-table
+-- No foreign keys to task (it may be partitioned); edges are removed together with their tasks by TaskService
+create table task_dependency (
+    tenant_id bigint not null,
+    task_id bigint not null,
+    blocked_by_id bigint not null,
+    primary key (tenant_id, task_id, blocked_by_id)
+);
+
+create index task_dependency_blocked_by_idx on task_dependency (tenant_id, blocked_by_id);
+
+comment on table task_dependency is 'Blocked-by edges between tasks of one tenant (acyclic)';
+comment on column task_dependency.tenant_id is 'Owner of both tasks';
+comment on column task_dependency.task_id is 'Blocked task';
+comment on column task_dependency.blocked_by_id is 'Task that has to be done first';
@@ -0,0 +1,35 @@
+--liquibase formatted sql
+
+--changeset todoops:create-task-history-table splitStatements:false
+-- Append-only log of task changes: only the fields a change touched, as {"field": [old, new]}.
+-- Range-partitioned by month; TaskHistoryPartitionManager creates upcoming months and drops expired ones,
+-- so retention is a metadata operation instead of a bulk delete. No foreign key to task: history outlives deletes.
+create table task_history (
+    tenant_id bigint not null,
+    task_id bigint not null,
+    version integer not null,
+    changed_at timestamp not null,
+    operation text not null,
+    delta jsonb not null,
+    primary key (tenant_id, task_id, version, changed_at)
+) partition by range (changed_at);
+
+do $$
+declare
+    month date;
+begin
+    for offset_months in 0..2 loop
+        month := date_trunc('month', localtimestamp)::date + make_interval(months => offset_months);
+        execute format('create table %I partition of task_history for values from (%L) to (%L)',
+                       'task_history_' || to_char(month, 'YYYYMM'), month, month + interval '1 month');
+    end loop;
+end
+$$;
+
+comment on table task_history is 'Field deltas of task changes, one monthly partition per changed_at month';
+comment on column task_history.tenant_id is 'Owner of the task';
+comment on column task_history.task_id is 'Changed task';
+comment on column task_history.version is 'Task version the change produced';
+comment on column task_history.changed_at is 'When the change was committed (partition key)';
+comment on column task_history.operation is 'UPDATE, STATUS, REVERT or DELETE';
+comment on column task_history.delta is 'Changed fields only: {"field": [old value, new value]}';
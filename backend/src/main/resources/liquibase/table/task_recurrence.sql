@@ -0,0 +1,33 @@
+--liquibase formatted sql
+
+--changeset todoops:create-task-recurrence-table
+-- No foreign key to task (it may be partitioned); rules are removed together with their tasks by TaskService
+create table task_recurrence (
+    tenant_id bigint not null,
+    task_id bigint not null,
+    frequency text not null,
+    interval_count integer not null,
+    starts_at timestamp not null,
+    ends_at timestamp not null default 'infinity',
+    primary key (tenant_id, task_id)
+);
+
+-- Rules with occurrences in [from, to): ends_at >= from and starts_at < to. The scan starts at the window,
+-- so rules that ended before it are never read, however many have accumulated.
+create index task_recurrence_active_idx on task_recurrence (tenant_id, ends_at, starts_at);
+
+comment on table task_recurrence is 'Recurrence rules; occurrences are computed on read, not stored';
+comment on column task_recurrence.tenant_id is 'Owner of the task';
+comment on column task_recurrence.task_id is 'Recurring task: its title and description are copied to occurrences';
+comment on column task_recurrence.frequency is 'DAILY, WEEKLY or MONTHLY';
+comment on column task_recurrence.interval_count is 'Occurrence every interval_count days, weeks or months';
+comment on column task_recurrence.starts_at is 'Due date of the task itself; occurrences follow it';
+comment on column task_recurrence.ends_at is 'Last possible occurrence (infinity for endless series)';
+
+--changeset todoops:add-task-recurrence-zone
+-- Slots used to be computed in the JVM zone, which pgjdbc sends as the session TimeZone: existing rules keep it
+alter table task_recurrence add column zone text;
+update task_recurrence set zone = current_setting('TimeZone');
+alter table task_recurrence alter column zone set default 'UTC', alter column zone set not null;
+
+comment on column task_recurrence.zone is 'Time zone whose wall-clock time occurrences keep (across DST, month ends)';
@@ -0,0 +1,28 @@
+--liquibase formatted sql
+
+--changeset todoops:create-task-reminder-table
+-- Pending due-date reminders, one per task. No foreign key to task (it may be partitioned); rows are maintained
+-- by ReminderListener and removed once delivered.
+create table task_reminder (
+    tenant_id bigint not null,
+    task_id bigint not null,
+    fire_at timestamp not null,
+    next_fire_at timestamp not null,
+    primary key (tenant_id, task_id)
+);
+
+-- Claim order of all replicas: the oldest due rows first, skipping rows another replica has locked
+create index task_reminder_next_fire_at_idx on task_reminder (next_fire_at);
+
+comment on table task_reminder is 'Pending due-date reminders (claimed in batches with FOR UPDATE SKIP LOCKED)';
+comment on column task_reminder.tenant_id is 'Owner of the task';
+comment on column task_reminder.task_id is 'Task to remind about';
+comment on column task_reminder.fire_at is 'When the reminder is due (task due date minus the reminder lead)';
+comment on column task_reminder.next_fire_at is 'When the row may be claimed: fire_at, or the lease expiry once claimed';
+
+--changeset todoops:backfill-task-reminder
+-- Open tasks due in the future, with the default lead of todoops.reminders.lead (PT1H)
+insert into task_reminder (tenant_id, task_id, fire_at, next_fire_at)
+select tenant_id, id, due_date - interval '1 hour', due_date - interval '1 hour'
+from task
+where due_date > localtimestamp and status <> 'COMPLETED';
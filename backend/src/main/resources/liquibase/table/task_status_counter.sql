@@ -0,0 +1,22 @@
+--liquibase formatted sql
+
+--changeset todoops:create-task-status-counter-table
+-- Each (tenant, status) count is spread over several stripe rows, so concurrent writers rarely update the same row
+create table task_status_counter (
+    tenant_id bigint not null,
+    status text not null,
+    stripe smallint not null,
+    task_count bigint not null,
+    primary key (tenant_id, status, stripe)
+);
+
+comment on table task_status_counter is 'Number of tasks per tenant and status, striped (maintained by TaskService)';
+comment on column task_status_counter.tenant_id is 'Owner of the tasks';
+comment on column task_status_counter.status is 'Task status';
+comment on column task_status_counter.stripe is 'Stripe of the counter; the count is the sum over stripes';
+comment on column task_status_counter.task_count is 'Part of the count held by this stripe (may be negative)';
+
+insert into task_status_counter (tenant_id, status, stripe, task_count)
+select tenant_id, status, 0, count(*)
+from task
+group by tenant_id, status;
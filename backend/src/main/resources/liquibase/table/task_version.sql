@@ -0,0 +1,16 @@
+--liquibase formatted sql
+
+--changeset todoops:create-task-version-table
+-- Bumped by every task mutation in its transaction; cached API responses of a tenant are valid while the sum over
+-- its stripes is unchanged. Striped like task_status_counter, so concurrent writers rarely update the same row.
+create table task_version (
+    tenant_id bigint not null,
+    stripe smallint not null,
+    version bigint not null,
+    primary key (tenant_id, stripe)
+);
+
+comment on table task_version is 'Change counter of the tasks of a tenant, striped (maintained by TaskService)';
+comment on column task_version.tenant_id is 'Owner of the tasks';
+comment on column task_version.stripe is 'Stripe of the counter; the version is the sum over stripes';
+comment on column task_version.version is 'Mutations counted by this stripe';
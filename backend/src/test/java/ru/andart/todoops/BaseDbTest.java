@@ -3,10 +3,14 @@ package ru.andart.todoops;
 import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.aot.DisabledInAotMode;
 
 /**
  * Base class for tests that require a database.
+ * Zonky's context customizer cannot be processed ahead of time, so these tests are JVM-only
+ * (the native test run uses {@code NativeSmokeTest}).
  */
+@DisabledInAotMode
 @SpringBootTest
 @ActiveProfiles("test")
 @AutoConfigureEmbeddedDatabase(
@@ -0,0 +1,123 @@
+package ru.andart.todoops;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the JDBC work the application does, so that tests can assert how much a request costs: statements
+ * created, rows fetched from their result sets and transactions ended (commits and rollbacks). Import it into a
+ * test context; it wraps the datasource so that every connection taken from it is counted.
+ */
+public class StatementCounter implements BeanPostProcessor {
+
+    private static final Set<String> STATEMENT_METHODS = Set.of("prepareStatement", "createStatement", "prepareCall");
+    private static final Set<String> TRANSACTION_METHODS = Set.of("commit", "rollback");
+
+    private final AtomicLong statements = new AtomicLong();
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicLong transactions = new AtomicLong();
+
+    /**
+     * JDBC work of a piece of code.
+     *
+     * @param statements   statements created
+     * @param rows         rows fetched
+     * @param transactions transactions committed or rolled back
+     */
+    public record Usage(long statements, long rows, long transactions) {
+
+        /**
+         * Tells whether this usage is within a budget, each count at most the budget's.
+         *
+         * @param budget budget
+         * @return true if no count exceeds the budget
+         */
+        public boolean within(Usage budget) {
+            return statements <= budget.statements && rows <= budget.rows && transactions <= budget.transactions;
+        }
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource)) {
+            return bean;
+        }
+        ProxyFactory dataSource = new ProxyFactory(bean);
+        dataSource.addAdvice((MethodInterceptor) invocation -> {
+            Object result = invocation.proceed();
+            return result instanceof Connection connection ? countingConnection(connection) : result;
+        });
+        return dataSource.getProxy();
+    }
+
+    /**
+     * Resets the counts.
+     */
+    public void reset() {
+        statements.set(0);
+        rows.set(0);
+        transactions.set(0);
+    }
+
+    /**
+     * Returns the number of statements created since the last {@link #reset()}.
+     *
+     * @return statement count
+     */
+    public long count() {
+        return statements.get();
+    }
+
+    /**
+     * Returns all counts since the last {@link #reset()}.
+     *
+     * @return usage
+     */
+    public Usage usage() {
+        return new Usage(statements.get(), rows.get(), transactions.get());
+    }
+
+    private Connection countingConnection(Connection connection) {
+        ProxyFactory proxy = new ProxyFactory(connection);
+        proxy.addAdvice((MethodInterceptor) invocation -> {
+            String name = invocation.getMethod().getName();
+            if (STATEMENT_METHODS.contains(name)) {
+                statements.incrementAndGet();
+            } else if (TRANSACTION_METHODS.contains(name)) {
+                transactions.incrementAndGet();
+            }
+            Object result = invocation.proceed();
+            return result instanceof Statement statement ? countingStatement(statement) : result;
+        });
+        return (Connection) proxy.getProxy();
+    }
+
+    private Statement countingStatement(Statement statement) {
+        ProxyFactory proxy = new ProxyFactory(statement);
+        proxy.addAdvice((MethodInterceptor) invocation -> {
+            Object result = invocation.proceed();
+            return result instanceof ResultSet resultSet ? countingResultSet(resultSet) : result;
+        });
+        return (Statement) proxy.getProxy();
+    }
+
+    private ResultSet countingResultSet(ResultSet resultSet) {
+        ProxyFactory proxy = new ProxyFactory(resultSet);
+        proxy.addAdvice((MethodInterceptor) invocation -> {
+            Object result = invocation.proceed();
+            if ("next".equals(invocation.getMethod().getName()) && Boolean.TRUE.equals(result)) {
+                rows.incrementAndGet();
+            }
+            return result;
+        });
+        return (ResultSet) proxy.getProxy();
+    }
+}
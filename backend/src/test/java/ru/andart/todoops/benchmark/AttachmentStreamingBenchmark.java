@@ -0,0 +1,158 @@
+package ru.andart.todoops.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import ru.andart.todoops.BaseDbTest;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Heap used while a multi-gigabyte attachment is uploaded in chunks and downloaded over HTTP (real Tomcat,
+ * java.net.http client in the same JVM). The file is generated on the fly, so neither side holds it; the peak
+ * of heap in use is sampled every 5 ms. Compare it with the file size and {@code -Xmx}.
+ * <pre>
+ * mvn test -Pbenchmark -Dtest=AttachmentStreamingBenchmark [-Dbenchmark.size-mb=2048] [-Dbenchmark.chunk-mb=256]
+ * </pre>
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "todoops.data-initializer.enabled=false"
+)
+class AttachmentStreamingBenchmark extends BaseDbTest {
+
+    private static final long MB = 1024 * 1024;
+    private static final long SIZE = Long.getLong("benchmark.size-mb", 2048) * MB;
+    private static final long CHUNK = Long.getLong("benchmark.chunk-mb", 256) * MB;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void heapWhileStreaming() throws Exception {
+        String task = post("/api/v1/tasks", "{\"title\": \"Large file\", \"description\": \"\"}");
+        String attachments = "/api/v1/tasks/" + task + "/attachments";
+        String id = post(attachments, "{\"fileName\": \"large.bin\", \"size\": " + SIZE + "}");
+        URI content = uri(attachments + "/" + id + "/content");
+        log.info("file {} MB in chunks of {} MB, max heap {} MB", SIZE / MB, CHUNK / MB,
+                Runtime.getRuntime().maxMemory() / MB);
+
+        measure("upload", () -> {
+            for (long first = 0; first < SIZE; first += CHUNK) {
+                long length = Math.min(CHUNK, SIZE - first);
+                HttpRequest request = HttpRequest.newBuilder(content)
+                        .header("Content-Type", "application/octet-stream")
+                        .header("Content-Range", "bytes " + first + "-" + (first + length - 1) + "/" + SIZE)
+                        .PUT(HttpRequest.BodyPublishers.ofInputStream(() -> new GeneratedStream(length)))
+                        .build();
+                check(client.send(request, HttpResponse.BodyHandlers.ofString()));
+            }
+            return SIZE;
+        });
+        measure("download", () -> check(client.send(HttpRequest.newBuilder(content).build(),
+                HttpResponse.BodyHandlers.discarding())).headers().firstValueAsLong("Content-Length").orElse(-1));
+        measure("range of last 100 MB", () -> check(client.send(HttpRequest.newBuilder(content)
+                .header("Range", "bytes=-" + 100 * MB).build(),
+                HttpResponse.BodyHandlers.discarding())).headers().firstValueAsLong("Content-Length").orElse(-1));
+
+        check(client.send(HttpRequest.newBuilder(uri(attachments + "/" + id)).DELETE().build(),
+                HttpResponse.BodyHandlers.discarding()));
+    }
+
+    private void measure(String name, Callable<Long> transfer) throws Exception {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long baseline = memory.getHeapMemoryUsage().getUsed();
+        AtomicLong peak = new AtomicLong(baseline);
+        Thread sampler = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.start();
+        long start = System.nanoTime();
+        long bytes = transfer.call();
+        long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        sampler.interrupt();
+        sampler.join();
+        log.info("  {}: {} MB in {} ms ({} MB/s), heap in use {} MB before, peak {} MB", name, bytes / MB, millis,
+                bytes / MB * 1000 / millis, baseline / MB, peak.get() / MB);
+    }
+
+    private String post(String path, String json) throws Exception {
+        HttpResponse<String> response = check(client.send(HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build(), HttpResponse.BodyHandlers.ofString()));
+        return objectMapper.readTree(response.body()).get("id").asText();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static <T> HttpResponse<T> check(HttpResponse<T> response) {
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException("HTTP " + response.statusCode() + ": " + response.body());
+        }
+        return response;
+    }
+
+    /**
+     * {@code length} bytes of a repeating pattern, produced as they are read.
+     */
+    private static class GeneratedStream extends InputStream {
+
+        private long remaining;
+
+        GeneratedStream(long length) {
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() {
+            if (remaining == 0) {
+                return -1;
+            }
+            remaining--;
+            return (int) (remaining & 0x7f);
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (remaining == 0) {
+                return -1;
+            }
+            int count = (int) Math.min(length, remaining);
+            for (int i = 0; i < count; i++) {
+                buffer[offset + i] = (byte) ((remaining - i - 1) & 0x7f);
+            }
+            remaining -= count;
+            return count;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package ru.andart.todoops.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.andart.todoops.BaseDbTest;
+import ru.andart.todoops.repository.TaskCalendarRepository;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Calendar count latency for one tenant as its number of dated tasks grows: direct aggregation over the
+ * {@code (tenant_id, due_date, status)} index vs the daily rollup. Due dates are spread over one year.
+ * <pre>
+ * mvn test -Pbenchmark -Dtest=CalendarBenchmark [-Dbenchmark.stages=10000,100000,1000000]
+ * </pre>
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(properties = "todoops.data-initializer.enabled=false")
+class CalendarBenchmark extends BaseDbTest {
+
+    private static final long TENANT = 1;
+    private static final LocalDate YEAR_START = LocalDate.of(2026, 1, 1);
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 200);
+    private static final long[] STAGES = Arrays.stream(System.getProperty("benchmark.stages", "10000,100000,1000000")
+            .split(",")).mapToLong(Long::parseLong).toArray();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TaskCalendarRepository taskCalendarRepository;
+
+    @Test
+    void rollupVersusDirectAggregation() {
+        long rows = 0;
+        for (long target : STAGES) {
+            insert(target - rows);
+            rows = target;
+            taskCalendarRepository.rebuildRollup(TENANT);
+            jdbcTemplate.execute("vacuum analyze task");
+            jdbcTemplate.execute("vacuum analyze task_calendar_rollup");
+
+            LocalDate monthEnd = YEAR_START.plusMonths(1);
+            LocalDate yearEnd = YEAR_START.plusYears(1);
+            log.info("tenant tasks {}", rows);
+            log.info("  month by day:  direct p50 {} us  rollup p50 {} us",
+                    p50(() -> taskCalendarRepository.countTasks(TENANT, YEAR_START, monthEnd, "day")),
+                    p50(() -> taskCalendarRepository.countRollup(TENANT, YEAR_START, monthEnd, "day")));
+            log.info("  year by month: direct p50 {} us  rollup p50 {} us",
+                    p50(() -> taskCalendarRepository.countTasks(TENANT, YEAR_START, yearEnd, "month")),
+                    p50(() -> taskCalendarRepository.countRollup(TENANT, YEAR_START, yearEnd, "month")));
+        }
+    }
+
+    private static long p50(Supplier<?> query) {
+        long[] micros = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS * 2; i++) {
+            long start = System.nanoTime();
+            query.get();
+            // first half is warm-up
+            if (i >= ITERATIONS) {
+                micros[i - ITERATIONS] = (System.nanoTime() - start) / 1000;
+            }
+        }
+        Arrays.sort(micros);
+        return micros[micros.length / 2];
+    }
+
+    private void insert(long count) {
+        jdbcTemplate.update("""
+                insert into task (tenant_id, title, description, status, created_at, due_date)
+                select ?, 'Task ' || g, 'Generated task',
+                       (array['NEW', 'IN_PROGRESS', 'COMPLETED'])[1 + g % 3], now(),
+                       ?::timestamp + (g % 365) * interval '1 day' + (g % 24) * interval '1 hour'
+                from generate_series(1, ?) g
+                """, TENANT, YEAR_START, count);
+    }
+}
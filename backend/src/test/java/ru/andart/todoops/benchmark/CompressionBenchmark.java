@@ -0,0 +1,121 @@
+package ru.andart.todoops.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import ru.andart.todoops.BaseDbTest;
+import ru.andart.todoops.entity.TaskEntity;
+import ru.andart.todoops.generated.model.TaskStatus;
+import ru.andart.todoops.repository.TaskRepository;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Bytes on the wire and server CPU per {@code GET /api/v1/tasks} for different page sizes, identity vs gzip,
+ * over HTTP/1.1 and h2c. Tasks carry 4000-character descriptions made of words (compressible like real text).
+ * CPU is the sum of Tomcat worker thread CPU time, so client work is not counted.
+ * <pre>
+ * mvn test -Pbenchmark -Dtest=CompressionBenchmark [-Dbenchmark.requests=300]
+ * </pre>
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "todoops.data-initializer.enabled=false"
+)
+class CompressionBenchmark extends BaseDbTest {
+
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 300);
+    private static final int[] PAGE_SIZES = {1, 5, 20, 50, 100};
+    private static final String[] WORDS = {
+        "deploy", "review", "backend", "the", "pull", "request", "fix", "cache", "metrics", "and",
+        "database", "migration", "frontend", "test", "release", "notes", "cluster", "to", "update", "config"
+    };
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Test
+    void bytesAndCpuPerPageSize() throws Exception {
+        seed(100);
+        log.info("page size | protocol | identity bytes | gzip bytes | identity cpu us/req | gzip cpu us/req");
+        for (HttpClient.Version version : List.of(HttpClient.Version.HTTP_1_1, HttpClient.Version.HTTP_2)) {
+            HttpClient client = HttpClient.newBuilder().version(version).build();
+            for (int size : PAGE_SIZES) {
+                Sample identity = measure(client, size, "identity");
+                Sample gzip = measure(client, size, "gzip");
+                log.info("{} | {} | {} | {} | {} | {}", size, identity.protocol(), identity.bytes(), gzip.bytes(),
+                        identity.cpuMicros(), gzip.cpuMicros());
+            }
+        }
+    }
+
+    private Sample measure(HttpClient client, int size, String encoding) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/api/v1/tasks?page=0&size=" + size))
+                .header("Accept-Encoding", encoding)
+                .build();
+        for (int i = 0; i < REQUESTS; i++) {
+            client.send(request, HttpResponse.BodyHandlers.discarding());
+        }
+        long cpuBefore = workerCpuNanos();
+        HttpResponse<byte[]> response = null;
+        for (int i = 0; i < REQUESTS; i++) {
+            response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        }
+        long cpu = (workerCpuNanos() - cpuBefore) / REQUESTS / 1000;
+        String protocol = response.version() == HttpClient.Version.HTTP_2 ? "h2c" : "http/1.1";
+        return new Sample(protocol, response.body().length, cpu);
+    }
+
+    private static long workerCpuNanos() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (ThreadInfo info : threads.getThreadInfo(threads.getAllThreadIds())) {
+            if (info != null && info.getThreadName().startsWith("http-nio-")) {
+                total += Math.max(0, threads.getThreadCpuTime(info.getThreadId()));
+            }
+        }
+        return total;
+    }
+
+    private void seed(int count) {
+        Random random = new Random(42);
+        List<TaskEntity> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            StringBuilder description = new StringBuilder();
+            while (description.length() < 4000) {
+                description.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            tasks.add(TaskEntity.builder()
+                    .tenantId(0L)
+                    .title("Task " + i)
+                    .description(description.substring(0, 4000))
+                    .status(TaskStatus.NEW)
+                    .createdAt(OffsetDateTime.now())
+                    .dueDate(OffsetDateTime.now().plusDays(i % 30))
+                    .build());
+        }
+        taskRepository.saveAll(tasks);
+    }
+
+    private record Sample(String protocol, int bytes, long cpuMicros) {
+    }
+}
@@ -0,0 +1,207 @@
+package ru.andart.todoops.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.andart.todoops.BaseDbTest;
+import ru.andart.todoops.StatementCounter;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A page of tasks with their parent, subtasks, blockers and attachments: one GraphQL query vs the REST calls a
+ * client needs for the same data (list, then per task its parent, subtree, blocked-by and attachments).
+ * Real Tomcat over HTTP/1.1 keep-alive, client in the same JVM, and a connection pool in front of the embedded
+ * database (which opens a connection per transaction otherwise); reports p50 latency, HTTP requests, SQL statements
+ * and response bytes per page.
+ * <pre>
+ * mvn test -Pbenchmark -Dtest=GraphQlBenchmark
+ * </pre>
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "todoops.data-initializer.enabled=false"
+)
+@Import({StatementCounter.class, GraphQlBenchmark.ConnectionPool.class})
+class GraphQlBenchmark extends BaseDbTest {
+
+    private static final long TENANT = 1;
+    private static final int PAIRS = 100;
+    private static final int[] PAGE_SIZES = {10, 50, 100};
+    private static final long WARMUP_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final int ITERATIONS = 30;
+
+    private static final String QUERY = """
+            query($size: Int!) { tasks(size: $size) { content {
+                id title status dueDate parent { id title } subtasks { id title } blockedBy { id title }
+                attachments { id fileName size } } } }
+            """;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @Test
+    void graphQlVsRestCalls() throws Exception {
+        seed();
+        for (int size : PAGE_SIZES) {
+            report("graphql", size, measure(() -> graphQlPage(size)));
+            report("rest", size, measure(() -> restPage(size)));
+        }
+    }
+
+    /**
+     * Pairs of a task and its subtask; each subtask is blocked by the next pair's task, each task has an attachment.
+     */
+    private void seed() {
+        jdbcTemplate.update("""
+                insert into task (id, tenant_id, title, description, status, created_at, due_date, parent_id, path,
+                                  version)
+                select g, ?, 'Task ' || g, 'Description of task ' || g, 'NEW', localtimestamp,
+                       localtimestamp + g * interval '1 hour',
+                       case when g % 2 = 0 then g - 1 end, case when g % 2 = 0 then '/' || (g - 1) || '/' else '/' end,
+                       0
+                from generate_series(1, ?) g
+                """, TENANT, 2 * PAIRS);
+        jdbcTemplate.execute("select setval('task_id_seq', (select max(id) from task))");
+        jdbcTemplate.update("""
+                insert into task_dependency (tenant_id, task_id, blocked_by_id)
+                select ?, g, g + 1 from generate_series(2, ? - 2, 2) g
+                """, TENANT, 2 * PAIRS);
+        jdbcTemplate.update("""
+                insert into task_attachment (tenant_id, task_id, file_name, content_type, size, received, status,
+                                             created_at)
+                select ?, g, 'file-' || g || '.txt', 'text/plain', 0, 0, 'COMPLETE', localtimestamp
+                from generate_series(1, ?, 2) g
+                """, TENANT, 2 * PAIRS);
+        jdbcTemplate.execute("vacuum analyze");
+    }
+
+    private Run graphQlPage(int size) throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of("query", QUERY, "variables", Map.of("size", size)));
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/api/v1/graphql"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)));
+        if (objectMapper.readTree(response.body()).has("errors")) {
+            throw new IllegalStateException(response.body());
+        }
+        return new Run(1, response.body().length());
+    }
+
+    private Run restPage(int size) throws Exception {
+        HttpResponse<String> page = get("/api/v1/tasks?size=" + size);
+        int requests = 1;
+        long bytes = page.body().length();
+        for (JsonNode task : objectMapper.readTree(page.body()).get("content")) {
+            String id = task.get("id").asText();
+            if (task.hasNonNull("parent_id")) {
+                bytes += get("/api/v1/tasks/" + task.get("parent_id").asText()).body().length();
+                requests++;
+            }
+            for (String relation : new String[] {"/subtree", "/blocked-by", "/attachments"}) {
+                bytes += get("/api/v1/tasks/" + id + relation).body().length();
+                requests++;
+            }
+        }
+        return new Run(requests, bytes);
+    }
+
+    private Measurement measure(Callable<Run> page) throws Exception {
+        // long enough for the JIT to compile the GraphQL engine, whose code runs once per query rather than per call
+        long warmupEnd = System.nanoTime() + WARMUP_NANOS;
+        while (System.nanoTime() < warmupEnd) {
+            page.call();
+        }
+        long[] nanos = new long[ITERATIONS];
+        Run run = null;
+        statementCounter.reset();
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            run = page.call();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return new Measurement(run, statementCounter.count() / ITERATIONS, nanos[ITERATIONS / 2] / 1_000_000.0);
+    }
+
+    private static void report(String name, int size, Measurement m) {
+        log.info("{} tasks, {}: p50 {} ms, {} requests, {} statements, {} bytes", size, name,
+                String.format("%.1f", m.p50Millis()), m.run().requests(), m.statements(), m.run().bytes());
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return send(HttpRequest.newBuilder(uri(path)).GET());
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        HttpResponse<String> response = client.send(request.header("X-Tenant-Id", String.valueOf(TENANT)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException("HTTP " + response.statusCode() + ": " + response.body());
+        }
+        return response;
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    /**
+     * Pools the connections of the embedded database, as Hikari does in production. Ordered, so that it runs
+     * before datasource wrappers without an order (they wrap the pool then, as they do in production).
+     */
+    static class ConnectionPool implements BeanPostProcessor, Ordered {
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource && !(bean instanceof HikariDataSource)) {
+                HikariDataSource pool = new HikariDataSource();
+                pool.setDataSource(dataSource);
+                pool.setMaximumPoolSize(4);
+                return pool;
+            }
+            return bean;
+        }
+    }
+
+    private record Run(int requests, long bytes) {
+    }
+
+    private record Measurement(Run run, long statements, double p50Millis) {
+    }
+}
@@ -0,0 +1,151 @@
+package ru.andart.todoops.benchmark;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import ru.andart.todoops.pooler.TransactionPoolingProxy;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares Postgres server connections and throughput for N backend replicas connecting directly
+ * versus through a transaction pooler ({@link TransactionPoolingProxy} as PgBouncer stand-in).
+ * <p>
+ * Each replica is a Hikari pool with pooler-safe driver settings; every operation is a read-only
+ * transaction with a point lookup and a page query, like {@code getTask} + {@code listTasks}.
+ * <pre>
+ * mvn test -Pbenchmark -Dtest=PoolerConnectionBenchmark \
+ *     -Dbenchmark.replicas=5 -Dbenchmark.poolSize=10 -Dbenchmark.serverConnections=8 -Dbenchmark.seconds=15
+ * </pre>
+ */
+@Slf4j
+@Tag("benchmark")
+class PoolerConnectionBenchmark {
+
+    private static final int REPLICAS = Integer.getInteger("benchmark.replicas", 5);
+    private static final int POOL_SIZE = Integer.getInteger("benchmark.poolSize", 10);
+    private static final int SERVER_CONNECTIONS = Integer.getInteger("benchmark.serverConnections", 8);
+    private static final int SECONDS = Integer.getInteger("benchmark.seconds", 15);
+    private static final int ROWS = 10_000;
+
+    @Test
+    void directVersusTransactionPooler() throws Exception {
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.start()) {
+            String directUrl = postgres.getJdbcUrl("postgres", "postgres");
+            prepareTable(directUrl);
+
+            Result direct = run(postgres, directUrl);
+            Result pooled;
+            try (TransactionPoolingProxy proxy =
+                         new TransactionPoolingProxy("localhost", postgres.getPort(), SERVER_CONNECTIONS)) {
+                pooled = run(postgres, "jdbc:postgresql://localhost:" + proxy.getPort() + "/postgres");
+            }
+
+            log.info("replicas={} poolSize={} workers={} seconds={}", REPLICAS, POOL_SIZE, REPLICAS * POOL_SIZE, SECONDS);
+            log.info("direct : {} ops/s, peak server connections {}", direct.opsPerSecond(), direct.peakConnections());
+            log.info("pooler : {} ops/s, peak server connections {}", pooled.opsPerSecond(), pooled.peakConnections());
+        }
+    }
+
+    private static Result run(EmbeddedPostgres postgres, String url) throws Exception {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < REPLICAS; i++) {
+            HikariConfig config = new HikariConfig();
+            config.setJdbcUrl(url);
+            config.setUsername("postgres");
+            config.setMaximumPoolSize(POOL_SIZE);
+            config.setMinimumIdle(POOL_SIZE);
+            config.addDataSourceProperty("prepareThreshold", "0");
+            config.addDataSourceProperty("ApplicationName", "benchmark");
+            replicas.add(new HikariDataSource(config));
+        }
+        ExecutorService workers = Executors.newFixedThreadPool(REPLICAS * POOL_SIZE);
+        AtomicLong operations = new AtomicLong();
+        AtomicInteger peak = new AtomicInteger();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SECONDS);
+        try (Connection monitor = postgres.getPostgresDatabase().getConnection()) {
+            for (int i = 0; i < REPLICAS * POOL_SIZE; i++) {
+                HikariDataSource dataSource = replicas.get(i % REPLICAS);
+                workers.execute(() -> {
+                    while (System.nanoTime() < deadline) {
+                        readTransaction(dataSource);
+                        operations.incrementAndGet();
+                    }
+                });
+            }
+            while (System.nanoTime() < deadline) {
+                peak.accumulateAndGet(countServerConnections(monitor), Math::max);
+                Thread.sleep(200);
+            }
+        } finally {
+            workers.shutdown();
+            workers.awaitTermination(30, TimeUnit.SECONDS);
+            replicas.forEach(HikariDataSource::close);
+        }
+        return new Result(operations.get() / SECONDS, peak.get());
+    }
+
+    private static void readTransaction(HikariDataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            try (PreparedStatement byId = connection.prepareStatement("select * from task where id = ?");
+                 PreparedStatement page = connection.prepareStatement(
+                         "select * from task order by id limit 20 offset ?")) {
+                byId.setLong(1, ThreadLocalRandom.current().nextLong(1, ROWS + 1));
+                drain(byId.executeQuery());
+                page.setInt(1, ThreadLocalRandom.current().nextInt(0, ROWS / 20) * 20);
+                drain(page.executeQuery());
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void drain(ResultSet resultSet) throws SQLException {
+        try (resultSet) {
+            while (resultSet.next()) {
+                resultSet.getString("title");
+            }
+        }
+    }
+
+    private static int countServerConnections(Connection monitor) throws SQLException {
+        try (Statement statement = monitor.createStatement();
+             ResultSet resultSet = statement.executeQuery("select count(*) from pg_stat_activity "
+                     + "where backend_type = 'client backend' and pid <> pg_backend_pid()")) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+
+    private static void prepareTable(String url) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table task (id bigserial primary key, title text not null, "
+                    + "description text, status text not null, created_at timestamp not null, due_date timestamp)");
+            statement.execute("insert into task (title, description, status, created_at) "
+                    + "select 'Task ' || g, repeat('d', 200), 'NEW', now() from generate_series(1, " + ROWS + ") g");
+        }
+    }
+
+    private record Result(long opsPerSecond, int peakConnections) {
+    }
+}
@@ -0,0 +1,108 @@
+package ru.andart.todoops.benchmark;
+
+import com.sun.management.ThreadMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.andart.todoops.BaseDbTest;
+import ru.andart.todoops.converter.TaskConverter;
+import ru.andart.todoops.entity.TaskEntity;
+import ru.andart.todoops.generated.model.TaskResponse;
+import ru.andart.todoops.generated.model.TaskStatus;
+import ru.andart.todoops.repository.TaskRepository;
+import ru.andart.todoops.service.TaskService;
+
+import java.lang.management.ManagementFactory;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Bytes allocated per call on the read path: managed {@link TaskEntity} hydration (the previous
+ * implementation, reproduced here) versus {@code TaskView} projections, both including conversion
+ * to {@link TaskResponse}. Measured with the per-thread allocation counter of HotSpot.
+ * <pre>
+ * mvn test -Pbenchmark -Dtest=ReadPathAllocationBenchmark [-Dbenchmark.iterations=2000]
+ * </pre>
+ */
+@Slf4j
+@Tag("benchmark")
+class ReadPathAllocationBenchmark extends BaseDbTest {
+
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 2000);
+    private static final int ROWS = 1000;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskConverter taskConverter;
+
+    @Autowired
+    private TransactionTemplate readOnlyTransactionTemplate;
+
+    @Test
+    void entityVersusProjection() {
+        List<TaskEntity> tasks = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            tasks.add(TaskEntity.builder()
+                    .tenantId(0L)
+                    .title("Task " + i)
+                    .description("Description of task " + i)
+                    .status(TaskStatus.NEW)
+                    .createdAt(OffsetDateTime.now())
+                    .dueDate(OffsetDateTime.now().plusDays(i % 30))
+                    .build());
+        }
+        taskRepository.saveAll(tasks);
+        long id = taskRepository.findAll(PageRequest.of(0, 1)).getContent().get(0).getId();
+
+        log.info("bytes allocated per call, {} iterations:", ITERATIONS);
+        for (int size : new int[]{20, 100}) {
+            long entity = allocatedPerCall(() -> entityList(size));
+            long projection = allocatedPerCall(() -> projectionList(size));
+            log.info("  list size={}  entity {}  projection {}  ({}%)", size, entity, projection,
+                    100 * (entity - projection) / entity);
+        }
+        long entity = allocatedPerCall(() -> entityGet(id));
+        long projection = allocatedPerCall(() -> taskConverter.toResponse(taskService.getById(0L, id)));
+        log.info("  get by id      entity {}  projection {}  ({}%)", entity, projection,
+                100 * (entity - projection) / entity);
+    }
+
+    private List<TaskResponse> entityList(int size) {
+        Page<TaskEntity> page = readOnlyTransactionTemplate.execute(status ->
+                taskRepository.findAll(PageRequest.of(0, size, Sort.by(Sort.Direction.ASC, "id"))));
+        return page.getContent().stream().map(taskConverter::toResponse).toList();
+    }
+
+    private List<TaskResponse> projectionList(int size) {
+        return taskService.list(0L, 0, size).getContent().stream().map(taskConverter::toResponse).toList();
+    }
+
+    private TaskResponse entityGet(long id) {
+        TaskEntity entity = readOnlyTransactionTemplate.execute(status -> taskRepository.findById(id).orElseThrow());
+        return taskConverter.toResponse(entity);
+    }
+
+    private static long allocatedPerCall(Supplier<?> call) {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < ITERATIONS; i++) {
+            call.get();
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++) {
+            call.get();
+        }
+        return (threads.getCurrentThreadAllocatedBytes() - before) / ITERATIONS;
+    }
+}
@@ -0,0 +1,98 @@
+package ru.andart.todoops.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.andart.todoops.BaseDbTest;
+import ru.andart.todoops.service.TaskOccurrenceService;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Month-window latency of virtual occurrences for one tenant as recurrence rules accumulate.
+ * Only the first 100 rules (daily) are still running; the others ended 1-5 years before the window.
+ * Measured with the {@code (tenant_id, ends_at, starts_at)} index and again after dropping it.
+ * <pre>
+ * mvn test -Pbenchmark -Dtest=RecurrenceWindowBenchmark [-Dbenchmark.stages=10000,100000,500000]
+ * </pre>
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(properties = "todoops.data-initializer.enabled=false")
+class RecurrenceWindowBenchmark extends BaseDbTest {
+
+    private static final long TENANT = 1;
+    private static final LocalDateTime WINDOW_START = LocalDateTime.of(2027, 1, 1, 0, 0);
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 50);
+    private static final long[] STAGES = Arrays.stream(System.getProperty("benchmark.stages", "10000,100000,500000")
+            .split(",")).mapToLong(Long::parseLong).toArray();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TaskOccurrenceService taskOccurrenceService;
+
+    @Test
+    void windowCostWithAndWithoutActiveIndex() {
+        OffsetDateTime from = WINDOW_START.atZone(ZoneId.systemDefault()).toOffsetDateTime();
+        OffsetDateTime to = from.plusMonths(1);
+        long[][] withIndex = new long[STAGES.length][];
+        long rules = 0;
+        for (int i = 0; i < STAGES.length; i++) {
+            insert(rules, STAGES[i] - rules);
+            rules = STAGES[i];
+            jdbcTemplate.execute("vacuum analyze task");
+            jdbcTemplate.execute("vacuum analyze task_recurrence");
+            withIndex[i] = new long[] {
+                    taskOccurrenceService.virtualOccurrences(TENANT, from, to).size(),
+                    p50(() -> taskOccurrenceService.virtualOccurrences(TENANT, from, to))
+            };
+        }
+        jdbcTemplate.execute("drop index task_recurrence_active_idx");
+        jdbcTemplate.execute("analyze task_recurrence");
+        long withoutIndex = p50(() -> taskOccurrenceService.virtualOccurrences(TENANT, from, to));
+        for (int i = 0; i < STAGES.length; i++) {
+            log.info("rules {}: {} occurrences in the window, p50 {} us", STAGES[i], withIndex[i][0], withIndex[i][1]);
+        }
+        log.info("rules {} without the active index: p50 {} us", rules, withoutIndex);
+    }
+
+    private static long p50(Supplier<?> query) {
+        long[] micros = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS * 2; i++) {
+            long start = System.nanoTime();
+            query.get();
+            // first half is warm-up
+            if (i >= ITERATIONS) {
+                micros[i - ITERATIONS] = (System.nanoTime() - start) / 1000;
+            }
+        }
+        Arrays.sort(micros);
+        return micros[micros.length / 2];
+    }
+
+    private void insert(long offset, long count) {
+        // the first 100 series are still running; the others ended 1-5 years before the window
+        jdbcTemplate.update("""
+                with tasks as (
+                    insert into task (tenant_id, title, description, status, created_at, due_date)
+                    select ?, 'Series ' || g, 'Generated series', 'NEW', now(),
+                           ?::timestamp - (1 + g % 5) * interval '1 year' + (g % 24) * interval '1 hour'
+                    from generate_series(? + 1, ? + ?) g
+                    returning id, due_date
+                )
+                insert into task_recurrence (tenant_id, task_id, frequency, interval_count, starts_at, ends_at)
+                select ?, id, 'DAILY', 1, due_date,
+                       case when id <= 100 then 'infinity' else due_date + interval '90 days' end
+                from tasks
+                """, TENANT, WINDOW_START, offset, offset, count, TENANT);
+    }
+}
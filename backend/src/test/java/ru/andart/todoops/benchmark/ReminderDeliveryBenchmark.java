@@ -0,0 +1,113 @@
+package ru.andart.todoops.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.andart.todoops.BaseDbTest;
+import ru.andart.todoops.config.ReminderProperties;
+import ru.andart.todoops.repository.TaskReminderRepository;
+import ru.andart.todoops.service.ReminderNotifier;
+import ru.andart.todoops.service.ReminderScheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Draining a backlog of due reminders with 1, 2 and 4 schedulers (each one stands for a replica with its own
+ * timing wheel) claiming from the same table. Reports throughput and duplicate deliveries.
+ * <pre>
+ * mvn test -Pbenchmark -Dtest=ReminderDeliveryBenchmark [-Dbenchmark.reminders=20000]
+ * </pre>
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "todoops.data-initializer.enabled=false",
+        "spring.datasource.hikari.maximum-pool-size=8"
+})
+class ReminderDeliveryBenchmark extends BaseDbTest {
+
+    private static final int REMINDERS = Integer.getInteger("benchmark.reminders", 20_000);
+    private static final ReminderProperties PROPERTIES = new ReminderProperties(
+            Duration.ofHours(1), Duration.ofMinutes(1), Duration.ofMinutes(5), Duration.ofMillis(100), 100, 1000);
+
+    @Autowired
+    private TaskReminderRepository taskReminderRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void replicasDrainBacklog() throws Exception {
+        jdbcTemplate.update("""
+                insert into task (tenant_id, title, description, status, created_at, due_date)
+                select i % 100, 'Task ' || i, 'Reminder benchmark', 'NEW', localtimestamp,
+                       localtimestamp + interval '30 minutes'
+                from generate_series(1, ?) i
+                """, REMINDERS);
+        log.info("reminders={}", REMINDERS);
+        for (int replicas : new int[] {1, 2, 4, 1, 2, 4}) {
+            run(replicas);
+        }
+    }
+
+    private void run(int replicas) throws Exception {
+        jdbcTemplate.update("delete from task_reminder");
+        jdbcTemplate.update("""
+                insert into task_reminder (tenant_id, task_id, fire_at, next_fire_at)
+                select tenant_id, id, localtimestamp, localtimestamp from task
+                """);
+        jdbcTemplate.execute("analyze task_reminder");
+
+        Map<Long, AtomicInteger> deliveries = new ConcurrentHashMap<>();
+        ReminderNotifier notifier = reminder ->
+                deliveries.computeIfAbsent(reminder.taskId(), id -> new AtomicInteger()).incrementAndGet();
+        AtomicInteger delivered = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(replicas);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < replicas; i++) {
+                var scheduler = new ReminderScheduler(
+                        taskReminderRepository, transactionTemplate, notifier, PROPERTIES, new SimpleMeterRegistry());
+                workers.add(executor.submit(() -> {
+                    while (delivered.get() < REMINDERS) {
+                        scheduler.poll();
+                        int count = scheduler.fire();
+                        delivered.addAndGet(count);
+                        if (count == 0) {
+                            Thread.sleep(PROPERTIES.tick().toMillis());
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get(5, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long duplicates = deliveries.values().stream().mapToInt(AtomicInteger::get).filter(n -> n > 1).count();
+        log.info("  replicas {}: {} reminders/s, {} delivered, {} duplicates", replicas,
+                Math.round(deliveries.size() / seconds), deliveries.size(), duplicates);
+    }
+}
@@ -0,0 +1,153 @@
+package ru.andart.todoops.benchmark;
+
+import com.sun.management.ThreadMXBean;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import ru.andart.todoops.BaseDbTest;
+import ru.andart.todoops.entity.TaskEntity;
+import ru.andart.todoops.generated.model.TaskStatus;
+import ru.andart.todoops.repository.TaskRepository;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Server cost of {@code GET /api/v1/tasks} (page of 20) and {@code GET /api/v1/tasks/{id}} with the response cache
+ * disabled and enabled, identity and gzip: CPU time and bytes allocated per request by the Tomcat worker threads
+ * (client work is not counted), and client-side latency. Descriptions of 300 characters of words, as the seeded
+ * dataset's mean. HTTP/1.1, pooled connections to the embedded database.
+ * <pre>
+ * mvn test -Pbenchmark -Dtest=ResponseCacheBenchmark [-Dbenchmark.requests=3000]
+ * </pre>
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"todoops.data-initializer.enabled=false", "todoops.slow-requests.enabled=false"}
+)
+@Import(GraphQlBenchmark.ConnectionPool.class)
+class ResponseCacheBenchmark extends BaseDbTest {
+
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 3000);
+    private static final String[] WORDS = {
+        "deploy", "review", "backend", "the", "pull", "request", "fix", "cache", "metrics", "and",
+        "database", "migration", "frontend", "test", "release", "notes", "cluster", "to", "update", "config"
+    };
+
+    @Nested
+    @TestPropertySource(properties = "todoops.response-cache.enabled=false")
+    class Disabled {
+
+        @LocalServerPort
+        private int port;
+
+        @Autowired
+        private TaskRepository taskRepository;
+
+        @Test
+        void requests() {
+            measure(port, taskRepository, "disabled");
+        }
+    }
+
+    @Nested
+    @TestPropertySource(properties = "todoops.response-cache.enabled=true")
+    class Enabled {
+
+        @LocalServerPort
+        private int port;
+
+        @Autowired
+        private TaskRepository taskRepository;
+
+        @Test
+        void requests() {
+            measure(port, taskRepository, "enabled");
+        }
+    }
+
+    // the nested classes have contexts of their own, the fields of this class would come from the default one
+    private static void measure(int port, TaskRepository taskRepository, String mode) {
+        long id = seed(taskRepository, 100);
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        log.info("request | cache | encoding | bytes | worker cpu us/req | worker bytes allocated/req | p50 us");
+        for (String encoding : List.of("identity", "gzip")) {
+            run(client, port, "list", "/api/v1/tasks?page=0&size=20", mode, encoding);
+            run(client, port, "get", "/api/v1/tasks/" + id, mode, encoding);
+        }
+    }
+
+    @SneakyThrows
+    private static void run(HttpClient client, int port, String name, String path, String mode, String encoding) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Accept-Encoding", encoding)
+                .build();
+        for (int i = 0; i < REQUESTS; i++) {
+            client.send(request, HttpResponse.BodyHandlers.discarding());
+        }
+        long[] nanos = new long[REQUESTS];
+        long[] before = workerCpuAndAllocation();
+        HttpResponse<byte[]> response = null;
+        for (int i = 0; i < REQUESTS; i++) {
+            long start = System.nanoTime();
+            response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            nanos[i] = System.nanoTime() - start;
+        }
+        long[] after = workerCpuAndAllocation();
+        Arrays.sort(nanos);
+        log.info("{} | {} | {} | {} | {} | {} | {}", name, mode, encoding, response.body().length,
+                (after[0] - before[0]) / REQUESTS / 1000, (after[1] - before[1]) / REQUESTS,
+                nanos[REQUESTS / 2] / 1000);
+    }
+
+    private static long[] workerCpuAndAllocation() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long cpu = 0;
+        long allocated = 0;
+        for (ThreadInfo info : threads.getThreadInfo(threads.getAllThreadIds())) {
+            if (info != null && info.getThreadName().startsWith("http-nio-")) {
+                cpu += Math.max(0, threads.getThreadCpuTime(info.getThreadId()));
+                allocated += Math.max(0, threads.getThreadAllocatedBytes(info.getThreadId()));
+            }
+        }
+        return new long[]{cpu, allocated};
+    }
+
+    private static long seed(TaskRepository taskRepository, int count) {
+        Random random = new Random(42);
+        List<TaskEntity> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            StringBuilder description = new StringBuilder();
+            while (description.length() < 300) {
+                description.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            tasks.add(TaskEntity.builder()
+                    .tenantId(0L)
+                    .title("Task " + i)
+                    .description(description.substring(0, 300))
+                    .status(TaskStatus.NEW)
+                    .createdAt(OffsetDateTime.now())
+                    .dueDate(OffsetDateTime.now().plusDays(i % 30))
+                    .build());
+        }
+        return taskRepository.saveAll(tasks).get(0).getId();
+    }
+}
@@ -0,0 +1,105 @@
+package ru.andart.todoops.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.andart.todoops.BaseDbTest;
+import ru.andart.todoops.config.SeedProperties;
+import ru.andart.todoops.entity.TaskEntity;
+import ru.andart.todoops.generated.model.TaskStatus;
+import ru.andart.todoops.repository.TaskRepository;
+import ru.andart.todoops.service.TaskSeeder;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Throughput of the synthetic dataset load: JPA {@code saveAll} (as {@code DataInitializer} inserts) vs the
+ * parallel {@code COPY} of {@code TaskSeeder} with the indexes maintained or deferred, then the full-size load.
+ * Rows/s are for the load itself; index build and derived table rebuild are reported separately.
+ * <pre>
+ * mvn test -Pbenchmark -Dtest=SeedBenchmark [-Dbenchmark.tasks=10000000] [-Dbenchmark.threads=4]
+ * </pre>
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(properties = "todoops.data-initializer.enabled=false")
+class SeedBenchmark extends BaseDbTest {
+
+    private static final long TASKS = Long.getLong("benchmark.tasks", 10_000_000);
+    private static final int THREADS = Integer.getInteger("benchmark.threads", 4);
+    private static final long SMALL = 1_000_000;
+    private static final int SAVE_ALL_TASKS = 50_000;
+
+    @Autowired
+    private TaskSeeder taskSeeder;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SeedProperties defaults;
+
+    @Test
+    void copyThroughput() {
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> taskRepository.saveAll(entities()));
+        log.info("saveAll, {} tasks: {} rows/s", SAVE_ALL_TASKS, SAVE_ALL_TASKS * 1_000_000_000L
+                / (System.nanoTime() - start));
+        truncate();
+
+        run("copy, indexes maintained, 1 stream", settings(SMALL, 1, false));
+        run("copy, indexes deferred, 1 stream", settings(SMALL, 1, true));
+        run("copy, indexes deferred, " + THREADS + " streams", settings(SMALL, THREADS, true));
+        run("copy, indexes deferred, " + THREADS + " streams", settings(TASKS, THREADS, true));
+        log.info("table size {}", jdbcTemplate.queryForObject(
+                "select pg_size_pretty(pg_total_relation_size('task'))", String.class));
+    }
+
+    private void run(String name, SeedProperties settings) {
+        truncate();
+        TaskSeeder.Report report = taskSeeder.seed(settings);
+        log.info("{}, {} tasks: load {} ms ({} rows/s), indexes + vacuum {} ms, derived tables {} ms", name,
+                report.tasks(), report.load().toMillis(), report.tasks() * 1000 / report.load().toMillis(),
+                report.indexes().toMillis(), report.derived().toMillis());
+    }
+
+    private void truncate() {
+        jdbcTemplate.execute("truncate task, task_status_counter, task_calendar_rollup, task_reminder");
+        jdbcTemplate.execute("checkpoint");
+    }
+
+    private SeedProperties settings(long tasks, int threads, boolean deferIndexes) {
+        return new SeedProperties(false, tasks, defaults.firstTenant(), defaults.tenants(), defaults.tenantSkew(),
+                defaults.statusWeights(), defaults.createdWithin(), defaults.dueDateShare(), defaults.dueDatePast(),
+                defaults.dueDateFuture(), defaults.descriptionMeanLength(), defaults.descriptionMaxLength(), threads,
+                deferIndexes, defaults.randomSeed());
+    }
+
+    private static List<TaskEntity> entities() {
+        OffsetDateTime now = OffsetDateTime.now();
+        List<TaskEntity> entities = new ArrayList<>(SAVE_ALL_TASKS);
+        for (int i = 0; i < SAVE_ALL_TASKS; i++) {
+            entities.add(TaskEntity.builder()
+                    .tenantId(1L + i % 1000)
+                    .title("Task " + i)
+                    .description("Generated task ".repeat(20))
+                    .status(TaskStatus.NEW)
+                    .createdAt(now)
+                    .dueDate(now.plusHours(i % 5000))
+                    .build());
+        }
+        return entities;
+    }
+}
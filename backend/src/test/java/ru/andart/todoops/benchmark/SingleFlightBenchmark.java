@@ -0,0 +1,149 @@
+package ru.andart.todoops.benchmark;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.andart.todoops.BaseDbTest;
+import ru.andart.todoops.StatementCounter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Hot-key read load as in the load profile: {@value #CLIENTS} clients fire {@code GET /api/v1/tasks?page=0&size=20}
+ * and {@code GET /api/v1/tasks/{id}} of one task (4:1) for {@code benchmark.seconds}, with read coalescing
+ * disabled and enabled. Reports requests/s, SQL statements/s and per request, and latency. MockMvc in the same
+ * JVM, a pool of 4 connections to the embedded database.
+ * <pre>
+ * mvn test -Pbenchmark -Dtest=SingleFlightBenchmark [-Dbenchmark.seconds=20]
+ * </pre>
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(properties = {"todoops.data-initializer.enabled=false", "todoops.slow-requests.enabled=false"})
+@AutoConfigureMockMvc
+@Import({StatementCounter.class, GraphQlBenchmark.ConnectionPool.class})
+class SingleFlightBenchmark extends BaseDbTest {
+
+    private static final int CLIENTS = 32;
+    private static final int SECONDS = Integer.getInteger("benchmark.seconds", 20);
+    private static final String TENANT = "1";
+
+    @Nested
+    @TestPropertySource(properties = "todoops.single-flight.enabled=false")
+    class Disabled {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        @Autowired
+        private StatementCounter statementCounter;
+
+        @Test
+        void hotKeys() {
+            run(mockMvc, jdbcTemplate, statementCounter, "disabled");
+        }
+    }
+
+    @Nested
+    @TestPropertySource(properties = "todoops.single-flight.enabled=true")
+    class Enabled {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        @Autowired
+        private StatementCounter statementCounter;
+
+        @Test
+        void hotKeys() {
+            run(mockMvc, jdbcTemplate, statementCounter, "enabled");
+        }
+    }
+
+    // the nested classes have contexts of their own, the fields of this class would come from the default one
+    @SneakyThrows
+    private static void run(MockMvc mockMvc, JdbcTemplate jdbcTemplate, StatementCounter statementCounter,
+                            String mode) {
+        jdbcTemplate.update("""
+                insert into task (tenant_id, title, description, status, created_at, due_date)
+                select ?, 'Task ' || g, 'Description of task ' || g, 'NEW', localtimestamp, null
+                from generate_series(1, 1000) g
+                """, Long.parseLong(TENANT));
+        String hotTask = "/api/v1/tasks/" + jdbcTemplate.queryForObject("select min(id) from task", Long.class);
+        // warm-up
+        load(mockMvc, hotTask, 5);
+
+        statementCounter.reset();
+        long start = System.nanoTime();
+        long[] nanos = load(mockMvc, hotTask, SECONDS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long statements = statementCounter.count();
+        Arrays.sort(nanos);
+        log.info("{}: {} requests/s, {} statements/s, {} statements per request, p50 {} ms, p99 {} ms", mode,
+                Math.round(nanos.length / seconds), Math.round(statements / seconds),
+                String.format("%.2f", (double) statements / nanos.length),
+                String.format("%.1f", nanos[nanos.length / 2] / 1e6),
+                String.format("%.1f", nanos[nanos.length * 99 / 100] / 1e6));
+    }
+
+    private static long[] load(MockMvc mockMvc, String hotTask, int seconds) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Future<long[]>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < CLIENTS; i++) {
+                results.add(clients.submit(() -> client(mockMvc, hotTask, deadline)));
+            }
+            long[] all = new long[0];
+            for (Future<long[]> result : results) {
+                long[] client = result.get();
+                int offset = all.length;
+                all = Arrays.copyOf(all, offset + client.length);
+                System.arraycopy(client, 0, all, offset, client.length);
+            }
+            return all;
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private static long[] client(MockMvc mockMvc, String hotTask, long deadline) throws Exception {
+        long[] nanos = new long[1024];
+        int count = 0;
+        while (System.nanoTime() < deadline) {
+            String uri = ThreadLocalRandom.current().nextInt(5) == 0 ? hotTask : "/api/v1/tasks?page=0&size=20";
+            long start = System.nanoTime();
+            mockMvc.perform(get(uri).header("X-Tenant-Id", TENANT)).andExpect(status().isOk());
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = System.nanoTime() - start;
+        }
+        return Arrays.copyOf(nanos, count);
+    }
+}
@@ -0,0 +1,109 @@
+package ru.andart.todoops.benchmark;
+
+import com.sun.management.ThreadMXBean;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.andart.todoops.BaseDbTest;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Cost of the always-on slow request capture for requests that are not slow: latency and bytes allocated per
+ * {@code GET /api/v1/tasks} (page of 20, two statements) and {@code GET /api/v1/tasks/{id}}, with the filter and
+ * statement tracing disabled and enabled. MockMvc in the same JVM, pooled connections to the embedded database.
+ * <pre>
+ * mvn test -Pbenchmark -Dtest=SlowRequestOverheadBenchmark [-Dbenchmark.iterations=3000]
+ * </pre>
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(properties = "todoops.data-initializer.enabled=false")
+@AutoConfigureMockMvc
+@Import(GraphQlBenchmark.ConnectionPool.class)
+class SlowRequestOverheadBenchmark extends BaseDbTest {
+
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 3000);
+    private static final String TENANT = "1";
+
+    @Nested
+    @TestPropertySource(properties = "todoops.slow-requests.enabled=false")
+    class Disabled {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        @Test
+        void requests() {
+            measure(mockMvc, jdbcTemplate, "disabled");
+        }
+    }
+
+    @Nested
+    @TestPropertySource(properties = "todoops.slow-requests.enabled=true")
+    class Enabled {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        @Test
+        void requests() {
+            measure(mockMvc, jdbcTemplate, "enabled");
+        }
+    }
+
+    // the nested classes have contexts of their own, the fields of this class would come from the default one
+    private static void measure(MockMvc mockMvc, JdbcTemplate jdbcTemplate, String mode) {
+        jdbcTemplate.update("""
+                insert into task (tenant_id, title, description, status, created_at, due_date)
+                select ?, 'Task ' || g, 'Description of task ' || g, 'NEW', localtimestamp, null
+                from generate_series(1, 100) g
+                """, Long.parseLong(TENANT));
+        long id = jdbcTemplate.queryForObject("select min(id) from task", Long.class);
+        run(mockMvc, mode, "list", "/api/v1/tasks?size=20");
+        run(mockMvc, mode, "get", "/api/v1/tasks/" + id);
+    }
+
+    @SneakyThrows
+    private static void run(MockMvc mockMvc, String mode, String name, String uri) {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < ITERATIONS; i++) {
+            call(mockMvc, uri);
+        }
+        long[] nanos = new long[ITERATIONS];
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            call(mockMvc, uri);
+            nanos[i] = System.nanoTime() - start;
+        }
+        long allocated = (threads.getCurrentThreadAllocatedBytes() - allocatedBefore) / ITERATIONS;
+        Arrays.sort(nanos);
+        log.info("{} {}: p50 {} us, p90 {} us, {} bytes allocated per request", name, mode,
+                nanos[ITERATIONS / 2] / 1000, nanos[ITERATIONS * 9 / 10] / 1000, allocated);
+    }
+
+    @SneakyThrows
+    private static void call(MockMvc mockMvc, String uri) {
+        mockMvc.perform(get(uri).header("X-Tenant-Id", TENANT)).andExpect(status().isOk());
+    }
+}
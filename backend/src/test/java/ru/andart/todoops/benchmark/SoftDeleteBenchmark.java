@@ -0,0 +1,114 @@
+package ru.andart.todoops.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.andart.todoops.BaseDbTest;
+import ru.andart.todoops.repository.TaskPurgeRepository;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Cost of soft-deleted rows for the live queries of one tenant: the task count, a list page and the count of
+ * tasks due next week, with the partial {@code deleted_at is null} indexes and again with full indexes, plus the
+ * throughput of the batched purge.
+ * <pre>
+ * mvn test -Pbenchmark -Dtest=SoftDeleteBenchmark [-Dbenchmark.live=10000] [-Dbenchmark.deleted=90000]
+ * </pre>
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(properties = "todoops.data-initializer.enabled=false")
+class SoftDeleteBenchmark extends BaseDbTest {
+
+    private static final long TENANT = 1;
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 50);
+    private static final int LIVE = Integer.getInteger("benchmark.live", 10_000);
+    private static final int DELETED = Integer.getInteger("benchmark.deleted", 90_000);
+    private static final int BATCH_SIZE = 500;
+    private static final String[] FULL_INDEXES = {
+            "task_tenant_id_id_idx on task (tenant_id, id)",
+            "task_tenant_id_due_date_status_idx on task (tenant_id, due_date, status) where due_date is not null",
+            "task_tenant_id_path_idx on task (tenant_id, path text_pattern_ops)"
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TaskPurgeRepository taskPurgeRepository;
+
+    @Test
+    void liveQueriesWithPartialAndFullIndexes() {
+        // deleted rows are interleaved with live ones, as they are when tasks are deleted over time
+        jdbcTemplate.update("""
+                insert into task (tenant_id, title, description, status, created_at, due_date, deleted_at)
+                select ?, 'Task ' || g, 'Generated task', 'NEW', now(), localtimestamp + g * interval '1 minute',
+                       case when g % 10 < ? then localtimestamp - interval '30 days' end
+                from generate_series(1, ? + ?) g
+                """, TENANT, DELETED * 10 / (LIVE + DELETED), LIVE, DELETED);
+        jdbcTemplate.execute("vacuum (freeze, analyze) task");
+
+        long[] partial = measure();
+        for (String index : FULL_INDEXES) {
+            jdbcTemplate.execute("drop index " + index.split(" ")[0]);
+            jdbcTemplate.execute("create index " + index);
+        }
+        jdbcTemplate.execute("vacuum (freeze, analyze) task");
+        long[] full = measure();
+
+        log.info("live {}, deleted {}", LIVE, DELETED);
+        log.info("  count:                partial {} us  full {} us", partial[0], full[0]);
+        log.info("  page at offset {}:  partial {} us  full {} us", LIVE / 2, partial[1], full[1]);
+        log.info("  due next week:        partial {} us  full {} us", partial[2], full[2]);
+
+        long start = System.nanoTime();
+        long purged = 0;
+        int batches = 0;
+        int count;
+        do {
+            count = taskPurgeRepository.purge(Duration.ofDays(7), BATCH_SIZE).size();
+            purged += count;
+            batches++;
+        } while (count == BATCH_SIZE);
+        long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        log.info("  purge: {} rows in {} batches of {}, {} ms ({} rows/s without pauses)",
+                purged, batches, BATCH_SIZE, millis, purged * 1000 / millis);
+    }
+
+    // the statements of TaskRepository (list page and its count) and of the calendar (due-date range count)
+    private long[] measure() {
+        return new long[] {
+                p50(() -> jdbcTemplate.queryForObject(
+                        "select count(*) from task where tenant_id = ? and deleted_at is null", Long.class, TENANT)),
+                p50(() -> jdbcTemplate.queryForList("""
+                        select id, title from task where tenant_id = ? and deleted_at is null
+                        order by id offset ? limit 20
+                        """, TENANT, LIVE / 2)),
+                p50(() -> jdbcTemplate.queryForObject("""
+                        select count(*) from task
+                        where tenant_id = ? and due_date >= localtimestamp and due_date < localtimestamp + interval '7 days'
+                          and deleted_at is null
+                        """, Long.class, TENANT))
+        };
+    }
+
+    private static long p50(Supplier<?> query) {
+        long[] micros = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS * 2; i++) {
+            long start = System.nanoTime();
+            query.get();
+            // first half is warm-up
+            if (i >= ITERATIONS) {
+                micros[i - ITERATIONS] = (System.nanoTime() - start) / 1000;
+            }
+        }
+        Arrays.sort(micros);
+        return micros[micros.length / 2];
+    }
+}
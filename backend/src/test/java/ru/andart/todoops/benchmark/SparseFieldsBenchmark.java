@@ -0,0 +1,98 @@
+package ru.andart.todoops.benchmark;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.andart.todoops.BaseDbTest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Cost of fetching 20 known tasks one {@code GET /api/v1/tasks/{id}} at a time vs one
+ * {@code GET /api/v1/tasks/batch?ids=...}, and of full vs sparse ({@code fields=id,title,status}) task pages and
+ * tasks: latency per operation and JSON bytes. Tasks have descriptions of about 500 characters. MockMvc in the same
+ * JVM, pooled connections to the embedded database, response cache off.
+ * <pre>
+ * mvn test -Pbenchmark -Dtest=SparseFieldsBenchmark [-Dbenchmark.iterations=2000]
+ * </pre>
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(properties = "todoops.data-initializer.enabled=false")
+@AutoConfigureMockMvc
+@Import(GraphQlBenchmark.ConnectionPool.class)
+class SparseFieldsBenchmark extends BaseDbTest {
+
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 2000);
+    private static final String TENANT = "1";
+    private static final int TASKS = 20;
+    private static final String SPARSE = "id,title,status";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void reads() {
+        jdbcTemplate.update("""
+                insert into task (tenant_id, title, description, status, created_at, due_date)
+                select ?, 'Task ' || g, repeat('Description of task ' || g || '. ', 20), 'NEW', localtimestamp,
+                       localtimestamp + g * interval '1 hour'
+                from generate_series(1, 1000) g
+                """, Long.parseLong(TENANT));
+        List<Long> ids = jdbcTemplate.queryForList("select id from task order by id desc limit " + TASKS, Long.class);
+        String batch = "/api/v1/tasks/batch?ids=" + ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+
+        run("20 single gets", ids.stream().map(id -> "/api/v1/tasks/" + id).toList());
+        run("batch of 20", List.of(batch));
+        run("batch of 20, sparse", List.of(batch + "&fields=" + SPARSE));
+        run("page of 20", List.of("/api/v1/tasks?size=20"));
+        run("page of 20, sparse", List.of("/api/v1/tasks?size=20&fields=" + SPARSE));
+        run("task", List.of("/api/v1/tasks/" + ids.get(0)));
+        run("task, sparse", List.of("/api/v1/tasks/" + ids.get(0) + "?fields=" + SPARSE));
+    }
+
+    /**
+     * Measures an operation made of several requests.
+     */
+    private void run(String name, List<String> uris) {
+        for (int i = 0; i < ITERATIONS; i++) {
+            call(uris);
+        }
+        long[] nanos = new long[ITERATIONS];
+        long bytes = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            bytes = call(uris);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        log.info("{}: {} requests, {} bytes, p50 {} us, p90 {} us", name, uris.size(), bytes,
+                nanos[ITERATIONS / 2] / 1000, nanos[ITERATIONS * 9 / 10] / 1000);
+    }
+
+    @SneakyThrows
+    private long call(List<String> uris) {
+        long bytes = 0;
+        for (String uri : uris) {
+            bytes += mockMvc.perform(get(uri).header("X-Tenant-Id", TENANT))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsByteArray().length;
+        }
+        return bytes;
+    }
+}
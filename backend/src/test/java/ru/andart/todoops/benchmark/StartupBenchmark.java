@@ -0,0 +1,173 @@
+package ru.andart.todoops.benchmark;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures time from process launch to the first successful {@code GET /api/v1/tasks} and the resident set size
+ * right after it: plain jar versus profile {@code fast-start}, Spring AOT, a CDS archive and, when
+ * {@code target/backend} exists, the GraalVM native executable.
+ * Needs the jar built with AOT classes first:
+ * <pre>
+ * mvn package -Pfast-start -DskipTests
+ * mvn -Pnative native:compile -DskipTests    # optional, needs GraalVM
+ * mvn test -Pbenchmark -Dtest=StartupBenchmark [-Dbenchmark.runs=3 -Dbenchmark.cpus=1]
+ * </pre>
+ */
+@Slf4j
+@Tag("benchmark")
+class StartupBenchmark {
+
+    private static final int RUNS = Integer.getInteger("benchmark.runs", 3);
+    private static final String CPUS = System.getProperty("benchmark.cpus", "1");
+
+    @Test
+    void timeToFirstRequest() throws Exception {
+        Optional<Path> jar = findJar();
+        Assumptions.assumeTrue(jar.isPresent(), "Run mvn package -Pfast-start -DskipTests first");
+        Path work = Files.createTempDirectory("startup-benchmark");
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.start()) {
+            String url = postgres.getJdbcUrl("postgres", "postgres");
+            Path extracted = work.resolve("extracted");
+            exec(work, List.of(java(), "-Djarmode=tools", "-jar", jar.get().toString(),
+                    "extract", "--destination", extracted.toString()));
+            String app = extracted.resolve(jar.get().getFileName()).toString();
+
+            // First run migrates the schema; fast-start replicas rely on it being there
+            Sample baseline = median(List.of(java(), "-jar", app), url, work);
+            Sample profile = median(List.of(java(), "-jar", app, "--spring.profiles.active=fast-start"), url, work);
+            Sample aot = median(List.of(java(), "-Dspring.aot.enabled=true", "-jar", app,
+                    "--spring.profiles.active=fast-start"), url, work);
+
+            Path archive = work.resolve("app.jsa");
+            exec(work, List.of(java(), "-XX:ArchiveClassesAtExit=" + archive, "-Dspring.aot.enabled=true",
+                    "-Dspring.context.exit=onRefresh", "-jar", app, "--spring.profiles.active=fast-start",
+                    "--spring.datasource.url=" + url));
+            Sample cds = median(List.of(java(), "-XX:SharedArchiveFile=" + archive, "-Dspring.aot.enabled=true",
+                    "-jar", app, "--spring.profiles.active=fast-start"), url, work);
+
+            Path executable = Path.of("target", "backend").toAbsolutePath();
+            Sample nativeImage = Files.isExecutable(executable)
+                    ? median(List.of(executable.toString(), "--spring.profiles.active=fast-start"), url, work)
+                    : null;
+
+            log.info("time to first request / RSS after it, median of {} runs, {} cpu(s):", RUNS, CPUS);
+            log.info("  baseline                      {}", baseline);
+            log.info("  + fast-start profile          {}", profile);
+            log.info("  + Spring AOT                  {}", aot);
+            log.info("  + CDS archive                 {}", cds);
+            log.info("  native image                  {}", nativeImage == null ? "not built" : nativeImage);
+        }
+    }
+
+    private static Sample median(List<String> command, String url, Path work) throws Exception {
+        List<Sample> samples = new ArrayList<>();
+        for (int i = 0; i < RUNS; i++) {
+            samples.add(timeToFirstRequest(command, url, work));
+        }
+        return samples.stream().sorted(Comparator.comparingLong(Sample::millis)).toList().get(RUNS / 2);
+    }
+
+    private static Sample timeToFirstRequest(List<String> command, String url, Path work) throws Exception {
+        int port = freePort();
+        List<String> full = new ArrayList<>(command);
+        full.add(1, "-XX:ActiveProcessorCount=" + CPUS);
+        full.addAll(List.of("--server.port=" + port, "--spring.datasource.url=" + url));
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(full).directory(work.toFile())
+                .redirectErrorStream(true).redirectOutput(work.resolve("app.log").toFile()).start();
+        try {
+            URI uri = URI.create("http://localhost:" + port + "/api/v1/tasks?page=0&size=20");
+            while (process.isAlive()) {
+                if (respondsOk(uri)) {
+                    return new Sample(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), rssMib(process));
+                }
+                Thread.sleep(20);
+            }
+            throw new IllegalStateException("Application exited, see " + work.resolve("app.log"));
+        } finally {
+            process.destroy();
+            process.waitFor(30, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Resident set size from {@code /proc}, -1 where it is not available.
+     */
+    private static long rssMib(Process process) throws IOException {
+        Path status = Path.of("/proc", String.valueOf(process.pid()), "status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        return Files.readAllLines(status).stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .mapToLong(line -> Long.parseLong(line.replaceAll("\\D", "")) / 1024)
+                .findFirst().orElse(-1);
+    }
+
+    private static boolean respondsOk(URI uri) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+            connection.setConnectTimeout(200);
+            return connection.getResponseCode() == 200;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void exec(Path work, List<String> command) throws Exception {
+        Process process = new ProcessBuilder(command).directory(work.toFile())
+                .redirectErrorStream(true).redirectOutput(work.resolve("exec.log").toFile()).start();
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("Failed: " + command + ", see " + work.resolve("exec.log"));
+        }
+    }
+
+    private static Optional<Path> findJar() throws IOException {
+        Path target = Path.of("target").toAbsolutePath();
+        if (!Files.isDirectory(target)) {
+            return Optional.empty();
+        }
+        try (Stream<Path> files = Files.list(target)) {
+            return files.filter(path -> path.getFileName().toString().matches("backend-.*(?<!plain)\\.jar"))
+                    .findFirst();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static String java() {
+        return String.join(File.separator, Arrays.asList(System.getProperty("java.home"), "bin", "java"));
+    }
+
+    private record Sample(long millis, long rssMib) {
+
+        @Override
+        public String toString() {
+            return millis + " ms / " + rssMib + " MiB";
+        }
+    }
+}
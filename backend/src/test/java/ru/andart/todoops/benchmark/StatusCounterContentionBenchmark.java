@@ -0,0 +1,89 @@
+package ru.andart.todoops.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.andart.todoops.BaseDbTest;
+import ru.andart.todoops.generated.model.TaskStatus;
+import ru.andart.todoops.repository.TaskCounterRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write throughput of one tenant's status counter under concurrent transactions: a single counter row vs
+ * 16 stripes. Each transaction adds to the counter and then keeps working for {@code benchmark.holdMillis}
+ * (the rest of the mutation and the commit), holding the row lock all that time.
+ * <pre>
+ * mvn test -Pbenchmark -Dtest=StatusCounterContentionBenchmark [-Dbenchmark.threads=8 -Dbenchmark.seconds=5]
+ * </pre>
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "todoops.data-initializer.enabled=false",
+        "spring.datasource.hikari.maximum-pool-size=16"
+})
+class StatusCounterContentionBenchmark extends BaseDbTest {
+
+    private static final long TENANT = 1;
+    private static final int THREADS = Integer.getInteger("benchmark.threads", 8);
+    private static final int SECONDS = Integer.getInteger("benchmark.seconds", 5);
+    private static final double HOLD_SECONDS = Integer.getInteger("benchmark.holdMillis", 2) / 1000.0;
+
+    @Autowired
+    private TaskCounterRepository taskCounterRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void singleRowVersusStripes() throws Exception {
+        log.info("threads={} seconds={} hold={} ms", THREADS, SECONDS, HOLD_SECONDS * 1000);
+        for (int stripes : new int[] {1, 16, 1, 16}) {
+            long operations = run(stripes);
+            log.info("  stripes {}: {} tx/s", stripes, operations / SECONDS);
+        }
+    }
+
+    private long run(int stripes) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SECONDS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Long>> workers = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                workers.add(executor.submit(() -> {
+                    long count = 0;
+                    while (System.nanoTime() < deadline) {
+                        transactionTemplate.executeWithoutResult(status -> {
+                            int stripe = ThreadLocalRandom.current().nextInt(stripes);
+                            taskCounterRepository.add(TENANT, TaskStatus.NEW, stripe, 1);
+                            jdbcTemplate.queryForObject("select pg_sleep(?)", Object.class, HOLD_SECONDS);
+                        });
+                        count++;
+                    }
+                    return count;
+                }));
+            }
+            long total = 0;
+            for (Future<Long> worker : workers) {
+                total += worker.get();
+            }
+            return total;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
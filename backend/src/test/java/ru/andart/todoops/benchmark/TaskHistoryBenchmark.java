@@ -0,0 +1,93 @@
+package ru.andart.todoops.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.andart.todoops.BaseDbTest;
+import ru.andart.todoops.generated.model.TaskCreateRequest;
+import ru.andart.todoops.generated.model.TaskStatus;
+import ru.andart.todoops.generated.model.TaskStatusRequest;
+import ru.andart.todoops.generated.model.TaskUpdateRequest;
+import ru.andart.todoops.service.TaskService;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Size of task history: field deltas as written by {@code TaskService} vs a full copy of the row per change
+ * (both copied into plain tables), and the cost of a change with its history row. Tasks carry 1000-character descriptions; every task gets
+ * a due-date change and two status changes, as typical edits touch one field and leave the description alone.
+ * <pre>
+ * mvn test -Pbenchmark -Dtest=TaskHistoryBenchmark [-Dbenchmark.tasks=2000]
+ * </pre>
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(properties = "todoops.data-initializer.enabled=false")
+class TaskHistoryBenchmark extends BaseDbTest {
+
+    private static final long TENANT = 1;
+    private static final int TASKS = Integer.getInteger("benchmark.tasks", 2000);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Test
+    void deltasVersusFullCopies() {
+        String description = "x".repeat(1000);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            ids.add(taskService.create(TENANT, new TaskCreateRequest("Task " + i, description)).getId());
+        }
+
+        long walStart = walPosition();
+        long start = System.nanoTime();
+        for (Long id : ids) {
+            taskService.update(TENANT, id, new TaskUpdateRequest("Task " + id, description)
+                    .dueDate(OffsetDateTime.now().plusDays(id % 30)));
+            taskService.changeStatus(TENANT, id, new TaskStatusRequest(TaskStatus.IN_PROGRESS));
+            taskService.changeStatus(TENANT, id, new TaskStatusRequest(TaskStatus.COMPLETED));
+        }
+        long changes = 3L * TASKS;
+        long micros = (System.nanoTime() - start) / 1000 / changes;
+        long walPerChange = (walPosition() - walStart) / changes;
+
+        copy("task_history_delta_copy", "select h.* from task_history h");
+        copy("task_history_full_copy", """
+                select h.changed_at, t.*
+                from task_history h join task t on t.tenant_id = h.tenant_id and t.id = h.task_id
+                """);
+        jdbcTemplate.execute("vacuum analyze");
+
+        log.info("{} changes: {} us and {} WAL bytes each (task update and history row)",
+                changes, micros, walPerChange);
+        log.info("  history row as delta:     {} bytes", bytesPerRow("task_history_delta_copy", changes));
+        log.info("  history row as full copy: {} bytes", bytesPerRow("task_history_full_copy", changes));
+    }
+
+    private void copy(String table, String select) {
+        // plain tables without indexes on both sides, so only the row format differs
+        jdbcTemplate.execute("create table " + table + " as " + select);
+    }
+
+    private long walPosition() {
+        Long lsn = jdbcTemplate.queryForObject("select pg_current_wal_lsn() - '0/0'::pg_lsn", Long.class);
+        return lsn != null ? lsn : 0;
+    }
+
+    private long bytesPerRow(String table, long rows) {
+        Long size = jdbcTemplate.queryForObject("""
+                select sum(pg_total_relation_size(c.oid))
+                from pg_class c
+                where c.relname = ? or c.oid in (select inhrelid from pg_inherits where inhparent = ?::regclass)
+                """, Long.class, table, table);
+        return size != null ? size / rows : 0;
+    }
+}
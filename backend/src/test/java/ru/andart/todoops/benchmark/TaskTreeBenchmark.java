@@ -0,0 +1,124 @@
+package ru.andart.todoops.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.andart.todoops.BaseDbTest;
+import ru.andart.todoops.entity.TaskEntity;
+import ru.andart.todoops.repository.TaskRepository;
+import ru.andart.todoops.repository.TaskTreeRepository;
+
+import java.util.Arrays;
+
+/**
+ * Subtree operations on a tree of {@code 1 + 10 + ... + 10^5 = 111 111} tasks: materialized path
+ * ({@link TaskTreeRepository}) vs a recursive CTE over {@code parent_id} (with an index on it).
+ * Deletes run in a rolled-back transaction, so every iteration sees the full tree.
+ * <pre>
+ * mvn test -Pbenchmark -Dtest=TaskTreeBenchmark [-Dbenchmark.iterations=20]
+ * </pre>
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(properties = "todoops.data-initializer.enabled=false")
+class TaskTreeBenchmark extends BaseDbTest {
+
+    private static final long TENANT = 1;
+    private static final int FANOUT = 10;
+    private static final int LEVELS = 6;
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 20);
+
+    private static final String RECURSIVE = """
+            with recursive subtree(id) as (
+                select cast(? as bigint)
+                union all
+                select t.id from task t join subtree s on t.tenant_id = %d and t.parent_id = s.id
+            )
+            """.formatted(TENANT);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskTreeRepository taskTreeRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void materializedPathVersusRecursiveQuery() {
+        buildTree();
+        jdbcTemplate.execute("create index task_benchmark_parent_idx on task (tenant_id, parent_id)");
+        jdbcTemplate.execute("vacuum analyze task");
+
+        TaskEntity root = level(1);
+        TaskEntity middle = level(3);
+        log.info("tree of {} tasks, fanout {}; level 3 subtree has {} tasks",
+                jdbcTemplate.queryForObject("select count(*) from task", Long.class), FANOUT,
+                taskTreeRepository.findSubtree(middle).size());
+
+        log.info("  fetch level-3 subtree:  path {} us  recursive {} us",
+                p50(() -> taskTreeRepository.findSubtree(middle)),
+                p50(() -> jdbcTemplate.queryForList(RECURSIVE
+                        + "select t.* from task t join subtree s on t.tenant_id = 1 and t.id = s.id", middle.getId())));
+        log.info("  roll up whole tree:     path {} us  recursive {} us",
+                p50(() -> taskTreeRepository.countSubtree(root)),
+                p50(() -> jdbcTemplate.queryForList(RECURSIVE
+                        + "select status, count(*) from task t join subtree s on t.tenant_id = 1 and t.id = s.id "
+                        + "group by status", root.getId())));
+        log.info("  delete level-3 subtree: path {} us  recursive {} us",
+                p50(() -> rolledBack(() -> taskTreeRepository.deleteSubtree(middle.getTenantId(), middle.getId()))),
+                p50(() -> rolledBack(() -> jdbcTemplate.update(RECURSIVE
+                        + "delete from task t using subtree s where t.tenant_id = 1 and t.id = s.id", middle.getId()))));
+    }
+
+    private void buildTree() {
+        jdbcTemplate.update("""
+                insert into task (tenant_id, title, status, created_at, path) values (?, 'L1', 'NEW', now(), '/')
+                """, TENANT);
+        for (int level = 2; level <= LEVELS; level++) {
+            jdbcTemplate.update("""
+                    insert into task (tenant_id, title, status, created_at, parent_id, path)
+                    select p.tenant_id, ?, (array['NEW', 'IN_PROGRESS', 'COMPLETED'])[1 + g % 3], now(),
+                           p.id, p.path || p.id || '/'
+                    from task p, generate_series(1, ?) g
+                    where p.tenant_id = ? and p.title = ?
+                    """, "L" + level, FANOUT, TENANT, "L" + (level - 1));
+        }
+    }
+
+    private TaskEntity level(int level) {
+        Long id = jdbcTemplate.queryForObject(
+                "select min(id) from task where tenant_id = ? and title = ?", Long.class, TENANT, "L" + level);
+        return taskRepository.findByTenantIdAndId(TENANT, id).orElseThrow();
+    }
+
+    private Object rolledBack(Runnable action) {
+        return transactionTemplate.execute(status -> {
+            action.run();
+            status.setRollbackOnly();
+            return null;
+        });
+    }
+
+    private static long p50(Runnable query) {
+        long[] micros = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS * 2; i++) {
+            long start = System.nanoTime();
+            query.run();
+            // first half is warm-up
+            if (i >= ITERATIONS) {
+                micros[i - ITERATIONS] = (System.nanoTime() - start) / 1000;
+            }
+        }
+        Arrays.sort(micros);
+        return micros[micros.length / 2];
+    }
+}
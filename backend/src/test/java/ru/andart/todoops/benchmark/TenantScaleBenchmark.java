@@ -0,0 +1,89 @@
+package ru.andart.todoops.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.andart.todoops.BaseDbTest;
+import ru.andart.todoops.service.TaskService;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per-tenant {@code list} latency while the table grows: a fixed set of probe tenants with 50 tasks each,
+ * plus background rows spread over the remaining tenants (100k tenants in total, interleaved on disk).
+ * Latency should stay flat as total rows grow; run once per schema variant:
+ * <pre>
+ * mvn test -Pbenchmark -Dtest=TenantScaleBenchmark [-Dbenchmark.stages=200000,1000000,2000000]
+ * mvn test -Pbenchmark -Dtest=TenantScaleBenchmark -Dbenchmark.contexts=default,tenant-partitioning
+ * </pre>
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(properties = "todoops.data-initializer.enabled=false")
+class TenantScaleBenchmark extends BaseDbTest {
+
+    private static final int TENANTS = 100_000;
+    private static final int PROBE_TENANTS = 100;
+    private static final int PROBE_TASKS = 50;
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 2000);
+    private static final long[] STAGES = Arrays.stream(System.getProperty("benchmark.stages", "200000,1000000,2000000")
+            .split(",")).mapToLong(Long::parseLong).toArray();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TaskService taskService;
+
+    @DynamicPropertySource
+    static void liquibaseContexts(DynamicPropertyRegistry registry) {
+        registry.add("spring.liquibase.contexts", () -> System.getProperty("benchmark.contexts", "default"));
+    }
+
+    @Test
+    void listLatencyIndependentOfTableSize() {
+        insert(1, PROBE_TENANTS, PROBE_TASKS * PROBE_TENANTS);
+        long rows = 0;
+        log.info("tenants={} schema={} probe tenants={} x {} tasks", TENANTS,
+                System.getProperty("benchmark.contexts", "default"), PROBE_TENANTS, PROBE_TASKS);
+        for (long target : STAGES) {
+            insert(PROBE_TENANTS + 1, TENANTS - PROBE_TENANTS, target - rows);
+            rows = target;
+            jdbcTemplate.execute("analyze task");
+
+            measure();
+            long[] micros = measure();
+            log.info("  total rows {}  list(size=20) p50 {} us  p99 {} us", rows + (long) PROBE_TASKS * PROBE_TENANTS,
+                    micros[micros.length / 2], micros[micros.length * 99 / 100]);
+        }
+    }
+
+    private long[] measure() {
+        long[] micros = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long tenant = ThreadLocalRandom.current().nextLong(1, PROBE_TENANTS + 1);
+            long start = System.nanoTime();
+            taskService.list(tenant, 1, 20);
+            micros[i] = (System.nanoTime() - start) / 1000;
+        }
+        Arrays.sort(micros);
+        return micros;
+    }
+
+    /**
+     * Inserts {@code count} tasks round-robin over tenants {@code [firstTenant, firstTenant + tenants)}.
+     */
+    private void insert(long firstTenant, long tenants, long count) {
+        jdbcTemplate.update("""
+                insert into task (tenant_id, title, description, status, created_at)
+                select ? + (g % ?), 'Task ' || g, 'Generated task', 'NEW', now()
+                from generate_series(1, ?) g
+                """, firstTenant, tenants, count);
+    }
+}
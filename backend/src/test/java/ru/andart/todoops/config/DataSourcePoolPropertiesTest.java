@@ -0,0 +1,43 @@
+package ru.andart.todoops.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for connection pool size derivation.
+ */
+class DataSourcePoolPropertiesTest {
+
+    @Test
+    void explicitSizeWins() {
+        DataSourcePoolProperties properties = new DataSourcePoolProperties(7, 90, 5, 2, 2);
+        assertEquals(7, properties.resolvePoolSize(16));
+    }
+
+    @Test
+    void sizeDerivedFromCpuCount() {
+        DataSourcePoolProperties properties = new DataSourcePoolProperties(0, 90, 5, 2, 2);
+        assertEquals(5, properties.resolvePoolSize(2));
+    }
+
+    @Test
+    void sizeCappedByReplicaShareOfServerConnections() {
+        DataSourcePoolProperties properties = new DataSourcePoolProperties(0, 90, 5, 2, 2);
+        assertEquals(18, properties.resolvePoolSize(32));
+    }
+
+    @Test
+    void sizeNeverBelowMinimum() {
+        DataSourcePoolProperties properties = new DataSourcePoolProperties(0, 90, 5, 2, 10);
+        assertEquals(10, properties.resolvePoolSize(1));
+    }
+
+    @Test
+    void minimumAboveReplicaShareFailsFast() {
+        // 5 replicas x 2 would open 10 connections on a server that allows the backend 4
+        DataSourcePoolProperties properties = new DataSourcePoolProperties(0, 4, 5, 2, 2);
+        assertThrows(IllegalStateException.class, () -> properties.resolvePoolSize(1));
+    }
+}
@@ -2,16 +2,20 @@ package ru.andart.todoops.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.andart.todoops.BaseDbTest;
+import ru.andart.todoops.StatementCounter;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * Base class for API tests with MockMvc and embedded database.
+ * {@link StatementCounter} counts the JDBC statements, rows and transactions of requests.
  */
 @AutoConfigureMockMvc
+@Import(StatementCounter.class)
 public abstract class BaseApiTest extends BaseDbTest {
 
     @Autowired
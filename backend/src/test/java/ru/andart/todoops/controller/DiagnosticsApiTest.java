@@ -0,0 +1,144 @@
+package ru.andart.todoops.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import ru.andart.todoops.service.RequestTrace;
+import ru.andart.todoops.service.SlowRequest;
+import ru.andart.todoops.service.SlowRequestRecorder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * API tests for the diagnostics actuator endpoints: slow requests (every request counts as slow here) and
+ * on-demand flight recordings.
+ */
+@TestPropertySource(properties = {
+        "todoops.slow-requests.threshold=PT0S",
+        "todoops.slow-requests.capacity=3"
+})
+class DiagnosticsApiTest extends BaseApiTest {
+
+    private static final String TENANT_HEADER = "X-Tenant-Id";
+    private static final String TENANT = "91";
+
+    @Autowired
+    private SlowRequestRecorder slowRequestRecorder;
+
+    @Test
+    @SneakyThrows
+    void slowRequestsAreKeptWithTheirStatements() {
+        mockMvc.perform(delete("/actuator/slowrequests")).andExpect(status().isNoContent());
+        String created = mockMvc.perform(post("/api/v1/tasks").header(TENANT_HEADER, TENANT)
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"title\": \"Slow\", \"description\": \"d\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(created).get("id").asLong();
+        mockMvc.perform(get("/api/v1/tasks/{id}", id).header(TENANT_HEADER, TENANT))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/tasks/{id}", 999_999).header(TENANT_HEADER, TENANT))
+                .andExpect(status().isBadRequest());
+
+        JsonNode requests = slowRequests();
+        assertEquals(3, requests.size());
+        assertEquals(400, requests.get(0).get("status").asInt());
+        JsonNode read = requests.get(1);
+        assertEquals("GET", read.get("method").asText());
+        assertEquals("/api/v1/tasks/" + id, read.get("uri").asText());
+        assertEquals(200, read.get("status").asInt());
+        assertTrue(read.get("statements").size() > 0);
+        assertTrue(read.at("/statements/0/sql").asText().contains("task"), read::toString);
+        assertEquals("POST", requests.get(2).get("method").asText());
+
+        // the ring keeps the last three
+        mockMvc.perform(get("/api/v1/tasks").header(TENANT_HEADER, TENANT)).andExpect(status().isOk());
+        requests = slowRequests();
+        assertEquals(3, requests.size());
+        assertEquals("/api/v1/tasks", requests.get(0).get("uri").asText());
+        assertEquals("GET", requests.get(2).get("method").asText());
+
+        mockMvc.perform(delete("/actuator/slowrequests")).andExpect(status().isNoContent());
+        assertEquals(0, slowRequests().size());
+    }
+
+    @Test
+    @SneakyThrows
+    void threadsOfSlowRequestsInFlightAreSampled() {
+        slowRequestRecorder.clear();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> request = CompletableFuture.runAsync(() -> {
+            RequestTrace trace = slowRequestRecorder.begin("GET", "/api/v1/waiting");
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            slowRequestRecorder.end(trace, 200);
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        // let the request thread block in await()
+        Thread.sleep(100);
+        slowRequestRecorder.sampleThreads();
+        release.countDown();
+        request.get(10, TimeUnit.SECONDS);
+
+        List<SlowRequest.ThreadSample> samples = slowRequestRecorder.recent().get(0).threadSamples();
+        assertEquals(1, samples.size());
+        assertEquals("WAITING", samples.get(0).state());
+        assertTrue(samples.get(0).stack().stream().anyMatch(frame -> frame.contains("CountDownLatch.await")));
+    }
+
+    @Test
+    @SneakyThrows
+    void flightRecordingIsStartedStoppedAndDownloaded() {
+        mockMvc.perform(get("/actuator/jfr")).andExpect(status().isNotFound());
+        mockMvc.perform(post("/actuator/jfr").contentType(APPLICATION_JSON).content("{\"duration\": \"PT1H\"}"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/actuator/jfr").contentType(APPLICATION_JSON).content("{\"duration\": \"PT5M\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("RUNNING"))
+                .andExpect(jsonPath("$.duration").value("PT5M"));
+        mockMvc.perform(post("/actuator/jfr").contentType(APPLICATION_JSON).content("{}"))
+                .andExpect(status().isConflict());
+        assertJfrFile(mockMvc.perform(get("/actuator/jfr")).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray());
+
+        mockMvc.perform(delete("/actuator/jfr"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("STOPPED"));
+        assertJfrFile(mockMvc.perform(get("/actuator/jfr")).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray());
+    }
+
+    private static void assertJfrFile(byte[] content) {
+        assertTrue(content.length > 4);
+        assertEquals("FLR", new String(Arrays.copyOf(content, 3), StandardCharsets.US_ASCII));
+    }
+
+    @SneakyThrows
+    private JsonNode slowRequests() {
+        String response = mockMvc.perform(get("/actuator/slowrequests"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response);
+    }
+}
@@ -0,0 +1,96 @@
+package ru.andart.todoops.controller;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import ru.andart.todoops.BaseDbTest;
+import ru.andart.todoops.entity.TaskEntity;
+import ru.andart.todoops.generated.model.TaskStatus;
+import ru.andart.todoops.repository.TaskRepository;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.OffsetDateTime;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compression and h2c on the real connector (MockMvc bypasses Tomcat).
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "todoops.data-initializer.enabled=false"
+)
+class HttpTransportTest extends BaseDbTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Test
+    @SneakyThrows
+    void largeListIsGzippedWhenAccepted() {
+        for (int i = 0; i < 5; i++) {
+            taskRepository.save(task("Task " + i, "x".repeat(1000)));
+        }
+
+        HttpResponse<byte[]> response = get(HttpClient.Version.HTTP_1_1, "/api/v1/tasks?page=0&size=20", "gzip");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+        try (GZIPInputStream body = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            String json = new String(body.readAllBytes());
+            assertTrue(json.contains("\"totalElements\":5"), json);
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void smallResponseIsNotCompressed() {
+        long id = taskRepository.save(task("Small", "Desc")).getId();
+
+        HttpResponse<byte[]> response = get(HttpClient.Version.HTTP_1_1, "/api/v1/tasks/" + id, "gzip");
+
+        assertEquals(200, response.statusCode());
+        assertFalse(response.headers().firstValue("Content-Encoding").isPresent());
+        assertTrue(new String(response.body()).contains("\"title\":\"Small\""));
+    }
+
+    @Test
+    @SneakyThrows
+    void h2cUpgradeIsAccepted() {
+        HttpResponse<byte[]> response = get(HttpClient.Version.HTTP_2, "/api/v1/tasks?page=0&size=20", "identity");
+
+        assertEquals(200, response.statusCode());
+        assertEquals(HttpClient.Version.HTTP_2, response.version());
+    }
+
+    @SneakyThrows
+    private HttpResponse<byte[]> get(HttpClient.Version version, String path, String acceptEncoding) {
+        HttpClient client = HttpClient.newBuilder().version(version).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Accept-Encoding", acceptEncoding)
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static TaskEntity task(String title, String description) {
+        return TaskEntity.builder()
+                .tenantId(0L)
+                .title(title)
+                .description(description)
+                .status(TaskStatus.NEW)
+                .createdAt(OffsetDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,81 @@
+package ru.andart.todoops.controller;
+
+import liquibase.integration.spring.SpringLiquibase;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Enables the Liquibase context {@code tenant-partitioning} on a database where every other changeset has run.
+ */
+class LateTenantPartitioningApiTest extends BaseApiTest {
+
+    private static final String TENANT_HEADER = "X-Tenant-Id";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @SneakyThrows
+    void partitioningKeepsTasksAndIndexes() {
+        long kept = createTask(3, "Kept");
+        long deleted = createTask(3, "Deleted");
+        mockMvc.perform(delete("/api/v1/tasks/{id}", deleted).header(TENANT_HEADER, 3))
+                .andExpect(status().isOk());
+
+        enablePartitioning();
+
+        String kind = jdbcTemplate.queryForObject("select relkind::text from pg_class where relname = 'task'", String.class);
+        assertEquals("p", kind);
+        List<String> indexes = jdbcTemplate.queryForList(
+                "select indexname from pg_indexes where tablename = 'task' order by indexname", String.class);
+        assertEquals(List.of("task_deleted_at_idx", "task_pkey", "task_tenant_id_due_date_status_idx",
+                "task_tenant_id_id_idx", "task_tenant_id_path_idx", "task_tenant_id_series_id_occurrence_at_idx"),
+                indexes);
+        String liveIds = jdbcTemplate.queryForObject(
+                "select indexdef from pg_indexes where indexname = 'task_tenant_id_id_idx'", String.class);
+        assertTrue(liveIds.endsWith("WHERE (deleted_at IS NULL)"), liveIds);
+
+        assertEquals(2, jdbcTemplate.queryForObject("select count(*) from task where tenant_id = 3", Integer.class));
+        mockMvc.perform(get("/api/v1/tasks").header(TENANT_HEADER, 3))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.content[0].id").value(kept));
+    }
+
+    @SneakyThrows
+    private void enablePartitioning() {
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog("classpath:/liquibase/db-changelog.xml");
+        liquibase.setContexts("default,tenant-partitioning");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+    }
+
+    @SneakyThrows
+    private long createTask(long tenantId, String title) {
+        String response = mockMvc.perform(post("/api/v1/tasks").header(TENANT_HEADER, tenantId)
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"title\": \"" + title + "\", \"description\": \"Desc\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+}
@@ -0,0 +1,54 @@
+package ru.andart.todoops.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the tenant isolation tests against the hash-partitioned {@code task} table
+ * (Liquibase context {@code tenant-partitioning}).
+ */
+@TestPropertySource(properties = "spring.liquibase.contexts=default,tenant-partitioning")
+class PartitionedTenantIsolationApiTest extends TenantIsolationApiTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void taskTableIsHashPartitioned() {
+        String kind = jdbcTemplate.queryForObject("select relkind::text from pg_class where relname = 'task'", String.class);
+        Integer partitions = jdbcTemplate.queryForObject(
+                "select count(*) from pg_inherits where inhparent = 'task'::regclass", Integer.class);
+
+        assertEquals("p", kind);
+        assertEquals(16, partitions);
+    }
+
+    @Test
+    void tenantQueryIsPrunedToOnePartition() {
+        createTask(5, "Pruned");
+
+        List<String> plan = jdbcTemplate.queryForList(
+                "explain select * from task where tenant_id = 5 order by id limit 20", String.class);
+        long scannedPartitions = plan.stream().filter(line -> line.matches(".* Scan on task_p\\d+ .*")).count();
+
+        assertEquals(1, scannedPartitions, String.join("\n", plan));
+        assertTrue(plan.stream().noneMatch(line -> line.contains("Append")), String.join("\n", plan));
+    }
+
+    @Test
+    void secondaryIndexesExistOnPartitionedTable() {
+        List<String> indexes = jdbcTemplate.queryForList(
+                "select indexname from pg_indexes where tablename = 'task' order by indexname", String.class);
+
+        assertEquals(List.of("task_deleted_at_idx", "task_pkey", "task_tenant_id_due_date_status_idx",
+                "task_tenant_id_id_idx", "task_tenant_id_path_idx", "task_tenant_id_series_id_occurrence_at_idx"),
+                indexes);
+    }
+}
@@ -0,0 +1,191 @@
+package ru.andart.todoops.controller;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.RequestBuilder;
+import ru.andart.todoops.StatementCounter;
+import ru.andart.todoops.StatementCounter.Usage;
+import ru.andart.todoops.config.SeedProperties;
+import ru.andart.todoops.generated.model.TaskStatus;
+import ru.andart.todoops.service.TaskResponseCache;
+import ru.andart.todoops.service.TaskSeeder;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * API tests for the cache of encoded task responses: hits, invalidation by the tenant's task version and
+ * pre-compressed bodies.
+ */
+@TestPropertySource(properties = "todoops.response-cache.enabled=true")
+class ResponseCacheApiTest extends BaseApiTest {
+
+    private static final String TENANT_HEADER = "X-Tenant-Id";
+    private static final String TENANT = "101";
+    private static final String OTHER_TENANT = "102";
+
+    @Autowired
+    private TaskResponseCache taskResponseCache;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Autowired
+    private TaskSeeder taskSeeder;
+
+    @BeforeEach
+    void clearCache() {
+        // the embedded database is new, cached versions of the previous one would match again
+        taskResponseCache.clear();
+    }
+
+    @Test
+    @SneakyThrows
+    void hitIsServedWithOnlyTheVersionCheck() {
+        long id = create(TENANT, "Cached", "Desc");
+        create(TENANT, "Second", "Desc");
+
+        MockHttpServletResponse miss = perform(get("/api/v1/tasks").header(TENANT_HEADER, TENANT));
+        // version, page (not full, so without a count)
+        assertEquals(new Usage(2, 3, 1), statementCounter.usage());
+        MockHttpServletResponse hit = perform(get("/api/v1/tasks?page=0&size=20").header(TENANT_HEADER, TENANT));
+        assertEquals(new Usage(1, 1, 0), statementCounter.usage());
+        assertArrayEquals(miss.getContentAsByteArray(), hit.getContentAsByteArray());
+        assertEquals(miss.getContentType(), hit.getContentType());
+
+        perform(get("/api/v1/tasks/{id}", id).header(TENANT_HEADER, TENANT));
+        MockHttpServletResponse task = perform(get("/api/v1/tasks/{id}", id).header(TENANT_HEADER, TENANT));
+        assertEquals(new Usage(1, 1, 0), statementCounter.usage());
+        assertEquals("Cached", objectMapper.readTree(task.getContentAsString()).get("title").asText());
+
+        // errors and other parameters are not cached
+        for (int i = 0; i < 2; i++) {
+            statementCounter.reset();
+            mockMvc.perform(get("/api/v1/tasks/{id}", id + 1000).header(TENANT_HEADER, TENANT))
+                    .andExpect(status().isBadRequest());
+            assertEquals(2, statementCounter.count());
+        }
+        mockMvc.perform(get("/api/v1/tasks?due_from=2030-01-01T00:00:00Z&due_to=2030-02-01T00:00:00Z")
+                        .header(TENANT_HEADER, TENANT))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(0));
+    }
+
+    @Test
+    @SneakyThrows
+    void sparseFieldsetIsPartOfTheKey() {
+        long id = create(TENANT, "Sparse", "Desc");
+        perform(get("/api/v1/tasks/{id}", id).header(TENANT_HEADER, TENANT));
+
+        MockHttpServletResponse sparse = perform(get("/api/v1/tasks/{id}", id).header(TENANT_HEADER, TENANT)
+                .param("fields", "title,status"));
+        assertEquals(2, statementCounter.count());
+        assertEquals(3, objectMapper.readTree(sparse.getContentAsString()).size());
+
+        // the same fieldset in another order is a hit
+        MockHttpServletResponse reordered = perform(get("/api/v1/tasks/{id}", id).header(TENANT_HEADER, TENANT)
+                .param("fields", "status").param("fields", "title"));
+        assertEquals(1, statementCounter.count());
+        assertArrayEquals(sparse.getContentAsByteArray(), reordered.getContentAsByteArray());
+    }
+
+    @Test
+    @SneakyThrows
+    void mutationOfTheTenantInvalidates() {
+        long id = create(TENANT, "Before", "Desc");
+        perform(get("/api/v1/tasks/{id}", id).header(TENANT_HEADER, TENANT));
+        perform(get("/api/v1/tasks").header(TENANT_HEADER, TENANT));
+
+        // another tenant's change leaves the entries valid
+        create(OTHER_TENANT, "Other", "Desc");
+        perform(get("/api/v1/tasks/{id}", id).header(TENANT_HEADER, TENANT));
+        assertEquals(1, statementCounter.count());
+
+        mockMvc.perform(put("/api/v1/tasks/{id}", id).header(TENANT_HEADER, TENANT)
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"title\": \"After\", \"description\": \"Desc\"}"))
+                .andExpect(status().isOk());
+        MockHttpServletResponse task = perform(get("/api/v1/tasks/{id}", id).header(TENANT_HEADER, TENANT));
+        assertEquals("After", objectMapper.readTree(task.getContentAsString()).get("title").asText());
+        MockHttpServletResponse page = perform(get("/api/v1/tasks").header(TENANT_HEADER, TENANT));
+        assertEquals("After", objectMapper.readTree(page.getContentAsString()).at("/content/0/title").asText());
+    }
+
+    @Test
+    @SneakyThrows
+    void seedingTheTenantInvalidates() {
+        create(TENANT, "Before seed", "Desc");
+        perform(get("/api/v1/tasks").header(TENANT_HEADER, TENANT));
+        perform(get("/api/v1/tasks").header(TENANT_HEADER, TENANT));
+        assertEquals(1, statementCounter.count());
+
+        // the seeder copies rows past TaskService and its mutation listeners
+        taskSeeder.seed(new SeedProperties(false, 30, Long.parseLong(TENANT), 1, 1,
+                Map.of(TaskStatus.NEW, 1), Duration.ofDays(30), 0, Duration.ofDays(1), Duration.ofDays(1),
+                50, 100, 1, false, 42));
+
+        MockHttpServletResponse page = perform(get("/api/v1/tasks").header(TENANT_HEADER, TENANT));
+        // version, page and count: a miss
+        assertEquals(3, statementCounter.count());
+        assertEquals(31, objectMapper.readTree(page.getContentAsString()).get("totalElements").asInt());
+    }
+
+    @Test
+    @SneakyThrows
+    void largeResponsesArePreCompressed() {
+        for (int i = 0; i < 10; i++) {
+            create(TENANT, "Task " + i, "Long description ".repeat(20));
+        }
+        MockHttpServletResponse identity = perform(get("/api/v1/tasks").header(TENANT_HEADER, TENANT));
+        assertNull(identity.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(identity.getContentAsByteArray().length > 2048);
+
+        MockHttpServletResponse gzip = perform(get("/api/v1/tasks").header(TENANT_HEADER, TENANT)
+                .header(HttpHeaders.ACCEPT_ENCODING, "br, gzip"));
+        assertEquals("gzip", gzip.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, gzip.getHeader(HttpHeaders.VARY));
+        assertTrue(gzip.getContentAsByteArray().length < identity.getContentAsByteArray().length / 4);
+        try (GZIPInputStream body = new GZIPInputStream(new ByteArrayInputStream(gzip.getContentAsByteArray()))) {
+            assertArrayEquals(identity.getContentAsByteArray(), body.readAllBytes());
+        }
+
+        MockHttpServletResponse refused = perform(get("/api/v1/tasks").header(TENANT_HEADER, TENANT)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"));
+        assertNull(refused.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(identity.getContentAsByteArray(), refused.getContentAsByteArray());
+    }
+
+    @SneakyThrows
+    private MockHttpServletResponse perform(RequestBuilder request) {
+        statementCounter.reset();
+        return mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse();
+    }
+
+    @SneakyThrows
+    private long create(String tenant, String title, String description) {
+        String response = mockMvc.perform(post("/api/v1/tasks").header(TENANT_HEADER, tenant)
+                        .contentType(APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "title", title, "description", description))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+}
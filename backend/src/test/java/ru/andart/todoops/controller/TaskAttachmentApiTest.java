@@ -0,0 +1,205 @@
+package ru.andart.todoops.controller;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.ResultActions;
+import ru.andart.todoops.config.AttachmentProperties;
+import ru.andart.todoops.service.TaskPurger;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * API tests for task attachments: chunked, resumable uploads and range downloads.
+ */
+class TaskAttachmentApiTest extends BaseApiTest {
+
+    private static final String TENANT_HEADER = "X-Tenant-Id";
+    private static final long TENANT = 71;
+    private static final byte[] FILE = "0123456789".getBytes(StandardCharsets.US_ASCII);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TaskPurger taskPurger;
+
+    @Autowired
+    private AttachmentProperties attachmentProperties;
+
+    @Test
+    @SneakyThrows
+    void uploadResumesAtReceivedOffset() {
+        long taskId = createTask();
+        long id = createAttachment(taskId, "{\"fileName\": \"notes.txt\", \"contentType\": \"text/plain\", \"size\": 10}");
+
+        upload(taskId, id, "bytes 0-3/10", 0, 4)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(4))
+                .andExpect(jsonPath("$.status").value("UPLOADING"));
+        // the chunk after a lost one
+        upload(taskId, id, "bytes 6-9/10", 6, 10)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("attachment.invalid_offset"));
+        mockMvc.perform(get("/api/v1/tasks/{id}/attachments/{attachmentId}", taskId, id).header(TENANT_HEADER, TENANT))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(4));
+        upload(taskId, id, "bytes 4-9/10", 4, 10)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(10))
+                .andExpect(jsonPath("$.status").value("COMPLETE"));
+        upload(taskId, id, "bytes 4-9/10", 4, 10)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("attachment.invalid_offset"));
+
+        mockMvc.perform(get("/api/v1/tasks/{id}/attachments/{attachmentId}/content", taskId, id)
+                        .header(TENANT_HEADER, TENANT))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "text/plain"))
+                .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, "10"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"notes.txt\""))
+                .andExpect(content().bytes(FILE));
+        mockMvc.perform(get("/api/v1/tasks/{id}/attachments", taskId).header(TENANT_HEADER, TENANT))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.attachments", hasSize(1)))
+                .andExpect(jsonPath("$.attachments[0].fileName").value("notes.txt"));
+    }
+
+    @Test
+    @SneakyThrows
+    void rangeRequestsReturnPartialContent() {
+        long taskId = createTask();
+        long id = createAttachment(taskId, "{\"fileName\": \"data.bin\", \"size\": 10}");
+        upload(taskId, id, null, 0, 10).andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/tasks/{id}/attachments/{attachmentId}/content", taskId, id)
+                        .header(TENANT_HEADER, TENANT)
+                        .header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/octet-stream"))
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+                .andExpect(content().bytes("2345".getBytes(StandardCharsets.US_ASCII)));
+        mockMvc.perform(get("/api/v1/tasks/{id}/attachments/{attachmentId}/content", taskId, id)
+                        .header(TENANT_HEADER, TENANT)
+                        .header(HttpHeaders.RANGE, "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 7-9/10"))
+                .andExpect(content().bytes("789".getBytes(StandardCharsets.US_ASCII)));
+        mockMvc.perform(get("/api/v1/tasks/{id}/attachments/{attachmentId}/content", taskId, id)
+                        .header(TENANT_HEADER, TENANT)
+                        .header(HttpHeaders.RANGE, "bytes=20-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable());
+    }
+
+    @Test
+    @SneakyThrows
+    void invalidUploadsAreRejected() {
+        long taskId = createTask();
+        long id = createAttachment(taskId, "{\"fileName\": \"data.bin\", \"size\": 10}");
+
+        mockMvc.perform(get("/api/v1/tasks/{id}/attachments/{attachmentId}/content", taskId, id)
+                        .header(TENANT_HEADER, TENANT))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("attachment.incomplete"));
+        upload(taskId, id, "bytes 0-9/11", 0, 10)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("validation.error"));
+        upload(taskId, id, "0-9", 0, 10)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("validation.error"));
+        mockMvc.perform(post("/api/v1/tasks/{id}/attachments", taskId).header(TENANT_HEADER, TENANT)
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"fileName\": \"a\", \"contentType\": \"not a type\", \"size\": 1}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("validation.error"));
+        mockMvc.perform(post("/api/v1/tasks/{id}/attachments", taskId).header(TENANT_HEADER, TENANT)
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"fileName\": \"a\", \"size\": 1099511627776}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("validation.error"));
+        mockMvc.perform(get("/api/v1/tasks/{id}/attachments/{attachmentId}", taskId, id)
+                        .header(TENANT_HEADER, TENANT + 1))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("attachment.not_found"));
+    }
+
+    @Test
+    @SneakyThrows
+    void attachmentsGoWithTheirTask() {
+        long taskId = createTask();
+        long id = createAttachment(taskId, "{\"fileName\": \"data.bin\", \"size\": 10}");
+        upload(taskId, id, null, 0, 10).andExpect(status().isOk());
+        long other = createAttachment(taskId, "{\"fileName\": \"other.bin\", \"size\": 0}");
+        Path blob = Path.of(attachmentProperties.dir(), TENANT + "/" + id);
+        assertTrue(Files.exists(blob));
+
+        mockMvc.perform(delete("/api/v1/tasks/{id}/attachments/{attachmentId}", taskId, other)
+                        .header(TENANT_HEADER, TENANT))
+                .andExpect(status().isOk());
+        assertFalse(Files.exists(Path.of(attachmentProperties.dir(), TENANT + "/" + other)));
+
+        mockMvc.perform(delete("/api/v1/tasks/{id}", taskId).header(TENANT_HEADER, TENANT))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/tasks/{id}/attachments/{attachmentId}", taskId, id).header(TENANT_HEADER, TENANT))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("attachment.not_found"));
+        assertTrue(Files.exists(blob));
+
+        jdbcTemplate.update("update task set deleted_at = deleted_at - interval '8 days' where id = ?", taskId);
+        assertEquals(1, taskPurger.purge());
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from task_attachment", Integer.class));
+        assertFalse(Files.exists(blob));
+    }
+
+    @SneakyThrows
+    private long createTask() {
+        String json = mockMvc.perform(post("/api/v1/tasks").header(TENANT_HEADER, TENANT)
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"title\": \"With files\", \"description\": \"Desc\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(json).get("id").asLong();
+    }
+
+    @SneakyThrows
+    private long createAttachment(long taskId, String body) {
+        String json = mockMvc.perform(post("/api/v1/tasks/{id}/attachments", taskId).header(TENANT_HEADER, TENANT)
+                        .contentType(APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(json).get("id").asLong();
+    }
+
+    @SneakyThrows
+    private ResultActions upload(long taskId, long id, String contentRange, int from, int to) {
+        var request = put("/api/v1/tasks/{id}/attachments/{attachmentId}/content", taskId, id)
+                .header(TENANT_HEADER, TENANT)
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .content(Arrays.copyOfRange(FILE, from, to));
+        if (contentRange != null) {
+            request.header(HttpHeaders.CONTENT_RANGE, contentRange);
+        }
+        return mockMvc.perform(request);
+    }
+}
@@ -0,0 +1,179 @@
+package ru.andart.todoops.controller;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.json.JsonCompareMode;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * API tests for the due-date calendar (counts served by the daily rollup).
+ */
+class TaskCalendarApiTest extends BaseApiTest {
+
+    private static final String TENANT_HEADER = "X-Tenant-Id";
+    private static final long TENANT = 11;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @SneakyThrows
+    void countsPerDayFollowMutations() {
+        createTask(TENANT, "A", "2026-03-02T12:00:00Z");
+        long b = createTask(TENANT, "B", "2026-03-02T13:00:00Z");
+        long c = createTask(TENANT, "C", "2026-03-03T12:00:00Z");
+        long d = createTask(TENANT, "D", "2026-03-04T12:00:00Z");
+        createTask(TENANT, "No due date", null);
+        createTask(12, "Other tenant", "2026-03-02T12:00:00Z");
+
+        changeStatus(b, "IN_PROGRESS");
+        mockMvc.perform(put("/api/v1/tasks/{id}", c).header(TENANT_HEADER, TENANT)
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"title\": \"C\", \"description\": \"Desc\", \"due_date\": \"2026-03-02T15:00:00Z\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/v1/tasks/{id}", d).header(TENANT_HEADER, TENANT))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/tasks/calendar").header(TENANT_HEADER, TENANT)
+                        .param("from", "2026-03-01")
+                        .param("to", "2026-04-01"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("""
+                        {
+                            "granularity": "DAY",
+                            "buckets": [
+                                {
+                                    "start": "2026-03-02",
+                                    "total": 3,
+                                    "counts": [
+                                        {"status": "NEW", "count": 2},
+                                        {"status": "IN_PROGRESS", "count": 1}
+                                    ],
+                                    "tasks": []
+                                }
+                            ]
+                        }
+                        """, JsonCompareMode.STRICT));
+        assertRollupMatchesTasks();
+    }
+
+    @Test
+    @SneakyThrows
+    void weekAndMonthBuckets() {
+        createTask(TENANT, "Monday", "2026-03-02T12:00:00Z");
+        createTask(TENANT, "Sunday", "2026-03-08T12:00:00Z");
+        createTask(TENANT, "Next Monday", "2026-03-09T12:00:00Z");
+        createTask(TENANT, "April", "2026-04-15T12:00:00Z");
+
+        mockMvc.perform(get("/api/v1/tasks/calendar").header(TENANT_HEADER, TENANT)
+                        .param("from", "2026-03-01")
+                        .param("to", "2026-05-01")
+                        .param("granularity", "WEEK"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.buckets.length()").value(3))
+                .andExpect(jsonPath("$.buckets[0].start").value("2026-03-02"))
+                .andExpect(jsonPath("$.buckets[0].total").value(2))
+                .andExpect(jsonPath("$.buckets[1].start").value("2026-03-09"))
+                .andExpect(jsonPath("$.buckets[2].start").value("2026-04-13"));
+        mockMvc.perform(get("/api/v1/tasks/calendar").header(TENANT_HEADER, TENANT)
+                        .param("from", "2026-03-01")
+                        .param("to", "2026-05-01")
+                        .param("granularity", "MONTH"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.buckets.length()").value(2))
+                .andExpect(jsonPath("$.buckets[0].start").value("2026-03-01"))
+                .andExpect(jsonPath("$.buckets[0].total").value(3))
+                .andExpect(jsonPath("$.buckets[1].start").value("2026-04-01"))
+                .andExpect(jsonPath("$.buckets[1].total").value(1));
+    }
+
+    @Test
+    @SneakyThrows
+    void topTasksAreEarliestDuePerBucket() {
+        createTask(TENANT, "Late", "2026-03-04T12:00:00Z");
+        createTask(TENANT, "Early", "2026-03-02T12:00:00Z");
+        createTask(TENANT, "Middle", "2026-03-03T12:00:00Z");
+        createTask(TENANT, "Next week", "2026-03-10T12:00:00Z");
+
+        mockMvc.perform(get("/api/v1/tasks/calendar").header(TENANT_HEADER, TENANT)
+                        .param("from", "2026-03-01")
+                        .param("to", "2026-03-31")
+                        .param("granularity", "WEEK")
+                        .param("top", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.buckets[0].total").value(3))
+                .andExpect(jsonPath("$.buckets[0].tasks.length()").value(2))
+                .andExpect(jsonPath("$.buckets[0].tasks[0].title").value("Early"))
+                .andExpect(jsonPath("$.buckets[0].tasks[1].title").value("Middle"))
+                .andExpect(jsonPath("$.buckets[1].tasks[0].title").value("Next week"));
+    }
+
+    @Test
+    @SneakyThrows
+    void invalidRangeReturns400() {
+        mockMvc.perform(get("/api/v1/tasks/calendar")
+                        .param("from", "2026-03-01")
+                        .param("to", "2026-03-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("calendar.invalid_range"));
+        mockMvc.perform(get("/api/v1/tasks/calendar")
+                        .param("from", "2020-01-01")
+                        .param("to", "2030-01-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("calendar.invalid_range"));
+        mockMvc.perform(get("/api/v1/tasks/calendar")
+                        .param("from", "2026-03-01")
+                        .param("to", "2026-04-01")
+                        .param("granularity", "YEAR"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("validation.error"));
+        mockMvc.perform(get("/api/v1/tasks/calendar").param("from", "2026-03-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("validation.error"));
+    }
+
+    private void assertRollupMatchesTasks() {
+        List<Map<String, Object>> fromTasks = jdbcTemplate.queryForList("""
+                select tenant_id, due_date::date as day, status, count(*) as task_count from task
+                where due_date is not null and deleted_at is null group by 1, 2, 3 order by 1, 2, 3
+                """);
+        List<Map<String, Object>> fromRollup = jdbcTemplate.queryForList("""
+                select tenant_id, day, status, task_count from task_calendar_rollup
+                where task_count > 0 order by 1, 2, 3
+                """);
+        assertEquals(fromTasks, fromRollup);
+    }
+
+    @SneakyThrows
+    private void changeStatus(long id, String status) {
+        mockMvc.perform(patch("/api/v1/tasks/{id}/status", id).header(TENANT_HEADER, TENANT)
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"status\": \"" + status + "\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @SneakyThrows
+    private long createTask(long tenantId, String title, String dueDate) {
+        String due = dueDate != null ? ", \"due_date\": \"" + dueDate + "\"" : "";
+        String response = mockMvc.perform(post("/api/v1/tasks").header(TENANT_HEADER, tenantId)
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"title\": \"" + title + "\", \"description\": \"Desc\"" + due + "}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+}
@@ -0,0 +1,10 @@
+package ru.andart.todoops.controller;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Runs the calendar tests with counts aggregated directly from the {@code task} table.
+ */
+@TestPropertySource(properties = "todoops.calendar.use-rollup=false")
+class TaskCalendarFromTasksApiTest extends TaskCalendarApiTest {
+}
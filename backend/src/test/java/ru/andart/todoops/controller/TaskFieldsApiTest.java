@@ -0,0 +1,148 @@
+package ru.andart.todoops.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.RequestBuilder;
+import ru.andart.todoops.repository.TaskField;
+import ru.andart.todoops.repository.TaskView;
+import ru.andart.todoops.service.TaskService;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * API tests for multi-get by ids and sparse fieldsets of task reads.
+ */
+class TaskFieldsApiTest extends BaseApiTest {
+
+    private static final String TENANT_HEADER = "X-Tenant-Id";
+    private static final String TENANT = "111";
+    private static final String OTHER_TENANT = "112";
+
+    @Autowired
+    private TaskService taskService;
+
+    @Test
+    @SneakyThrows
+    void batchReturnsTasksInTheOrderOfTheIds() {
+        long first = create(TENANT, "First");
+        long second = create(TENANT, "Second");
+        long foreign = create(OTHER_TENANT, "Foreign");
+
+        JsonNode tasks = read(get("/api/v1/tasks/batch").header(TENANT_HEADER, TENANT)
+                .param("ids", second + "," + (second + 1000) + "," + first + "," + second + "," + foreign));
+        assertEquals(List.of(second, first), ids(tasks));
+        assertEquals("Second", tasks.get(0).get("title").asText());
+        assertEquals("Desc of Second", tasks.get(0).get("description").asText());
+        assertEquals("NEW", tasks.get(1).get("status").asText());
+    }
+
+    @Test
+    @SneakyThrows
+    void batchIsLimitedToOneHundredIds() {
+        String ids = LongStream.rangeClosed(1, 101).mapToObj(Long::toString).collect(Collectors.joining(","));
+        mockMvc.perform(get("/api/v1/tasks/batch").header(TENANT_HEADER, TENANT).param("ids", ids))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/tasks/batch").header(TENANT_HEADER, TENANT))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @SneakyThrows
+    void sparseFieldsetNarrowsTheResponse() {
+        long id = create(TENANT, "Sparse");
+
+        JsonNode task = read(get("/api/v1/tasks/{id}", id).header(TENANT_HEADER, TENANT)
+                .param("fields", "title,status"));
+        assertEquals(List.of("id", "title", "status"), names(task));
+        assertEquals("Sparse", task.get("title").asText());
+
+        JsonNode page = read(get("/api/v1/tasks").header(TENANT_HEADER, TENANT)
+                .param("fields", "due_date").param("fields", "version"));
+        assertEquals(1, page.get("totalElements").asInt());
+        assertEquals(List.of("id", "due_date", "version"), names(page.at("/content/0")));
+        assertEquals(0, page.at("/content/0/version").asInt());
+
+        JsonNode tasks = read(get("/api/v1/tasks/batch").header(TENANT_HEADER, TENANT)
+                .param("ids", Long.toString(id)).param("fields", "description"));
+        assertEquals(List.of("id", "description"), names(tasks.get(0)));
+
+        // without fields every property is written, null ones included
+        JsonNode full = read(get("/api/v1/tasks/{id}", id).header(TENANT_HEADER, TENANT));
+        assertEquals(List.of("id", "title", "description", "status", "created_at", "due_date", "parent_id",
+                "series_id", "occurrence_at", "virtual", "version"), names(full));
+    }
+
+    @Test
+    @SneakyThrows
+    void sparseFieldsetReadsOnlyTheRequestedColumns() {
+        long id = create(TENANT, "Columns");
+
+        TaskView task = taskService.getById(Long.parseLong(TENANT), id, EnumSet.of(TaskField.TITLE));
+        assertEquals("Columns", task.title());
+        assertNull(task.description());
+        assertNull(task.status());
+        assertNull(task.version());
+
+        TaskView listed = taskService.list(Long.parseLong(TENANT), 0, 20, EnumSet.of(TaskField.VIRTUAL))
+                .getContent().get(0);
+        assertEquals(id, listed.id());
+        assertNull(listed.seriesId());
+        assertNull(listed.title());
+    }
+
+    @Test
+    @SneakyThrows
+    void unknownFieldIsRejected() {
+        long id = create(TENANT, "Unknown");
+        mockMvc.perform(get("/api/v1/tasks/{id}", id).header(TENANT_HEADER, TENANT).param("fields", "title,path"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.humanMessage").value("Unknown task field 'path'"));
+        mockMvc.perform(get("/api/v1/tasks").header(TENANT_HEADER, TENANT).param("fields", "tenant_id"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @SneakyThrows
+    private JsonNode read(RequestBuilder request) {
+        String response = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response);
+    }
+
+    private static List<Long> ids(JsonNode tasks) {
+        List<Long> ids = new ArrayList<>();
+        tasks.forEach(task -> ids.add(task.get("id").asLong()));
+        return ids;
+    }
+
+    private static List<String> names(JsonNode task) {
+        List<String> names = new ArrayList<>();
+        task.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+
+    @SneakyThrows
+    private long create(String tenant, String title) {
+        String response = mockMvc.perform(post("/api/v1/tasks").header(TENANT_HEADER, tenant)
+                        .contentType(APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "title", title, "description", "Desc of " + title))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+}
@@ -0,0 +1,171 @@
+package ru.andart.todoops.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.andart.todoops.StatementCounter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * API tests for the GraphQL endpoint: relations, batched loading and query limits.
+ */
+class TaskGraphQlApiTest extends BaseApiTest {
+
+    private static final String TENANT_HEADER = "X-Tenant-Id";
+    private static final String TENANT = "81";
+    private static final String PAGE_QUERY = """
+            { tasks(size: 100) { totalElements content {
+                id title parent { id title } subtasks { id } blockedBy { id } attachments { fileName size } } } }
+            """;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Test
+    @SneakyThrows
+    void queryReturnsTasksWithTheirRelations() {
+        long root = createTask("root", null);
+        long child = createTask("child", root);
+        long blocker = createTask("blocker", null);
+        mockMvc.perform(put("/api/v1/tasks/{id}/blocked-by/{blockerId}", child, blocker).header(TENANT_HEADER, TENANT))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/v1/tasks/{id}/attachments", root).header(TENANT_HEADER, TENANT)
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"fileName\": \"plan.txt\", \"size\": 3}"))
+                .andExpect(status().isOk());
+
+        JsonNode data = graphQl(TENANT, PAGE_QUERY).get("data");
+        assertEquals(3, data.at("/tasks/totalElements").asLong());
+        JsonNode tasks = data.at("/tasks/content");
+        assertEquals(List.of(root, child, blocker), ids(tasks));
+        assertEquals(List.of(child), ids(tasks.get(0).get("subtasks")));
+        assertEquals("plan.txt", tasks.get(0).at("/attachments/0/fileName").asText());
+        assertEquals(3, tasks.get(0).at("/attachments/0/size").asLong());
+        assertEquals("root", tasks.get(1).at("/parent/title").asText());
+        assertEquals(List.of(blocker), ids(tasks.get(1).get("blockedBy")));
+        assertTrue(tasks.get(2).get("parent").isNull());
+        assertEquals(List.of(), ids(tasks.get(2).get("attachments")));
+
+        JsonNode task = graphQl(TENANT, "{ task(id: " + child + ") { title dueDate virtual version } }").at("/data/task");
+        assertEquals("child", task.get("title").asText());
+        assertTrue(task.get("dueDate").asText().matches("\\d{4}-\\d{2}-\\d{2}T.*[+-Z].*"));
+        assertEquals(0, task.get("version").asInt());
+    }
+
+    @Test
+    @SneakyThrows
+    void relationsOfManyTasksTakeAFixedNumberOfStatements() {
+        createFamily(2);
+        statementCounter.reset();
+        assertEquals(6, graphQl(TENANT, PAGE_QUERY).at("/data/tasks/content").size());
+        long fewTasks = statementCounter.count();
+
+        createFamily(30);
+        statementCounter.reset();
+        assertEquals(96, graphQl(TENANT, PAGE_QUERY).at("/data/tasks/content").size());
+        long manyTasks = statementCounter.count();
+
+        // the page (not full, so without a count), then one statement per relation
+        assertEquals(5, fewTasks);
+        assertEquals(fewTasks, manyTasks);
+    }
+
+    @Test
+    @SneakyThrows
+    void deepAndExpensiveQueriesAreRejected() {
+        String deep = "{ tasks { content { subtasks { subtasks { subtasks { subtasks { subtasks { subtasks { id }"
+                + " } } } } } } } }";
+        assertTrue(error(graphQl(TENANT, deep)).get("message").asText().contains("depth"));
+
+        String expensive = "{ tasks(size: 100) { content { id title description"
+                + " subtasks { id title description blockedBy { id title description } }"
+                + " blockedBy { id title description attachments { id fileName size } } } } }";
+        assertTrue(error(graphQl(TENANT, expensive)).get("message").asText().contains("complexity"));
+    }
+
+    @Test
+    @SneakyThrows
+    void errorsCarryTheRestMessageKeys() {
+        JsonNode notFound = graphQl(TENANT, "{ task(id: 999999) { id } }");
+        assertTrue(notFound.at("/data/task").isNull());
+        assertEquals("task.not_found", error(notFound).at("/extensions/message").asText());
+        assertEquals("BAD_REQUEST", error(notFound).at("/extensions/classification").asText());
+
+        JsonNode pageTooLarge = graphQl(TENANT, "{ tasks(size: 101) { totalElements } }");
+        assertEquals("validation.error", error(pageTooLarge).at("/extensions/message").asText());
+
+        JsonNode badTenant = graphQl("abc", "{ tasks { totalElements } }");
+        assertEquals("validation.error", error(badTenant).at("/extensions/message").asText());
+        assertTrue(badTenant.at("/data").isMissingNode() || badTenant.at("/data").isNull());
+    }
+
+    /**
+     * Creates {@code count} root tasks, each with a subtask blocked by another root task and an attachment.
+     */
+    @SneakyThrows
+    private void createFamily(int count) {
+        for (int i = 0; i < count; i++) {
+            long root = createTask("root " + i, null);
+            long child = createTask("child " + i, root);
+            long blocker = createTask("blocker " + i, null);
+            mockMvc.perform(put("/api/v1/tasks/{id}/blocked-by/{blockerId}", child, blocker)
+                            .header(TENANT_HEADER, TENANT))
+                    .andExpect(status().isOk());
+            mockMvc.perform(post("/api/v1/tasks/{id}/attachments", root).header(TENANT_HEADER, TENANT)
+                            .contentType(APPLICATION_JSON)
+                            .content("{\"fileName\": \"a.txt\", \"size\": 1}"))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    @SneakyThrows
+    private JsonNode graphQl(String tenant, String query) {
+        MvcResult result = mockMvc.perform(post("/api/v1/graphql").header(TENANT_HEADER, tenant)
+                        .contentType(APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("query", query))))
+                .andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+        assertEquals(200, result.getResponse().getStatus());
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+
+    private static JsonNode error(JsonNode response) {
+        JsonNode errors = response.get("errors");
+        assertEquals(1, errors.size(), errors::toString);
+        return errors.get(0);
+    }
+
+    private static List<Long> ids(JsonNode tasks) {
+        List<Long> ids = new ArrayList<>();
+        tasks.forEach(task -> ids.add(task.get("id").asLong()));
+        return ids;
+    }
+
+    @SneakyThrows
+    private long createTask(String title, Long parentId) {
+        String body = objectMapper.writeValueAsString(parentId == null
+                ? Map.of("title", title, "description", "d", "due_date", "2030-01-01T10:00:00Z")
+                : Map.of("title", title, "description", "d", "due_date", "2030-01-01T10:00:00Z",
+                        "parent_id", parentId));
+        String response = mockMvc.perform(post("/api/v1/tasks").header(TENANT_HEADER, TENANT)
+                        .contentType(APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+}
@@ -0,0 +1,206 @@
+package ru.andart.todoops.controller;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.web.servlet.ResultActions;
+import ru.andart.todoops.entity.TaskEntity;
+import ru.andart.todoops.repository.TaskRepository;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * API tests for task history (field deltas per version) and reverting to a version.
+ */
+class TaskHistoryApiTest extends BaseApiTest {
+
+    private static final String TENANT_HEADER = "X-Tenant-Id";
+    private static final long TENANT = 61;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Test
+    @SneakyThrows
+    void historyStoresOnlyChangedFields() {
+        long id = createTask("{\"title\": \"Draft\", \"description\": \"Desc\"}");
+
+        update(id, "{\"title\": \"Final\", \"description\": \"Desc\"}")
+                .andExpect(jsonPath("$.version").value(1));
+        update(id, "{\"title\": \"Final\", \"description\": \"Desc\"}")
+                .andExpect(jsonPath("$.version").value(1));
+        changeStatus(id, "IN_PROGRESS")
+                .andExpect(jsonPath("$.version").value(2));
+
+        mockMvc.perform(get("/api/v1/tasks/{id}/history", id).header(TENANT_HEADER, TENANT))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entries", hasSize(2)))
+                .andExpect(jsonPath("$.entries[0].version").value(2))
+                .andExpect(jsonPath("$.entries[0].operation").value("STATUS"))
+                .andExpect(jsonPath("$.entries[0].changes", hasSize(1)))
+                .andExpect(jsonPath("$.entries[0].changes[0].field").value("status"))
+                .andExpect(jsonPath("$.entries[0].changes[0].from").value("NEW"))
+                .andExpect(jsonPath("$.entries[0].changes[0].to").value("IN_PROGRESS"))
+                .andExpect(jsonPath("$.entries[1].operation").value("UPDATE"))
+                .andExpect(jsonPath("$.entries[1].changes", hasSize(1)))
+                .andExpect(jsonPath("$.entries[1].changes[0].field").value("title"))
+                .andExpect(jsonPath("$.entries[1].changes[0].from").value("Draft"))
+                .andExpect(jsonPath("$.entries[1].changes[0].to").value("Final"));
+        mockMvc.perform(get("/api/v1/tasks/{id}/history", id).header(TENANT_HEADER, TENANT)
+                        .param("page", "1")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entries", hasSize(1)))
+                .andExpect(jsonPath("$.entries[0].version").value(1));
+        assertEquals("{\"title\": [\"Draft\", \"Final\"]}", jdbcTemplate.queryForObject(
+                "select delta::text from task_history where task_id = ? and version = 1", String.class, id));
+
+        mockMvc.perform(get("/api/v1/tasks/{id}/history", id).header(TENANT_HEADER, TENANT + 1))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("task.not_found"));
+    }
+
+    @Test
+    @SneakyThrows
+    void revertRestoresVersionAndCanBeReverted() {
+        long id = createTask("{\"title\": \"Draft\", \"description\": \"Desc\", "
+                + "\"due_date\": \"2027-03-01T10:00:00Z\"}");
+        update(id, "{\"title\": \"Final\", \"description\": \"Desc\", \"due_date\": \"2027-04-01T10:00:00Z\"}");
+        changeStatus(id, "IN_PROGRESS");
+        changeStatus(id, "COMPLETED").andExpect(jsonPath("$.version").value(3));
+
+        revert(id, 0)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(4))
+                .andExpect(jsonPath("$.title").value("Draft"))
+                .andExpect(jsonPath("$.status").value("NEW"));
+        String reverted = mockMvc.perform(get("/api/v1/tasks/{id}", id).header(TENANT_HEADER, TENANT))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(Instant.parse("2027-03-01T10:00:00Z"),
+                OffsetDateTime.parse(objectMapper.readTree(reverted).get("due_date").asText()).toInstant());
+        mockMvc.perform(get("/api/v1/tasks/{id}/history", id).header(TENANT_HEADER, TENANT))
+                .andExpect(jsonPath("$.entries[0].operation").value("REVERT"))
+                .andExpect(jsonPath("$.entries[0].changes", hasSize(3)))
+                .andExpect(jsonPath("$.entries[0].changes[1].field").value("status"))
+                .andExpect(jsonPath("$.entries[0].changes[1].from").value("COMPLETED"));
+
+        revert(id, 3)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(5))
+                .andExpect(jsonPath("$.title").value("Final"))
+                .andExpect(jsonPath("$.status").value("COMPLETED"));
+        revert(id, 5).andExpect(status().isOk()).andExpect(jsonPath("$.version").value(5));
+        revert(id, 6)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("validation.error"));
+        mockMvc.perform(get("/api/v1/tasks/stats").header(TENANT_HEADER, TENANT))
+                .andExpect(jsonPath("$.counts[?(@.status == 'COMPLETED')].count").value(1));
+    }
+
+    @Test
+    @SneakyThrows
+    void revertNeedsRetainedHistory() {
+        long id = createTask("{\"title\": \"Draft\", \"description\": \"Desc\"}");
+        update(id, "{\"title\": \"Second\", \"description\": \"Desc\"}");
+        update(id, "{\"title\": \"Third\", \"description\": \"Desc\"}");
+        jdbcTemplate.update("delete from task_history where task_id = ? and version = 1", id);
+
+        revert(id, 0)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("task.history_expired"));
+        revert(id, 1)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Second"));
+    }
+
+    @Test
+    @SneakyThrows
+    void deletedSubtreeKeepsItsHistory() {
+        long parent = createTask("{\"title\": \"Parent\", \"description\": \"Desc\"}");
+        long child = createTask("{\"title\": \"Child\", \"description\": \"Desc\", \"parent_id\": " + parent + "}");
+        changeStatus(child, "IN_PROGRESS");
+
+        mockMvc.perform(delete("/api/v1/tasks/{id}", parent).header(TENANT_HEADER, TENANT))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/tasks/{id}/history", child).header(TENANT_HEADER, TENANT))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entries", hasSize(2)))
+                .andExpect(jsonPath("$.entries[0].version").value(2))
+                .andExpect(jsonPath("$.entries[0].operation").value("DELETE"))
+                .andExpect(jsonPath("$.entries[0].changes", hasSize(3)))
+                .andExpect(jsonPath("$.entries[0].changes[0].from").value("Child"))
+                .andExpect(jsonPath("$.entries[0].changes[2].from").value("IN_PROGRESS"))
+                .andExpect(jsonPath("$.entries[0].changes[2].to").doesNotExist());
+        revert(child, 0)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("task.not_found"));
+        mockMvc.perform(get("/api/v1/tasks/{id}/history", child + 100).header(TENANT_HEADER, TENANT))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("task.not_found"));
+    }
+
+    @Test
+    @SneakyThrows
+    void staleCopyIsNotWritten() {
+        long id = createTask("{\"title\": \"Draft\", \"description\": \"Desc\"}");
+        TaskEntity stale = taskRepository.findByTenantIdAndId(TENANT, id).orElseThrow();
+        update(id, "{\"title\": \"Fresh\", \"description\": \"Desc\"}");
+
+        stale.setTitle("Stale");
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> taskRepository.save(stale));
+        mockMvc.perform(get("/api/v1/tasks/{id}", id).header(TENANT_HEADER, TENANT))
+                .andExpect(jsonPath("$.title").value("Fresh"))
+                .andExpect(jsonPath("$.version").value(1));
+    }
+
+    @SneakyThrows
+    private ResultActions update(long id, String body) {
+        return mockMvc.perform(put("/api/v1/tasks/{id}", id).header(TENANT_HEADER, TENANT)
+                        .contentType(APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk());
+    }
+
+    @SneakyThrows
+    private ResultActions changeStatus(long id, String status) {
+        return mockMvc.perform(patch("/api/v1/tasks/{id}/status", id).header(TENANT_HEADER, TENANT)
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"status\": \"" + status + "\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @SneakyThrows
+    private ResultActions revert(long id, int version) {
+        return mockMvc.perform(post("/api/v1/tasks/{id}/revert", id).header(TENANT_HEADER, TENANT)
+                .contentType(APPLICATION_JSON)
+                .content("{\"version\": " + version + "}"));
+    }
+
+    @SneakyThrows
+    private long createTask(String body) {
+        String response = mockMvc.perform(post("/api/v1/tasks").header(TENANT_HEADER, TENANT)
+                        .contentType(APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+}
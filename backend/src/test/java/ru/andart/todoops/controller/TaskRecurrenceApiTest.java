@@ -0,0 +1,257 @@
+package ru.andart.todoops.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * API tests for recurring tasks: virtual occurrences on read, materialization on status change.
+ */
+class TaskRecurrenceApiTest extends BaseApiTest {
+
+    private static final String TENANT_HEADER = "X-Tenant-Id";
+    private static final long TENANT = 51;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @SneakyThrows
+    void dueWindowListsVirtualOccurrencesInDueOrder() {
+        long series = createTask("2027-01-04T09:00:00Z");
+        setRecurrence(series, "{\"frequency\": \"DAILY\", \"interval\": 2, \"until\": \"2027-01-12T09:00:00Z\"}")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.interval").value(2));
+        long single = createTask("2027-01-05T12:00:00Z");
+        createTask(null);
+
+        List<JsonNode> tasks = listDue("2027-01-04T00:00:00Z", "2027-01-11T00:00:00Z", 0, 10);
+
+        assertEquals(List.of(series, single, series, series, series), ids(tasks));
+        assertEquals(List.of("2027-01-04", "2027-01-05", "2027-01-06", "2027-01-08", "2027-01-10"), days(tasks));
+        assertTrue(tasks.get(0).get("virtual").isNull());
+        assertTrue(tasks.get(2).get("virtual").asBoolean());
+        assertEquals(series, tasks.get(2).get("series_id").asLong());
+        assertEquals("NEW", tasks.get(2).get("status").asText());
+        assertEquals(List.of("2027-01-06", "2027-01-08"), days(listDue("2027-01-04T00:00:00Z",
+                "2027-01-11T00:00:00Z", 1, 2)));
+        assertEquals(List.of("2027-01-12"), days(listDue("2027-01-11T00:00:00Z", "2028-01-01T00:00:00Z", 0, 10)));
+
+        mockMvc.perform(get("/api/v1/tasks").header(TENANT_HEADER, TENANT)
+                        .param("due_from", "2027-01-04T00:00:00Z")
+                        .param("size", "2"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("validation.error"));
+        mockMvc.perform(get("/api/v1/tasks").header(TENANT_HEADER, TENANT)
+                        .param("due_from", "2027-01-04T00:00:00Z")
+                        .param("due_to", "2027-01-04T00:00:00Z"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/tasks").header(TENANT_HEADER, TENANT).param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(3));
+    }
+
+    @Test
+    @SneakyThrows
+    void statusChangeMaterializesOccurrenceOnce() {
+        long series = createTask("2027-01-04T09:00:00Z");
+        setRecurrence(series, "{\"frequency\": \"WEEKLY\"}").andExpect(status().isOk());
+
+        changeOccurrenceStatus(series, "2027-01-11T09:00:00Z", "COMPLETED")
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("task.invalid_status_transition"));
+        JsonNode started = objectMapper.readTree(changeOccurrenceStatus(series, "2027-01-11T09:00:00Z", "IN_PROGRESS")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("IN_PROGRESS"))
+                .andExpect(jsonPath("$.series_id").value(series))
+                .andReturn().getResponse().getContentAsString());
+        long occurrence = started.get("id").asLong();
+        assertNotEquals(series, occurrence);
+        assertEquals(OffsetDateTime.parse("2027-01-11T09:00:00Z").toInstant(),
+                OffsetDateTime.parse(started.get("occurrence_at").asText()).toInstant());
+
+        changeOccurrenceStatus(series, "2027-01-11T09:00:00Z", "COMPLETED")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(occurrence))
+                .andExpect(jsonPath("$.status").value("COMPLETED"));
+
+        List<JsonNode> tasks = listDue("2027-01-05T00:00:00Z", "2027-01-26T00:00:00Z", 0, 10);
+        assertEquals(List.of(occurrence, series, series), ids(tasks));
+        assertEquals("COMPLETED", tasks.get(0).get("status").asText());
+        assertTrue(tasks.get(0).get("virtual").isNull());
+        assertEquals(2, countRows("select count(*) from task where tenant_id = " + TENANT));
+    }
+
+    @Test
+    @SneakyThrows
+    void listedMonthEndSlotCanBeMaterialized() {
+        long series = createTask("2027-01-31T09:00:00Z");
+        setRecurrence(series, "{\"frequency\": \"MONTHLY\", \"zone\": \"Mars/Olympus\"}")
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("validation.error"));
+        setRecurrence(series, "{\"frequency\": \"MONTHLY\"}")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.zone").value("UTC"));
+
+        List<JsonNode> tasks = listDue("2027-02-01T00:00:00Z", "2027-05-01T00:00:00Z", 0, 10);
+        assertEquals(List.of("2027-02-28", "2027-03-31", "2027-04-30"), days(tasks));
+        changeOccurrenceStatus(series, tasks.get(0).get("due_date").asText(), "IN_PROGRESS")
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @SneakyThrows
+    void occurrenceMustBeASlotOfARecurringTask() {
+        long series = createTask("2027-01-04T09:00:00Z");
+        long undated = createTask(null);
+
+        changeOccurrenceStatus(series, "2027-01-11T09:00:00Z", "IN_PROGRESS")
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("task.recurrence_not_found"));
+        setRecurrence(undated, "{\"frequency\": \"DAILY\"}")
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("validation.error"));
+        setRecurrence(series, "{\"frequency\": \"MONTHLY\", \"until\": \"2027-01-01T00:00:00Z\"}")
+                .andExpect(status().isBadRequest());
+        setRecurrence(series, "{\"frequency\": \"MONTHLY\"}").andExpect(status().isOk());
+
+        changeOccurrenceStatus(series, "2027-02-04T10:00:00Z", "IN_PROGRESS")
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("task.invalid_occurrence"));
+        changeOccurrenceStatus(series, "2027-01-04T09:00:00Z", "IN_PROGRESS")
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("task.invalid_occurrence"));
+        changeOccurrenceStatus(series, "2027-03-04T09:00:00Z", "IN_PROGRESS")
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/tasks/{id}/recurrence", series).header(TENANT_HEADER, TENANT))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.frequency").value("MONTHLY"))
+                .andExpect(jsonPath("$.interval").value(1));
+        mockMvc.perform(get("/api/v1/tasks/{id}/recurrence", series).header(TENANT_HEADER, TENANT + 1))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("task.not_found"));
+    }
+
+    @Test
+    @SneakyThrows
+    void calendarCountsVirtualOccurrences() {
+        long series = createTask("2027-02-01T09:00:00Z");
+        setRecurrence(series, "{\"frequency\": \"DAILY\", \"until\": \"2027-02-03T09:00:00Z\"}")
+                .andExpect(status().isOk());
+        long single = createTask("2027-02-02T08:00:00Z");
+
+        mockMvc.perform(get("/api/v1/tasks/calendar").header(TENANT_HEADER, TENANT)
+                        .param("from", "2027-02-01")
+                        .param("to", "2027-02-08")
+                        .param("top", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.buckets.length()").value(3))
+                .andExpect(jsonPath("$.buckets[0].tasks[0].id").value(series))
+                .andExpect(jsonPath("$.buckets[1].start").value("2027-02-02"))
+                .andExpect(jsonPath("$.buckets[1].total").value(2))
+                .andExpect(jsonPath("$.buckets[1].tasks.length()").value(1))
+                .andExpect(jsonPath("$.buckets[1].tasks[0].id").value(single))
+                .andExpect(jsonPath("$.buckets[2].counts[0].status").value("NEW"))
+                .andExpect(jsonPath("$.buckets[2].tasks[0].virtual").value(true));
+        mockMvc.perform(get("/api/v1/tasks/calendar").header(TENANT_HEADER, TENANT)
+                        .param("from", "2027-02-01")
+                        .param("to", "2027-03-01")
+                        .param("granularity", "WEEK"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.buckets.length()").value(1))
+                .andExpect(jsonPath("$.buckets[0].total").value(4));
+    }
+
+    @Test
+    @SneakyThrows
+    void removingOrDeletingSeriesKeepsMaterializedOccurrences() {
+        long series = createTask("2027-01-04T09:00:00Z");
+        setRecurrence(series, "{\"frequency\": \"DAILY\"}").andExpect(status().isOk());
+        changeOccurrenceStatus(series, "2027-01-05T09:00:00Z", "IN_PROGRESS").andExpect(status().isOk());
+
+        mockMvc.perform(delete("/api/v1/tasks/{id}/recurrence", series).header(TENANT_HEADER, TENANT))
+                .andExpect(status().isOk());
+        assertEquals(2, listDue("2027-01-01T00:00:00Z", "2027-02-01T00:00:00Z", 0, 50).size());
+
+        setRecurrence(series, "{\"frequency\": \"DAILY\"}").andExpect(status().isOk());
+        mockMvc.perform(delete("/api/v1/tasks/{id}", series).header(TENANT_HEADER, TENANT))
+                .andExpect(status().isOk());
+        List<JsonNode> tasks = listDue("2027-01-01T00:00:00Z", "2027-02-01T00:00:00Z", 0, 50);
+        assertEquals(1, tasks.size());
+        assertFalse(tasks.get(0).get("series_id").isNull());
+        assertEquals(0, countRows("select count(*) from task_recurrence"));
+    }
+
+    @SneakyThrows
+    private ResultActions setRecurrence(long id, String body) {
+        return mockMvc.perform(put("/api/v1/tasks/{id}/recurrence", id).header(TENANT_HEADER, TENANT)
+                .contentType(APPLICATION_JSON)
+                .content(body));
+    }
+
+    @SneakyThrows
+    private ResultActions changeOccurrenceStatus(long id, String occurrenceAt, String status) {
+        return mockMvc.perform(patch("/api/v1/tasks/{id}/occurrences/status", id).header(TENANT_HEADER, TENANT)
+                .contentType(APPLICATION_JSON)
+                .content("{\"occurrence_at\": \"" + occurrenceAt + "\", \"status\": \"" + status + "\"}"));
+    }
+
+    @SneakyThrows
+    private List<JsonNode> listDue(String from, String to, int page, int size) {
+        String response = mockMvc.perform(get("/api/v1/tasks").header(TENANT_HEADER, TENANT)
+                        .param("due_from", from)
+                        .param("due_to", to)
+                        .param("page", String.valueOf(page))
+                        .param("size", String.valueOf(size)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<JsonNode> tasks = new ArrayList<>();
+        objectMapper.readTree(response).get("content").forEach(tasks::add);
+        return tasks;
+    }
+
+    private static List<Long> ids(List<JsonNode> tasks) {
+        return tasks.stream().map(task -> task.get("id").asLong()).toList();
+    }
+
+    private static List<String> days(List<JsonNode> tasks) {
+        return tasks.stream()
+                .map(task -> OffsetDateTime.parse(task.get("due_date").asText()).toInstant().toString().substring(0, 10))
+                .toList();
+    }
+
+    private int countRows(String sql) {
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class);
+        return count != null ? count : 0;
+    }
+
+    @SneakyThrows
+    private long createTask(String dueDate) {
+        String due = dueDate != null ? ", \"due_date\": \"" + dueDate + "\"" : "";
+        String response = mockMvc.perform(post("/api/v1/tasks").header(TENANT_HEADER, TENANT)
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"title\": \"Task\", \"description\": \"Desc\"" + due + "}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+}
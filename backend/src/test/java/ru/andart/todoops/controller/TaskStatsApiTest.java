@@ -0,0 +1,161 @@
+package ru.andart.todoops.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.json.JsonCompareMode;
+import ru.andart.todoops.service.TaskCounterMetrics;
+import ru.andart.todoops.service.TaskCounterReconciler;
+
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * API tests for the status counters, their reconciliation and gauges.
+ */
+class TaskStatsApiTest extends BaseApiTest {
+
+    private static final String TENANT_HEADER = "X-Tenant-Id";
+    private static final long TENANT = 21;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TaskCounterReconciler taskCounterReconciler;
+
+    @Autowired
+    private TaskCounterMetrics taskCounterMetrics;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @SneakyThrows
+    void countsFollowMutations() {
+        long a = createTask(TENANT, null);
+        long b = createTask(TENANT, null);
+        long c = createTask(TENANT, null);
+        createTask(TENANT, null);
+        createTask(22, null);
+
+        changeStatus(a, "IN_PROGRESS");
+        changeStatus(b, "IN_PROGRESS");
+        changeStatus(b, "COMPLETED");
+        mockMvc.perform(delete("/api/v1/tasks/{id}", c).header(TENANT_HEADER, TENANT))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/tasks/stats").header(TENANT_HEADER, TENANT))
+                .andExpect(status().isOk())
+                .andExpect(content().json("""
+                        {
+                            "total": 3,
+                            "overdue": 0,
+                            "counts": [
+                                {"status": "NEW", "count": 1},
+                                {"status": "IN_PROGRESS", "count": 1},
+                                {"status": "COMPLETED", "count": 1}
+                            ]
+                        }
+                        """, JsonCompareMode.STRICT));
+        assertEquals(0, taskCounterReconciler.reconcile());
+    }
+
+    @Test
+    @SneakyThrows
+    void overdueCountsPastDueTasksThatAreNotCompleted() {
+        OffsetDateTime now = OffsetDateTime.now();
+        createTask(TENANT, now.minusDays(3));
+        createTask(TENANT, now.minusSeconds(1));
+        createTask(TENANT, now.plusDays(1));
+        long done = createTask(TENANT, now.minusDays(2));
+        changeStatus(done, "IN_PROGRESS");
+        changeStatus(done, "COMPLETED");
+
+        mockMvc.perform(get("/api/v1/tasks/stats").header(TENANT_HEADER, TENANT))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(4))
+                .andExpect(jsonPath("$.overdue").value(2));
+    }
+
+    @Test
+    @SneakyThrows
+    void concurrentWritersSpreadOverStripes() {
+        for (int i = 0; i < 20; i++) {
+            createTask(TENANT, null);
+        }
+
+        Integer stripes = jdbcTemplate.queryForObject(
+                "select count(*) from task_status_counter where tenant_id = ?", Integer.class, TENANT);
+        assertTrue(stripes > 1, "stripes used: " + stripes);
+        mockMvc.perform(get("/api/v1/tasks/stats").header(TENANT_HEADER, TENANT))
+                .andExpect(jsonPath("$.counts[0].count").value(20));
+    }
+
+    @Test
+    @SneakyThrows
+    void reconcilerCorrectsDrift() {
+        createTask(TENANT, null);
+        jdbcTemplate.update("""
+                insert into task (tenant_id, title, status, created_at)
+                values (?, 'Bulk', 'IN_PROGRESS', now())
+                """, TENANT);
+        jdbcTemplate.update("update task_status_counter set task_count = task_count + 5 where tenant_id = ?", TENANT);
+
+        assertEquals(2, taskCounterReconciler.reconcile());
+        assertEquals(0, taskCounterReconciler.reconcile());
+        mockMvc.perform(get("/api/v1/tasks/stats").header(TENANT_HEADER, TENANT))
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.counts[0].count").value(1))
+                .andExpect(jsonPath("$.counts[1].count").value(1));
+    }
+
+    @Test
+    void gaugesReportCachedCountsOfAllTenants() {
+        taskCounterMetrics.refresh();
+        double before = gauge("NEW");
+        double completed = gauge("COMPLETED");
+
+        createTask(TENANT, null);
+        createTask(22, null);
+        assertEquals(before, gauge("NEW"));
+
+        taskCounterMetrics.refresh();
+        assertEquals(before + 2, gauge("NEW"));
+        assertEquals(completed, gauge("COMPLETED"));
+    }
+
+    private double gauge(String status) {
+        return meterRegistry.get("todoops.tasks").tag("status", status).gauge().value();
+    }
+
+    @SneakyThrows
+    private void changeStatus(long id, String status) {
+        mockMvc.perform(patch("/api/v1/tasks/{id}/status", id).header(TENANT_HEADER, TENANT)
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"status\": \"" + status + "\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @SneakyThrows
+    private long createTask(long tenantId, OffsetDateTime dueDate) {
+        String due = dueDate != null ? ", \"due_date\": \"" + dueDate + "\"" : "";
+        String response = mockMvc.perform(post("/api/v1/tasks").header(TENANT_HEADER, tenantId)
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"title\": \"Task\", \"description\": \"Desc\"" + due + "}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+}
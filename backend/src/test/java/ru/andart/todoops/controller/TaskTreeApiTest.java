@@ -0,0 +1,203 @@
+package ru.andart.todoops.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.ResultActions;
+import ru.andart.todoops.service.TaskCounterReconciler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * API tests for subtasks (materialized path) and blocked-by dependencies.
+ */
+class TaskTreeApiTest extends BaseApiTest {
+
+    private static final String TENANT_HEADER = "X-Tenant-Id";
+    private static final long TENANT = 31;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TaskCounterReconciler taskCounterReconciler;
+
+    @Test
+    @SneakyThrows
+    void subtreeIsTaskThenDescendantsDepthFirst() {
+        long root = createTask(null);
+        long a = createTask(root);
+        long b = createTask(root);
+        long a1 = createTask(a);
+        long other = createTask(null);
+        createTask(other);
+
+        mockMvc.perform(get("/api/v1/tasks/{id}", a1).header(TENANT_HEADER, TENANT))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.parent_id").value(a));
+        List<Long> ids = subtreeIds(root);
+        assertEquals(4, ids.size());
+        assertEquals(root, ids.get(0));
+        assertEquals(ids.indexOf(a) + 1, ids.indexOf(a1));
+        assertEquals(List.of(a, a1), subtreeIds(a));
+        assertEquals(List.of(b), subtreeIds(b));
+    }
+
+    @Test
+    @SneakyThrows
+    void subtreeStatsRollUpStatuses() {
+        long root = createTask(null);
+        long a = createTask(root);
+        long a1 = createTask(a);
+        createTask(a1);
+        changeStatus(a, "IN_PROGRESS");
+        changeStatus(a1, "IN_PROGRESS");
+        changeStatus(a1, "COMPLETED");
+
+        mockMvc.perform(get("/api/v1/tasks/{id}/subtree/stats", root).header(TENANT_HEADER, TENANT))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(4))
+                .andExpect(jsonPath("$.counts[0].count").value(2))
+                .andExpect(jsonPath("$.counts[1].count").value(1))
+                .andExpect(jsonPath("$.counts[2].count").value(1));
+    }
+
+    @Test
+    @SneakyThrows
+    void deleteCascadesToSubtreeAndDependencies() {
+        long root = createTask(null);
+        long a = createTask(root);
+        long a1 = createTask(a);
+        long b = createTask(root);
+        addBlocker(b, a1).andExpect(status().isOk());
+
+        mockMvc.perform(delete("/api/v1/tasks/{id}", a).header(TENANT_HEADER, TENANT))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/tasks/{id}", a1).header(TENANT_HEADER, TENANT))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("task.not_found"));
+        assertEquals(List.of(root, b), subtreeIds(root));
+        mockMvc.perform(get("/api/v1/tasks/{id}/blocked-by", b).header(TENANT_HEADER, TENANT))
+                .andExpect(jsonPath("$.length()").value(0));
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from task_dependency", Integer.class));
+        mockMvc.perform(get("/api/v1/tasks/stats").header(TENANT_HEADER, TENANT))
+                .andExpect(jsonPath("$.total").value(2));
+        assertEquals(0, taskCounterReconciler.reconcile());
+    }
+
+    @Test
+    @SneakyThrows
+    void parentMustExistInTenant() {
+        long foreign = createTask(32, null);
+
+        mockMvc.perform(post("/api/v1/tasks").header(TENANT_HEADER, TENANT)
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"title\": \"Child\", \"description\": \"Desc\", \"parent_id\": " + foreign + "}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("task.not_found"));
+    }
+
+    @Test
+    @SneakyThrows
+    void nestingIsLimited() {
+        Long parent = null;
+        for (int depth = 1; depth <= 50; depth++) {
+            parent = createTask(parent);
+        }
+
+        mockMvc.perform(post("/api/v1/tasks").header(TENANT_HEADER, TENANT)
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"title\": \"Too deep\", \"description\": \"Desc\", \"parent_id\": " + parent + "}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("validation.error"));
+    }
+
+    @Test
+    @SneakyThrows
+    void blockedByEdgesRejectCycles() {
+        long a = createTask(null);
+        long b = createTask(null);
+        long c = createTask(null);
+
+        addBlocker(b, a).andExpect(status().isOk());
+        addBlocker(c, b).andExpect(status().isOk());
+        addBlocker(c, b).andExpect(status().isOk());
+
+        addBlocker(a, c).andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("task.dependency_cycle"));
+        addBlocker(a, a).andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("task.dependency_cycle"));
+        mockMvc.perform(get("/api/v1/tasks/{id}/blocked-by", c).header(TENANT_HEADER, TENANT))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(b));
+
+        mockMvc.perform(delete("/api/v1/tasks/{id}/blocked-by/{blockerId}", c, b).header(TENANT_HEADER, TENANT))
+                .andExpect(status().isOk());
+        addBlocker(a, c).andExpect(status().isOk());
+    }
+
+    @Test
+    @SneakyThrows
+    void blockerMustExistInTenant() {
+        long a = createTask(null);
+        long foreign = createTask(32, null);
+
+        addBlocker(a, foreign).andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("task.not_found"));
+    }
+
+    @SneakyThrows
+    private ResultActions addBlocker(long id, long blockerId) {
+        return mockMvc.perform(put("/api/v1/tasks/{id}/blocked-by/{blockerId}", id, blockerId)
+                .header(TENANT_HEADER, TENANT));
+    }
+
+    @SneakyThrows
+    private List<Long> subtreeIds(long id) {
+        String response = mockMvc.perform(get("/api/v1/tasks/{id}/subtree", id).header(TENANT_HEADER, TENANT))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode task : objectMapper.readTree(response)) {
+            ids.add(task.get("id").asLong());
+        }
+        return ids;
+    }
+
+    @SneakyThrows
+    private void changeStatus(long id, String status) {
+        mockMvc.perform(patch("/api/v1/tasks/{id}/status", id).header(TENANT_HEADER, TENANT)
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"status\": \"" + status + "\"}"))
+                .andExpect(status().isOk());
+    }
+
+    private long createTask(Long parentId) {
+        return createTask(TENANT, parentId);
+    }
+
+    @SneakyThrows
+    private long createTask(long tenantId, Long parentId) {
+        String parent = parentId != null ? ", \"parent_id\": " + parentId : "";
+        String response = mockMvc.perform(post("/api/v1/tasks").header(TENANT_HEADER, tenantId)
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"title\": \"Task\", \"description\": \"Desc\"" + parent + "}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+}
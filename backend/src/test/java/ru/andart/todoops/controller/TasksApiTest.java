@@ -3,8 +3,18 @@ package ru.andart.todoops.controller;
 import com.fasterxml.jackson.databind.JsonNode;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.json.JsonCompareMode;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import ru.andart.todoops.StatementCounter;
+import ru.andart.todoops.StatementCounter.Usage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -15,10 +25,26 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
- * API tests for task endpoints (create, list, get, update, delete, changeStatus).
+ * API tests for task endpoints (create, list, get, update, delete, changeStatus), with a budget of JDBC work per
+ * endpoint ({@link StatementCounter}): an N+1 query or an extra round trip fails the build.
  */
 class TasksApiTest extends BaseApiTest {
 
+    // JDBC budgets per endpoint: statements, rows fetched, transactions (reads without the response cache, which
+    // ResponseCacheApiTest covers)
+    private static final Usage CREATE_BUDGET = new Usage(3, 1, 1);
+    private static final Usage CREATE_WITH_DUE_DATE_BUDGET = new Usage(5, 1, 1);
+    private static final Usage LIST_BUDGET = new Usage(2, 21, 1);
+    private static final Usage GET_BUDGET = new Usage(1, 1, 1);
+    private static final Usage GET_MANY_BUDGET = new Usage(1, 3, 1);
+    private static final Usage UPDATE_BUDGET = new Usage(6, 1, 1);
+    private static final Usage CHANGE_STATUS_BUDGET = new Usage(8, 1, 1);
+    private static final Usage DELETE_BUDGET = new Usage(7, 1, 1);
+    private static final String DUE_DATE = "2030-01-01T10:00:00Z";
+
+    @Autowired
+    private StatementCounter statementCounter;
+
     @Test
     @SneakyThrows
     void createTaskReturns200WithNewStatus() {
@@ -442,6 +468,122 @@ class TasksApiTest extends BaseApiTest {
                 .andExpect(content().json(expectedJson, JsonCompareMode.LENIENT));
     }
 
+    @Test
+    @SneakyThrows
+    void createTaskStaysWithinJdbcBudget() {
+        // insert returning the row, status counter, task version
+        performWithinBudget(CREATE_BUDGET, post("/api/v1/tasks")
+                .contentType(APPLICATION_JSON)
+                .content("{\"title\": \"Budget\", \"description\": \"Desc\"}"))
+                .andExpect(status().isOk());
+        // and with a due date: calendar rollup, reminder
+        performWithinBudget(CREATE_WITH_DUE_DATE_BUDGET, post("/api/v1/tasks")
+                .contentType(APPLICATION_JSON)
+                .content("{\"title\": \"Budget\", \"description\": \"Desc\", \"due_date\": \"%s\"}"
+                        .formatted(DUE_DATE)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @SneakyThrows
+    void listTasksStaysWithinJdbcBudget() {
+        for (int i = 0; i < 25; i++) {
+            createTaskAndReturnId("Budget " + i, "Desc");
+        }
+        // page and count: the rows of a full page and the count, whatever the size of the tenant
+        performWithinBudget(LIST_BUDGET, get("/api/v1/tasks").param("page", "0").param("size", "20"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @SneakyThrows
+    void getTaskStaysWithinJdbcBudget() {
+        Long id = createTaskAndReturnId("Budget", "Desc");
+        performWithinBudget(GET_BUDGET, get("/api/v1/tasks/{id}", id)).andExpect(status().isOk());
+        performWithinBudget(GET_BUDGET, get("/api/v1/tasks/{id}", id + 1000)).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @SneakyThrows
+    void getTaskIsSentWithContentLength() {
+        Long id = createTaskAndReturnId("Sized", "Desc");
+        MockHttpServletResponse response = mockMvc.perform(get("/api/v1/tasks/{id}", id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        // buffered by HttpCompressionConfig, so that Tomcat sends small responses uncompressed
+        assertEquals(String.valueOf(response.getContentAsByteArray().length),
+                response.getHeader(HttpHeaders.CONTENT_LENGTH));
+    }
+
+    @Test
+    @SneakyThrows
+    void getTasksStaysWithinJdbcBudget() {
+        Long first = createTaskAndReturnId("Budget 1", "Desc");
+        Long second = createTaskAndReturnId("Budget 2", "Desc");
+        Long third = createTaskAndReturnId("Budget 3", "Desc");
+        String ids = first + "," + second + "," + third;
+        // one statement for all ids, also with a sparse fieldset
+        performWithinBudget(GET_MANY_BUDGET, get("/api/v1/tasks/batch").param("ids", ids))
+                .andExpect(status().isOk());
+        performWithinBudget(GET_MANY_BUDGET, get("/api/v1/tasks/batch").param("ids", ids).param("fields", "title"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @SneakyThrows
+    void updateTaskStaysWithinJdbcBudget() {
+        Long id = createTaskAndReturnId("Budget", "Desc");
+        // select, versioned update, history row, calendar rollup, reminder, task version
+        performWithinBudget(UPDATE_BUDGET, put("/api/v1/tasks/{id}", id)
+                .contentType(APPLICATION_JSON)
+                .content("{\"title\": \"Updated\", \"description\": \"Desc\", \"due_date\": \"%s\"}"
+                        .formatted(DUE_DATE)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @SneakyThrows
+    void changeTaskStatusStaysWithinJdbcBudget() {
+        Long id = createTaskAndReturnId("Budget", "Desc");
+        mockMvc.perform(put("/api/v1/tasks/{id}", id)
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"title\": \"Budget\", \"description\": \"Desc\", \"due_date\": \"%s\"}"
+                                .formatted(DUE_DATE)))
+                .andExpect(status().isOk());
+        // select, versioned update, history row, rollup and status counter of the old and the new status,
+        // task version
+        performWithinBudget(CHANGE_STATUS_BUDGET, patch("/api/v1/tasks/{id}/status", id)
+                .contentType(APPLICATION_JSON)
+                .content("{\"status\": \"IN_PROGRESS\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @SneakyThrows
+    void deleteTaskStaysWithinJdbcBudget() {
+        Long id = createTaskAndReturnId("Budget", "Desc");
+        // subtree delete returning the rows, dependencies, history, recurrence, reminders, status counter,
+        // task version
+        performWithinBudget(DELETE_BUDGET, delete("/api/v1/tasks/{id}", id)).andExpect(status().isOk());
+        // a missing task costs the delete alone
+        performWithinBudget(new Usage(1, 0, 1), delete("/api/v1/tasks/{id}", id))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Performs a request and fails if its JDBC work exceeds the budget. Lower the budget when a change makes an
+     * endpoint cheaper; raise it only with a reason.
+     */
+    @SneakyThrows
+    private ResultActions performWithinBudget(Usage budget, RequestBuilder request) {
+        statementCounter.reset();
+        ResultActions result = mockMvc.perform(request);
+        Usage usage = statementCounter.usage();
+        assertTrue(usage.within(budget), () -> "%s %s: %s over budget %s".formatted(result.andReturn()
+                .getRequest().getMethod(), result.andReturn().getRequest().getRequestURI(), usage, budget));
+        return result;
+    }
+
     @SneakyThrows
     private Long createTaskAndReturnId(String title, String description) {
         MvcResult result = mockMvc.perform(post("/api/v1/tasks")
@@ -0,0 +1,123 @@
+package ru.andart.todoops.controller;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.json.JsonCompareMode;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * API tests for tenant scoping via the {@code X-Tenant-Id} header.
+ */
+class TenantIsolationApiTest extends BaseApiTest {
+
+    protected static final String TENANT_HEADER = "X-Tenant-Id";
+
+    @Test
+    @SneakyThrows
+    void listShowsOnlyOwnTasks() {
+        createTask(1, "Tenant 1 task");
+        createTask(2, "Tenant 2 task");
+        createTask(2, "Another tenant 2 task");
+
+        mockMvc.perform(get("/api/v1/tasks").header(TENANT_HEADER, 2))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(2))
+                .andExpect(jsonPath("$.content[0].title").value("Tenant 2 task"))
+                .andExpect(jsonPath("$.content[1].title").value("Another tenant 2 task"));
+        mockMvc.perform(get("/api/v1/tasks").header(TENANT_HEADER, 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1));
+    }
+
+    @Test
+    @SneakyThrows
+    void requestWithoutHeaderUsesDefaultTenant() {
+        createTask(0, "Default tenant task");
+        createTask(7, "Other tenant task");
+
+        mockMvc.perform(get("/api/v1/tasks"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.content[0].title").value("Default tenant task"));
+    }
+
+    @Test
+    @SneakyThrows
+    void foreignTaskLooksNotFound() {
+        long id = createTask(1, "Private task");
+        String notFound = """
+                {
+                    "code": 400,
+                    "message": "task.not_found"
+                }
+                """;
+
+        mockMvc.perform(get("/api/v1/tasks/{id}", id).header(TENANT_HEADER, 2))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().json(notFound, JsonCompareMode.LENIENT));
+        mockMvc.perform(put("/api/v1/tasks/{id}", id).header(TENANT_HEADER, 2)
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"title\": \"Hijacked\", \"description\": \"Desc\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().json(notFound, JsonCompareMode.LENIENT));
+        mockMvc.perform(patch("/api/v1/tasks/{id}/status", id).header(TENANT_HEADER, 2)
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"status\": \"IN_PROGRESS\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().json(notFound, JsonCompareMode.LENIENT));
+        mockMvc.perform(delete("/api/v1/tasks/{id}", id).header(TENANT_HEADER, 2))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().json(notFound, JsonCompareMode.LENIENT));
+
+        mockMvc.perform(get("/api/v1/tasks/{id}", id).header(TENANT_HEADER, 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Private task"))
+                .andExpect(jsonPath("$.status").value("NEW"));
+    }
+
+    @Test
+    @SneakyThrows
+    void ownerCanModifyAndDelete() {
+        long id = createTask(3, "Mine");
+
+        mockMvc.perform(put("/api/v1/tasks/{id}", id).header(TENANT_HEADER, 3)
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"title\": \"Mine, updated\", \"description\": \"Desc\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Mine, updated"));
+        mockMvc.perform(patch("/api/v1/tasks/{id}/status", id).header(TENANT_HEADER, 3)
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"status\": \"IN_PROGRESS\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("IN_PROGRESS"));
+        mockMvc.perform(delete("/api/v1/tasks/{id}", id).header(TENANT_HEADER, 3))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/tasks").header(TENANT_HEADER, 3))
+                .andExpect(jsonPath("$.totalElements").value(0));
+    }
+
+    @Test
+    @SneakyThrows
+    void negativeTenantIdReturns400() {
+        mockMvc.perform(get("/api/v1/tasks").header(TENANT_HEADER, -1))
+                .andExpect(status().isBadRequest());
+    }
+
+    @SneakyThrows
+    protected long createTask(long tenantId, String title) {
+        String response = mockMvc.perform(post("/api/v1/tasks").header(TENANT_HEADER, tenantId)
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"title\": \"" + title + "\", \"description\": \"Desc\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+}
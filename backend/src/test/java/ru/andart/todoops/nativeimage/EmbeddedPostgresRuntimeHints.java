@@ -0,0 +1,16 @@
+package ru.andart.todoops.nativeimage;
+
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Keeps the bundled Postgres binaries of Zonky's {@code EmbeddedPostgres} in the native test image
+ * (registered in {@code META-INF/spring/aot.factories}).
+ */
+class EmbeddedPostgresRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.resources().registerPattern("postgres-*.txz");
+    }
+}
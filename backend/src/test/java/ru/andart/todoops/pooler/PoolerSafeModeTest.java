@@ -0,0 +1,153 @@
+package ru.andart.todoops.pooler;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs the API with profile {@code pgbouncer} through {@link TransactionPoolingProxy}.
+ * Liquibase uses the direct Postgres URL, as the {@code migrate} job does in production.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles({"test", "pgbouncer"})
+class PoolerSafeModeTest {
+
+    private static final int SERVER_CONNECTIONS = 2;
+    private static final EmbeddedPostgres POSTGRES = startPostgres();
+    private static final TransactionPoolingProxy PROXY = startProxy(SERVER_CONNECTIONS);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> proxyUrl(PROXY));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("todoops.datasource.pool.size", () -> 6);
+        registry.add("spring.liquibase.enabled", () -> true);
+        registry.add("spring.liquibase.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+    }
+
+    @AfterAll
+    static void stop() throws Exception {
+        PROXY.close();
+        POSTGRES.close();
+    }
+
+    @Test
+    @SneakyThrows
+    void apiWorksThroughTransactionPooler() {
+        String created = mockMvc.perform(post("/api/v1/tasks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Pooled\", \"description\": \"Desc\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(created).get("id").asLong();
+
+        for (int i = 0; i < 20; i++) {
+            mockMvc.perform(get("/api/v1/tasks/{id}", id)).andExpect(status().isOk());
+            mockMvc.perform(get("/api/v1/tasks").param("page", "0").param("size", "20"))
+                    .andExpect(status().isOk());
+            mockMvc.perform(put("/api/v1/tasks/{id}", id)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"title\": \"Pooled " + i + "\", \"description\": \"Desc\"}"))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(patch("/api/v1/tasks/{id}/status", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\": \"IN_PROGRESS\"}"))
+                .andExpect(status().isOk());
+
+        assertTrue(PROXY.getServerConnectionsOpened() <= SERVER_CONNECTIONS);
+        assertTrue(PROXY.getServerCheckouts() > PROXY.getServerConnectionsOpened() * 10);
+    }
+
+    @Test
+    @SneakyThrows
+    void namedPreparedStatementsBreakAcrossServerSessions() {
+        try (TransactionPoolingProxy proxy = startProxy(SERVER_CONNECTIONS)) {
+            SQLException error = assertThrows(SQLException.class, () -> runSelects(proxy, "1"));
+            assertTrue(error.getMessage().contains("prepared statement \"S_"), error.getMessage());
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void unnamedStatementsSurviveServerSessionSwitch() {
+        try (TransactionPoolingProxy proxy = startProxy(SERVER_CONNECTIONS)) {
+            assertDoesNotThrow(() -> runSelects(proxy, "0"));
+        }
+    }
+
+    /**
+     * Keeps one client inside a transaction so that the second client's statements land on
+     * both server sessions in turn.
+     */
+    private static void runSelects(TransactionPoolingProxy proxy, String prepareThreshold) throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("user", "postgres");
+        properties.setProperty("prepareThreshold", prepareThreshold);
+        try (Connection holder = DriverManager.getConnection(proxyUrl(proxy), properties);
+             Connection client = DriverManager.getConnection(proxyUrl(proxy), properties)) {
+            holder.setAutoCommit(false);
+            try (Statement statement = holder.createStatement()) {
+                statement.execute("select 1");
+            }
+            try (PreparedStatement select = client.prepareStatement("select ?::int")) {
+                for (int i = 0; i < 6; i++) {
+                    select.setInt(1, i);
+                    select.executeQuery().close();
+                    if (i == 0) {
+                        holder.commit();
+                    }
+                }
+            }
+        }
+    }
+
+    private static String proxyUrl(TransactionPoolingProxy proxy) {
+        return "jdbc:postgresql://localhost:" + proxy.getPort() + "/postgres?sslmode=disable";
+    }
+
+    @SneakyThrows
+    private static EmbeddedPostgres startPostgres() {
+        return EmbeddedPostgres.start();
+    }
+
+    @SneakyThrows
+    private static TransactionPoolingProxy startProxy(int serverConnections) {
+        return new TransactionPoolingProxy("localhost", POSTGRES.getPort(), serverConnections);
+    }
+}
@@ -0,0 +1,356 @@
+package ru.andart.todoops.pooler;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal PgBouncer stand-in for tests: speaks the Postgres wire protocol and runs in transaction pooling mode.
+ * <p>
+ * Client connections are answered by the proxy itself (trust auth only). A server connection is borrowed when
+ * the client sends its first message and returned after {@code ReadyForQuery} reports the idle state, so
+ * consecutive transactions of one client may run on different server sessions. Server connections are handed
+ * out in FIFO order, which makes that switch deterministic. Cancel requests are not supported.
+ */
+@Slf4j
+public class TransactionPoolingProxy implements Closeable {
+
+    private static final int PROTOCOL_VERSION = 196608;
+    private static final int SSL_REQUEST = 80877103;
+    private static final int GSS_REQUEST = 80877104;
+
+    private final String upstreamHost;
+    private final int upstreamPort;
+    private final int maxServerConnections;
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "pooling-proxy");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final LinkedBlockingQueue<ServerConnection> idle = new LinkedBlockingQueue<>();
+    private final AtomicInteger opened = new AtomicInteger();
+    private final AtomicInteger clients = new AtomicInteger();
+    private final AtomicInteger transactions = new AtomicInteger();
+    private volatile List<byte[]> parameterStatuses;
+    private volatile boolean closed;
+
+    /**
+     * Starts the proxy on a random local port.
+     *
+     * @param upstreamHost         Postgres host
+     * @param upstreamPort         Postgres port
+     * @param maxServerConnections size of the server-side pool
+     */
+    public TransactionPoolingProxy(String upstreamHost, int upstreamPort, int maxServerConnections)
+            throws IOException {
+        this.upstreamHost = upstreamHost;
+        this.upstreamPort = upstreamPort;
+        this.maxServerConnections = maxServerConnections;
+        this.serverSocket = new ServerSocket(0, 128, InetAddress.getLoopbackAddress());
+        executor.execute(this::acceptLoop);
+    }
+
+    /**
+     * Returns the local port clients should connect to.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns the number of server connections opened to Postgres so far.
+     */
+    public int getServerConnectionsOpened() {
+        return opened.get();
+    }
+
+    /**
+     * Returns the number of client connections accepted so far.
+     */
+    public int getClientConnectionsAccepted() {
+        return clients.get();
+    }
+
+    /**
+     * Returns the number of server connection checkouts (one per transaction or autocommit statement).
+     */
+    public int getServerCheckouts() {
+        return transactions.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        executor.shutdownNow();
+        ServerConnection connection;
+        while ((connection = idle.poll()) != null) {
+            connection.socket.close();
+        }
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                Socket client = serverSocket.accept();
+                clients.incrementAndGet();
+                executor.execute(() -> serveClient(client));
+            } catch (IOException e) {
+                if (!closed) {
+                    log.warn("Proxy accept failed: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serveClient(Socket socket) {
+        ServerConnection server = null;
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            Map<String, String> startup = readStartup(in, out);
+            if (startup == null) {
+                return;
+            }
+            sendClientHandshake(out, startup);
+            while (true) {
+                char type = (char) in.readUnsignedByte();
+                byte[] body = readBody(in);
+                if (type == 'X') {
+                    break;
+                }
+                if (server == null) {
+                    server = acquire(startup);
+                }
+                writeMessage(server.out, type, body);
+                if (type == 'S' || type == 'Q' || type == 'c' || type == 'f' || type == 'H') {
+                    server.out.flush();
+                    if (type == 'H' || !relayUntilReady(server, out)) {
+                        out.flush();
+                        continue;
+                    }
+                    if (server.status == 'I') {
+                        idle.offer(server);
+                        server = null;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Proxy client session ended: {}", e.getMessage());
+        } finally {
+            if (server != null) {
+                discard(server);
+            }
+        }
+    }
+
+    /**
+     * Relays server messages to the client until ReadyForQuery, or until the server asks for COPY data.
+     *
+     * @return true if ReadyForQuery was relayed
+     */
+    private static boolean relayUntilReady(ServerConnection server, DataOutputStream out) throws IOException {
+        while (true) {
+            char type = (char) server.in.readUnsignedByte();
+            byte[] body = readBody(server.in);
+            writeMessage(out, type, body);
+            if (type == 'Z') {
+                server.status = (char) body[0];
+                out.flush();
+                return true;
+            }
+            if (type == 'G') {
+                return false;
+            }
+        }
+    }
+
+    private ServerConnection acquire(Map<String, String> startup) throws IOException {
+        transactions.incrementAndGet();
+        ServerConnection connection = idle.poll();
+        if (connection != null) {
+            return connection;
+        }
+        synchronized (this) {
+            if (opened.get() < maxServerConnections) {
+                opened.incrementAndGet();
+                return connect(startup);
+            }
+        }
+        try {
+            return idle.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a server connection", e);
+        }
+    }
+
+    private void discard(ServerConnection server) {
+        try {
+            if (server.status != 'I') {
+                writeMessage(server.out, 'Q', cString("ROLLBACK"));
+                server.out.flush();
+                relayUntilReady(server, new DataOutputStream(new ByteArrayOutputStream()));
+            }
+            idle.offer(server);
+        } catch (IOException e) {
+            opened.decrementAndGet();
+        }
+    }
+
+    private ServerConnection connect(Map<String, String> startup) throws IOException {
+        Socket socket = new Socket(upstreamHost, upstreamPort);
+        socket.setTcpNoDelay(true);
+        ServerConnection connection = new ServerConnection(socket);
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("user", startup.get("user"));
+        params.put("database", startup.getOrDefault("database", startup.get("user")));
+        params.put("client_encoding", "UTF8");
+        params.put("DateStyle", "ISO");
+        params.put("TimeZone", TimeZone.getDefault().getID());
+        params.put("extra_float_digits", "3");
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(payload);
+        data.writeInt(PROTOCOL_VERSION);
+        for (Map.Entry<String, String> param : params.entrySet()) {
+            data.write(cString(param.getKey()));
+            data.write(cString(param.getValue()));
+        }
+        data.writeByte(0);
+        connection.out.writeInt(payload.size() + 4);
+        connection.out.write(payload.toByteArray());
+        connection.out.flush();
+
+        List<byte[]> statuses = new ArrayList<>();
+        while (true) {
+            char type = (char) connection.in.readUnsignedByte();
+            byte[] body = readBody(connection.in);
+            if (type == 'R' && readInt(body) != 0) {
+                throw new IOException("Proxy supports trust authentication only");
+            } else if (type == 'E') {
+                throw new IOException("Server rejected proxy connection");
+            } else if (type == 'S') {
+                statuses.add(body);
+            } else if (type == 'Z') {
+                break;
+            }
+        }
+        if (parameterStatuses == null) {
+            parameterStatuses = statuses;
+        }
+        return connection;
+    }
+
+    private Map<String, String> readStartup(DataInputStream in, DataOutputStream out) throws IOException {
+        while (true) {
+            int length = in.readInt();
+            int code = in.readInt();
+            byte[] rest = new byte[length - 8];
+            in.readFully(rest);
+            if (code == SSL_REQUEST || code == GSS_REQUEST) {
+                out.writeByte('N');
+                out.flush();
+                continue;
+            }
+            if (code != PROTOCOL_VERSION) {
+                return null;
+            }
+            Map<String, String> params = new LinkedHashMap<>();
+            int start = 0;
+            String key = null;
+            for (int i = 0; i < rest.length; i++) {
+                if (rest[i] == 0) {
+                    if (i == start) {
+                        break;
+                    }
+                    String value = new String(rest, start, i - start, StandardCharsets.UTF_8);
+                    if (key == null) {
+                        key = value;
+                    } else {
+                        params.put(key, value);
+                        key = null;
+                    }
+                    start = i + 1;
+                }
+            }
+            return params;
+        }
+    }
+
+    private void sendClientHandshake(DataOutputStream out, Map<String, String> startup) throws IOException {
+        if (parameterStatuses == null) {
+            idle.offer(acquireForHandshake(startup));
+        }
+        writeMessage(out, 'R', new byte[4]);
+        for (byte[] status : parameterStatuses) {
+            writeMessage(out, 'S', status);
+        }
+        writeMessage(out, 'K', new byte[8]);
+        writeMessage(out, 'Z', new byte[]{'I'});
+        out.flush();
+    }
+
+    private ServerConnection acquireForHandshake(Map<String, String> startup) throws IOException {
+        ServerConnection connection = acquire(startup);
+        transactions.decrementAndGet();
+        return connection;
+    }
+
+    private static byte[] readBody(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        byte[] body = new byte[length - 4];
+        in.readFully(body);
+        return body;
+    }
+
+    private static void writeMessage(DataOutputStream out, char type, byte[] body) throws IOException {
+        out.writeByte(type);
+        out.writeInt(body.length + 4);
+        out.write(body);
+    }
+
+    private static int readInt(byte[] body) {
+        return ((body[0] & 0xff) << 24) | ((body[1] & 0xff) << 16) | ((body[2] & 0xff) << 8) | (body[3] & 0xff);
+    }
+
+    private static byte[] cString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        byte[] result = new byte[bytes.length + 1];
+        System.arraycopy(bytes, 0, result, 0, bytes.length);
+        return result;
+    }
+
+    private static final class ServerConnection {
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+        private char status = 'I';
+
+        private ServerConnection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+    }
+}
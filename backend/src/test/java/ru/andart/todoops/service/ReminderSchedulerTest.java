@@ -0,0 +1,183 @@
+package ru.andart.todoops.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.andart.todoops.BaseDbTest;
+import ru.andart.todoops.entity.TaskEntity;
+import ru.andart.todoops.generated.model.TaskCreateRequest;
+import ru.andart.todoops.generated.model.TaskStatus;
+import ru.andart.todoops.generated.model.TaskStatusRequest;
+import ru.andart.todoops.generated.model.TaskUpdateRequest;
+import ru.andart.todoops.repository.Reminder;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for claiming and delivering due-date reminders (lead PT1H, window PT1M).
+ */
+@TestPropertySource(properties = "todoops.data-initializer.enabled=false")
+class ReminderSchedulerTest extends BaseDbTest {
+
+    private static final long TENANT_ID = 41L;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private ReminderScheduler reminderScheduler;
+
+    @Autowired
+    private RecordingNotifier notifier;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // drain what an earlier test left in the wheel (its database is gone)
+        reminderScheduler.fire();
+        notifier.reminders.clear();
+    }
+
+    @Test
+    void dueReminderIsDeliveredOnce() {
+        TaskEntity task = createTask(OffsetDateTime.now().plusMinutes(30));
+
+        assertEquals(1, reminderScheduler.poll());
+        assertEquals(1, reminderScheduler.fire());
+
+        assertEquals(List.of(task.getId()), notifier.reminders.stream().map(Reminder::taskId).toList());
+        assertEquals("Reminded task", notifier.reminders.get(0).title());
+        assertEquals(0, reminderScheduler.poll());
+        assertEquals(0, countReminders());
+    }
+
+    @Test
+    void reminderOutsideWindowIsNotClaimed() {
+        createTask(OffsetDateTime.now().plusHours(2));
+
+        assertEquals(0, reminderScheduler.poll());
+        assertEquals(1, countReminders());
+    }
+
+    @Test
+    void overdueOrUndatedTaskHasNoReminder() {
+        createTask(OffsetDateTime.now().minusMinutes(1));
+        createTask(null);
+
+        assertEquals(0, countReminders());
+    }
+
+    @Test
+    void completingTaskDropsReminder() {
+        TaskEntity task = createTask(OffsetDateTime.now().plusMinutes(30));
+        taskService.changeStatus(TENANT_ID, task.getId(), new TaskStatusRequest(TaskStatus.IN_PROGRESS));
+        assertEquals(1, countReminders());
+
+        taskService.changeStatus(TENANT_ID, task.getId(), new TaskStatusRequest(TaskStatus.COMPLETED));
+
+        assertEquals(0, countReminders());
+        assertEquals(0, reminderScheduler.poll());
+    }
+
+    @Test
+    void reminderDeletedAfterClaimIsNotDelivered() {
+        TaskEntity task = createTask(OffsetDateTime.now().plusMinutes(30));
+        assertEquals(1, reminderScheduler.poll());
+
+        taskService.delete(TENANT_ID, task.getId());
+
+        assertEquals(0, reminderScheduler.fire());
+        assertTrue(notifier.reminders.isEmpty());
+    }
+
+    @Test
+    void reminderRescheduledAfterClaimWaitsForNewDueDate() {
+        TaskEntity task = createTask(OffsetDateTime.now().plusMinutes(30));
+        assertEquals(1, reminderScheduler.poll());
+
+        taskService.update(TENANT_ID, task.getId(),
+                new TaskUpdateRequest().dueDate(OffsetDateTime.now().plusHours(3)));
+
+        assertEquals(0, reminderScheduler.fire());
+        assertTrue(notifier.reminders.isEmpty());
+        assertEquals(1, countReminders());
+        assertEquals(0, reminderScheduler.poll());
+    }
+
+    @Test
+    void rowsLockedByAnotherReplicaAreSkipped() throws Exception {
+        TaskEntity locked = createTask(OffsetDateTime.now().plusMinutes(30));
+        TaskEntity free = createTask(OffsetDateTime.now().plusMinutes(40));
+        CountDownLatch lockTaken = new CountDownLatch(1);
+        CountDownLatch claimDone = new CountDownLatch(1);
+
+        Thread otherReplica = new Thread(() -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForList("select task_id from task_reminder where task_id = ? for update",
+                    locked.getId());
+            lockTaken.countDown();
+            try {
+                claimDone.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        otherReplica.start();
+        assertTrue(lockTaken.await(10, TimeUnit.SECONDS));
+
+        int claimed = reminderScheduler.poll();
+        claimDone.countDown();
+        otherReplica.join();
+
+        assertEquals(1, claimed);
+        reminderScheduler.fire();
+        assertEquals(List.of(free.getId()), notifier.reminders.stream().map(Reminder::taskId).toList());
+        assertEquals(1, reminderScheduler.poll());
+    }
+
+    private TaskEntity createTask(OffsetDateTime dueDate) {
+        return taskService.create(TENANT_ID, new TaskCreateRequest("Reminded task", "Description").dueDate(dueDate));
+    }
+
+    private int countReminders() {
+        Integer count = jdbcTemplate.queryForObject("select count(*) from task_reminder", Integer.class);
+        return count != null ? count : 0;
+    }
+
+    @TestConfiguration
+    static class RecordingNotifierConfig {
+
+        @Bean
+        @Primary
+        RecordingNotifier recordingNotifier() {
+            return new RecordingNotifier();
+        }
+    }
+
+    static class RecordingNotifier implements ReminderNotifier {
+
+        private final List<Reminder> reminders = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void notify(Reminder reminder) {
+            reminders.add(reminder);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package ru.andart.todoops.service;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import ru.andart.todoops.BaseDbTest;
+import ru.andart.todoops.repository.TaskHistoryRepository;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for creating and dropping the monthly partitions of {@code task_history} (retention 12, premake 2).
+ */
+@TestPropertySource(properties = "todoops.data-initializer.enabled=false")
+class TaskHistoryPartitionManagerTest extends BaseDbTest {
+
+    @Autowired
+    private TaskHistoryPartitionManager partitionManager;
+
+    @Autowired
+    private TaskHistoryRepository taskHistoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void upcomingMonthsArePrepared() {
+        YearMonth now = YearMonth.now();
+
+        assertEquals(0, maintain(now.plusMonths(1)));
+
+        assertEquals(List.of(now, now.plusMonths(1), now.plusMonths(2), now.plusMonths(3)),
+                taskHistoryRepository.findPartitions());
+    }
+
+    @Test
+    void expiredMonthsAreDroppedWithTheirRows() {
+        YearMonth now = YearMonth.now();
+        jdbcTemplate.update("""
+                insert into task_history (tenant_id, task_id, version, changed_at, operation, delta)
+                values (1, 1, 1, localtimestamp, 'UPDATE', '{}'), (1, 1, 2, localtimestamp + interval '1 month', 'UPDATE', '{}')
+                """);
+
+        // one year after next month: this month has expired, next month is still retained
+        assertEquals(1, maintain(now.plusMonths(13)));
+
+        assertEquals(now.plusMonths(1), taskHistoryRepository.findPartitions().get(0));
+        assertEquals(List.of(2), jdbcTemplate.queryForList("select version from task_history", Integer.class));
+    }
+
+    @SneakyThrows
+    private int maintain(YearMonth current) {
+        // the scheduled run at startup may still hold the advisory lock
+        int dropped = partitionManager.maintain(current);
+        for (int attempt = 0; dropped < 0 && attempt < 50; attempt++) {
+            Thread.sleep(100);
+            dropped = partitionManager.maintain(current);
+        }
+        return dropped;
+    }
+}
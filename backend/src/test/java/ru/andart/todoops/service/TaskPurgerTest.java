@@ -0,0 +1,100 @@
+package ru.andart.todoops.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import ru.andart.todoops.BaseDbTest;
+import ru.andart.todoops.entity.TaskEntity;
+import ru.andart.todoops.generated.model.TaskCreateRequest;
+import ru.andart.todoops.generated.model.TaskStatus;
+import ru.andart.todoops.repository.TaskRepository;
+import ru.andart.todoops.repository.TaskView;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for soft delete and the batched purge of deleted tasks (batch size 2, at most 2 batches per run).
+ */
+@TestPropertySource(properties = {
+        "todoops.data-initializer.enabled=false",
+        "todoops.purge.batch-size=2",
+        "todoops.purge.max-batches=2",
+        "todoops.purge.pause=PT0S"
+})
+class TaskPurgerTest extends BaseDbTest {
+
+    private static final long TENANT_ID = 7;
+
+    @Autowired
+    private TaskPurger taskPurger;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskStatsService taskStatsService;
+
+    @Autowired
+    private TaskCounterReconciler taskCounterReconciler;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void deletedSubtreeIsHiddenButKeptUntilPurged() {
+        TaskEntity parent = create("Parent", null);
+        TaskEntity child = create("Child", parent.getId());
+        TaskEntity other = create("Other", null);
+
+        taskService.delete(TENANT_ID, parent.getId());
+
+        assertTrue(taskRepository.findByTenantIdAndId(TENANT_ID, child.getId()).isEmpty());
+        assertEquals(List.of(other.getId()), taskService.list(TENANT_ID, 0, 10).map(TaskView::id).toList());
+        assertEquals(1L, taskStatsService.stats(TENANT_ID).counts().get(TaskStatus.NEW));
+        // the counters already account for the delete: the full count finds no drift
+        assertEquals(0, taskCounterReconciler.reconcile());
+        assertEquals(2, count("deleted_at is not null"));
+        // within the retention period
+        assertEquals(0, taskPurger.purge());
+        assertEquals(3, count("true"));
+    }
+
+    @Test
+    void expiredTasksArePurgedInBoundedBatches() {
+        for (int i = 0; i < 5; i++) {
+            create("Task " + i, null);
+        }
+        jdbcTemplate.update("update task set deleted_at = localtimestamp - interval '8 days'");
+        create("Live", null);
+
+        assertEquals(4, taskPurger.purge());
+        assertEquals(1, taskPurger.purge());
+        assertEquals(0, taskPurger.purge());
+        assertEquals(1, count("true"));
+    }
+
+    @Test
+    void liveIndexesArePartial() {
+        List<String> definitions = jdbcTemplate.queryForList(
+                "select indexdef from pg_indexes where tablename = 'task' and indexname like 'task_tenant_id_%'",
+                String.class);
+
+        assertEquals(4, definitions.size());
+        definitions.forEach(definition -> assertTrue(definition.contains("deleted_at IS NULL"), definition));
+    }
+
+    private TaskEntity create(String title, Long parentId) {
+        return taskService.create(TENANT_ID, new TaskCreateRequest().title(title).description("").parentId(parentId));
+    }
+
+    private long count(String condition) {
+        return jdbcTemplate.queryForObject("select count(*) from task where " + condition, Long.class);
+    }
+}
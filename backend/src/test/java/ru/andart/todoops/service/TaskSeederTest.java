@@ -0,0 +1,87 @@
+package ru.andart.todoops.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import ru.andart.todoops.BaseDbTest;
+import ru.andart.todoops.config.SeedProperties;
+import ru.andart.todoops.generated.model.TaskStatus;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the synthetic dataset: row count, distributions, restored indexes and consistent derived tables.
+ */
+@TestPropertySource(properties = "todoops.data-initializer.enabled=false")
+class TaskSeederTest extends BaseDbTest {
+
+    private static final long FIRST_TENANT = 1000;
+    private static final int TENANTS = 10;
+
+    @Autowired
+    private TaskSeeder taskSeeder;
+
+    @Autowired
+    private TaskCounterReconciler taskCounterReconciler;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void seedsTheConfiguredDistributions() {
+        List<String> indexes = indexes();
+
+        TaskSeeder.Report report = taskSeeder.seed(settings(20_000, 300, true));
+
+        assertEquals(20_000, report.tasks());
+        assertEquals(20_000, count("tenant_id between 1000 and 1009"));
+        assertEquals(20_000, count("true"));
+        assertEquals(0.3, count("status = 'NEW'") / 20_000.0, 0.03);
+        assertEquals(0.2, count("status = 'IN_PROGRESS'") / 20_000.0, 0.03);
+        assertEquals(0.5, count("status = 'COMPLETED'") / 20_000.0, 0.03);
+        assertEquals(0.7, count("due_date is not null") / 20_000.0, 0.03);
+        assertEquals(0, count("due_date < localtimestamp - interval '31 days'"
+                + " or due_date > localtimestamp + interval '61 days'"));
+        assertEquals(0, count("created_at > localtimestamp or length(title) not between 10 and 60"));
+        assertEquals(300, jdbcTemplate.queryForObject("select avg(length(description)) from task", Double.class), 30);
+        // skew 2: the first tenant gets sqrt(1/10) of the tasks, the last one 1 - sqrt(9/10)
+        assertTrue(count("tenant_id = 1000") > 5 * count("tenant_id = 1009"));
+
+        assertEquals(indexes, indexes());
+        assertEquals(0, taskCounterReconciler.reconcile());
+        assertEquals(count("due_date is not null"),
+                jdbcTemplate.queryForObject("select sum(task_count) from task_calendar_rollup", Long.class));
+        assertEquals(count("due_date > localtimestamp and status <> 'COMPLETED'"),
+                jdbcTemplate.queryForObject("select count(*) from task_reminder", Long.class));
+    }
+
+    @Test
+    void descriptionsStopAtTheLimit() {
+        taskSeeder.seed(settings(500, 5000, false));
+
+        assertEquals(4000, jdbcTemplate.queryForObject("select max(length(description)) from task", Integer.class));
+        assertTrue(count("length(description) = 4000") > 100);
+    }
+
+    private static SeedProperties settings(long tasks, int descriptionMeanLength, boolean deferIndexes) {
+        return new SeedProperties(false, tasks, FIRST_TENANT, TENANTS, 2,
+                Map.of(TaskStatus.NEW, 30, TaskStatus.IN_PROGRESS, 20, TaskStatus.COMPLETED, 50),
+                Duration.ofDays(365), 0.7, Duration.ofDays(30), Duration.ofDays(60),
+                descriptionMeanLength, 4000, 3, deferIndexes, 42);
+    }
+
+    private List<String> indexes() {
+        return jdbcTemplate.queryForList(
+                "select indexdef from pg_indexes where tablename = 'task' order by indexname", String.class);
+    }
+
+    private long count(String condition) {
+        return jdbcTemplate.queryForObject("select count(*) from task where " + condition, Long.class);
+    }
+}
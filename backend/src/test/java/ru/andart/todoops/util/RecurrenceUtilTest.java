@@ -0,0 +1,61 @@
+package ru.andart.todoops.util;
+
+import org.junit.jupiter.api.Test;
+import ru.andart.todoops.generated.model.RecurrenceFrequency;
+import ru.andart.todoops.repository.RecurrenceRule;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for occurrences of recurrence rules.
+ */
+class RecurrenceUtilTest {
+
+    @Test
+    void monthlyOnTheThirtyFirstFallsOnMonthEnds() {
+        RecurrenceRule rule = new RecurrenceRule(1L, RecurrenceFrequency.MONTHLY, 1,
+                OffsetDateTime.parse("2024-01-31T09:00Z"), null, ZoneOffset.UTC);
+
+        List<OffsetDateTime> occurrences = RecurrenceUtil.occurrences(rule,
+                OffsetDateTime.parse("2024-02-01T00:00Z"), OffsetDateTime.parse("2024-05-01T00:00Z"), 10);
+
+        List<OffsetDateTime> expected = List.of(OffsetDateTime.parse("2024-02-29T09:00Z"),
+                OffsetDateTime.parse("2024-03-31T09:00Z"), OffsetDateTime.parse("2024-04-30T09:00Z"));
+        assertEquals(expected, occurrences);
+        expected.forEach(at -> assertTrue(RecurrenceUtil.isOccurrence(rule, at), at::toString));
+        assertFalse(RecurrenceUtil.isOccurrence(rule, OffsetDateTime.parse("2024-02-28T09:00Z")));
+        assertFalse(RecurrenceUtil.isOccurrence(rule, OffsetDateTime.parse("2024-01-31T09:00Z")));
+    }
+
+    @Test
+    void everyOtherMonthFromAMonthEnd() {
+        RecurrenceRule rule = new RecurrenceRule(1L, RecurrenceFrequency.MONTHLY, 2,
+                OffsetDateTime.parse("2023-12-31T09:00Z"), null, ZoneOffset.UTC);
+
+        assertTrue(RecurrenceUtil.isOccurrence(rule, OffsetDateTime.parse("2024-02-29T09:00Z")));
+        assertTrue(RecurrenceUtil.isOccurrence(rule, OffsetDateTime.parse("2024-04-30T09:00Z")));
+        assertFalse(RecurrenceUtil.isOccurrence(rule, OffsetDateTime.parse("2024-03-31T09:00Z")));
+    }
+
+    @Test
+    void slotsKeepTheWallClockTimeOfTheRuleZone() {
+        // Berlin moves from UTC+1 to UTC+2 on 2024-03-31, whatever the zone of the JVM
+        RecurrenceRule rule = new RecurrenceRule(1L, RecurrenceFrequency.DAILY, 1,
+                OffsetDateTime.parse("2024-03-29T09:00+01:00"), null, ZoneId.of("Europe/Berlin"));
+
+        List<OffsetDateTime> occurrences = RecurrenceUtil.occurrences(rule,
+                OffsetDateTime.parse("2024-03-30T00:00Z"), OffsetDateTime.parse("2024-04-01T00:00Z"), 10);
+
+        assertEquals(List.of(OffsetDateTime.parse("2024-03-30T09:00+01:00"),
+                OffsetDateTime.parse("2024-03-31T09:00+02:00")), occurrences);
+        assertTrue(RecurrenceUtil.isOccurrence(rule, OffsetDateTime.parse("2024-03-31T09:00+02:00")));
+        assertFalse(RecurrenceUtil.isOccurrence(rule, OffsetDateTime.parse("2024-03-31T08:00Z")));
+    }
+}
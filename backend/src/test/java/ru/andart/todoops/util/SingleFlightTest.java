@@ -0,0 +1,166 @@
+package ru.andart.todoops.util;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for coalescing of concurrent identical calls.
+ */
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger calls = new AtomicInteger();
+    private final List<Thread> callers = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersOfOneKeyShareOneCall() {
+        SingleFlight<String, Integer> flights = new SingleFlight<>(Duration.ofSeconds(10));
+        List<Future<Integer>> results = submit(CALLERS, () -> flights.execute("page", blockingCall(42)));
+        awaitCallersParked(flights);
+        release.countDown();
+
+        for (Future<Integer> result : results) {
+            assertEquals(42, get(result));
+        }
+        assertEquals(1, calls.get());
+        assertEquals(CALLERS - 1, flights.joined());
+    }
+
+    @Test
+    void exceptionReachesEveryCallerOfTheFlight() {
+        SingleFlight<String, Integer> flights = new SingleFlight<>(Duration.ofSeconds(10));
+        IllegalArgumentException failure = new IllegalArgumentException("not found");
+        List<Future<Integer>> results = submit(CALLERS, () -> flights.execute("task", () -> {
+            blockingCall(0).get();
+            throw failure;
+        }));
+        awaitCallersParked(flights);
+        release.countDown();
+
+        for (Future<Integer> result : results) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+            assertSame(failure, e.getCause());
+        }
+        assertEquals(1, calls.get());
+        // the failed flight is gone: the next call runs again
+        assertEquals(7, flights.execute("task", () -> 7));
+    }
+
+    @Test
+    void differentKeysDoNotShare() {
+        SingleFlight<String, Integer> flights = new SingleFlight<>(Duration.ofSeconds(10));
+        Future<Integer> first = executor.submit(() -> flights.execute("a", blockingCall(1)));
+        Future<Integer> second = executor.submit(() -> flights.execute("b", blockingCall(2)));
+        release.countDown();
+
+        assertEquals(1, get(first));
+        assertEquals(2, get(second));
+        assertEquals(2, calls.get());
+        assertEquals(0, flights.joined());
+    }
+
+    @Test
+    void followerRunsTheCallItselfAfterMaxWait() {
+        SingleFlight<String, Integer> flights = new SingleFlight<>(Duration.ofMillis(50));
+        Future<Integer> leader = executor.submit(() -> flights.execute("page", blockingCall(1)));
+        awaitCalls(1);
+
+        assertEquals(2, flights.execute("page", () -> 2));
+        assertEquals(1, flights.timedOut());
+        release.countDown();
+        assertEquals(1, get(leader));
+    }
+
+    @Test
+    void forgottenFlightIsNotJoined() {
+        SingleFlight<String, Integer> flights = new SingleFlight<>(Duration.ofSeconds(10));
+        Future<Integer> stale = executor.submit(() -> flights.execute("page", blockingCall(1)));
+        awaitCalls(1);
+        flights.forget("page"::equals);
+
+        assertEquals(2, flights.execute("page", () -> 2));
+        release.countDown();
+        assertEquals(1, get(stale));
+        assertEquals(0, flights.joined());
+    }
+
+    private Supplier<Integer> blockingCall(int value) {
+        return () -> {
+            calls.incrementAndGet();
+            try {
+                assertTrue(release.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return value;
+        };
+    }
+
+    private List<Future<Integer>> submit(int count, Callable<Integer> task) {
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            futures.add(executor.submit(() -> {
+                callers.add(Thread.currentThread());
+                return task.call();
+            }));
+        }
+        return futures;
+    }
+
+    /**
+     * Waits until every caller is parked: the first in the call, the others waiting for its flight.
+     */
+    @SneakyThrows
+    private void awaitCallersParked(SingleFlight<String, Integer> flights) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (callers.size() < CALLERS
+                || !callers.stream().allMatch(thread -> thread.getState() == Thread.State.TIMED_WAITING)) {
+            assertTrue(System.nanoTime() < deadline);
+            Thread.sleep(5);
+        }
+        assertEquals(1, calls.get());
+        assertEquals(0, flights.joined());
+    }
+
+    @SneakyThrows
+    private void awaitCalls(int count) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (calls.get() < count) {
+            assertTrue(System.nanoTime() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    @SneakyThrows
+    private static <T> T get(Future<T> future) {
+        return future.get(10, TimeUnit.SECONDS);
+    }
+}
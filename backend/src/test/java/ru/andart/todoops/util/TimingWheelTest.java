@@ -0,0 +1,63 @@
+package ru.andart.todoops.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the hashed timing wheel.
+ */
+class TimingWheelTest {
+
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Test
+    void itemFiresOnceItsTickPassed() {
+        TimingWheel<String> wheel = new TimingWheel<>(Duration.ofSeconds(1), 10, START);
+        wheel.schedule(START.plusMillis(2500), "a");
+
+        assertTrue(wheel.advance(START.plusMillis(2900)).isEmpty());
+        assertEquals(List.of("a"), wheel.advance(START.plusSeconds(3)));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void overdueItemFiresOnNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(Duration.ofSeconds(1), 10, START);
+        wheel.advance(START.plusSeconds(5));
+        wheel.schedule(START.minusSeconds(30), "late");
+
+        assertEquals(List.of("late"), wheel.advance(START.plusSeconds(5)));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void itemBeyondOneRotationWaitsForItsRound() {
+        TimingWheel<String> wheel = new TimingWheel<>(Duration.ofSeconds(1), 10, START);
+        wheel.schedule(START.plusSeconds(3), "near");
+        wheel.schedule(START.plusSeconds(13), "far");
+
+        assertEquals(List.of("near"), wheel.advance(START.plusSeconds(5)));
+        assertTrue(wheel.advance(START.plusSeconds(12)).isEmpty());
+        assertEquals(List.of("far"), wheel.advance(START.plusSeconds(13)));
+    }
+
+    @Test
+    void longPauseFiresEverythingDue() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(Duration.ofSeconds(1), 10, START);
+        for (int i = 1; i <= 25; i++) {
+            wheel.schedule(START.plusSeconds(i), i);
+        }
+        wheel.schedule(START.plusSeconds(100), 100);
+
+        List<Integer> fired = wheel.advance(START.plusSeconds(60));
+
+        assertEquals(25, fired.size());
+        assertEquals(1, wheel.size());
+    }
+}